@@ -163,6 +163,18 @@ public interface Cache {
     throw new UnsupportedCacheMethodException("Method only implemented for StoreType.SQL");
   }
 
+  /**
+   * Returns a version per type that increases whenever items of that type are written with changed
+   * content or evicted. Comparing versions allows callers to detect that nothing has changed without
+   * reading any items. Types whose items expire can change without being written, so they are reported
+   * with a null version.
+   *
+   * @return the version keyed by type, or null if the backing store does not track versions
+   */
+  default Map<String, Long> getTypeVersions() {
+    return null;
+  }
+
   /**
    * Get backing store type for Cache implementation
    *
@@ -17,18 +17,55 @@
 package com.netflix.spinnaker.cats.cache;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * A cache that provides a unified view of multiples, merging items from each
  * cache together.
+ *
+ * If an executor is supplied, reads are issued to all member caches concurrently
+ * and the results are merged in member order once every member has answered.
  */
 public class CompositeCache implements Cache {
 
+    public interface CacheMetrics {
+        default void query(String member, String operation, String type, long durationNanos) {
+            //noop
+        }
+
+        class NOOP implements CacheMetrics {}
+    }
+
     private final Collection<? extends Cache> caches;
+    private final List<Member> members;
+    private final ExecutorService executor;
+    private final CacheMetrics cacheMetrics;
 
     public CompositeCache(Collection<? extends Cache> caches) {
         this.caches = caches;
+        this.members = new ArrayList<>(caches.size());
+        int index = 0;
+        for (Cache cache : caches) {
+            StoreType storeType = cache.storeType();
+            String prefix = storeType == null ? "member" : storeType.name().toLowerCase();
+            members.add(new Member(prefix + "-" + index++, cache));
+        }
+        this.executor = null;
+        this.cacheMetrics = new CacheMetrics.NOOP();
+    }
+
+    public CompositeCache(Map<String, ? extends Cache> namedCaches, ExecutorService executor, CacheMetrics cacheMetrics) {
+        this.caches = new ArrayList<>(namedCaches.values());
+        this.members = namedCaches.entrySet().stream()
+          .map(e -> new Member(e.getKey(), e.getValue()))
+          .collect(Collectors.toList());
+        this.executor = executor;
+        this.cacheMetrics = cacheMetrics == null ? new CacheMetrics.NOOP() : cacheMetrics;
     }
 
     public Set<StoreType> getStoreTypes() {
@@ -44,9 +81,13 @@ public class CompositeCache implements Cache {
 
     @Override
     public CacheData get(String type, String id, CacheFilter cacheFilter) {
-        Collection<CacheData> elements = new ArrayList<>(caches.size());
-        for (Cache cache : caches) {
-            CacheData element = cache.get(type, id, cacheFilter);
+        if (members.size() == 1) {
+            // nothing to merge with, hand back the member's answer directly
+            return query("get", type, c -> c.get(type, id, cacheFilter)).get(0);
+        }
+
+        Collection<CacheData> elements = new ArrayList<>(members.size());
+        for (CacheData element : query("get", type, c -> c.get(type, id, cacheFilter))) {
             if (element != null) {
                 elements.add(element);
             }
@@ -65,19 +106,15 @@ public class CompositeCache implements Cache {
 
     @Override
     public Collection<CacheData> getAll(String type, CacheFilter cacheFilter) {
-        Map<String, CacheData> allItems = new HashMap<>();
-        for (Cache cache : caches) {
-            allItems = merge(allItems, cache.getAll(type, cacheFilter));
-        }
-        return allItems.values();
+        return mergeAll(query("getAll", type, c -> c.getAll(type, cacheFilter)), 0);
     }
 
     @Override
     public Collection<String> existingIdentifiers(String type, Collection<String> ids) {
         HashSet<String> identifiers = new HashSet<>(ids.size());
         HashSet<String> remainingIds = new HashSet<>(ids);
-        for (Cache cache : caches) {
-          Collection<String> existing = cache.existingIdentifiers(type, remainingIds);
+        for (Member member : members) {
+          Collection<String> existing = member.query(cacheMetrics, "existingIdentifiers", type, c -> c.existingIdentifiers(type, remainingIds));
           identifiers.addAll(existing);
 
           //minimize redis exists calls - if we've seen the identifier in at least
@@ -92,20 +129,12 @@ public class CompositeCache implements Cache {
 
     @Override
     public Collection<String> getIdentifiers(String type) {
-        HashSet<String> identifiers = new HashSet<>();
-        for (Cache cache : caches) {
-            identifiers.addAll(cache.getIdentifiers(type));
-        }
-        return identifiers;
+        return union(query("getIdentifiers", type, c -> c.getIdentifiers(type)));
     }
 
     @Override
     public Collection<String> filterIdentifiers(String type, String glob) {
-        HashSet<String> identifiers = new HashSet<>();
-        for (Cache cache : caches) {
-            identifiers.addAll(cache.filterIdentifiers(type, glob));
-        }
-        return identifiers;
+        return union(query("filterIdentifiers", type, c -> c.filterIdentifiers(type, glob)));
     }
 
     @Override
@@ -115,11 +144,7 @@ public class CompositeCache implements Cache {
 
     @Override
     public Collection<CacheData> getAll(String type, Collection<String> identifiers, CacheFilter cacheFilter) {
-        Map<String, CacheData> allItems = new HashMap<>();
-        for (Cache cache : caches) {
-            allItems = merge(allItems, cache.getAll(type, identifiers, cacheFilter));
-        }
-        return allItems.values();
+        return mergeAll(query("getAll", type, c -> c.getAll(type, identifiers, cacheFilter)), identifiers.size());
     }
 
     @Override
@@ -130,8 +155,8 @@ public class CompositeCache implements Cache {
     @Override
     public Map<String, Collection<CacheData>> getAllByApplication(String type, String application) {
         Map<String, Collection<CacheData>> allItems = new HashMap<>();
-        for (Cache cache : caches) {
-            allItems.putAll(cache.getAllByApplication(type, application));
+        for (Map<String, Collection<CacheData>> items : query("getAllByApplication", type, c -> c.getAllByApplication(type, application))) {
+            allItems.putAll(items);
         }
         return allItems;
     }
@@ -141,8 +166,8 @@ public class CompositeCache implements Cache {
                                                                   String application,
                                                                   CacheFilter filter) {
         Map<String, Collection<CacheData>> allItems = new HashMap<>();
-        for (Cache cache : caches) {
-            allItems.putAll(cache.getAllByApplication(type, application, filter));
+        for (Map<String, Collection<CacheData>> items : query("getAllByApplication", type, c -> c.getAllByApplication(type, application, filter))) {
+            allItems.putAll(items);
         }
         return allItems;
     }
@@ -152,12 +177,124 @@ public class CompositeCache implements Cache {
                                                                   String application,
                                                                   Map<String, CacheFilter> cacheFilters) {
         Map<String, Collection<CacheData>> allItems = new HashMap<>();
-        for (Cache cache : caches) {
-            allItems.putAll(cache.getAllByApplication(types, application, cacheFilters));
+        String type = String.join(",", types);
+        for (Map<String, Collection<CacheData>> items : query("getAllByApplication", type, c -> c.getAllByApplication(types, application, cacheFilters))) {
+            allItems.putAll(items);
         }
         return allItems;
     }
 
+    @Override
+    public Map<String, Long> getTypeVersions() {
+        Map<String, Long> versions = new HashMap<>();
+        for (Cache cache : caches) {
+            Map<String, Long> cacheVersions = cache.getTypeVersions();
+            if (cacheVersions == null) {
+                // versions are only meaningful if every underlying cache tracks them
+                return null;
+            }
+            cacheVersions.forEach((type, version) -> {
+                if (version == null || (versions.containsKey(type) && versions.get(type) == null)) {
+                    // a type that is unversioned in any cache is unversioned overall
+                    versions.put(type, null);
+                } else {
+                    versions.merge(type, version, Long::sum);
+                }
+            });
+        }
+        return versions;
+    }
+
+    /**
+     * Runs the operation against every member cache, concurrently if an executor is available.
+     *
+     * @return the result of each member, in member order
+     */
+    private <T> List<T> query(String operation, String type, Function<Cache, T> fn) {
+        if (executor == null || members.size() == 1) {
+            List<T> results = new ArrayList<>(members.size());
+            for (Member member : members) {
+                results.add(member.query(cacheMetrics, operation, type, fn));
+            }
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(members.size());
+        for (Member member : members) {
+            Callable<T> task = () -> member.query(cacheMetrics, operation, type, fn);
+            futures.add(executor.submit(task));
+        }
+
+        List<T> results = new ArrayList<>(members.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying " + type, e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to query " + type, e.getCause());
+        }
+        return results;
+    }
+
+    private Collection<CacheData> mergeAll(List<Collection<CacheData>> results, int expectedSize) {
+        int size = expectedSize;
+        if (size == 0) {
+            for (Collection<CacheData> result : results) {
+                size = Math.max(size, result.size());
+            }
+        }
+
+        Map<String, CacheData> allItems = new HashMap<>(capacity(size));
+        for (Collection<CacheData> result : results) {
+            allItems = merge(allItems, result);
+        }
+        return allItems.values();
+    }
+
+    private static Collection<String> union(List<Collection<String>> results) {
+        int size = 0;
+        for (Collection<String> result : results) {
+            size += result.size();
+        }
+
+        HashSet<String> identifiers = new HashSet<>(capacity(size));
+        for (Collection<String> result : results) {
+            identifiers.addAll(result);
+        }
+        return identifiers;
+    }
+
+    private static int capacity(int expectedSize) {
+        return (int) (expectedSize / 0.75f) + 1;
+    }
+
+    private static class Member {
+        private final String name;
+        private final Cache cache;
+
+        Member(String name, Cache cache) {
+            this.name = name;
+            this.cache = cache;
+        }
+
+        <T> T query(CacheMetrics cacheMetrics, String operation, String type, Function<Cache, T> fn) {
+            long start = System.nanoTime();
+            try {
+                return fn.apply(cache);
+            } finally {
+                cacheMetrics.query(name, operation, type, System.nanoTime() - start);
+            }
+        }
+    }
+
     Map<String, CacheData> merge(Map<String, CacheData> existingItems, Collection<CacheData> results) {
         final Map<String, CacheData> allItems = existingItems == null ? new HashMap<String, CacheData>() : existingItems;
         for (CacheData item : results) {
@@ -124,6 +124,11 @@ public class DefaultProviderCache implements ProviderCache {
     return identifiers;
   }
 
+  @Override
+  public Map<String, Long> getTypeVersions() {
+    return backingStore.getTypeVersions();
+  }
+
   @Override
   public void putCacheResult(String sourceAgentType, Collection<String> authoritativeTypes, CacheResult cacheResult) {
     Set<String> allTypes = new HashSet<>(cacheResult.getCacheResults().keySet());
@@ -47,4 +47,32 @@ class CompositeCacheSpec extends CacheSpec {
         bar.attributes.c1Att == 'c1washere'
         bar.attributes.c2Att == 'c2washere'
     }
+
+    def "type versions are summed across caches and unavailable if any cache does not track them"() {
+        given:
+        def versioned1 = Mock(Cache) {
+            getTypeVersions() >> [foo: 1L, bar: 2L]
+        }
+        def versioned2 = Mock(Cache) {
+            getTypeVersions() >> [foo: 3L]
+        }
+
+        expect:
+        new CompositeCache([versioned1, versioned2]).getTypeVersions() == [foo: 4L, bar: 2L]
+        new CompositeCache([versioned1, c1]).getTypeVersions() == null
+    }
+
+    def "a type that is unversioned in any cache is unversioned overall"() {
+        given:
+        def versioned = Mock(Cache) {
+            getTypeVersions() >> [foo: 1L, bar: 2L]
+        }
+        def unversioned = Mock(Cache) {
+            getTypeVersions() >> [foo: null]
+        }
+
+        expect:
+        new CompositeCache([versioned, unversioned]).getTypeVersions() == [foo: null, bar: 2L]
+        new CompositeCache([unversioned, versioned]).getTypeVersions() == [foo: null, bar: 2L]
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.cats.cache
+
+import com.netflix.spinnaker.cats.mem.InMemoryCache
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+class ConcurrentCompositeCacheSpec extends CacheSpec {
+
+    @Shared
+    @AutoCleanup("shutdownNow")
+    ExecutorService executor = Executors.newFixedThreadPool(2)
+
+    WriteableCache c1
+    WriteableCache c2
+    CompositeCache.CacheMetrics cacheMetrics = Mock()
+
+    @Override
+    Cache getSubject() {
+        c1 = new InMemoryCache()
+        c2 = new InMemoryCache()
+        def caches = new LinkedHashMap<String, Cache>()
+        caches.c1 = c1
+        caches.c2 = c2
+        new CompositeCache(caches, executor, cacheMetrics)
+    }
+
+    @Override
+    void populateOne(String type, String id, CacheData cacheData = new DefaultCacheData(id, [id: id], [:])) {
+        c1.merge(type, cacheData)
+    }
+
+    def "attributes are merged from both caches in member order"() {
+        setup:
+        c1.merge('foo', createData('bar', [c1Att: 'c1washere', shared: 'c1']))
+        c2.merge('foo', createData('bar', [c2Att: 'c2washere', shared: 'c2']))
+
+        when:
+        def bar = cache.get('foo', 'bar')
+
+        then:
+        bar.attributes.c1Att == 'c1washere'
+        bar.attributes.c2Att == 'c2washere'
+        bar.attributes.shared == 'c2'
+    }
+
+    def "records query latency for each member cache"() {
+        when:
+        cache.getAll('foo', ['bar'])
+
+        then:
+        1 * cacheMetrics.query('c1', 'getAll', 'foo', _)
+        1 * cacheMetrics.query('c2', 'getAll', 'foo', _)
+    }
+
+    def "propagates member failures"() {
+        setup:
+        def failing = Mock(Cache) {
+            getIdentifiers('foo') >> { throw new IllegalStateException("boom") }
+        }
+        def composite = new CompositeCache([c1: c1, failing: failing], executor, null)
+
+        when:
+        composite.getIdentifiers('foo')
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
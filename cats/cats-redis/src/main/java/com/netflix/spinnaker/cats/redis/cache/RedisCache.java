@@ -155,6 +155,13 @@ public class RedisCache extends AbstractRedisCache {
             hmsetOperations.incrementAndGet();
           }
         }
+
+        pipeline.hincrBy(versionsId(), type, 1);
+        if (!ttlSecondsByKey.isEmpty()) {
+          // expiring items change without a write, so versions of their type cannot be relied upon
+          pipeline.sadd(unversionedTypesId(), type);
+          saddOperations.incrementAndGet();
+        }
         pipeline.sync();
         pipelineOperations.incrementAndGet();
       });
@@ -214,6 +221,9 @@ public class RedisCache extends AbstractRedisCache {
         sremOperations.incrementAndGet();
       }
 
+      if (!identifiers.isEmpty()) {
+        pipeline.hincrBy(versionsId(), type, 1);
+      }
       pipeline.sync();
     });
 
@@ -229,6 +239,16 @@ public class RedisCache extends AbstractRedisCache {
     );
   }
 
+  @Override
+  public Map<String, Long> getTypeVersions() {
+    Map<String, Long> typeVersions = new HashMap<>();
+    redisClientDelegate.withCommandsClient(c -> {
+      c.hgetAll(versionsId()).forEach((type, version) -> typeVersions.put(type, Long.valueOf(version)));
+      c.smembers(unversionedTypesId()).forEach(type -> typeVersions.put(type, null));
+    });
+    return typeVersions;
+  }
+
   @Override
   protected Collection<CacheData> getItems(String type, List<String> ids, List<String> knownRels) {
     final int singleResultSize = knownRels.size() + 1;
@@ -426,6 +446,14 @@ public class RedisCache extends AbstractRedisCache {
     return hashes;
   }
 
+  private String versionsId() {
+    return String.format("%s:versions", prefix);
+  }
+
+  private String unversionedTypesId() {
+    return String.format("%s:versions:unversioned", prefix);
+  }
+
   private String hashesId(String type) {
     return String.format("%s:%s:hashes", prefix, type);
   }
@@ -181,6 +181,48 @@ class RedisCacheSpec extends WriteableCacheSpec {
     1 * cacheMetrics.merge('test', 'foo', 1, 0, 0, 1, 0, 0, 0, 0, 0, 0)
   }
 
+  def 'should only increment type versions when items change or are evicted'() {
+    setup:
+    def data = createData('blerp', [a: 'b'])
+
+    expect:
+    cache.getTypeVersions() == [:]
+
+    when:
+    ((WriteableCache) cache).merge('foo', data)
+
+    then:
+    cache.getTypeVersions() == [foo: 1L]
+
+    when: // hash matches, nothing is written
+    ((WriteableCache) cache).merge('foo', data)
+
+    then:
+    cache.getTypeVersions() == [foo: 1L]
+
+    when:
+    ((WriteableCache) cache).merge('foo', createData('blerp', [a: 'c']))
+    ((WriteableCache) cache).merge('bar', data)
+
+    then:
+    cache.getTypeVersions() == [foo: 2L, bar: 1L]
+
+    when:
+    ((WriteableCache) cache).evict('foo', 'blerp')
+
+    then:
+    cache.getTypeVersions() == [foo: 3L, bar: 1L]
+  }
+
+  def 'should not version types whose items expire'() {
+    when:
+    ((WriteableCache) cache).merge('foo', createData('blerp', [a: 'b']))
+    ((WriteableCache) cache).merge('bar', new DefaultCacheData('blerp', 60, [a: 'b'], [:]))
+
+    then:
+    cache.getTypeVersions() == [foo: 1L, bar: null]
+  }
+
   def 'should merge #mergeCount items at a time'() {
     setup:
     def mapper = new ObjectMapper();
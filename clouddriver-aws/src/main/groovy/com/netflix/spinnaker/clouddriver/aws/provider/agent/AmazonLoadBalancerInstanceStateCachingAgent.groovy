@@ -16,10 +16,14 @@
 
 package com.netflix.spinnaker.clouddriver.aws.provider.agent
 
+import com.amazonaws.services.elasticloadbalancing.AmazonElasticLoadBalancing
 import com.amazonaws.services.elasticloadbalancing.model.DescribeInstanceHealthRequest
+import com.amazonaws.services.elasticloadbalancing.model.InstanceState
 import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerNotFoundException
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.SerializationFeature
+import com.netflix.spectator.api.Id
+import com.netflix.spectator.api.Registry
 import com.netflix.spinnaker.cats.agent.AccountAware
 import com.netflix.spinnaker.cats.agent.AgentDataType
 import com.netflix.spinnaker.cats.agent.CacheResult
@@ -28,6 +32,7 @@ import com.netflix.spinnaker.cats.agent.DefaultCacheResult
 import com.netflix.spinnaker.cats.cache.Cache
 import com.netflix.spinnaker.cats.cache.CacheData
 import com.netflix.spinnaker.cats.cache.DefaultCacheData
+import com.netflix.spinnaker.cats.cache.RelationshipCacheFilter
 import com.netflix.spinnaker.cats.provider.ProviderCache
 import com.netflix.spinnaker.clouddriver.aws.security.AmazonClientProvider
 import com.netflix.spinnaker.clouddriver.aws.security.NetflixAmazonCredentials
@@ -37,34 +42,56 @@ import com.netflix.spinnaker.clouddriver.aws.model.edda.LoadBalancerInstance
 import com.netflix.spinnaker.clouddriver.aws.model.edda.LoadBalancerInstanceState
 import com.netflix.spinnaker.clouddriver.aws.provider.AwsProvider
 import com.netflix.spinnaker.clouddriver.core.provider.agent.HealthProvidingCachingAgent
+import com.netflix.spinnaker.clouddriver.helpers.FutureHelper
 import groovy.util.logging.Slf4j
 import org.springframework.context.ApplicationContext
 
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.HEALTH
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.INSTANCES
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.LOAD_BALANCERS
 
 @Slf4j
 class AmazonLoadBalancerInstanceStateCachingAgent implements CachingAgent, HealthProvidingCachingAgent, AccountAware {
+  // requests are also subject to the account/region rate limiter of the load balancing client
+  private static final int MAX_CONCURRENT_REQUESTS = 8
+
   final AmazonClientProvider amazonClientProvider
   final NetflixAmazonCredentials account
   final String region
   final ObjectMapper objectMapper
   final ApplicationContext ctx
+  final Registry registry
+
+  // shared by all load balancer instance state caching agents
+  final ExecutorService healthExecutor
 
   private Cache cacheView
   final static String healthId = "aws-load-balancer-instance-health"
 
+  private final Id describeCallsId
+  private final Id unchangedId
+
+  // health from the previous run by load balancer key, reused for load balancers whose instance states are unchanged
+  private volatile Map<String, LoadBalancerHealth> previousHealth = [:]
 
   AmazonLoadBalancerInstanceStateCachingAgent(AmazonClientProvider amazonClientProvider,
                                               NetflixAmazonCredentials account, String region,
                                               ObjectMapper objectMapper,
-                                              ApplicationContext ctx) {
+                                              ApplicationContext ctx,
+                                              Registry registry,
+                                              ExecutorService healthExecutor) {
     this.amazonClientProvider = amazonClientProvider
     this.account = account
     this.region = region
     this.objectMapper = objectMapper.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
     this.ctx = ctx
+    this.registry = registry
+    this.healthExecutor = healthExecutor
+    this.describeCallsId = registry.createId("aws.loadBalancerInstanceState.describeInstanceHealth", [account: account.name, region: region])
+    this.unchangedId = registry.createId("aws.loadBalancerInstanceState.unchanged", [account: account.name, region: region])
   }
 
   @Override
@@ -101,51 +128,116 @@ class AmazonLoadBalancerInstanceStateCachingAgent implements CachingAgent, Healt
     def loadBalancerKeys =
       getCacheView().filterIdentifiers(LOAD_BALANCERS.ns, allVpcsGlob) + getCacheView().filterIdentifiers(LOAD_BALANCERS.ns, nonVpcGlob)
 
-    Collection<CacheData> lbHealths = []
-    Collection<CacheData> instances = []
-    for (loadBalancerKey in loadBalancerKeys) {
-      try {
-        Map<String, String> idObj = Keys.parse(loadBalancerKey)
-        def lbName = idObj.loadBalancer
-        if (idObj.loadBalancerType && idObj.loadBalancerType != 'classic')
-          continue
-
-        def result = loadBalancing.describeInstanceHealth(new DescribeInstanceHealthRequest(lbName))
-        def loadBalancerInstances = []
-        for (instanceState in result.instanceStates) {
-          def loadBalancerInstance = new LoadBalancerInstance(instanceState.instanceId, instanceState.state, instanceState.reasonCode, instanceState.description)
-          loadBalancerInstances << loadBalancerInstance
-        }
-        def loadBalancerInstanceState = new LoadBalancerInstanceState(name: lbName, instances: loadBalancerInstances)
-        def ilbs = InstanceLoadBalancers.fromLoadBalancerInstanceState([loadBalancerInstanceState])
-
-        for (InstanceLoadBalancers ilb in ilbs) {
-          String instanceId = Keys.getInstanceKey(ilb.instanceId, account.name, region)
-          String healthId = Keys.getInstanceHealthKey(ilb.instanceId, account.name, region, healthId)
+    List<String> classicLoadBalancerKeys = loadBalancerKeys.findAll { String loadBalancerKey ->
+      String loadBalancerType = Keys.parse(loadBalancerKey).loadBalancerType
+      return !loadBalancerType || loadBalancerType == 'classic'
+    }
 
-          Map<String, Object> attributes = objectMapper.convertValue(ilb, ATTRIBUTES)
-          if (idObj.containsKey("application")) {
-            attributes.put("application", idObj.get("application"))
-          }
+    // there is no health to describe for load balancers without registered instances
+    Set<String> loadBalancersWithInstances = getCacheView()
+      .getAll(LOAD_BALANCERS.ns, classicLoadBalancerKeys, RelationshipCacheFilter.include(INSTANCES.ns))
+      .findAll { it.relationships[INSTANCES.ns] }
+      .collect { it.id } as Set
+    List<String> describedLoadBalancerKeys = classicLoadBalancerKeys.findAll { loadBalancersWithInstances.contains(it) }
+    registry.counter(describeCallsId.withTag("result", "skipped")).increment(classicLoadBalancerKeys.size() - describedLoadBalancerKeys.size())
 
-          Map<String, Collection<String>> relationships = [(INSTANCES.ns): [instanceId]]
-          lbHealths.add(new DefaultCacheData(healthId, attributes, relationships))
-          instances.add(new DefaultCacheData(instanceId, [:], [(HEALTH.ns): [healthId]]))
-        }
-      } catch (LoadBalancerNotFoundException e) {
-        // this is acceptable since we may be waiting for the caches to catch up
+    Map<String, LoadBalancerHealth> currentHealth = [:]
+    Collection<CacheData> lbHealths = []
+    Collection<CacheData> instances = []
+    for (LoadBalancerHealth health : describeInstanceHealth(loadBalancing, describedLoadBalancerKeys)) {
+      if (health) {
+        currentHealth[health.loadBalancerKey] = health
+        lbHealths.addAll(health.healths)
+        instances.addAll(health.instances)
       }
     }
+    previousHealth = currentHealth
+
     log.info("Caching ${lbHealths.size()} items in ${agentType}")
     new DefaultCacheResult(
       (HEALTH.ns): lbHealths,
       (INSTANCES.ns): instances)
   }
 
+  /**
+   * Describes the health of each load balancer with up to MAX_CONCURRENT_REQUESTS requests at a time, returning
+   * results in the order of loadBalancerKeys (null for load balancers that no longer exist).
+   */
+  private List<LoadBalancerHealth> describeInstanceHealth(AmazonElasticLoadBalancing loadBalancing, List<String> loadBalancerKeys) {
+    LoadBalancerHealth[] results = new LoadBalancerHealth[loadBalancerKeys.size()]
+    int workers = Math.min(loadBalancerKeys.size(), MAX_CONCURRENT_REQUESTS)
+    List<Future<?>> futures = (0..<workers).collect { int worker ->
+      healthExecutor.submit({
+        for (int i = worker; i < loadBalancerKeys.size(); i += workers) {
+          results[i] = describeInstanceHealth(loadBalancing, loadBalancerKeys[i])
+        }
+      } as Runnable)
+    }
+
+    try {
+      futures.each { FutureHelper.getResult(it) }
+    } finally {
+      futures*.cancel(true)
+    }
+    return results as List
+  }
+
+  private LoadBalancerHealth describeInstanceHealth(AmazonElasticLoadBalancing loadBalancing, String loadBalancerKey) {
+    Map<String, String> idObj = Keys.parse(loadBalancerKey)
+    def lbName = idObj.loadBalancer
+
+    List<InstanceState> instanceStates
+    try {
+      instanceStates = loadBalancing.describeInstanceHealth(new DescribeInstanceHealthRequest(lbName)).instanceStates
+    } catch (LoadBalancerNotFoundException e) {
+      // this is acceptable since we may be waiting for the caches to catch up
+      return null
+    } finally {
+      registry.counter(describeCallsId.withTag("result", "requested")).increment()
+    }
+
+    LoadBalancerHealth previous = previousHealth[loadBalancerKey]
+    if (previous && previous.instanceStates == instanceStates) {
+      registry.counter(unchangedId).increment()
+      return previous
+    }
+
+    def loadBalancerInstances = []
+    for (instanceState in instanceStates) {
+      def loadBalancerInstance = new LoadBalancerInstance(instanceState.instanceId, instanceState.state, instanceState.reasonCode, instanceState.description)
+      loadBalancerInstances << loadBalancerInstance
+    }
+    def loadBalancerInstanceState = new LoadBalancerInstanceState(name: lbName, instances: loadBalancerInstances)
+    def ilbs = InstanceLoadBalancers.fromLoadBalancerInstanceState([loadBalancerInstanceState])
+
+    def health = new LoadBalancerHealth(loadBalancerKey: loadBalancerKey, instanceStates: instanceStates)
+    for (InstanceLoadBalancers ilb in ilbs) {
+      String instanceId = Keys.getInstanceKey(ilb.instanceId, account.name, region)
+      String healthId = Keys.getInstanceHealthKey(ilb.instanceId, account.name, region, healthId)
+
+      Map<String, Object> attributes = objectMapper.convertValue(ilb, ATTRIBUTES)
+      if (idObj.containsKey("application")) {
+        attributes.put("application", idObj.get("application"))
+      }
+
+      Map<String, Collection<String>> relationships = [(INSTANCES.ns): [instanceId]]
+      health.healths.add(new DefaultCacheData(healthId, attributes, relationships))
+      health.instances.add(new DefaultCacheData(instanceId, [:], [(HEALTH.ns): [healthId]]))
+    }
+    return health
+  }
+
   private Cache getCacheView() {
     if (!this.cacheView) {
       this.cacheView = ctx.getBean(Cache)
     }
     this.cacheView
   }
+
+  private static class LoadBalancerHealth {
+    String loadBalancerKey
+    List<InstanceState> instanceStates
+    final Collection<CacheData> healths = []
+    final Collection<CacheData> instances = []
+  }
 }
@@ -37,6 +37,7 @@ import com.fasterxml.jackson.core.type.TypeReference
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.SerializationFeature
 import com.netflix.frigga.Names
+import com.netflix.spectator.api.Id
 import com.netflix.spectator.api.Registry
 import com.netflix.spinnaker.cats.agent.AccountAware
 import com.netflix.spinnaker.cats.agent.AgentDataType
@@ -51,10 +52,16 @@ import com.netflix.spinnaker.clouddriver.aws.security.EddaTimeoutConfig
 import com.netflix.spinnaker.clouddriver.aws.security.NetflixAmazonCredentials
 import com.netflix.spinnaker.clouddriver.cache.OnDemandAgent
 import com.netflix.spinnaker.clouddriver.cache.OnDemandMetricsSupport
+import com.netflix.spinnaker.clouddriver.helpers.FutureHelper
 import com.netflix.spinnaker.clouddriver.aws.data.Keys
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
 import static com.netflix.spinnaker.cats.agent.AgentDataType.Authority.*
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.*
 import com.netflix.spinnaker.cats.agent.CacheResult
@@ -85,7 +92,11 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
   final Registry registry
   final EddaTimeoutConfig eddaTimeoutConfig
 
+  // shared by all cluster caching agents; the AWS calls made from it are still subject to each account/region's rate limiter
+  final ExecutorService loadExecutor
+
   final OnDemandMetricsSupport metricsSupport
+  final Id phaseTimerId
 
   ClusterCachingAgent(AmazonCloudProvider amazonCloudProvider,
                       AmazonClientProvider amazonClientProvider,
@@ -93,7 +104,8 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
                       String region,
                       ObjectMapper objectMapper,
                       Registry registry,
-                      EddaTimeoutConfig eddaTimeoutConfig) {
+                      EddaTimeoutConfig eddaTimeoutConfig,
+                      ExecutorService loadExecutor) {
     this.amazonCloudProvider = amazonCloudProvider
     this.amazonClientProvider = amazonClientProvider
     this.account = account
@@ -101,7 +113,9 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
     this.objectMapper = objectMapper.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
     this.registry = registry
     this.eddaTimeoutConfig = eddaTimeoutConfig
+    this.loadExecutor = loadExecutor
     this.metricsSupport = new OnDemandMetricsSupport(registry, this, "${amazonCloudProvider.id}:${OnDemandAgent.OnDemandType.ServerGroup}")
+    this.phaseTimerId = registry.createId("aws.clusterCachingAgent.phaseTime", [account: account.name, region: region])
   }
 
   @Override
@@ -278,12 +292,21 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
     Long start = account.eddaEnabled ? null : System.currentTimeMillis()
 
     List<AutoScalingGroup> asgs = []
+    List<Future<Map<String, Map<String, Object>>>> conversions = []
     while (true) {
-      def resp = clients.autoScaling.describeAutoScalingGroups(request)
+      def resp = timed("describeAutoScalingGroups") { clients.autoScaling.describeAutoScalingGroups(request) }
       if (account.eddaEnabled) {
         start = amazonClientProvider.lastModified ?: 0
       }
-      asgs.addAll(resp.autoScalingGroups)
+
+      // A non-null status indicates that the ASG is in the process of being destroyed (no sense indexing)
+      List<AutoScalingGroup> page = resp.autoScalingGroups.findAll { it.status == null }
+      asgs.addAll(page)
+
+      // convert each page while the next one is being fetched
+      conversions << submit("convertAutoScalingGroups") {
+        page.collectEntries { [(it.autoScalingGroupName): objectMapper.convertValue(it, ATTRIBUTES)] }
+      }
       if (resp.nextToken) {
         request.withNextToken(resp.nextToken)
       } else {
@@ -298,17 +321,19 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
       start = System.currentTimeMillis()
     }
 
-    // A non-null status indicates that the ASG is in the process of being destroyed (no sense indexing)
-    asgs = asgs.findAll { it.status == null }
+    Map<String, Map<String, Object>> asgAttributes = [:]
+    conversions.each { asgAttributes.putAll(FutureHelper.getResult(it)) }
 
-    new AutoScalingGroupsResults(start: start, asgs: asgs)
+    new AutoScalingGroupsResults(start: start, asgs: asgs, asgAttributes: asgAttributes)
   }
 
-  private Map<String, List<Map>> loadScalingPolicies(AmazonClients clients) {
-    loadScalingPolicies(clients, null)
+  private Map<String, List<Map>> loadScalingPolicies(AmazonClients clients, String asgName) {
+    List<ScalingPolicy> scalingPolicies = describeScalingPolicies(clients, asgName)
+    def alarmNames = scalingPolicies.findResults { it.alarms.findResults { it.alarmName } }.flatten().unique()
+    buildScalingPolicies(scalingPolicies, alarmNames ? loadAlarms(clients, alarmNames) : [:])
   }
 
-  private Map<String, List<Map>> loadScalingPolicies(AmazonClients clients, String asgName) {
+  private List<ScalingPolicy> describeScalingPolicies(AmazonClients clients, String asgName) {
     log.debug("Describing scaling policies in ${agentType}")
 
     def request = new DescribePoliciesRequest()
@@ -325,16 +350,10 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
         break
       }
     }
-    def alarmNames = []
-    if (asgName) {
-      alarmNames = scalingPolicies.findResults { it.alarms.findResults { it.alarmName } }.flatten().unique()
-    }
-
-    Map<String, Map> alarms = [:]
-    if (!asgName || alarmNames) {
-      alarms = loadAlarms(clients, alarmNames)
-    }
+    scalingPolicies
+  }
 
+  private Map<String, List<Map>> buildScalingPolicies(List<ScalingPolicy> scalingPolicies, Map<String, Map> alarms) {
     scalingPolicies
       .findResults { buildScalingPolicy(it, alarms) }
       .groupBy { it.autoScalingGroupName }
@@ -396,9 +415,26 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
 
     def clients = new AmazonClients(amazonClientProvider, account, region, false)
 
-    def autoScalingGroupsResult = loadAutoScalingGroups(clients)
-    def scalingPolicies = loadScalingPolicies(clients)
-    def scheduledActions = loadScheduledActions(clients)
+    // these lookups do not depend on the auto scaling groups, so are made while paging through them; every alarm is
+    // needed when loading all scaling policies, so they are fetched alongside them. Tasks never wait on one another,
+    // only this thread waits on them, so a busy pool delays the agent but cannot deadlock it.
+    Future<List<ScalingPolicy>> scalingPoliciesFuture = submit("scalingPolicies") { describeScalingPolicies(clients, null) }
+    Future<Map<String, Map>> alarmsFuture = submit("alarms") { loadAlarms(clients, []) }
+    Future<Map<String, List<Map>>> scheduledActionsFuture = submit("scheduledActions") { loadScheduledActions(clients) }
+    Future<Map<String, String>> subnetMapFuture = submit("subnets") { getSubnetToVpcIdMap(clients) }
+
+    AutoScalingGroupsResults autoScalingGroupsResult
+    Map<String, List<Map>> scalingPolicies
+    Map<String, List<Map>> scheduledActions
+    Map<String, String> subnetMap
+    try {
+      autoScalingGroupsResult = timed("autoScalingGroups") { loadAutoScalingGroups(clients) }
+      scalingPolicies = buildScalingPolicies(FutureHelper.getResult(scalingPoliciesFuture), FutureHelper.getResult(alarmsFuture))
+      scheduledActions = FutureHelper.getResult(scheduledActionsFuture)
+      subnetMap = FutureHelper.getResult(subnetMapFuture)
+    } finally {
+      [scalingPoliciesFuture, alarmsFuture, scheduledActionsFuture, subnetMapFuture]*.cancel(true)
+    }
 
     Long start = autoScalingGroupsResult.start
     List<AutoScalingGroup> asgs = autoScalingGroupsResult.asgs
@@ -433,7 +469,9 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
       }
     }
 
-    CacheResult result = buildCacheResult(asgs, scalingPolicies, scheduledActions, getSubnetToVpcIdMap(clients), usableOnDemandCacheDatas.collectEntries { [it.id, it] }, evictableOnDemandCacheDatas*.id)
+    CacheResult result = timed("buildCacheResult") {
+      buildCacheResult(asgs, scalingPolicies, scheduledActions, subnetMap, usableOnDemandCacheDatas.collectEntries { [it.id, it] }, evictableOnDemandCacheDatas*.id, autoScalingGroupsResult.asgAttributes)
+    }
     recordDrift(start)
     def cacheResults = result.cacheResults
     log.debug("Caching ${cacheResults[APPLICATIONS.ns]?.size()} applications in ${agentType}")
@@ -488,7 +526,8 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
                                        Map<String, List<Map>> scheduledActions,
                                        Map<String, String> subnetMap,
                                        Map<String, CacheData> onDemandCacheDataByAsg,
-                                       Collection<String> evictableOnDemandCacheDataIdentifiers) {
+                                       Collection<String> evictableOnDemandCacheDataIdentifiers,
+                                       Map<String, Map<String, Object>> asgAttributes = [:]) {
     Map<String, CacheData> applications = cache()
     Map<String, CacheData> clusters = cache()
     Map<String, CacheData> serverGroups = cache()
@@ -513,7 +552,7 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
         cache(cacheResults["instances"], instances)
       } else {
         try {
-          AsgData data = new AsgData(asg, scalingPolicies[asg.autoScalingGroupName], scheduledActions[asg.autoScalingGroupName], account.name, region, subnetMap)
+          AsgData data = new AsgData(asg, scalingPolicies[asg.autoScalingGroupName], scheduledActions[asg.autoScalingGroupName], account.name, region, subnetMap, asgAttributes[asg.autoScalingGroupName])
           cacheApplication(data, applications)
           cacheCluster(data, clusters)
           cacheServerGroup(data, serverGroups)
@@ -597,7 +636,7 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
   private void cacheServerGroup(AsgData data, Map<String, CacheData> serverGroups) {
     serverGroups[data.serverGroup].with {
       attributes.application = data.name.app
-      attributes.asg = objectMapper.convertValue(data.asg, ATTRIBUTES)
+      attributes.asg = data.asgAttributes ?: objectMapper.convertValue(data.asg, ATTRIBUTES)
       attributes.region = region
       attributes.name = data.asg.autoScalingGroupName
       attributes.launchConfigName = data.asg.launchConfigurationName
@@ -694,9 +733,23 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
     return flattenAutoScalingGroup(asg1) == flattenAutoScalingGroup(asg2)
   }
 
+  private <T> Future<T> submit(String phase, Closure<T> closure) {
+    return loadExecutor.submit({ timed(phase, closure) } as Callable<T>)
+  }
+
+  private <T> T timed(String phase, Closure<T> closure) {
+    long startTime = System.nanoTime()
+    try {
+      return closure.call()
+    } finally {
+      registry.timer(phaseTimerId.withTag("phase", phase)).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS)
+    }
+  }
+
   private static class AutoScalingGroupsResults {
     Long start
     List<AutoScalingGroup> asgs
+    Map<String, Map<String, Object>> asgAttributes
   }
 
   private static class AsgData {
@@ -713,14 +766,17 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
     final Set<String> instanceIds
     final List<Map> scalingPolicies
     final List<Map> scheduledActions
+    final Map<String, Object> asgAttributes
 
     public AsgData(AutoScalingGroup asg,
                    List<Map> scalingPolicies,
                    List<Map> scheduledActions,
                    String account,
                    String region,
-                   Map<String, String> subnetMap) {
+                   Map<String, String> subnetMap,
+                   Map<String, Object> asgAttributes = null) {
       this.asg = asg
+      this.asgAttributes = asgAttributes
       this.scalingPolicies = scalingPolicies ?: []
       this.scheduledActions = scheduledActions ?: []
 
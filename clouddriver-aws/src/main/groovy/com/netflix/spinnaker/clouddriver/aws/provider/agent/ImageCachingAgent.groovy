@@ -30,6 +30,7 @@ import com.netflix.spinnaker.cats.agent.CachingAgent
 import com.netflix.spinnaker.cats.agent.DefaultCacheResult
 import com.netflix.spinnaker.cats.cache.CacheData
 import com.netflix.spinnaker.cats.cache.DefaultCacheData
+import com.netflix.spinnaker.cats.cache.RelationshipCacheFilter
 import com.netflix.spinnaker.cats.provider.ProviderCache
 import com.netflix.spinnaker.clouddriver.aws.security.AmazonClientProvider
 import com.netflix.spinnaker.clouddriver.aws.security.NetflixAmazonCredentials
@@ -37,6 +38,7 @@ import com.netflix.spinnaker.clouddriver.aws.data.Keys
 import com.netflix.spinnaker.clouddriver.aws.provider.AwsProvider
 import com.netflix.spinnaker.clouddriver.cache.CustomScheduledAgent
 import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService
+import groovy.transform.EqualsAndHashCode
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
@@ -44,12 +46,25 @@ import static com.netflix.spinnaker.cats.agent.AgentDataType.Authority.AUTHORITA
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.IMAGES
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.NAMED_IMAGES
 
+import java.time.Clock
+import java.time.Instant
+import java.time.LocalDate
+import java.time.ZoneOffset
+import java.time.format.DateTimeParseException
 import java.util.concurrent.TimeUnit
 
 class ImageCachingAgent implements CachingAgent, AccountAware, DriftMetric, CustomScheduledAgent {
   final Logger log = LoggerFactory.getLogger(getClass())
   private static final TypeReference<Map<String, Object>> ATTRIBUTES = new TypeReference<Map<String, Object>>() {}
 
+  // deregistrations and changes to existing images are only picked up by a full describe
+  private static final long FULL_REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(30)
+
+  // allows for clock skew between clouddriver and EC2 when choosing which creation dates to describe
+  private static final long CREATION_DATE_MARGIN_MILLIS = TimeUnit.HOURS.toMillis(1)
+
+  private static final int MAX_INCREMENTAL_DAYS = 7
+
   final Set<AgentDataType> types = Collections.unmodifiableSet([
     AUTHORITATIVE.forType(IMAGES.ns),
     AUTHORITATIVE.forType(NAMED_IMAGES.ns)
@@ -63,8 +78,26 @@ class ImageCachingAgent implements CachingAgent, AccountAware, DriftMetric, Cust
   final boolean includePublicImages
   final long pollIntervalMillis
   final DynamicConfigService dynamicConfigService
+  final Clock clock
+
+  /**
+   * Fingerprints of the images of the previous cycle, keyed by image id. Images are only converted to cache data
+   * when EC2 reports them differently; the cache data of unchanged images is read back from the provider cache.
+   */
+  private Map<String, ImageFingerprint> fingerprints = null
+
+  /**
+   * Every image created before this time was described by a previous cycle.
+   */
+  private long highWaterMark
+  private long lastFullRefresh
 
   ImageCachingAgent(AmazonClientProvider amazonClientProvider, NetflixAmazonCredentials account, String region, ObjectMapper objectMapper, Registry registry, boolean includePublicImages, DynamicConfigService dynamicConfigService) {
+    this(amazonClientProvider, account, region, objectMapper, registry, includePublicImages, dynamicConfigService, Clock.systemUTC())
+  }
+
+  ImageCachingAgent(AmazonClientProvider amazonClientProvider, NetflixAmazonCredentials account, String region, ObjectMapper objectMapper, Registry registry, boolean includePublicImages, DynamicConfigService dynamicConfigService, Clock clock) {
+    this.clock = clock
     this.amazonClientProvider = amazonClientProvider
     this.account = account
     this.region = region
@@ -117,9 +150,33 @@ class ImageCachingAgent implements CachingAgent, AccountAware, DriftMetric, Cust
   CacheResult loadData(ProviderCache providerCache) {
     if (includePublicImages && !dynamicConfigService.isEnabled("aws.defaults.publicImages", true)) {
       log.info("short-circuiting with empty result set for public images in ${agentType}")
+      fingerprints = null
       return new DefaultCacheResult((IMAGES.ns): [], (NAMED_IMAGES.ns): [])
     }
-    log.info("Describing items in ${agentType}")
+
+    long fetchStart = clock.millis()
+    List<String> creationDays = null
+    if (fingerprints != null && fetchStart - lastFullRefresh < FULL_REFRESH_INTERVAL_MILLIS &&
+      dynamicConfigService.isEnabled("aws.features.incrementalImages", true)) {
+      creationDays = getCreationDays(fetchStart)
+    }
+
+    CacheResult result = describeImages(providerCache, fetchStart, creationDays)
+    if (result == null) {
+      log.warn("Previously cached images are missing from the cache, describing all items in ${agentType}")
+      result = describeImages(providerCache, fetchStart, null)
+    }
+    result
+  }
+
+  /**
+   * @param creationDays -- Describe only images created on these days, or every image if null.
+   * @return the cache result, or null if an image that was not described is missing from the provider cache
+   */
+  private CacheResult describeImages(ProviderCache providerCache, long fetchStart, List<String> creationDays) {
+    boolean incremental = creationDays != null
+
+    log.info("Describing ${incremental ? 'new ' : ''}items in ${agentType}")
     //we read public images directly from AWS instead of having edda cache them:
     def amazonEC2 = amazonClientProvider.getAmazonEC2(account, region, includePublicImages)
     def request = new DescribeImagesRequest()
@@ -128,6 +185,9 @@ class ImageCachingAgent implements CachingAgent, AccountAware, DriftMetric, Cust
     } else {
       request.withFilters(new Filter('is-public', ['false']))
     }
+    if (incremental) {
+      request.withFilters(new Filter('creation-date', creationDays.collect { it + '*' }))
+    }
 
     List<Image> images = amazonEC2.describeImages(request).images
     Long start = null
@@ -139,26 +199,143 @@ class ImageCachingAgent implements CachingAgent, AccountAware, DriftMetric, Cust
       } else {
         images = images.findAll { !it.isPublic() }
       }
+      if (incremental) {
+        images = images.findAll { isCreatedOn(it.creationDate, creationDays) }
+      }
     }
 
-    Collection<CacheData> imageCacheData = new ArrayList<>(images.size())
-    Collection<CacheData> namedImageCacheData = new ArrayList<>(images.size())
+    Map<String, ImageFingerprint> currentFingerprints = new HashMap<>()
+    // unchanged images, keyed by image key, with the described image if there is one
+    Map<String, Image> unchangedImages = new HashMap<>()
+    if (incremental) {
+      // every image created on these days has just been described, so any that are missing have been deregistered
+      fingerprints.each { imageId, fingerprint ->
+        if (!isCreatedOn(fingerprint.creationDate, creationDays)) {
+          currentFingerprints.put(imageId, fingerprint)
+          unchangedImages.put(Keys.getImageKey(imageId, account.name, region), null)
+        }
+      }
+    }
 
+    Collection<CacheData> imageCacheData = new ArrayList<>()
     for (Image image : images) {
-      Map<String, Object> attributes = objectMapper.convertValue(image, ATTRIBUTES)
-      def imageId = Keys.getImageKey(image.imageId, account.name, region)
-      def namedImageId = Keys.getNamedImageKey(account.name, image.name)
-      imageCacheData.add(new DefaultCacheData(imageId, attributes, [(NAMED_IMAGES.ns): [namedImageId]]))
-      namedImageCacheData.add(new DefaultCacheData(namedImageId, [
-        name              : image.name,
-        virtualizationType: image.virtualizationType,
-        creationDate      : image.creationDate
-      ], [(IMAGES.ns): [imageId]]))
+      ImageFingerprint fingerprint = new ImageFingerprint(image)
+      currentFingerprints.put(image.imageId, fingerprint)
+      if (fingerprints?.get(image.imageId) == fingerprint) {
+        unchangedImages.put(Keys.getImageKey(image.imageId, account.name, region), image)
+      } else {
+        imageCacheData.add(buildImageCacheData(image))
+      }
+    }
+    int converted = imageCacheData.size()
+
+    if (!unchangedImages.isEmpty()) {
+      Collection<CacheData> cachedImages = providerCache.getAll(IMAGES.ns, new HashSet<>(unchangedImages.keySet()), RelationshipCacheFilter.none())
+      for (CacheData cachedImage : cachedImages) {
+        unchangedImages.remove(cachedImage.id)
+        String imageId = Keys.parse(cachedImage.id).imageId
+        imageCacheData.add(new DefaultCacheData(cachedImage.id, cachedImage.attributes, [
+          (NAMED_IMAGES.ns): [Keys.getNamedImageKey(account.name, currentFingerprints[imageId].name)]
+        ]))
+      }
+
+      for (Map.Entry<String, Image> missing : unchangedImages.entrySet()) {
+        if (missing.value == null) {
+          return null
+        }
+        imageCacheData.add(buildImageCacheData(missing.value))
+        converted++
+      }
+    }
+
+    fingerprints = currentFingerprints
+    highWaterMark = fetchStart
+    if (!incremental) {
+      lastFullRefresh = fetchStart
+    }
+
+    Collection<CacheData> namedImageCacheData = new ArrayList<>(currentFingerprints.size())
+    currentFingerprints.each { imageId, fingerprint ->
+      def imageKey = Keys.getImageKey(imageId, account.name, region)
+      namedImageCacheData.add(new DefaultCacheData(Keys.getNamedImageKey(account.name, fingerprint.name), [
+        name              : fingerprint.name,
+        virtualizationType: fingerprint.virtualizationType,
+        creationDate      : fingerprint.creationDate
+      ], [(IMAGES.ns): [imageKey]]))
     }
 
     recordDrift(start)
-    log.info("Caching ${imageCacheData.size()} items in ${agentType}")
+    log.info("Caching ${imageCacheData.size()} items (${converted} new or changed) in ${agentType}")
     new DefaultCacheResult((IMAGES.ns): imageCacheData, (NAMED_IMAGES.ns): namedImageCacheData)
   }
 
+  /**
+   * The UTC days on which images that have not been described yet may have been created, or null if a full
+   * describe is cheaper than filtering on that many days.
+   */
+  private List<String> getCreationDays(long now) {
+    // pending images are described again until they become available
+    long since = highWaterMark
+    fingerprints.values().each { fingerprint ->
+      if (fingerprint.state != 'available') {
+        Long creationDate = parseCreationDate(fingerprint.creationDate)
+        if (creationDate != null) {
+          since = Math.min(since, creationDate)
+        }
+      }
+    }
+
+    LocalDate day = Instant.ofEpochMilli(since - CREATION_DATE_MARGIN_MILLIS).atZone(ZoneOffset.UTC).toLocalDate()
+    LocalDate today = Instant.ofEpochMilli(now).atZone(ZoneOffset.UTC).toLocalDate()
+    List<String> days = []
+    while (!day.isAfter(today)) {
+      if (days.size() == MAX_INCREMENTAL_DAYS) {
+        return null
+      }
+      days << day.toString()
+      day = day.plusDays(1)
+    }
+
+    days
+  }
+
+  private CacheData buildImageCacheData(Image image) {
+    Map<String, Object> attributes = objectMapper.convertValue(image, ATTRIBUTES)
+    def imageId = Keys.getImageKey(image.imageId, account.name, region)
+    def namedImageId = Keys.getNamedImageKey(account.name, image.name)
+    new DefaultCacheData(imageId, attributes, [(NAMED_IMAGES.ns): [namedImageId]])
+  }
+
+  private static boolean isCreatedOn(String creationDate, List<String> days) {
+    creationDate && days.any { creationDate.startsWith(it) }
+  }
+
+  private static Long parseCreationDate(String creationDate) {
+    try {
+      return creationDate ? Instant.parse(creationDate).toEpochMilli() : null
+    } catch (DateTimeParseException e) {
+      return null
+    }
+  }
+
+  /**
+   * What is remembered of an image between cycles: enough to tell whether EC2 reports it differently, to choose the
+   * creation dates to describe and to build its named image.
+   */
+  @EqualsAndHashCode
+  private static class ImageFingerprint {
+    final int hash
+    final String name
+    final String virtualizationType
+    final String creationDate
+    final String state
+
+    ImageFingerprint(Image image) {
+      this.hash = image.hashCode()
+      this.name = image.name
+      this.virtualizationType = image.virtualizationType
+      this.creationDate = image.creationDate
+      this.state = image.state
+    }
+  }
 }
@@ -16,6 +16,7 @@
 
 package com.netflix.spinnaker.clouddriver.aws.provider.agent
 
+import com.amazonaws.services.ec2.AmazonEC2
 import com.amazonaws.services.ec2.model.DescribeAccountAttributesRequest
 import com.amazonaws.services.ec2.model.DescribeInstancesRequest
 import com.fasterxml.jackson.annotation.JsonCreator
@@ -30,6 +31,8 @@ import com.fasterxml.jackson.databind.module.SimpleModule
 import com.google.common.cache.CacheBuilder
 import com.google.common.cache.CacheLoader
 import com.google.common.cache.LoadingCache
+import com.google.common.hash.HashCode
+import com.google.common.hash.Hashing
 import com.netflix.spectator.api.Id
 import com.netflix.spectator.api.Registry
 import com.netflix.spinnaker.cats.agent.AgentDataType
@@ -53,6 +56,7 @@ import com.netflix.spinnaker.clouddriver.cache.CustomScheduledAgent
 import groovy.util.logging.Slf4j
 import org.springframework.context.ApplicationContext
 
+import java.nio.charset.StandardCharsets
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.ExecutorService
@@ -61,6 +65,7 @@ import java.util.concurrent.atomic.AtomicInteger
 import java.util.function.ToDoubleFunction
 
 import static com.netflix.spinnaker.cats.agent.AgentDataType.Authority.AUTHORITATIVE
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.INSTANCES
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.RESERVATION_REPORTS
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.RESERVED_INSTANCES
 
@@ -68,6 +73,7 @@ import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.RE
 class ReservationReportCachingAgent implements CachingAgent, CustomScheduledAgent {
   private static final long DEFAULT_POLL_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1)
   private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5)
+  private static final long INSTANCE_USAGE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10)
 
   final Collection<AgentDataType> types = Collections.unmodifiableCollection([
     AUTHORITATIVE.forType(RESERVATION_REPORTS.ns)
@@ -86,6 +92,8 @@ class ReservationReportCachingAgent implements CachingAgent, CustomScheduledAgen
   final MetricsSupport metricsSupport
   final Registry registry
 
+  // instance usage by account:region, only described again when the region's cached instances change or it expires
+  private final Map<String, InstanceUsage> instanceUsages = new ConcurrentHashMap<>()
 
   ReservationReportCachingAgent(Registry registry,
                                 AmazonClientProvider amazonClientProvider,
@@ -183,14 +191,16 @@ class ReservationReportCachingAgent implements CachingAgent, CustomScheduledAgen
 
     ConcurrentHashMap<String, OverallReservationDetail> reservations = new ConcurrentHashMap<>()
     ConcurrentHashMap<String, Collection<String>> errorsByRegion = new ConcurrentHashMap<>()
+    Map<String, List<String>> instanceIdentifiers = getInstanceIdentifiersByRegion()
 
     accounts.each { NetflixAmazonCredentials credential ->
       try {
-        extractReservations(reservations, errorsByRegion, credential)
+        extractReservations(reservations, errorsByRegion, credential, instanceIdentifiers)
       } catch (Exception e) {
         recordError(registry, errorsByRegion, credential, "*", e)
       }
     }
+    instanceUsages.keySet().retainAll(accounts.collectMany { credentials -> credentials.regions.collect { instanceUsageKey(credentials.name, it.name) } })
 
     def amazonReservationReport = new AmazonReservationReport(start: new Date(startTime), end: new Date())
     accounts.each { NetflixAmazonCredentials credentials ->
@@ -275,7 +285,8 @@ class ReservationReportCachingAgent implements CachingAgent, CustomScheduledAgen
 
   void extractReservations(ConcurrentHashMap<String, OverallReservationDetail> reservations,
                            ConcurrentHashMap<String, Collection<String>> errorsByRegion,
-                           NetflixAmazonCredentials credentials) {
+                           NetflixAmazonCredentials credentials,
+                           Map<String, List<String>> instanceIdentifiers) {
     def getReservation = { String region, String availabilityZone, String operatingSystemType, String instanceType ->
       String key = availabilityZone == null ?
         [region, operatingSystemType, instanceType].join(':') :
@@ -328,41 +339,13 @@ class ReservationReportCachingAgent implements CachingAgent, CustomScheduledAgen
           }
 
           startTime = System.currentTimeMillis()
-          def fetchedInstanceCount = 0
-          def describeInstancesRequest = new DescribeInstancesRequest().withMaxResults(500)
-          def allowedStates = ["pending", "running"] as Set<String>
-          while (true) {
-            log.debug("Describing instances for ${credentials.name}/${region.name}")
-            def result = amazonEC2.describeInstances(describeInstancesRequest)
-            log.debug("Described instances for ${credentials.name}/${region.name}")
-
-            result.reservations.each {
-              it.getInstances().each {
-                if (!allowedStates.contains(it.state.name.toLowerCase())) {
-                  return
-                }
-
-                def osTypeName = operatingSystemType(it.platform ? "Windows" : "Linux/UNIX").name
-                def reservation = getReservation(it.placement.availabilityZone[0..-2], it.placement.availabilityZone, osTypeName, it.instanceType)
-                reservation.totalUsed.incrementAndGet()
-
-                if (it.vpcId) {
-                  reservation.getAccount(credentials.name).usedVpc.incrementAndGet()
-                } else {
-                  reservation.getAccount(credentials.name).used.incrementAndGet()
-                }
-              }
-
-              fetchedInstanceCount += it.getInstances().size()
-            }
-
-            log.debug("Fetched ${fetchedInstanceCount} instances in ${credentials.name}/${region.name} (nextToken: ${result.nextToken})")
+          getInstanceUsage(credentials, region.name, amazonEC2, instanceIdentifiers).counts.values().each { InstanceUsageCount count ->
+            def reservation = getReservation(count.region, count.availabilityZone, count.os, count.instanceType)
+            reservation.totalUsed.addAndGet(count.used + count.usedVpc)
 
-            if (result.nextToken) {
-              describeInstancesRequest.withNextToken(result.nextToken)
-            } else {
-              break
-            }
+            def account = reservation.getAccount(credentials.name)
+            account.used.addAndGet(count.used)
+            account.usedVpc.addAndGet(count.usedVpc)
           }
         } catch (Exception e) {
           recordError(registry, errorsByRegion, credentials, region.name, e)
@@ -372,6 +355,88 @@ class ReservationReportCachingAgent implements CachingAgent, CustomScheduledAgen
       }
   }
 
+  /**
+   * Reads the cached instance identifiers of every account and region at once, keyed by account:region.
+   */
+  Map<String, List<String>> getInstanceIdentifiersByRegion() {
+    Map<String, List<String>> instanceIdentifiers = [:]
+    getCacheView().filterIdentifiers(INSTANCES.ns, Keys.getInstanceKey('*', '*', '*')).each { String identifier ->
+      def key = Keys.parse(identifier)
+      if (key) {
+        instanceIdentifiers.computeIfAbsent(instanceUsageKey(key.account, key.region)) { [] } << identifier
+      }
+    }
+    return instanceIdentifiers
+  }
+
+  private InstanceUsage getInstanceUsage(NetflixAmazonCredentials credentials,
+                                         String region,
+                                         AmazonEC2 amazonEC2,
+                                         Map<String, List<String>> instanceIdentifiers) {
+    String key = instanceUsageKey(credentials.name, region)
+    String fingerprint = fingerprint(instanceIdentifiers.get(key))
+
+    InstanceUsage previous = instanceUsages.get(key)
+    if (previous && previous.fingerprint == fingerprint && System.currentTimeMillis() - previous.describedAt < INSTANCE_USAGE_TTL_MILLIS) {
+      registry.counter(registry.createId("reservedInstances.instanceUsage", [account: credentials.name, region: region, result: "reused"])).increment()
+      return previous
+    }
+
+    // ensure a failure below is described again on the next run
+    instanceUsages.remove(key)
+
+    def usage = new InstanceUsage(fingerprint: fingerprint, describedAt: System.currentTimeMillis())
+    def fetchedInstanceCount = 0
+    def describeInstancesRequest = new DescribeInstancesRequest().withMaxResults(500)
+    def allowedStates = ["pending", "running"] as Set<String>
+    while (true) {
+      log.debug("Describing instances for ${credentials.name}/${region}")
+      def result = amazonEC2.describeInstances(describeInstancesRequest)
+      log.debug("Described instances for ${credentials.name}/${region}")
+
+      result.reservations.each {
+        it.getInstances().each {
+          if (!allowedStates.contains(it.state.name.toLowerCase())) {
+            return
+          }
+
+          def osTypeName = operatingSystemType(it.platform ? "Windows" : "Linux/UNIX").name
+          def count = usage.getCount(it.placement.availabilityZone[0..-2], it.placement.availabilityZone, osTypeName, it.instanceType)
+          if (it.vpcId) {
+            count.usedVpc++
+          } else {
+            count.used++
+          }
+        }
+
+        fetchedInstanceCount += it.getInstances().size()
+      }
+
+      log.debug("Fetched ${fetchedInstanceCount} instances in ${credentials.name}/${region} (nextToken: ${result.nextToken})")
+
+      if (result.nextToken) {
+        describeInstancesRequest.withNextToken(result.nextToken)
+      } else {
+        break
+      }
+    }
+
+    registry.counter(registry.createId("reservedInstances.instanceUsage", [account: credentials.name, region: region, result: "described"])).increment()
+    instanceUsages.put(key, usage)
+    return usage
+  }
+
+  private static String instanceUsageKey(String account, String region) {
+    return "${account}:${region}"
+  }
+
+  private static String fingerprint(Collection<String> identifiers) {
+    if (!identifiers) {
+      return ""
+    }
+    return Hashing.combineUnordered(identifiers.collect { Hashing.murmur3_128().hashString(it, StandardCharsets.UTF_8) }).toString()
+  }
+
   static void recordError(Registry registry,
                           ConcurrentHashMap<String, Collection<String>> errorsByRegion,
                           NetflixAmazonCredentials credentials,
@@ -455,6 +520,27 @@ class ReservationReportCachingAgent implements CachingAgent, CustomScheduledAgen
     }
   }
 
+  static class InstanceUsage {
+    String fingerprint
+    long describedAt
+    final Map<String, InstanceUsageCount> counts = [:]
+
+    InstanceUsageCount getCount(String region, String availabilityZone, String os, String instanceType) {
+      return counts.computeIfAbsent([availabilityZone, os, instanceType].join(':')) {
+        new InstanceUsageCount(region: region, availabilityZone: availabilityZone, os: os, instanceType: instanceType)
+      }
+    }
+  }
+
+  static class InstanceUsageCount {
+    String region
+    String availabilityZone
+    String os
+    String instanceType
+    int used
+    int usedVpc
+  }
+
   static class ReservedInstanceDetails {
     String state
     String offeringType
@@ -44,7 +44,10 @@ import com.netflix.spinnaker.clouddriver.aws.provider.agent.ImageCachingAgent
 import com.netflix.spinnaker.clouddriver.aws.provider.agent.InstanceCachingAgent
 import com.netflix.spinnaker.clouddriver.aws.provider.agent.LaunchConfigCachingAgent
 import com.netflix.spinnaker.clouddriver.aws.provider.agent.ReservationReportCachingAgent
+import com.netflix.spinnaker.clouddriver.helpers.FutureHelper
 import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.beans.factory.config.ConfigurableBeanFactory
 import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.ApplicationContext
@@ -70,7 +73,9 @@ class AwsProviderConfig {
                           EddaApiFactory eddaApiFactory,
                           ApplicationContext ctx,
                           Registry registry,
-                          ExecutorService reservationReportPool,
+                          @Qualifier("reservationReportPool") ExecutorService reservationReportPool,
+                          @Qualifier("clusterCachingAgentPool") ExecutorService clusterCachingAgentPool,
+                          @Qualifier("loadBalancerInstanceStatePool") ExecutorService loadBalancerInstanceStatePool,
                           Optional<Collection<AgentProvider>> agentProviders,
                           EddaTimeoutConfig eddaTimeoutConfig,
                           DynamicConfigService dynamicConfigService) {
@@ -87,6 +92,8 @@ class AwsProviderConfig {
                            ctx,
                            registry,
                            reservationReportPool,
+                           clusterCachingAgentPool,
+                           loadBalancerInstanceStatePool,
                            agentProviders.orElse(Collections.emptyList()),
                            eddaTimeoutConfig,
                            dynamicConfigService)
@@ -99,6 +106,33 @@ class AwsProviderConfig {
     return Executors.newFixedThreadPool(reservationReportConfigurationProperties.threadPoolSize)
   }
 
+  /**
+   * Shared by all cluster caching agents to describe an account/region's scaling policies, alarms, scheduled actions
+   * and subnets while its auto scaling groups are paged through.
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  ExecutorService clusterCachingAgentPool(@Value('${aws.clusterCaching.threadPoolSize:16}') int threadPoolSize) {
+    return FutureHelper.newFixedThreadPool("cluster-caching-agent-%d", threadPoolSize)
+  }
+
+  /**
+   * Shared by all load balancer instance state caching agents to describe the instance health of several load
+   * balancers at a time.
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  ExecutorService loadBalancerInstanceStatePool(@Value('${aws.loadBalancerInstanceState.threadPoolSize:16}') int threadPoolSize) {
+    return FutureHelper.newFixedThreadPool("load-balancer-instance-state-%d", threadPoolSize)
+  }
+
+  /**
+   * Used by the cluster provider to read the cache types of a request concurrently. Requests queue for it when every
+   * thread is busy, the calling thread always reads one of the types itself.
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  ExecutorService amazonClusterProviderPool(@Value('${aws.clusterProvider.threadPoolSize:16}') int threadPoolSize) {
+    return FutureHelper.newFixedThreadPool("amazon-cluster-provider-%d", threadPoolSize)
+  }
+
   @Bean
   AwsProviderSynchronizerTypeWrapper awsProviderSynchronizerTypeWrapper() {
     new AwsProviderSynchronizerTypeWrapper()
@@ -124,7 +158,9 @@ class AwsProviderConfig {
                                                  EddaApiFactory eddaApiFactory,
                                                  ApplicationContext ctx,
                                                  Registry registry,
-                                                 ExecutorService reservationReportPool,
+                                                 @Qualifier("reservationReportPool") ExecutorService reservationReportPool,
+                                                 @Qualifier("clusterCachingAgentPool") ExecutorService clusterCachingAgentPool,
+                                                 @Qualifier("loadBalancerInstanceStatePool") ExecutorService loadBalancerInstanceStatePool,
                                                  Collection<AgentProvider> agentProviders,
                                                  EddaTimeoutConfig eddaTimeoutConfig,
                                                  DynamicConfigService dynamicConfigService) {
@@ -141,7 +177,7 @@ class AwsProviderConfig {
     allAccounts.sort { it.name }.each { NetflixAmazonCredentials credentials ->
       for (AmazonCredentials.AWSRegion region : credentials.regions) {
         if (!scheduledAccounts.contains(credentials.name)) {
-          newlyAddedAgents << new ClusterCachingAgent(amazonCloudProvider, amazonClientProvider, credentials, region.name, objectMapper, registry, eddaTimeoutConfig)
+          newlyAddedAgents << new ClusterCachingAgent(amazonCloudProvider, amazonClientProvider, credentials, region.name, objectMapper, registry, eddaTimeoutConfig, clusterCachingAgentPool)
           newlyAddedAgents << new LaunchConfigCachingAgent(amazonClientProvider, credentials, region.name, objectMapper, registry)
           newlyAddedAgents << new ImageCachingAgent(amazonClientProvider, credentials, region.name, objectMapper, registry, false, dynamicConfigService)
           if (!publicRegions.contains(region.name)) {
@@ -162,7 +198,7 @@ class AwsProviderConfig {
             newlyAddedAgents << new EddaLoadBalancerCachingAgent(eddaApiFactory.createApi(credentials.edda, region.name), credentials, region.name, objectMapper)
           } else {
             newlyAddedAgents << new AmazonLoadBalancerInstanceStateCachingAgent(
-              amazonClientProvider, credentials, region.name, objectMapper, ctx
+              amazonClientProvider, credentials, region.name, objectMapper, ctx, registry, loadBalancerInstanceStatePool
             )
           }
         }
@@ -28,12 +28,18 @@ import com.netflix.spinnaker.clouddriver.aws.data.Keys
 import com.netflix.spinnaker.clouddriver.aws.model.*
 import com.netflix.spinnaker.clouddriver.aws.provider.AwsProvider
 import com.netflix.spinnaker.clouddriver.core.provider.agent.ExternalHealthProvider
+import com.netflix.spinnaker.clouddriver.helpers.FutureHelper
 import com.netflix.spinnaker.clouddriver.model.ClusterProvider
 import com.netflix.spinnaker.clouddriver.model.ServerGroupProvider
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Qualifier
 import org.springframework.beans.factory.annotation.Value
 import org.springframework.stereotype.Component
 
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+
 import static com.netflix.spinnaker.cats.cache.Cache.StoreType.SQL
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.*
 
@@ -43,6 +49,7 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
   private final AmazonCloudProvider amazonCloudProvider
   private final Cache cacheView
   private final AwsProvider awsProvider
+  private final ExecutorService resolveExecutor
 
   @Autowired(required = false)
   List<ExternalHealthProvider> externalHealthProviders
@@ -54,10 +61,14 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
   Boolean sqlApplicationIndexEnabled
 
   @Autowired
-  AmazonClusterProvider(AmazonCloudProvider amazonCloudProvider, Cache cacheView, AwsProvider awsProvider) {
+  AmazonClusterProvider(AmazonCloudProvider amazonCloudProvider,
+                        Cache cacheView,
+                        AwsProvider awsProvider,
+                        @Qualifier("amazonClusterProviderPool") ExecutorService resolveExecutor) {
     this.amazonCloudProvider = amazonCloudProvider
     this.cacheView = cacheView
     this.awsProvider = awsProvider
+    this.resolveExecutor = resolveExecutor
   }
 
   @Override
@@ -88,7 +99,22 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
     def asg = serverGroupData.attributes["asg"]
 
     String launchConfigKey = Keys.getLaunchConfigKey(serverGroupData?.attributes['launchConfigName'] as String, account, region)
-    CacheData launchConfigs = cacheView.get(LAUNCH_CONFIGS.ns, launchConfigKey)
+
+    Collection<String> instanceKeys = []
+    if (includeDetails) {
+      Set<String> asgInstances = getAsgInstanceKeys(asg, account, region)
+      instanceKeys = serverGroupData.relationships[INSTANCES.ns]?.findAll { rel ->
+        return (asgInstances == null || asgInstances.contains(rel))
+      } ?: []
+    }
+    Map<String, String> healthKeysToInstance = getHealthKeys(instanceKeys)
+
+    // the launch config, instances and their health are independent of each other
+    Map<String, Collection<CacheData>> resolved = getAll(
+      [(LAUNCH_CONFIGS.ns): [launchConfigKey], (INSTANCES.ns): instanceKeys, (HEALTH.ns): healthKeysToInstance.keySet()],
+      [(INSTANCES.ns): RelationshipCacheFilter.none(), (HEALTH.ns): RelationshipCacheFilter.none()]
+    )
+    CacheData launchConfigs = resolved[LAUNCH_CONFIGS.ns] ? resolved[LAUNCH_CONFIGS.ns].first() : null
 
     String imageId = launchConfigs?.attributes?.get('imageId')
     CacheData imageConfigs = imageId ? cacheView.get(IMAGES.ns, Keys.getImageKey(imageId, account, region)) : null
@@ -98,16 +124,7 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
     serverGroup.launchConfig = launchConfigs ? launchConfigs.attributes : null
     serverGroup.image = imageConfigs ? imageConfigs.attributes : null
     serverGroup.buildInfo = imageConfigs ? getBuildInfoFromImage(imageConfigs) : null
-
-    if (includeDetails) {
-      Set<String> asgInstances = getAsgInstanceKeys(asg, account, region)
-      Closure<Boolean> instanceFilter = { rel ->
-        return (asgInstances == null || asgInstances.contains(rel))
-      }
-      serverGroup.instances = translateInstances(resolveRelationshipData(serverGroupData, INSTANCES.ns, instanceFilter, RelationshipCacheFilter.none())).values()
-    } else {
-      serverGroup.instances = []
-    }
+    serverGroup.instances = translateInstances(resolved[INSTANCES.ns], resolved[HEALTH.ns], healthKeysToInstance).values()
 
     serverGroup
   }
@@ -164,21 +181,15 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
     def cacheResults = cacheView.getAllByApplication(toFetch, application, filters)
 
     // lbs and images can span applications and can't currently be indexed by app
-    Collection<CacheData> allLoadBalancers = resolveRelationshipDataForCollection(
-      cacheResults[CLUSTERS.ns],
-      LOAD_BALANCERS.ns
-    )
-    Collection<CacheData> allTargetGroups = resolveRelationshipDataForCollection(
-      cacheResults[CLUSTERS.ns],
-      TARGET_GROUPS.ns
-    )
-    Collection<CacheData> allImages = resolveRelationshipDataForCollection(
-      cacheResults[LAUNCH_CONFIGS.ns],
-      IMAGES.ns
-    )
-
-    Map<String, AmazonLoadBalancer> loadBalancers = translateLoadBalancers(allLoadBalancers)
-    Map<String, AmazonTargetGroup> targetGroups = translateTargetGroups(allTargetGroups)
+    Map<String, Collection<CacheData>> resolved = getAll([
+      (LOAD_BALANCERS.ns): getRelationshipKeys(cacheResults[CLUSTERS.ns], LOAD_BALANCERS.ns),
+      (TARGET_GROUPS.ns): getRelationshipKeys(cacheResults[CLUSTERS.ns], TARGET_GROUPS.ns),
+      (IMAGES.ns): getRelationshipKeys(cacheResults[LAUNCH_CONFIGS.ns], IMAGES.ns)
+    ], [:])
+    Collection<CacheData> allImages = resolved[IMAGES.ns]
+
+    Map<String, AmazonLoadBalancer> loadBalancers = translateLoadBalancers(resolved[LOAD_BALANCERS.ns])
+    Map<String, AmazonTargetGroup> targetGroups = translateTargetGroups(resolved[TARGET_GROUPS.ns])
     Map<String, AmazonServerGroup> serverGroups = translateServerGroups(
       cacheResults[SERVER_GROUPS.ns],
       cacheResults[INSTANCES.ns],
@@ -211,13 +222,15 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
     Map<String, AmazonServerGroup> serverGroups
 
     if (includeDetails) {
-      Collection<CacheData> allLoadBalancers = resolveRelationshipDataForCollection(clusterData, LOAD_BALANCERS.ns)
-      Collection<CacheData> allTargetGroups = resolveRelationshipDataForCollection(clusterData, TARGET_GROUPS.ns)
-      Collection<CacheData> allServerGroups = resolveRelationshipDataForCollection(clusterData, SERVER_GROUPS.ns, RelationshipCacheFilter.include(INSTANCES.ns, LAUNCH_CONFIGS.ns))
-
-      loadBalancers = translateLoadBalancers(allLoadBalancers)
-      targetGroups = translateTargetGroups(allTargetGroups)
-      serverGroups = translateServerGroups(allServerGroups, false)
+      Map<String, Collection<CacheData>> resolved = resolveRelationshipDataForCollection(clusterData, [
+        (LOAD_BALANCERS.ns): null,
+        (TARGET_GROUPS.ns): null,
+        (SERVER_GROUPS.ns): RelationshipCacheFilter.include(INSTANCES.ns, LAUNCH_CONFIGS.ns)
+      ])
+
+      loadBalancers = translateLoadBalancers(resolved[LOAD_BALANCERS.ns])
+      targetGroups = translateTargetGroups(resolved[TARGET_GROUPS.ns])
+      serverGroups = translateServerGroups(resolved[SERVER_GROUPS.ns], false)
       // instance relationships were expanded so no need to consider partial instances
     } else {
       Collection<CacheData> allServerGroups = resolveRelationshipDataForCollection(clusterData, SERVER_GROUPS.ns, RelationshipCacheFilter.none())
@@ -329,9 +342,22 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
 
   private Map<String, AmazonServerGroup> translateServerGroups(Collection<CacheData> serverGroupData,
                                                                boolean includePartialInstances) {
-    Collection<CacheData> allInstances = resolveRelationshipDataForCollection(serverGroupData, INSTANCES.ns, RelationshipCacheFilter.none())
+    Collection<String> instanceKeys = getRelationshipKeys(serverGroupData, INSTANCES.ns)
+    Map<String, String> healthKeysToInstance = getHealthKeys(instanceKeys)
+    Map<String, String> launchConfigurations = serverGroupData.findAll {
+      it.relationships[LAUNCH_CONFIGS.ns]
+    }.collectEntries {
+      [(it.relationships[LAUNCH_CONFIGS.ns].first()): it.id]
+    }
+
+    // health keys are derived from the instance keys, so instances, their health and launch configs are all
+    // fetched at once rather than one after the other
+    Map<String, Collection<CacheData>> resolved = getAll(
+      [(INSTANCES.ns): instanceKeys, (HEALTH.ns): healthKeysToInstance.keySet(), (LAUNCH_CONFIGS.ns): launchConfigurations.keySet()],
+      [(INSTANCES.ns): RelationshipCacheFilter.none(), (HEALTH.ns): RelationshipCacheFilter.none()]
+    )
 
-    Map<String, AmazonInstance> instances = translateInstances(allInstances)
+    Map<String, AmazonInstance> instances = translateInstances(resolved[INSTANCES.ns], resolved[HEALTH.ns], healthKeysToInstance)
 
     Map<String, AmazonServerGroup> serverGroups = serverGroupData.collectEntries { serverGroupEntry ->
       Map<String, String> serverGroupKey = Keys.parse(serverGroupEntry.id)
@@ -365,14 +391,8 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
       [(serverGroupEntry.id): serverGroup]
     }
 
-    Map<String, String> launchConfigurations = serverGroupData.findAll {
-      it.relationships[LAUNCH_CONFIGS.ns]
-    }.collectEntries {
-      [(it.relationships[LAUNCH_CONFIGS.ns].first()): it.id]
-    }
-    Collection<CacheData> launchConfigs = cacheView.getAll(LAUNCH_CONFIGS.ns, launchConfigurations.keySet())
     Map<String, Collection<String>> allImages = [:]
-    launchConfigs.each { launchConfig ->
+    resolved[LAUNCH_CONFIGS.ns].each { launchConfig ->
       def serverGroupId = launchConfigurations[launchConfig.id]
       def imageId = launchConfig.relationships[IMAGES.ns]?.first()
       serverGroups[serverGroupId].launchConfig = launchConfig.attributes
@@ -383,7 +403,7 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
         allImages[imageId] << serverGroupId
       }
     }
-    Collection<CacheData> images = cacheView.getAll(IMAGES.ns, allImages.keySet())
+    Collection<CacheData> images = allImages ? cacheView.getAll(IMAGES.ns, allImages.keySet()) : []
     images.each { image ->
       def serverGroupIds = allImages[image.id]
 
@@ -397,37 +417,46 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
     serverGroups
   }
 
-  private Map<String, AmazonInstance> translateInstances(Collection<CacheData> instanceData) {
+  private Map<String, AmazonInstance> translateInstances(Collection<CacheData> instanceData,
+                                                         Collection<CacheData> healthData,
+                                                         Map<String, String> healthKeysToInstance) {
     Map<String, AmazonInstance> instances = instanceData?.collectEntries { instanceEntry ->
       AmazonInstance instance = new AmazonInstance(instanceEntry.attributes)
       instance.name = instanceEntry.attributes.instanceId.toString()
       [(instanceEntry.id): instance]
     } ?: [:]
-    addHealthToInstances(instanceData, instances)
+    addHealthToInstances(healthData, healthKeysToInstance, instances)
 
     instances
   }
 
-  private void addHealthToInstances(Collection<CacheData> instanceData, Map<String, AmazonInstance> instances) {
+  private Map<String, String> getHealthKeys(Collection<String> instanceKeys) {
+    Collection<String> healthIds = awsProvider.healthAgents*.healthId
+    externalHealthProviders.each { externalHealthProvider ->
+      healthIds.addAll(externalHealthProvider.agents*.healthId)
+    }
+
     Map<String, String> healthKeysToInstance = [:]
-    instanceData.each { instanceEntry ->
-      Map<String, String> instanceKey = Keys.parse(instanceEntry.id)
-      awsProvider.healthAgents.each {
-        def key = Keys.getInstanceHealthKey(instanceKey.instanceId, instanceKey.account, instanceKey.region, it.healthId)
-        healthKeysToInstance.put(key, instanceEntry.id)
-      }
-      externalHealthProviders.each { externalHealthProvider ->
-        externalHealthProvider.agents.each { externalHealthAgent ->
-          def key = Keys.getInstanceHealthKey(instanceKey.instanceId, instanceKey.account, instanceKey.region, externalHealthAgent.healthId)
-          healthKeysToInstance.put(key, instanceEntry.id)
-        }
+    instanceKeys.each { instanceId ->
+      Map<String, String> instanceKey = Keys.parse(instanceId)
+      healthIds.each { healthId ->
+        def key = Keys.getInstanceHealthKey(instanceKey.instanceId, instanceKey.account, instanceKey.region, healthId)
+        healthKeysToInstance.put(key, instanceId)
       }
     }
 
-    Collection<CacheData> healths = cacheView.getAll(HEALTH.ns, healthKeysToInstance.keySet(), RelationshipCacheFilter.none())
-    healths.each { healthEntry ->
-      def instanceId = healthKeysToInstance.get(healthEntry.id)
-      instances[instanceId].health << healthEntry.attributes
+    healthKeysToInstance
+  }
+
+  private static void addHealthToInstances(Collection<CacheData> healthData,
+                                           Map<String, String> healthKeysToInstance,
+                                           Map<String, AmazonInstance> instances) {
+    healthData.each { healthEntry ->
+      // health is fetched alongside the instances, so it may refer to an instance that is no longer cached
+      def instance = instances[healthKeysToInstance.get(healthEntry.id)]
+      if (instance) {
+        instance.health << healthEntry.attributes
+      }
     }
 
     instances.values().each { instance ->
@@ -437,9 +466,46 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
     }
   }
 
+  private static Collection<String> getRelationshipKeys(Collection<CacheData> sources, String relationship) {
+    // keys shared by several sources (e.g. a load balancer fronting several clusters) are only requested once
+    Set<String> keys = new LinkedHashSet<>()
+    sources?.each { keys.addAll(it.relationships[relationship] ?: []) }
+    keys
+  }
+
+  private Map<String, Collection<CacheData>> resolveRelationshipDataForCollection(Collection<CacheData> sources,
+                                                                                  Map<String, CacheFilter> relationships) {
+    getAll(relationships.keySet().collectEntries { [(it): getRelationshipKeys(sources, it)] }, relationships)
+  }
+
   private Collection<CacheData> resolveRelationshipDataForCollection(Collection<CacheData> sources, String relationship, CacheFilter cacheFilter = null) {
-    Collection<String> relationships = sources?.findResults { it.relationships[relationship] ?: [] }?.flatten() ?: []
-    relationships ? cacheView.getAll(relationship, relationships, cacheFilter) : []
+    resolveRelationshipDataForCollection(sources, [(relationship): cacheFilter])[relationship]
+  }
+
+  /**
+   * Fetches the given keys with a single {@code getAll} per type. Types are independent of each other, so they
+   * are fetched concurrently and a request pays for the slowest type rather than the sum of all of them.
+   */
+  private Map<String, Collection<CacheData>> getAll(Map<String, Collection<String>> keysByType,
+                                                    Map<String, CacheFilter> cacheFilters) {
+    Map<String, Collection<CacheData>> results = keysByType.keySet().collectEntries { [(it): []] }
+    Map<String, Collection<String>> toFetch = keysByType.findAll { type, keys -> keys }
+    if (!toFetch) {
+      return results
+    }
+
+    List<String> types = toFetch.keySet() as List
+    Map<String, Future<Collection<CacheData>>> futures = types.tail().collectEntries { String type ->
+      [(type): resolveExecutor.submit({ cacheView.getAll(type, toFetch[type], cacheFilters[type]) } as Callable<Collection<CacheData>>)]
+    }
+    try {
+      results[types.head()] = cacheView.getAll(types.head(), toFetch[types.head()], cacheFilters[types.head()])
+      futures.each { type, future -> results[type] = FutureHelper.getResult(future) }
+    } finally {
+      futures.values()*.cancel(true)
+    }
+
+    results
   }
 
   private Collection<CacheData> resolveRelationshipData(CacheData source, String relationship) {
@@ -30,6 +30,7 @@ public class EddaTimeoutConfig {
   private static final int EDDA_CONNECT_TIMEOUT_MILLIS = 1000;
   private static final int EDDA_CONNECT_REQUEST_TIMEOUT_MILLIS = 10000;
   private static final int EDDA_SOCKET_TIMEOUT_MILLIS = 5000;
+  private static final int EDDA_MAX_CONCURRENT_REQUESTS = 4;
 
   private final long retryBase;
   private final int backoffMillis;
@@ -39,6 +40,8 @@ public class EddaTimeoutConfig {
   private final int socketTimeout;
   private final Set<String> disabledRegions;
   private boolean albEnabled;
+  private final boolean conditionalRequestsEnabled;
+  private final int maxConcurrentRequests;
 
   public EddaTimeoutConfig(long retryBase,
                            int backoffMillis,
@@ -47,7 +50,9 @@ public class EddaTimeoutConfig {
                            int connectionRequestTimeout,
                            int socketTimeout,
                            Collection<String> disabledRegions,
-                           boolean albEnabled) {
+                           boolean albEnabled,
+                           boolean conditionalRequestsEnabled,
+                           int maxConcurrentRequests) {
     this.retryBase = retryBase;
     this.backoffMillis = backoffMillis;
     this.maxAttempts = maxAttempts;
@@ -56,6 +61,8 @@ public class EddaTimeoutConfig {
     this.socketTimeout = socketTimeout;
     this.disabledRegions = disabledRegions == null || disabledRegions.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(new LinkedHashSet<>(disabledRegions));
     this.albEnabled = albEnabled;
+    this.conditionalRequestsEnabled = conditionalRequestsEnabled;
+    this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
   }
 
   public long getRetryBase() {
@@ -90,6 +97,22 @@ public class EddaTimeoutConfig {
     return albEnabled;
   }
 
+  /**
+   * Whether full collection reads are revalidated with ETag/Last-Modified, decoding the previously downloaded
+   * collection again when Edda reports it unchanged. This keeps the last response for each collection in memory, up
+   * to a fixed total size.
+   */
+  public boolean getConditionalRequestsEnabled() {
+    return conditionalRequestsEnabled;
+  }
+
+  /**
+   * The maximum number of concurrent Edda requests issued for a single describe call by ids.
+   */
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
   public static class Builder {
     private long retryBase;
     private int backoffMillis;
@@ -99,6 +122,8 @@ public class EddaTimeoutConfig {
     private int socketTimeout;
     private List<String> disabledRegions;
     private boolean albEnabled;
+    private boolean conditionalRequestsEnabled;
+    private int maxConcurrentRequests;
 
     public Builder() {
       this.retryBase = EDDA_RETRY_BASE_MILLIS;
@@ -109,6 +134,8 @@ public class EddaTimeoutConfig {
       this.socketTimeout = EDDA_SOCKET_TIMEOUT_MILLIS;
       this.disabledRegions = null;
       this.albEnabled = false;
+      this.conditionalRequestsEnabled = false;
+      this.maxConcurrentRequests = EDDA_MAX_CONCURRENT_REQUESTS;
     }
 
     public EddaTimeoutConfig build() {
@@ -120,7 +147,9 @@ public class EddaTimeoutConfig {
         connectionRequestTimeout,
         socketTimeout,
         disabledRegions,
-        albEnabled
+        albEnabled,
+        conditionalRequestsEnabled,
+        maxConcurrentRequests
       );
     }
 
@@ -187,5 +216,21 @@ public class EddaTimeoutConfig {
     public void setAlbEnabled(boolean albEnabled) {
       this.albEnabled = albEnabled;
     }
+
+    public boolean getConditionalRequestsEnabled() {
+      return conditionalRequestsEnabled;
+    }
+
+    public void setConditionalRequestsEnabled(boolean conditionalRequestsEnabled) {
+      this.conditionalRequestsEnabled = conditionalRequestsEnabled;
+    }
+
+    public int getMaxConcurrentRequests() {
+      return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+    }
   }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.aws.security.sdkclient;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.netflix.spectator.api.Counter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A RateLimiter whose rate is adjusted by additive increase/multiplicative decrease.
+ *
+ * The rate grows by about one permit per second for every second of successful calls, up to maxRate, and is halved
+ * (down to minRate) when AWS throttles a call. Throttles reported within a second of the last decrease are counted
+ * but do not decrease the rate again, as they are usually in-flight calls made at the previous rate.
+ */
+public class AdaptiveRateLimiter {
+  private static final double INCREASE_PER_SECOND = 1.0d;
+  private static final double DECREASE_FACTOR = 0.5d;
+  private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final RateLimiter rateLimiter;
+  private final double minRate;
+  private final double maxRate;
+  private final Counter throttles;
+  private final LongSupplier nanoTime;
+
+  private double rate;
+  private Long lastDecrease;
+
+  public AdaptiveRateLimiter(double rate, double minRate, double maxRate, Counter throttles) {
+    this(rate, minRate, maxRate, throttles, System::nanoTime);
+  }
+
+  AdaptiveRateLimiter(double rate, double minRate, double maxRate, Counter throttles, LongSupplier nanoTime) {
+    this.maxRate = Math.max(rate, maxRate);
+    this.minRate = Math.min(rate, minRate);
+    this.rate = rate;
+    this.rateLimiter = RateLimiter.create(rate);
+    this.throttles = requireNonNull(throttles);
+    this.nanoTime = requireNonNull(nanoTime);
+  }
+
+  /**
+   * @see RateLimiter#acquire()
+   */
+  public double acquire() {
+    return rateLimiter.acquire();
+  }
+
+  public synchronized double getRate() {
+    return rate;
+  }
+
+  public synchronized void onSuccess() {
+    if (rate < maxRate) {
+      // spread the increase over the calls made in a second at the current rate
+      setRate(Math.min(maxRate, rate + INCREASE_PER_SECOND / rate));
+    }
+  }
+
+  public synchronized void onThrottle() {
+    throttles.increment();
+
+    final long now = nanoTime.getAsLong();
+    if (lastDecrease != null && now - lastDecrease < DECREASE_INTERVAL_NANOS) {
+      return;
+    }
+    lastDecrease = now;
+    setRate(Math.max(minRate, rate * DECREASE_FACTOR));
+  }
+
+  private void setRate(double rate) {
+    this.rate = rate;
+    rateLimiter.setRate(rate);
+  }
+}
@@ -34,11 +34,16 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.clouddriver.aws.security.EddaTimeoutConfig;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
@@ -49,11 +54,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 public class AmazonClientInvocationHandler implements InvocationHandler {
@@ -70,6 +81,30 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
   private final EddaTimeoutConfig eddaTimeoutConfig;
   private final Registry registry;
   private final Map<String, String> metricTags;
+  private final Map<Method, Dispatch> dispatches = new ConcurrentHashMap<>();
+
+  private static final Object[] NO_ARGS = new Object[0];
+  private static final Map<Method, Optional<MethodHandle>> eddaHandles = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, Map<String, Field>> requestIdFields = new ConcurrentHashMap<>();
+
+  /**
+   * The upper bound on the size of the collections kept for revalidation, shared by all accounts and regions.
+   */
+  private static final long MAX_CACHED_COLLECTION_BYTES = 256L * 1024 * 1024;
+
+  /**
+   * The number of threads serving lookups by id on behalf of all clients; callers queue for them when they are busy.
+   */
+  private static final int EDDA_REQUEST_THREADS = 16;
+
+  private static final Cache<String, CachedCollection> cachedCollections = CacheBuilder.newBuilder()
+    .maximumWeight(MAX_CACHED_COLLECTION_BYTES)
+    .<String, CachedCollection>weigher((url, collection) -> collection.content.length)
+    .build();
+  private static final ExecutorService eddaExecutor = Executors.newFixedThreadPool(
+    EDDA_REQUEST_THREADS,
+    new ThreadFactoryBuilder().setNameFormat("edda-request-%d").setDaemon(true).build()
+  );
 
   public AmazonClientInvocationHandler(Object delegate,
                                        String serviceName,
@@ -91,35 +126,56 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-    final Id id = registry.createId("awsClientProxy.invoke", metricTags).withTag("method", method.getName());
+    final Dispatch dispatch = dispatches.computeIfAbsent(method, this::dispatch);
     final long startTime = System.nanoTime();
-    boolean wasDelegated = false;
 
     try {
-      if (!eddaTimeoutConfig.getAlbEnabled() && method.getDeclaringClass().equals(AmazonElasticLoadBalancing.class)) {
-        throw new NoSuchMethodException();
+      return dispatch.handle.invoke(dispatch.target, args == null ? NO_ARGS : args);
+    } finally {
+      registry.timer(dispatch.timerId).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Resolves whether a client method is served from Edda by a method of this handler or delegated to the sdk client.
+   */
+  private Dispatch dispatch(Method method) {
+    final Id id = registry.createId("awsClientProxy.invoke", metricTags).withTag("method", method.getName());
+    final boolean eddaDisabled = !eddaTimeoutConfig.getAlbEnabled() && method.getDeclaringClass().equals(AmazonElasticLoadBalancing.class);
+    final Optional<MethodHandle> eddaHandle = eddaDisabled
+      ? Optional.empty()
+      : eddaHandles.computeIfAbsent(method, AmazonClientInvocationHandler::findEddaHandle);
+
+    if (eddaHandle.isPresent()) {
+      return new Dispatch(eddaHandle.get(), this, id.withTag("requestMode", "edda"));
+    }
+
+    return new Dispatch(spread(unreflect(method), method), delegate, id.withTag("requestMode", "sdkClient"));
+  }
+
+  private static Optional<MethodHandle> findEddaHandle(Method method) {
+    try {
+      Method eddaMethod = AmazonClientInvocationHandler.class.getMethod(method.getName(), method.getParameterTypes());
+      if (!eddaMethod.getDeclaringClass().equals(AmazonClientInvocationHandler.class)) {
+        // e.g. Object methods, which are left to the client
+        return Optional.empty();
       }
-      Method thisMethod = this.getClass().getMethod(method.getName(), args != null && args.length > 0 ?
-        getClassArgs(args) : new Class[0]);
-      return thisMethod.invoke(this, args);
+      return Optional.of(spread(unreflect(eddaMethod), eddaMethod));
     } catch (NoSuchMethodException e) {
-      wasDelegated = true;
-      try {
-        return method.invoke(delegate, args);
-      } catch (InvocationTargetException ite) {
-        throw ite.getCause();
-      }
-    } finally {
-      registry.timer(id.withTag("requestMode", wasDelegated ? "sdkClient" : "edda")).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+      return Optional.empty();
     }
   }
 
-  static Class[] getClassArgs(Object[] args) {
-    List<Class> classes = new ArrayList<>();
-    for (Object object : args) {
-      classes.add(object.getClass());
+  private static MethodHandle unreflect(Method method) {
+    try {
+      return MethodHandles.publicLookup().unreflect(method);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Unable to access " + method, e);
     }
-    return classes.toArray(new Class[classes.size()]);
+  }
+
+  private static MethodHandle spread(MethodHandle handle, Method method) {
+    return handle.asSpreader(Object[].class, method.getParameterCount());
   }
 
   ////////////////////////////////////
@@ -320,27 +376,35 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
       final Id deserializeJsonTimer = registry.createId("edda.deserializeJson", metricTags);
       final Id resultSizeCounter = registry.createId("edda.resultSize", metricTags);
       if (ids.isEmpty()) {
-        HttpEntity entity = getHttpEntity(metricTags, object, null);
+        final String url = getUrl(object, null);
+        final boolean conditional = eddaTimeoutConfig.getConditionalRequestsEnabled();
+        final CachedCollection cached = conditional ? cachedCollections.getIfPresent(url) : null;
+        final HttpResponse response = getHttpResponse(metricTags, url, cached);
+        final HttpEntity entity = response.getEntity();
+        final JavaType listMeta = objectMapper.getTypeFactory().constructParametrizedType(List.class, List.class, singleMeta);
+        final List<Metadata<T>> metadataResults;
         try {
-          final JavaType listMeta = objectMapper.getTypeFactory().constructParametrizedType(List.class, List.class, singleMeta);
-          final List<Metadata<T>> metadataResults = registry.timer(deserializeJsonTimer).record(() -> objectMapper.readValue(entity.getContent(), listMeta));
-          for (Metadata<T> meta : metadataResults) {
-            mtime = mtime == null ? meta.mtime : Math.min(mtime, meta.mtime);
-            results.add(meta.data);
+          if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+            registry.counter(registry.createId("edda.notModified", metricTags)).increment();
+            metadataResults = registry.timer(deserializeJsonTimer).record(() -> objectMapper.readValue(cached.content, listMeta));
+          } else if (conditional) {
+            final byte[] content = EntityUtils.toByteArray(entity);
+            metadataResults = registry.timer(deserializeJsonTimer).record(() -> objectMapper.readValue(content, listMeta));
+            cacheCollection(url, response, content);
+          } else {
+            metadataResults = registry.timer(deserializeJsonTimer).record(() -> objectMapper.readValue(entity.getContent(), listMeta));
           }
         } finally {
           EntityUtils.consume(entity);
         }
+        for (Metadata<T> meta : metadataResults) {
+          mtime = mtime == null ? meta.mtime : Math.min(mtime, meta.mtime);
+          results.add(meta.data);
+        }
       } else {
-        for (String id : ids) {
-          HttpEntity entity = getHttpEntity(metricTags, object, id);
-          try {
-            final Metadata<T> result = registry.timer(deserializeJsonTimer).record(() -> objectMapper.readValue(entity.getContent(), singleMeta));
-            mtime = mtime == null ? result.mtime : Math.min(mtime, result.mtime);
-            results.add(result.data);
-          } finally {
-            EntityUtils.consume(entity);
-          }
+        for (Metadata<T> result : describeById(metricTags, object, new ArrayList<>(ids), singleMeta, deserializeJsonTimer)) {
+          mtime = mtime == null ? result.mtime : Math.min(mtime, result.mtime);
+          results.add(result.data);
         }
       }
       registry.counter(resultSizeCounter).increment(results.size());
@@ -358,23 +422,127 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
     }
   }
 
+  /**
+   * Edda serves a single object per request, so ids are fetched by up to maxConcurrentRequests workers, one of which
+   * is the calling thread. Results are returned in the order of the requested ids.
+   */
+  private <T> List<Metadata<T>> describeById(Map<String, String> metricTags,
+                                             String object,
+                                             List<String> ids,
+                                             JavaType singleMeta,
+                                             Id deserializeJsonTimer) throws Exception {
+    final int workers = Math.min(ids.size(), eddaTimeoutConfig.getMaxConcurrentRequests());
+    final List<Metadata<T>> results = new ArrayList<>(Collections.nCopies(ids.size(), null));
+    if (workers <= 1) {
+      for (int i = 0; i < ids.size(); i++) {
+        results.set(i, getById(metricTags, object, ids.get(i), singleMeta, deserializeJsonTimer));
+      }
+      return results;
+    }
+
+    final List<Future<?>> futures = new ArrayList<>(workers - 1);
+    for (int w = 1; w < workers; w++) {
+      final int worker = w;
+      futures.add(eddaExecutor.submit(() -> {
+        for (int i = worker; i < ids.size(); i += workers) {
+          results.set(i, getById(metricTags, object, ids.get(i), singleMeta, deserializeJsonTimer));
+        }
+        return null;
+      }));
+    }
+
+    try {
+      for (int i = 0; i < ids.size(); i += workers) {
+        results.set(i, getById(metricTags, object, ids.get(i), singleMeta, deserializeJsonTimer));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+    } finally {
+      futures.forEach(f -> f.cancel(true));
+    }
+    return results;
+  }
+
+  private <T> Metadata<T> getById(Map<String, String> metricTags,
+                                  String object,
+                                  String id,
+                                  JavaType singleMeta,
+                                  Id deserializeJsonTimer) throws Exception {
+    final HttpEntity entity = getHttpResponse(metricTags, getUrl(object, id), null).getEntity();
+    try {
+      return registry.timer(deserializeJsonTimer).record(() -> objectMapper.readValue(entity.getContent(), singleMeta));
+    } finally {
+      EntityUtils.consume(entity);
+    }
+  }
+
+  /**
+   * Remembers a full collection along with its validators, so that the next read can be answered with a 304.
+   *
+   * The undecoded response is kept rather than the decoded objects: it is more compact, and the sdk model objects
+   * are mutable, so each read decodes its own copy.
+   */
+  private static void cacheCollection(String url, HttpResponse response, byte[] content) {
+    final Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+    final Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+    if (etag == null && lastModified == null) {
+      cachedCollections.invalidate(url);
+      return;
+    }
+
+    cachedCollections.put(url, new CachedCollection(
+      etag == null ? null : etag.getValue(),
+      lastModified == null ? null : lastModified.getValue(),
+      content
+    ));
+  }
+
   private static Collection<String> getRequestIds(AmazonWebServiceRequest request, String idFieldName) {
     if (request == null) {
       return Collections.emptySet();
     }
     try {
-      Field field = request.getClass().getDeclaredField(idFieldName);
-      field.setAccessible(true);
+      Field field = requestIdFields
+        .computeIfAbsent(request.getClass(), c -> new ConcurrentHashMap<>())
+        .computeIfAbsent(idFieldName, n -> getRequestIdField(request.getClass(), n));
       Collection<String> collection = (Collection<String>) field.get(request);
       return collection == null ? Collections.emptySet() : collection;
-    } catch (NoSuchFieldException | IllegalAccessException e) {
+    } catch (IllegalAccessException e) {
       throw new RuntimeException(e);
     }
   }
 
-  private HttpEntity getHttpEntity(Map<String, String> metricTags, String objectName, String key) throws IOException {
-    final String url = edda + "/REST/v2/aws/" + objectName + (key == null ? ";_expand" : "/" + key) + ";_meta";
+  private static Field getRequestIdField(Class<?> requestClass, String idFieldName) {
+    try {
+      Field field = requestClass.getDeclaredField(idFieldName);
+      field.setAccessible(true);
+      return field;
+    } catch (NoSuchFieldException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private String getUrl(String objectName, String key) {
+    return edda + "/REST/v2/aws/" + objectName + (key == null ? ";_expand" : "/" + key) + ";_meta";
+  }
+
+  /**
+   * @param cached a previously read copy of the collection, if any, to revalidate rather than download again
+   * @return a 200 response, or a 304 response when the cached copy is still current
+   */
+  private HttpResponse getHttpResponse(Map<String, String> metricTags, String url, CachedCollection cached) throws IOException {
     final HttpGet get = new HttpGet(url);
+    if (cached != null) {
+      if (cached.etag != null) {
+        get.setHeader(HttpHeaders.IF_NONE_MATCH, cached.etag);
+      }
+      if (cached.lastModified != null) {
+        get.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+      }
+    }
     get.setConfig(
       RequestConfig
         .custom()
@@ -404,12 +572,11 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
         final HttpResponse response = registry.timer(httpExecuteTime).record(() -> httpClient.execute(get));
         final int statusCode = response.getStatusLine().getStatusCode();
         entity = response.getEntity();
-        if (statusCode != HttpStatus.SC_OK) {
-          lastException = response.getProtocolVersion().toString() + " " + response.getStatusLine().getStatusCode() + " " + response.getStatusLine().getReasonPhrase();
-          registry.counter(httpErrors.withTag("statusCode", Integer.toString(statusCode))).increment();
-        } else {
-          return entity;
+        if (statusCode == HttpStatus.SC_OK || (cached != null && statusCode == HttpStatus.SC_NOT_MODIFIED)) {
+          return response;
         }
+        lastException = response.getProtocolVersion().toString() + " " + response.getStatusLine().getStatusCode() + " " + response.getStatusLine().getReasonPhrase();
+        registry.counter(httpErrors.withTag("statusCode", Integer.toString(statusCode))).increment();
       } catch (Exception e) {
         lastException = e.getClass().getSimpleName() + ": " + e.getMessage();
         ex = e;
@@ -451,4 +618,28 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
       this.data = data;
     }
   }
+
+  private static class CachedCollection {
+    final String etag;
+    final String lastModified;
+    final byte[] content;
+
+    CachedCollection(String etag, String lastModified, byte[] content) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.content = content;
+    }
+  }
+
+  private static class Dispatch {
+    final MethodHandle handle;
+    final Object target;
+    final Id timerId;
+
+    Dispatch(MethodHandle handle, Object target, Id timerId) {
+      this.handle = handle;
+      this.target = target;
+      this.timerId = timerId;
+    }
+  }
 }
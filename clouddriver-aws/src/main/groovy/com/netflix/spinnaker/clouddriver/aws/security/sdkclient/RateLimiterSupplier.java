@@ -19,7 +19,7 @@ package com.netflix.spinnaker.clouddriver.aws.security.sdkclient;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.util.concurrent.RateLimiter;
+import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.clouddriver.aws.AmazonCloudProvider;
 import com.netflix.spinnaker.clouddriver.core.limits.ServiceLimitConfiguration;
@@ -30,17 +30,20 @@ import java.util.concurrent.ExecutionException;
 
 /**
  * Factory for shared RateLimiters by SDK client interface/account/region.
+ *
+ * Each limiter starts at the configured rateLimit and adapts to throttling between minRateLimit and maxRateLimit
+ * (which default to the lower of rateLimit and 1, and to rateLimit).
  */
 public class RateLimiterSupplier {
 
-  private final LoadingCache<RateLimitKey, RateLimiter> rateLimiters;
+  private final LoadingCache<RateLimitKey, AdaptiveRateLimiter> rateLimiters;
 
   public RateLimiterSupplier(ServiceLimitConfiguration serviceLimitConfiguration, Registry registry) {
-    rateLimiters = CacheBuilder.newBuilder().recordStats().build(new RateLimitCacheLoader(serviceLimitConfiguration));
+    rateLimiters = CacheBuilder.newBuilder().recordStats().build(new RateLimitCacheLoader(serviceLimitConfiguration, registry));
     LoadingCacheMetrics.instrument("rateLimiterSupplier", registry, rateLimiters);
   }
 
-  public RateLimiter getRateLimiter(Class<?> implementation, String account, String region) {
+  public AdaptiveRateLimiter getRateLimiter(Class<?> implementation, String account, String region) {
     try {
       return rateLimiters.get(new RateLimitKey(implementation, account, region));
     } catch (ExecutionException executionException) {
@@ -51,31 +54,51 @@ public class RateLimiterSupplier {
     }
   }
 
-  private static class RateLimitCacheLoader extends CacheLoader<RateLimitKey, RateLimiter> {
+  private static class RateLimitCacheLoader extends CacheLoader<RateLimitKey, AdaptiveRateLimiter> {
     private static final double DEFAULT_LIMIT = 10.0d;
+    private static final double DEFAULT_MIN_LIMIT = 1.0d;
 
     private final ServiceLimitConfiguration serviceLimitConfiguration;
+    private final Registry registry;
     private final double defaultLimit;
 
-    public RateLimitCacheLoader(ServiceLimitConfiguration serviceLimitConfiguration) {
-      this(serviceLimitConfiguration, DEFAULT_LIMIT);
+    public RateLimitCacheLoader(ServiceLimitConfiguration serviceLimitConfiguration, Registry registry) {
+      this(serviceLimitConfiguration, registry, DEFAULT_LIMIT);
     }
 
-    public RateLimitCacheLoader(ServiceLimitConfiguration serviceLimitConfiguration, double defaultLimit) {
+    public RateLimitCacheLoader(ServiceLimitConfiguration serviceLimitConfiguration, Registry registry, double defaultLimit) {
       this.serviceLimitConfiguration = Objects.requireNonNull(serviceLimitConfiguration);
+      this.registry = Objects.requireNonNull(registry);
       this.defaultLimit = defaultLimit;
     }
 
     @Override
-    public RateLimiter load(RateLimitKey key) throws Exception {
-      double rateLimit = serviceLimitConfiguration.getLimit(
-        ServiceLimitConfiguration.API_RATE_LIMIT,
+    public AdaptiveRateLimiter load(RateLimitKey key) throws Exception {
+      double rateLimit = getLimit(ServiceLimitConfiguration.API_RATE_LIMIT, key, defaultLimit);
+      double minRateLimit = getLimit(ServiceLimitConfiguration.API_RATE_LIMIT_MIN, key, Math.min(rateLimit, DEFAULT_MIN_LIMIT));
+      double maxRateLimit = getLimit(ServiceLimitConfiguration.API_RATE_LIMIT_MAX, key, rateLimit);
+
+      final Id id = registry.createId("amazonClientProvider.rateLimit")
+        .withTag("clientType", key.implementationClass.getSimpleName())
+        .withTag("account", key.account)
+        .withTag("region", key.region == null ? "UNSPECIFIED" : key.region);
+      final AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(
+        rateLimit,
+        minRateLimit,
+        maxRateLimit,
+        registry.counter(registry.createId("amazonClientProvider.throttles", id.tags()))
+      );
+      registry.gauge(id, rateLimiter, AdaptiveRateLimiter::getRate);
+      return rateLimiter;
+    }
+
+    private double getLimit(String limit, RateLimitKey key, double defaultValue) {
+      return serviceLimitConfiguration.getLimit(
+        limit,
         key.implementationClass.getSimpleName(),
         key.account,
         AmazonCloudProvider.ID,
-        defaultLimit);
-
-      return RateLimiter.create(rateLimit);
+        defaultValue);
     }
   }
 
@@ -16,9 +16,11 @@
 
 package com.netflix.spinnaker.clouddriver.aws.security.sdkclient;
 
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.Request;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
 import com.amazonaws.handlers.RequestHandler2;
-import com.google.common.util.concurrent.RateLimiter;
+import com.amazonaws.retry.RetryUtils;
 import com.netflix.spectator.api.Counter;
 
 import java.util.Objects;
@@ -26,13 +28,14 @@ import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 
 /**
- * A RequestHandler that will throttle requests via the supplied RateLimiter.
+ * A RequestHandler that will throttle requests via the supplied AdaptiveRateLimiter, and feed the outcome of each
+ * attempt back to it.
  */
 public class RateLimitingRequestHandler extends RequestHandler2 {
   private final Counter counter;
-  private final RateLimiter rateLimiter;
+  private final AdaptiveRateLimiter rateLimiter;
 
-  public RateLimitingRequestHandler(Counter counter, RateLimiter rateLimiter) {
+  public RateLimitingRequestHandler(Counter counter, AdaptiveRateLimiter rateLimiter) {
     this.counter = requireNonNull(counter);
     this.rateLimiter = requireNonNull(rateLimiter);
   }
@@ -45,6 +48,17 @@ public class RateLimitingRequestHandler extends RequestHandler2 {
     super.beforeRequest(request);
   }
 
+  @Override
+  public void afterAttempt(HandlerAfterAttemptContext context) {
+    final Exception exception = context.getException();
+    if (exception == null) {
+      rateLimiter.onSuccess();
+    } else if (exception instanceof AmazonServiceException && RetryUtils.isThrottlingException((AmazonServiceException) exception)) {
+      rateLimiter.onThrottle();
+    }
+    super.afterAttempt(context);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
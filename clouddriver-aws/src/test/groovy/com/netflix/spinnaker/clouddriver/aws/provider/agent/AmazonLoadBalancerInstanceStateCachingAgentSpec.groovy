@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.aws.provider.agent
+
+import com.amazonaws.services.elasticloadbalancing.AmazonElasticLoadBalancing
+import com.amazonaws.services.elasticloadbalancing.model.DescribeInstanceHealthResult
+import com.amazonaws.services.elasticloadbalancing.model.InstanceState
+import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerNotFoundException
+import com.netflix.awsobjectmapper.AmazonObjectMapperConfigurer
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.cats.cache.Cache
+import com.netflix.spinnaker.cats.cache.DefaultCacheData
+import com.netflix.spinnaker.cats.provider.ProviderCache
+import com.netflix.spinnaker.clouddriver.aws.data.Keys
+import com.netflix.spinnaker.clouddriver.aws.security.AmazonClientProvider
+import com.netflix.spinnaker.clouddriver.aws.security.NetflixAmazonCredentials
+import com.netflix.spinnaker.clouddriver.helpers.FutureHelper
+import org.springframework.context.ApplicationContext
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.ExecutorService
+
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.HEALTH
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.INSTANCES
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.LOAD_BALANCERS
+
+class AmazonLoadBalancerInstanceStateCachingAgentSpec extends Specification {
+  static final String ACCOUNT = "test"
+  static final String REGION = "us-east-1"
+
+  def loadBalancing = Mock(AmazonElasticLoadBalancing)
+  def cache = Mock(Cache)
+  def registry = new DefaultRegistry()
+
+  def creds = Stub(NetflixAmazonCredentials) {
+    getName() >> ACCOUNT
+  }
+
+  def acp = Stub(AmazonClientProvider) {
+    getAmazonElasticLoadBalancing(creds, REGION) >> loadBalancing
+  }
+
+  def ctx = Stub(ApplicationContext) {
+    getBean(Cache) >> cache
+  }
+
+  @AutoCleanup("shutdownNow")
+  ExecutorService healthExecutor = FutureHelper.newFixedThreadPool("load-balancer-instance-state-spec-%d", 2)
+
+  @Subject
+  def agent = new AmazonLoadBalancerInstanceStateCachingAgent(acp, creds, REGION, AmazonObjectMapperConfigurer.createConfigured(), ctx, registry, healthExecutor)
+
+  def withInstances = Keys.getLoadBalancerKey("with-instances", ACCOUNT, REGION, "vpc-1", null)
+  def withoutInstances = Keys.getLoadBalancerKey("without-instances", ACCOUNT, REGION, "vpc-1", null)
+  def deleted = Keys.getLoadBalancerKey("deleted", ACCOUNT, REGION, null, null)
+  def application = Keys.getLoadBalancerKey("app", ACCOUNT, REGION, "vpc-1", "application")
+
+  def setup() {
+    cache.filterIdentifiers(LOAD_BALANCERS.ns, _) >> { type, String glob ->
+      glob.endsWith(":*:*") ? [withInstances, withoutInstances, application] : [deleted]
+    }
+  }
+
+  void "only describes the health of classic load balancers with registered instances"() {
+    when:
+    def result = agent.loadData(Mock(ProviderCache))
+
+    then:
+    1 * cache.getAll(LOAD_BALANCERS.ns, [withInstances, withoutInstances, deleted], _) >> [
+      new DefaultCacheData(withInstances, [:], [(INSTANCES.ns): [Keys.getInstanceKey("i-1", ACCOUNT, REGION)]]),
+      new DefaultCacheData(withoutInstances, [:], [:]),
+      new DefaultCacheData(deleted, [:], [(INSTANCES.ns): [Keys.getInstanceKey("i-2", ACCOUNT, REGION)]])
+    ]
+    1 * loadBalancing.describeInstanceHealth({ it.loadBalancerName == "with-instances" }) >> health("InService")
+    1 * loadBalancing.describeInstanceHealth({ it.loadBalancerName == "deleted" }) >> { throw new LoadBalancerNotFoundException("deleted") }
+    0 * loadBalancing._
+
+    result.cacheResults[HEALTH.ns]*.id == [Keys.getInstanceHealthKey("i-1", ACCOUNT, REGION, agent.healthId)]
+    result.cacheResults[HEALTH.ns][0].attributes.loadBalancers*.state == ["InService"]
+    result.cacheResults[INSTANCES.ns]*.id == [Keys.getInstanceKey("i-1", ACCOUNT, REGION)]
+    registry.counter(registry.createId("aws.loadBalancerInstanceState.describeInstanceHealth", [account: ACCOUNT, region: REGION, result: "skipped"])).count() == 1
+  }
+
+  void "reuses health entries whose instance states are unchanged"() {
+    given:
+    cache.getAll(LOAD_BALANCERS.ns, _, _) >> [
+      new DefaultCacheData(withInstances, [:], [(INSTANCES.ns): [Keys.getInstanceKey("i-1", ACCOUNT, REGION)]])
+    ]
+
+    when:
+    def first = agent.loadData(Mock(ProviderCache))
+    def second = agent.loadData(Mock(ProviderCache))
+    def third = agent.loadData(Mock(ProviderCache))
+
+    then:
+    3 * loadBalancing.describeInstanceHealth(_) >>> [health("InService"), health("InService"), health("OutOfService")]
+    second.cacheResults[HEALTH.ns][0].is(first.cacheResults[HEALTH.ns][0])
+    !third.cacheResults[HEALTH.ns][0].is(first.cacheResults[HEALTH.ns][0])
+    third.cacheResults[HEALTH.ns][0].attributes.loadBalancers*.state == ["OutOfService"]
+    registry.counter(registry.createId("aws.loadBalancerInstanceState.unchanged", [account: ACCOUNT, region: REGION])).count() == 1
+  }
+
+  private static DescribeInstanceHealthResult health(String state) {
+    return new DescribeInstanceHealthResult().withInstanceStates(new InstanceState().withInstanceId("i-1").withState(state))
+  }
+}
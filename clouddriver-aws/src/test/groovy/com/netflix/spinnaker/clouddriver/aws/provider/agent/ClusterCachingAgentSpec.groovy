@@ -17,11 +17,37 @@
 
 package com.netflix.spinnaker.clouddriver.aws.provider.agent
 
+import com.amazonaws.services.autoscaling.AmazonAutoScaling
+import com.amazonaws.services.autoscaling.model.Alarm
 import com.amazonaws.services.autoscaling.model.AutoScalingGroup
+import com.amazonaws.services.autoscaling.model.DescribeAutoScalingGroupsResult
+import com.amazonaws.services.autoscaling.model.DescribePoliciesResult
+import com.amazonaws.services.autoscaling.model.DescribeScheduledActionsResult
+import com.amazonaws.services.autoscaling.model.ScalingPolicy
 import com.amazonaws.services.autoscaling.model.SuspendedProcess
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch
+import com.amazonaws.services.cloudwatch.model.DescribeAlarmsResult
+import com.amazonaws.services.cloudwatch.model.MetricAlarm
+import com.amazonaws.services.ec2.AmazonEC2
+import com.amazonaws.services.ec2.model.DescribeSubnetsResult
+import com.amazonaws.services.ec2.model.Subnet
+import com.netflix.awsobjectmapper.AmazonObjectMapperConfigurer
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.cats.provider.ProviderCache
+import com.netflix.spinnaker.clouddriver.aws.AmazonCloudProvider
+import com.netflix.spinnaker.clouddriver.aws.data.Keys
+import com.netflix.spinnaker.clouddriver.aws.security.AmazonClientProvider
+import com.netflix.spinnaker.clouddriver.aws.security.EddaTimeoutConfig
+import com.netflix.spinnaker.clouddriver.aws.security.NetflixAmazonCredentials
+import com.netflix.spinnaker.clouddriver.helpers.FutureHelper
+import spock.lang.AutoCleanup
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.concurrent.ExecutorService
+
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.SERVER_GROUPS
+
 class ClusterCachingAgentSpec extends Specification {
   static int defaultMin = 1
   static int defaultMax = 1
@@ -29,6 +55,10 @@ class ClusterCachingAgentSpec extends Specification {
   static Collection<String> defaultSuspendedProcesses = ["Launch"]
   static String vpc = "vpc-1"
 
+  // a single thread is enough, the agent's tasks never wait on one another
+  @AutoCleanup("shutdownNow")
+  ExecutorService loadExecutor = FutureHelper.newFixedThreadPool("cluster-caching-agent-spec-%d", 1)
+
   AutoScalingGroup defaultAsg = new AutoScalingGroup()
     .withAutoScalingGroupName("test-v001")
     .withDesiredCapacity(defaultDesired)
@@ -86,6 +116,53 @@ class ClusterCachingAgentSpec extends Specification {
     e.message.startsWith("failed to resolve only one vpc")
   }
 
+  def "should page through auto scaling groups while loading their scaling policies, scheduled actions and subnets"() {
+    given:
+    def autoScaling = Mock(AmazonAutoScaling)
+    def cloudWatch = Mock(AmazonCloudWatch)
+    def ec2 = Mock(AmazonEC2)
+    def creds = Stub(NetflixAmazonCredentials) {
+      getName() >> "test"
+      getEddaEnabled() >> false
+    }
+    def acp = Stub(AmazonClientProvider) {
+      getAutoScaling(creds, "us-west-1", false) >> autoScaling
+      getAmazonCloudWatch(creds, "us-west-1", false) >> cloudWatch
+      getAmazonEC2(creds, "us-west-1", false) >> ec2
+    }
+    def providerCache = Stub(ProviderCache) {
+      filterIdentifiers(_, _) >> []
+      getAll(_, _) >> []
+    }
+    def registry = new DefaultRegistry()
+    def agent = new ClusterCachingAgent(new AmazonCloudProvider(), acp, creds, "us-west-1",
+      AmazonObjectMapperConfigurer.createConfigured(), registry, new EddaTimeoutConfig.Builder().build(), loadExecutor)
+
+    when:
+    def result = agent.loadData(providerCache)
+    def serverGroups = result.cacheResults[SERVER_GROUPS.ns].collectEntries { [(it.id): it] }
+
+    then:
+    1 * autoScaling.describeAutoScalingGroups({ it.nextToken == null }) >> new DescribeAutoScalingGroupsResult(
+      autoScalingGroups: [defaultAsg], nextToken: "page-2")
+    1 * autoScaling.describeAutoScalingGroups({ it.nextToken == "page-2" }) >> new DescribeAutoScalingGroupsResult(
+      autoScalingGroups: [new AutoScalingGroup().withAutoScalingGroupName("test-v002"), new AutoScalingGroup().withAutoScalingGroupName("test-v003").withStatus("Delete in progress")])
+    1 * autoScaling.describePolicies(_) >> new DescribePoliciesResult(scalingPolicies: [
+      new ScalingPolicy(autoScalingGroupName: "test-v001", policyName: "scale-up", alarms: [new Alarm(alarmName: "alarm", alarmARN: "arn:alarm")])
+    ])
+    1 * cloudWatch.describeAlarms(_) >> new DescribeAlarmsResult(metricAlarms: [new MetricAlarm(alarmName: "alarm", alarmArn: "arn:alarm")])
+    1 * autoScaling.describeScheduledActions(_) >> new DescribeScheduledActionsResult(scheduledUpdateGroupActions: [])
+    1 * ec2.describeSubnets(_) >> new DescribeSubnetsResult(subnets: [new Subnet(subnetId: "subnetId1", vpcId: vpc), new Subnet(subnetId: "subnetId2", vpcId: vpc)])
+
+    serverGroups.keySet() == [Keys.getServerGroupKey("test-v001", "test", "us-west-1"), Keys.getServerGroupKey("test-v002", "test", "us-west-1")] as Set
+
+    def serverGroup = serverGroups[Keys.getServerGroupKey("test-v001", "test", "us-west-1")]
+    serverGroup.attributes.asg.autoScalingGroupName == "test-v001"
+    serverGroup.attributes.vpcId == vpc
+    serverGroup.attributes.scalingPolicies*.alarms*.alarmName == [["alarm"]]
+    registry.timer(registry.createId("aws.clusterCachingAgent.phaseTime", [account: "test", region: "us-west-1", phase: "convertAutoScalingGroups"])).count() == 2
+  }
+
   private SuspendedProcess sP(String processName) {
     return new SuspendedProcess().withProcessName(processName)
   }
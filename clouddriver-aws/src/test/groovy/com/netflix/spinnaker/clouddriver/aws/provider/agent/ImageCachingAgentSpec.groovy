@@ -22,9 +22,11 @@ import com.amazonaws.services.ec2.model.DescribeImagesResult
 import com.amazonaws.services.ec2.model.DomainType
 import com.amazonaws.services.ec2.model.Filter
 import com.amazonaws.services.ec2.model.Image
+import com.amazonaws.services.ec2.model.Tag
 import com.netflix.awsobjectmapper.AmazonObjectMapper
 import com.netflix.awsobjectmapper.AmazonObjectMapperConfigurer
 import com.netflix.spectator.api.Spectator
+import com.netflix.spinnaker.cats.cache.DefaultCacheData
 import com.netflix.spinnaker.cats.provider.ProviderCache
 import com.netflix.spinnaker.clouddriver.aws.AmazonCloudProvider
 import com.netflix.spinnaker.clouddriver.aws.data.Keys
@@ -35,6 +37,10 @@ import spock.lang.Shared
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.time.Clock
+import java.time.Instant
+import java.util.concurrent.TimeUnit
+
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.IMAGES
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.NAMED_IMAGES
 
@@ -81,6 +87,10 @@ class ImageCachingAgentSpec extends Specification {
   }
 
   def getAgent(boolean publicImages, boolean eddaEnabled) {
+    getAgent(publicImages, eddaEnabled, Clock.systemUTC())
+  }
+
+  def getAgent(boolean publicImages, boolean eddaEnabled, Clock clock) {
     def creds = Stub(NetflixAmazonCredentials) {
       getName() >> accountName
       getAccountId() >> accountId
@@ -92,7 +102,7 @@ class ImageCachingAgentSpec extends Specification {
     def acp = Stub(AmazonClientProvider) {
       getAmazonEC2(creds, region, _) >> ec2
     }
-    new ImageCachingAgent(acp, creds, region, AmazonObjectMapperConfigurer.createConfigured(), Spectator.globalRegistry(), publicImages, dcs)
+    new ImageCachingAgent(acp, creds, region, AmazonObjectMapperConfigurer.createConfigured(), Spectator.globalRegistry(), publicImages, dcs, clock)
   }
 
   void "should include only private images"() {
@@ -167,4 +177,120 @@ class ImageCachingAgentSpec extends Specification {
     !result.cacheResults[NAMED_IMAGES.ns].find { it.id == privateNamedImageKey }
   }
 
+  void "should only describe recently created images between full refreshes"() {
+    given:
+    long now = Instant.parse('2018-10-17T12:00:00Z').toEpochMilli()
+    def clock = Stub(Clock) {
+      millis() >> { now }
+    }
+    def agent = getAgent(false, false, clock)
+    def oldImage = privateImage.clone().withCreationDate('2018-01-01T00:00:00.000Z').withState('available')
+    def pendingImage = new Image().withImageId('ami-33333333').withName('pending').withPublic(false)
+      .withCreationDate('2018-10-16T23:30:00.000Z').withState('pending')
+    def newImage = new Image().withImageId('ami-44444444').withName('new').withPublic(false)
+      .withCreationDate('2018-10-17T12:05:00.000Z').withState('available')
+
+    when:
+    def result = agent.loadData(providerCache)
+    def oldImageData = result.cacheResults[IMAGES.ns].find { it.id == privateImageKey }
+
+    then:
+    1 * ec2.describeImages(new DescribeImagesRequest().withFilters(new Filter('is-public', ['false']))) >> new DescribeImagesResult(images: [oldImage, pendingImage])
+    result.cacheResults[IMAGES.ns].size() == 2
+
+    when: 'the pending image has since failed and a new image has been created'
+    now += TimeUnit.MINUTES.toMillis(10)
+    result = agent.loadData(providerCache)
+
+    then: 'the pending image keeps the previous day within the described creation dates'
+    1 * ec2.describeImages(new DescribeImagesRequest().withFilters(
+      new Filter('is-public', ['false']),
+      new Filter('creation-date', ['2018-10-16*', '2018-10-17*'])
+    )) >> new DescribeImagesResult(images: [newImage])
+    1 * providerCache.getAll(IMAGES.ns, [privateImageKey] as Set, _) >> [oldImageData]
+    result.cacheResults[IMAGES.ns]*.id.sort() == [privateImageKey, Keys.getImageKey('ami-44444444', accountName, region)].sort()
+    result.cacheResults[IMAGES.ns].find { it.id == privateImageKey }.attributes == oldImageData.attributes
+    def newImageData = result.cacheResults[IMAGES.ns].find { it.id == Keys.getImageKey('ami-44444444', accountName, region) }
+
+    when:
+    now += TimeUnit.MINUTES.toMillis(30)
+    result = agent.loadData(providerCache)
+
+    then: 'deregistered images are dropped by the periodic full describe'
+    1 * ec2.describeImages(new DescribeImagesRequest().withFilters(new Filter('is-public', ['false']))) >> new DescribeImagesResult(images: [newImage])
+    1 * providerCache.getAll(IMAGES.ns, [newImageData.id] as Set, _) >> { [newImageData] }
+    result.cacheResults[IMAGES.ns]*.id == [Keys.getImageKey('ami-44444444', accountName, region)]
+  }
+
+  void "should only convert images that EC2 reports differently"() {
+    given:
+    long now = Instant.parse('2018-10-17T12:00:00Z').toEpochMilli()
+    def clock = Stub(Clock) {
+      millis() >> { now }
+    }
+    def agent = getAgent(false, false, clock)
+    def request = new DescribeImagesRequest().withFilters(new Filter('is-public', ['false']))
+    def unchangedImage = privateImage.clone().withCreationDate('2018-01-01T00:00:00.000Z').withState('available')
+    def changedImage = new Image().withImageId('ami-33333333').withName('changed').withPublic(false)
+      .withCreationDate('2018-01-02T00:00:00.000Z').withState('available')
+    def changedImageKey = Keys.getImageKey('ami-33333333', accountName, region)
+
+    when:
+    agent.loadData(providerCache)
+
+    then:
+    1 * ec2.describeImages(request) >> new DescribeImagesResult(images: [unchangedImage, changedImage])
+    0 * providerCache._
+
+    when:
+    now += TimeUnit.MINUTES.toMillis(31)
+    def result = agent.loadData(providerCache)
+
+    then: 'the unchanged image is read back from the cache rather than converted again'
+    1 * ec2.describeImages(request) >> new DescribeImagesResult(images: [
+      unchangedImage.clone(),
+      changedImage.clone().withTags(new Tag('owner', 'someone'))
+    ])
+    1 * providerCache.getAll(IMAGES.ns, [privateImageKey] as Set, _) >> [
+      new DefaultCacheData(privateImageKey, [imageId: 'ami-22222222', cached: true], [:])
+    ]
+    result.cacheResults[IMAGES.ns]*.id.sort() == [privateImageKey, changedImageKey].sort()
+    with(result.cacheResults[IMAGES.ns].find { it.id == privateImageKey }) {
+      attributes.cached
+      relationships[NAMED_IMAGES.ns] == [privateNamedImageKey]
+    }
+    result.cacheResults[IMAGES.ns].find { it.id == changedImageKey }.attributes.tags*.key == ['owner']
+    result.cacheResults[NAMED_IMAGES.ns]*.id.sort() == [privateNamedImageKey, Keys.getNamedImageKey(accountName, 'changed')].sort()
+  }
+
+  void "should convert unchanged images again when they are missing from the cache"() {
+    given:
+    long now = Instant.parse('2018-10-17T12:00:00Z').toEpochMilli()
+    def clock = Stub(Clock) {
+      millis() >> { now }
+    }
+    def agent = getAgent(false, false, clock)
+    def fullRequest = new DescribeImagesRequest().withFilters(new Filter('is-public', ['false']))
+    def oldImage = privateImage.clone().withCreationDate('2018-01-01T00:00:00.000Z').withState('available')
+
+    when:
+    agent.loadData(providerCache)
+
+    then:
+    1 * ec2.describeImages(fullRequest) >> new DescribeImagesResult(images: [oldImage])
+
+    when:
+    now += TimeUnit.MINUTES.toMillis(10)
+    def result = agent.loadData(providerCache)
+
+    then: 'an image that was not described is missing, so every image is described again'
+    1 * ec2.describeImages(new DescribeImagesRequest().withFilters(
+      new Filter('is-public', ['false']),
+      new Filter('creation-date', ['2018-10-17*'])
+    )) >> new DescribeImagesResult(images: [])
+    1 * ec2.describeImages(fullRequest) >> new DescribeImagesResult(images: [oldImage.clone()])
+    2 * providerCache.getAll(IMAGES.ns, [privateImageKey] as Set, _) >> []
+    result.cacheResults[IMAGES.ns]*.id == [privateImageKey]
+    result.cacheResults[IMAGES.ns][0].attributes.imageId == 'ami-22222222'
+  }
 }
@@ -17,17 +17,32 @@
 
 package com.netflix.spinnaker.clouddriver.aws.provider.agent
 
+import com.amazonaws.services.ec2.AmazonEC2
+import com.amazonaws.services.ec2.model.DescribeInstancesResult
+import com.amazonaws.services.ec2.model.Instance
+import com.amazonaws.services.ec2.model.InstanceState
+import com.amazonaws.services.ec2.model.Placement
+import com.amazonaws.services.ec2.model.Reservation
+import com.netflix.awsobjectmapper.AmazonObjectMapperConfigurer
 import com.netflix.spectator.api.Counter
+import com.netflix.spectator.api.DefaultRegistry
 import com.netflix.spectator.api.Id
 import com.netflix.spectator.api.Registry
+import com.netflix.spinnaker.cats.cache.Cache
+import com.netflix.spinnaker.clouddriver.aws.data.Keys
 import com.netflix.spinnaker.clouddriver.aws.model.AmazonReservationReport
+import com.netflix.spinnaker.clouddriver.aws.security.AmazonClientProvider
 import com.netflix.spinnaker.clouddriver.aws.security.AmazonCredentials
 import com.netflix.spinnaker.clouddriver.aws.security.NetflixAmazonCredentials
+import org.springframework.context.ApplicationContext
 import spock.lang.Specification
 import spock.lang.Unroll
 
 import java.util.concurrent.ConcurrentHashMap
 
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.INSTANCES
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.RESERVED_INSTANCES
+
 class ReservationReportCachingAgentSpec extends Specification {
   def registry = Mock(Registry)
   def registryId = Mock(Id)
@@ -68,4 +83,85 @@ class ReservationReportCachingAgentSpec extends Specification {
     3 * registry.counter(registryId) >> counter
     3 * counter.increment()
   }
+
+  def "should only describe instances again when the cached instances of a region change"() {
+    given:
+    def cache = Mock(Cache)
+    def amazonEC2 = Mock(AmazonEC2)
+    def credentials = Stub(NetflixAmazonCredentials) {
+      getName() >> "test"
+      getRegions() >> [new AmazonCredentials.AWSRegion("us-west-1", ["us-west-1a"], null, false)]
+    }
+    def amazonClientProvider = Stub(AmazonClientProvider) {
+      getAmazonEC2(credentials, "us-west-1") >> amazonEC2
+    }
+    def ctx = Stub(ApplicationContext) {
+      getBean(Cache) >> cache
+    }
+    def agent = new ReservationReportCachingAgent(
+      new DefaultRegistry(), amazonClientProvider, null, [], AmazonObjectMapperConfigurer.createConfigured(), null, ctx
+    )
+
+    and:
+    cache.filterIdentifiers(RESERVED_INSTANCES.ns, _) >> []
+    cache.getAll(RESERVED_INSTANCES.ns, _, _) >> []
+    cache.filterIdentifiers(INSTANCES.ns, Keys.getInstanceKey('*', '*', '*')) >>> [
+      [instanceKey("i-1")], [instanceKey("i-1")], [instanceKey("i-1"), instanceKey("i-2")]
+    ]
+
+    when:
+    def reservations = (1..3).collect {
+      def reservations = new ConcurrentHashMap<String, AmazonReservationReport.OverallReservationDetail>()
+      agent.extractReservations(reservations, new ConcurrentHashMap(), credentials, agent.instanceIdentifiersByRegion)
+      return reservations
+    }
+
+    then:
+    2 * amazonEC2.describeInstances(_) >>> [describeInstancesResult("i-1"), describeInstancesResult("i-1", "i-2")]
+    reservations.collect { it.values()*.totalUsed*.intValue() } == [[1], [1], [2]]
+    reservations.collect { it.values()[0].accounts.test.usedVpc.intValue() } == [1, 1, 2]
+  }
+
+  def "should read the cached instance identifiers of every account and region at once"() {
+    given:
+    def cache = Mock(Cache)
+    def ctx = Stub(ApplicationContext) {
+      getBean(Cache) >> cache
+    }
+    def agent = new ReservationReportCachingAgent(
+      new DefaultRegistry(), Stub(AmazonClientProvider), null, [], AmazonObjectMapperConfigurer.createConfigured(), null, ctx
+    )
+
+    when:
+    def instanceIdentifiers = agent.instanceIdentifiersByRegion
+
+    then:
+    1 * cache.filterIdentifiers(INSTANCES.ns, Keys.getInstanceKey('*', '*', '*')) >> [
+      instanceKey("i-1"),
+      instanceKey("i-2", "test", "us-west-2"),
+      instanceKey("i-3"),
+      instanceKey("i-4", "prod", "us-west-1")
+    ]
+    0 * cache._
+    instanceIdentifiers == [
+      "test:us-west-1": [instanceKey("i-1"), instanceKey("i-3")],
+      "test:us-west-2": [instanceKey("i-2", "test", "us-west-2")],
+      "prod:us-west-1": [instanceKey("i-4", "prod", "us-west-1")]
+    ]
+  }
+
+  private static String instanceKey(String instanceId, String account = "test", String region = "us-west-1") {
+    return Keys.getInstanceKey(instanceId, account, region)
+  }
+
+  private static DescribeInstancesResult describeInstancesResult(String... instanceIds) {
+    return new DescribeInstancesResult().withReservations(new Reservation().withInstances(instanceIds.collect {
+      new Instance()
+        .withInstanceId(it)
+        .withInstanceType("m5.large")
+        .withState(new InstanceState().withName("running"))
+        .withPlacement(new Placement("us-west-1a"))
+        .withVpcId("vpc-1")
+    }))
+  }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.aws.provider.view
+
+import com.netflix.spinnaker.cats.cache.Cache
+import com.netflix.spinnaker.cats.cache.CacheData
+import com.netflix.spinnaker.cats.cache.DefaultCacheData
+import com.netflix.spinnaker.clouddriver.aws.AmazonCloudProvider
+import com.netflix.spinnaker.clouddriver.aws.data.Keys
+import com.netflix.spinnaker.clouddriver.aws.provider.AwsProvider
+import com.netflix.spinnaker.clouddriver.core.provider.agent.HealthProvidingCachingAgent
+import com.netflix.spinnaker.clouddriver.helpers.FutureHelper
+import com.netflix.spinnaker.clouddriver.model.HealthState
+import com.netflix.spinnaker.clouddriver.security.AccountCredentialsRepository
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.ExecutorService
+
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.*
+
+class AmazonClusterProviderSpec extends Specification {
+  static final String ACCOUNT = "test"
+  static final String REGION = "us-east-1"
+
+  def cache = Mock(Cache)
+  def healthAgent = Stub(HealthProvidingCachingAgent) {
+    getHealthId() >> "discovery"
+  }
+
+  @AutoCleanup("shutdownNow")
+  ExecutorService resolveExecutor = FutureHelper.newFixedThreadPool("amazon-cluster-provider-spec-%d", 2)
+
+  @Subject
+  def provider = new AmazonClusterProvider(
+    new AmazonCloudProvider(),
+    cache,
+    new AwsProvider(Mock(AccountCredentialsRepository), [healthAgent]),
+    resolveExecutor
+  )
+
+  Map<String, Map<String, CacheData>> data = [:].withDefault { [:] }
+
+  def setup() {
+    String loadBalancer = Keys.getLoadBalancerKey("app-elb", ACCOUNT, REGION, null, null)
+    data[APPLICATIONS.ns][Keys.getApplicationKey("app")] = cacheData(Keys.getApplicationKey("app"), [:], [
+      (CLUSTERS.ns): ["app-main", "app-canary"].collect { Keys.getClusterKey(it, "app", ACCOUNT) }
+    ])
+
+    ["app-main", "app-canary"].eachWithIndex { String cluster, int i ->
+      String serverGroup = Keys.getServerGroupKey("${cluster}-v000", ACCOUNT, REGION)
+      String launchConfig = Keys.getLaunchConfigKey("${cluster}-v000", ACCOUNT, REGION)
+      String instance = Keys.getInstanceKey("i-${i}", ACCOUNT, REGION)
+      String image = Keys.getImageKey("ami-${i}", ACCOUNT, REGION)
+
+      // both clusters share a load balancer
+      data[CLUSTERS.ns][Keys.getClusterKey(cluster, "app", ACCOUNT)] = cacheData(Keys.getClusterKey(cluster, "app", ACCOUNT), [:], [
+        (SERVER_GROUPS.ns): [serverGroup], (LOAD_BALANCERS.ns): [loadBalancer]
+      ])
+      data[SERVER_GROUPS.ns][serverGroup] = cacheData(serverGroup, [asg: [instances: [[instanceId: "i-${i}".toString()]]]], [
+        (INSTANCES.ns): [instance], (LAUNCH_CONFIGS.ns): [launchConfig]
+      ])
+      data[LAUNCH_CONFIGS.ns][launchConfig] = cacheData(launchConfig, [imageId: "ami-${i}".toString()], [
+        (IMAGES.ns): [image], (SERVER_GROUPS.ns): [serverGroup]
+      ])
+      data[INSTANCES.ns][instance] = cacheData(instance, [instanceId: "i-${i}".toString()], [:])
+      data[IMAGES.ns][image] = cacheData(image, [imageId: "ami-${i}".toString()], [:])
+
+      String health = Keys.getInstanceHealthKey("i-${i}", ACCOUNT, REGION, "discovery")
+      data[HEALTH.ns][health] = cacheData(health, [state: "Up"], [:])
+    }
+    data[LOAD_BALANCERS.ns][loadBalancer] = cacheData(loadBalancer, [:], [:])
+  }
+
+  void "should fetch each relationship type once across all clusters"() {
+    when:
+    def clusters = provider.getClusterDetails("app")[ACCOUNT]
+
+    then:
+    1 * cache.get(APPLICATIONS.ns, _) >> { type, id -> data[type][id] }
+    1 * cache.getAll(CLUSTERS.ns, _, _) >> { type, ids, filter -> lookup(type, ids) }
+    1 * cache.getAll(LOAD_BALANCERS.ns, { it.size() == 1 }, _) >> { type, ids, filter -> lookup(type, ids) }
+    1 * cache.getAll(SERVER_GROUPS.ns, _, _) >> { type, ids, filter -> lookup(type, ids) }
+    1 * cache.getAll(INSTANCES.ns, _, _) >> { type, ids, filter -> lookup(type, ids) }
+    1 * cache.getAll(HEALTH.ns, _, _) >> { type, ids, filter -> lookup(type, ids) }
+    1 * cache.getAll(LAUNCH_CONFIGS.ns, _, _) >> { type, ids, filter -> lookup(type, ids) }
+    1 * cache.getAll(IMAGES.ns, _) >> { type, ids -> lookup(type, ids) }
+    0 * cache.getAll(TARGET_GROUPS.ns, _, _)
+
+    and:
+    clusters*.name.sort() == ["app-canary", "app-main"]
+    clusters.every { it.loadBalancers*.name == ["app-elb"] }
+
+    def serverGroups = clusters*.serverGroups.flatten()
+    serverGroups*.launchConfig*.imageId.sort() == ["ami-0", "ami-1"]
+    serverGroups*.image*.imageId.sort() == ["ami-0", "ami-1"]
+    serverGroups*.instances.flatten().every { it.healthState == HealthState.Up && it.health*.state == ["Up"] }
+  }
+
+  void "should resolve a server group's launch config and instances together"() {
+    given:
+    String serverGroup = Keys.getServerGroupKey("app-main-v000", ACCOUNT, REGION)
+
+    when:
+    def result = provider.getServerGroup(ACCOUNT, REGION, "app-main-v000")
+
+    then:
+    1 * cache.get(SERVER_GROUPS.ns, serverGroup) >> { type, id -> data[type][id] }
+    1 * cache.getAll(LAUNCH_CONFIGS.ns, _, _) >> { type, ids, filter -> lookup(type, ids) }
+    1 * cache.getAll(INSTANCES.ns, _, _) >> { type, ids, filter -> lookup(type, ids) }
+    1 * cache.getAll(HEALTH.ns, _, _) >> { type, ids, filter -> lookup(type, ids) }
+    1 * cache.get(IMAGES.ns, Keys.getImageKey("ami-0", ACCOUNT, REGION)) >> { type, id -> data[type][id] }
+
+    and:
+    result.launchConfig.imageId == "ami-0"
+    result.image.imageId == "ami-0"
+    result.instances*.name == ["i-0"]
+    result.instances*.healthState == [HealthState.Up]
+  }
+
+  private Collection<CacheData> lookup(String type, Collection<String> ids) {
+    ids.findResults { data[type][it] }
+  }
+
+  private static CacheData cacheData(String id, Map attributes, Map relationships) {
+    new DefaultCacheData(id, attributes, relationships)
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.aws.security.sdkclient
+
+import com.amazonaws.AmazonServiceException
+import com.amazonaws.handlers.HandlerAfterAttemptContext
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.clouddriver.core.limits.ServiceLimitConfigurationBuilder
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class AdaptiveRateLimiterSpec extends Specification {
+  def registry = new DefaultRegistry()
+  def throttles = registry.counter("throttles")
+  long now = 0
+
+  void "rate increases additively while calls succeed, up to the maximum"() {
+    given:
+    def limiter = new AdaptiveRateLimiter(10, 1, 12, throttles, { now })
+
+    when:
+    10.times { limiter.onSuccess() }
+
+    then:
+    limiter.rate > 10.9 && limiter.rate < 11.0
+
+    when:
+    100.times { limiter.onSuccess() }
+
+    then:
+    limiter.rate == 12
+  }
+
+  void "rate decreases multiplicatively on throttling, at most once per interval"() {
+    given:
+    def limiter = new AdaptiveRateLimiter(10, 3, 10, throttles, { now })
+
+    when:
+    limiter.onThrottle()
+    limiter.onThrottle()
+
+    then:
+    limiter.rate == 5
+    throttles.count() == 2
+
+    when:
+    now += TimeUnit.SECONDS.toNanos(1)
+    limiter.onThrottle()
+
+    then:
+    limiter.rate == 3
+  }
+
+  void "request handler reports the outcome of each attempt"() {
+    given:
+    def limiter = new AdaptiveRateLimiter(10, 1, 20, throttles, { now })
+    def handler = new RateLimitingRequestHandler(registry.counter("delay"), limiter)
+    def throttled = new AmazonServiceException("Rate exceeded")
+    throttled.errorCode = "Throttling"
+
+    when:
+    handler.afterAttempt(HandlerAfterAttemptContext.builder().build())
+
+    then:
+    Math.abs(limiter.rate - 10.1d) < 1e-9
+
+    when:
+    handler.afterAttempt(HandlerAfterAttemptContext.builder().withException(new AmazonServiceException("Not found")).build())
+
+    then:
+    Math.abs(limiter.rate - 10.1d) < 1e-9
+    throttles.count() == 0
+
+    when:
+    handler.afterAttempt(HandlerAfterAttemptContext.builder().withException(throttled).build())
+
+    then:
+    Math.abs(limiter.rate - 5.05d) < 1e-9
+    throttles.count() == 1
+  }
+
+  void "limiters are shared by client type, account and region"() {
+    given:
+    def supplier = new RateLimiterSupplier(new ServiceLimitConfigurationBuilder().build(), registry)
+
+    when:
+    def limiter = supplier.getRateLimiter(String, "test", "us-east-1")
+
+    then:
+    limiter.rate == 10
+    limiter.is(supplier.getRateLimiter(String, "test", "us-east-1"))
+    !limiter.is(supplier.getRateLimiter(String, "test", "us-west-2"))
+  }
+}
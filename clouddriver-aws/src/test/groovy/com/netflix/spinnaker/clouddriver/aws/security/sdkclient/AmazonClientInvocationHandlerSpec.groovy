@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.aws.security.sdkclient
+
+import com.amazonaws.AmazonServiceException
+import com.amazonaws.services.ec2.AmazonEC2
+import com.amazonaws.services.ec2.model.DescribeTagsRequest
+import com.amazonaws.services.ec2.model.DescribeTagsResult
+import com.amazonaws.services.ec2.model.DescribeVpcsRequest
+import com.amazonaws.services.elasticloadbalancingv2.AmazonElasticLoadBalancing
+import com.amazonaws.services.elasticloadbalancingv2.model.DescribeTargetGroupsRequest
+import com.amazonaws.services.elasticloadbalancingv2.model.DescribeTargetGroupsResult
+import com.netflix.awsobjectmapper.AmazonObjectMapperConfigurer
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.clouddriver.aws.security.EddaTimeoutConfig
+import org.apache.http.HttpResponse
+import org.apache.http.HttpVersion
+import org.apache.http.client.HttpClient
+import org.apache.http.client.methods.HttpGet
+import org.apache.http.entity.ContentType
+import org.apache.http.entity.StringEntity
+import org.apache.http.message.BasicHttpResponse
+import spock.lang.Specification
+
+import java.lang.reflect.Proxy
+
+class AmazonClientInvocationHandlerSpec extends Specification {
+  def httpClient = Mock(HttpClient)
+  def registry = new DefaultRegistry()
+
+  void "methods that edda does not serve are delegated to the sdk client"() {
+    given:
+    def delegate = Mock(AmazonEC2)
+    def client = proxy(AmazonEC2, delegate, EddaTimeoutConfig.DEFAULT)
+    def result = new DescribeTagsResult()
+
+    when:
+    def first = client.describeTags(new DescribeTagsRequest())
+    def second = client.describeTags(new DescribeTagsRequest())
+
+    then:
+    2 * delegate.describeTags(_) >> result
+    0 * httpClient._
+    first.is(result)
+    second.is(result)
+    registry.timer(registry.createId("awsClientProxy.invoke", [serviceName: "AmazonEC2"])
+      .withTag("method", "describeTags")
+      .withTag("requestMode", "sdkClient")).count() == 2
+  }
+
+  void "exceptions thrown by the sdk client are propagated as is"() {
+    given:
+    def delegate = Mock(AmazonEC2)
+    def client = proxy(AmazonEC2, delegate, EddaTimeoutConfig.DEFAULT)
+
+    when:
+    client.describeTags(new DescribeTagsRequest())
+
+    then:
+    1 * delegate.describeTags(_) >> { throw new AmazonServiceException("throttled") }
+    def e = thrown(AmazonServiceException)
+    e.errorMessage == "throttled"
+  }
+
+  void "application load balancer calls bypass edda unless enabled"() {
+    given:
+    def delegate = Mock(AmazonElasticLoadBalancing)
+    def client = proxy(AmazonElasticLoadBalancing, delegate, EddaTimeoutConfig.DEFAULT)
+
+    when:
+    client.describeTargetGroups(new DescribeTargetGroupsRequest())
+
+    then:
+    1 * delegate.describeTargetGroups(_) >> new DescribeTargetGroupsResult()
+    0 * httpClient._
+  }
+
+  void "unchanged collections are revalidated and decoded again from the previous response"() {
+    given:
+    def config = new EddaTimeoutConfig.Builder(conditionalRequestsEnabled: true).build()
+    def client = proxy(AmazonEC2, Mock(AmazonEC2), config, "http://edda-conditional")
+
+    when:
+    def first = client.describeVpcs(new DescribeVpcsRequest())
+
+    then:
+    1 * httpClient.execute({ HttpGet get -> get.getFirstHeader("If-None-Match") == null }) >>
+      response(200, '[{"mtime":10,"data":{"vpcId":"vpc-1"}},{"mtime":5,"data":{"vpcId":"vpc-2"}}]', '"v1"')
+    first.vpcs*.vpcId == ["vpc-1", "vpc-2"]
+    AmazonClientInvocationHandler.lastModified.get() == 5
+
+    when:
+    first.vpcs[0].vpcId = "modified-by-caller"
+    def second = client.describeVpcs(new DescribeVpcsRequest())
+
+    then:
+    1 * httpClient.execute({ HttpGet get -> get.getFirstHeader("If-None-Match").value == '"v1"' }) >> response(304, null, '"v1"')
+    second.vpcs*.vpcId == ["vpc-1", "vpc-2"]
+    !second.vpcs.is(first.vpcs)
+    !second.vpcs[0].is(first.vpcs[0])
+    AmazonClientInvocationHandler.lastModified.get() == 5
+    registry.counter(registry.createId("edda.notModified", [serviceName: "AmazonEC2", collection: "vpcs", collectionMode: "full"])).count() == 1
+  }
+
+  void "collections are not revalidated unless enabled"() {
+    given:
+    def client = proxy(AmazonEC2, Mock(AmazonEC2), EddaTimeoutConfig.DEFAULT, "http://edda-unconditional")
+
+    when:
+    client.describeVpcs(new DescribeVpcsRequest())
+    client.describeVpcs(new DescribeVpcsRequest())
+
+    then:
+    2 * httpClient.execute({ HttpGet get -> get.getFirstHeader("If-None-Match") == null }) >>
+      { response(200, '[{"mtime":10,"data":{"vpcId":"vpc-1"}}]', '"v1"') }
+  }
+
+  void "objects requested by id are returned in the requested order"() {
+    given:
+    def config = new EddaTimeoutConfig.Builder(maxConcurrentRequests: 2).build()
+    def client = proxy(AmazonEC2, Mock(AmazonEC2), config, "http://edda")
+    def ids = (1..5).collect { "vpc-$it".toString() }
+
+    when:
+    def result = client.describeVpcs(new DescribeVpcsRequest().withVpcIds(ids))
+
+    then:
+    5 * httpClient.execute(_) >> { HttpGet get ->
+      def id = get.URI.toString().split("/").last() - ";_meta"
+      response(200, """{"mtime":${id.split("-").last()},"data":{"vpcId":"$id"}}""", null)
+    }
+    result.vpcs*.vpcId == ids
+    AmazonClientInvocationHandler.lastModified.get() == 1
+  }
+
+  private static HttpResponse response(int statusCode, String body, String etag) {
+    def response = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, statusCode == 200 ? "OK" : "Not Modified")
+    if (body != null) {
+      response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON))
+    }
+    if (etag != null) {
+      response.setHeader("ETag", etag)
+    }
+    return response
+  }
+
+  private <T> T proxy(Class<T> type, T delegate, EddaTimeoutConfig eddaTimeoutConfig, String edda = "http://edda") {
+    def handler = new AmazonClientInvocationHandler(delegate, type.simpleName, edda, httpClient,
+      AmazonObjectMapperConfigurer.createConfigured(), eddaTimeoutConfig, registry, [serviceName: type.simpleName])
+    return type.cast(Proxy.newProxyInstance(getClass().classLoader, [type] as Class[], handler))
+  }
+}
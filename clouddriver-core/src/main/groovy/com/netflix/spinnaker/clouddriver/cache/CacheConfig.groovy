@@ -23,13 +23,16 @@ import com.netflix.spinnaker.cats.agent.AgentScheduler
 import com.netflix.spinnaker.cats.agent.DefaultAgentScheduler
 import com.netflix.spinnaker.cats.agent.ExecutionInstrumentation
 import com.netflix.spinnaker.cats.cache.Cache
+import com.netflix.spinnaker.cats.cache.CompositeCache
 import com.netflix.spinnaker.cats.cache.NamedCacheFactory
 import com.netflix.spinnaker.cats.mem.InMemoryNamedCacheFactory
 import com.netflix.spinnaker.cats.module.CatsModule
 import com.netflix.spinnaker.cats.provider.Provider
 import com.netflix.spinnaker.cats.provider.ProviderRegistry
+import com.netflix.spinnaker.cats.thread.NamedThreadFactory
 import com.netflix.spinnaker.clouddriver.search.SearchProvider
 import com.netflix.spinnaker.fiat.shared.FiatPermissionEvaluator
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.boot.context.properties.EnableConfigurationProperties
@@ -37,6 +40,9 @@ import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.ComponentScan
 import org.springframework.context.annotation.Configuration
 
+import javax.annotation.PreDestroy
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
 
 @Configuration
@@ -45,6 +51,8 @@ import java.util.concurrent.TimeUnit
 ])
 @EnableConfigurationProperties(CatsInMemorySearchProperties)
 class CacheConfig {
+  private ExecutorService compositeCacheExecutor
+
   @Bean
   @ConditionalOnMissingBean(NamedCacheFactory)
   NamedCacheFactory namedCacheFactory() {
@@ -76,9 +84,34 @@ class CacheConfig {
     new CatsModule.Builder().cacheFactory(cacheFactory).scheduler(agentScheduler).instrumentation(executionInstrumentation).build(providers)
   }
 
+  /**
+   * When caching.compositeCache.threadPoolSize is positive, reads against the cache view are issued to all provider
+   * caches concurrently rather than one after another.
+   */
   @Bean
-  Cache cacheView(CatsModule catsModule) {
-    catsModule.view
+  Cache cacheView(CatsModule catsModule,
+                  Registry registry,
+                  @Value('${caching.compositeCache.threadPoolSize:0}') int compositeCacheThreadPoolSize) {
+    if (compositeCacheThreadPoolSize <= 0) {
+      return catsModule.view
+    }
+
+    ProviderRegistry providerRegistry = catsModule.providerRegistry
+    Map<String, Cache> providerCaches = providerRegistry.providers.collectEntries { Provider provider ->
+      [(provider.providerName): providerRegistry.getProviderCache(provider.providerName)]
+    }
+
+    compositeCacheExecutor = Executors.newFixedThreadPool(compositeCacheThreadPoolSize, new NamedThreadFactory(CompositeCache.simpleName))
+    return new CompositeCache(
+      providerCaches,
+      compositeCacheExecutor,
+      new SpectatorCompositeCacheMetrics(registry)
+    )
+  }
+
+  @PreDestroy
+  void shutdownCompositeCacheExecutor() {
+    compositeCacheExecutor?.shutdown()
   }
 
   @Bean
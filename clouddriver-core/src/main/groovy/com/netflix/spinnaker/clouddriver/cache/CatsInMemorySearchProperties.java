@@ -23,6 +23,13 @@ public class CatsInMemorySearchProperties {
   private boolean enabled = false;
   private int refreshIntervalSeconds = 30;
 
+  /**
+   * Optional file used to persist the search identifiers (instance keys only) so a restarted node can serve searches
+   * before its first refresh completes. The provider cache itself is not snapshotted.
+   */
+  private String identifierSnapshotPath;
+  private long identifierSnapshotMaxAgeSeconds = 3600;
+
   public boolean isEnabled() {
     return enabled;
   }
@@ -38,4 +45,20 @@ public class CatsInMemorySearchProperties {
   public void setRefreshIntervalSeconds(int refreshIntervalSeconds) {
     this.refreshIntervalSeconds = refreshIntervalSeconds;
   }
+
+  public String getIdentifierSnapshotPath() {
+    return identifierSnapshotPath;
+  }
+
+  public void setIdentifierSnapshotPath(String identifierSnapshotPath) {
+    this.identifierSnapshotPath = identifierSnapshotPath;
+  }
+
+  public long getIdentifierSnapshotMaxAgeSeconds() {
+    return identifierSnapshotMaxAgeSeconds;
+  }
+
+  public void setIdentifierSnapshotMaxAgeSeconds(long identifierSnapshotMaxAgeSeconds) {
+    this.identifierSnapshotMaxAgeSeconds = identifierSnapshotMaxAgeSeconds;
+  }
 }
@@ -29,6 +29,8 @@ import org.springframework.security.core.Authentication
 import org.springframework.security.core.context.SecurityContextHolder
 
 import javax.annotation.PostConstruct
+import java.nio.file.Paths
+import java.time.Clock
 import java.util.concurrent.Executors
 import java.util.concurrent.ScheduledExecutorService
 import java.util.concurrent.TimeUnit
@@ -59,6 +61,7 @@ class CatsSearchProvider implements SearchProvider, Runnable {
   private final List<KeyParser> keyParsers
 
   private final ScheduledExecutorService scheduledExecutorService
+  private final SearchIdentifiersSnapshot searchIdentifiersSnapshot
 
   CatsSearchProvider(CatsInMemorySearchProperties catsInMemorySearchProperties,
                      Cache cacheView,
@@ -88,6 +91,14 @@ class CatsSearchProvider implements SearchProvider, Runnable {
 
     if (catsInMemorySearchProperties.enabled) {
       scheduledExecutorService = Executors.newScheduledThreadPool(1)
+
+      if (catsInMemorySearchProperties.identifierSnapshotPath) {
+        searchIdentifiersSnapshot = new SearchIdentifiersSnapshot(
+          Paths.get(catsInMemorySearchProperties.identifierSnapshotPath),
+          TimeUnit.SECONDS.toMillis(catsInMemorySearchProperties.identifierSnapshotMaxAgeSeconds),
+          Clock.systemDefaultZone()
+        )
+      }
     }
   }
 
@@ -101,6 +112,15 @@ class CatsSearchProvider implements SearchProvider, Runnable {
 
   @PostConstruct
   void scheduleRefresh() {
+    if (searchIdentifiersSnapshot) {
+      def snapshot = searchIdentifiersSnapshot.read()
+      if (snapshot) {
+        // serve from the last snapshot until the first refresh replaces it
+        cachedIdentifiersByType.set(snapshot)
+        log.info("Loaded search identifiers snapshot (found ${snapshot.instances?.size() ?: 0} instances)")
+      }
+    }
+
     if (scheduledExecutorService) {
       scheduledExecutorService.scheduleWithFixedDelay(this, 0, catsInMemorySearchProperties.refreshIntervalSeconds, TimeUnit.SECONDS)
     }
@@ -127,7 +147,9 @@ class CatsSearchProvider implements SearchProvider, Runnable {
       }.flatten()
 
       if (instanceIdentifiers) {
-        cachedIdentifiersByType.set(["instances": instanceIdentifiers])
+        def identifiersByType = ["instances": instanceIdentifiers]
+        cachedIdentifiersByType.set(identifiersByType)
+        writeSnapshot(identifiersByType)
       }
 
       log.info("Refreshed Cached Identifiers (found ${instanceIdentifiers.size()} instances)")
@@ -136,6 +158,18 @@ class CatsSearchProvider implements SearchProvider, Runnable {
     }
   }
 
+  private void writeSnapshot(Map<String, Collection<String>> identifiersByType) {
+    if (!searchIdentifiersSnapshot) {
+      return
+    }
+
+    try {
+      searchIdentifiersSnapshot.write(identifiersByType)
+    } catch (Exception e) {
+      log.warn("Unable to write search identifiers snapshot", e)
+    }
+  }
+
   @Override
   String getPlatform() {
     return "aws" //TODO(cfieber) - need a better story around this
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists the in-memory search identifiers of {@link CatsSearchProvider} so that a freshly started node can serve
+ * searches from the last snapshot while its first refresh is still running. Only the identifiers are warm started;
+ * the provider cache is still populated by the caching agents.
+ *
+ * The file is a flat, versioned binary layout (all lengths and counts are big-endian ints, strings are UTF-8):
+ * <pre>
+ *   magic, formatVersion, createdAtMillis (long), typeCount,
+ *     { typeLength, type, identifierCount, { identifierLength, identifier }* }*
+ * </pre>
+ * It is read through a memory-mapped buffer. Snapshots with an unknown magic or format version, or older than the
+ * configured maximum age, are ignored.
+ */
+public class SearchIdentifiersSnapshot {
+  private static final Logger log = LoggerFactory.getLogger(SearchIdentifiersSnapshot.class);
+
+  static final int MAGIC = 0x43415453; // "CATS"
+  static final int FORMAT_VERSION = 1;
+
+  private final Path path;
+  private final long maxAgeMillis;
+  private final Clock clock;
+
+  public SearchIdentifiersSnapshot(Path path, long maxAgeMillis, Clock clock) {
+    this.path = path;
+    this.maxAgeMillis = maxAgeMillis;
+    this.clock = clock;
+  }
+
+  /**
+   * Atomically replaces the snapshot with the provided identifiers.
+   */
+  public void write(Map<String, Collection<String>> identifiersByType) throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream os = Files.newOutputStream(temp);
+           DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(clock.millis());
+        out.writeInt(identifiersByType.size());
+        for (Map.Entry<String, Collection<String>> entry : identifiersByType.entrySet()) {
+          writeString(out, entry.getKey());
+          out.writeInt(entry.getValue().size());
+          for (String identifier : entry.getValue()) {
+            writeString(out, identifier);
+          }
+        }
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * @return the snapshotted identifiers keyed by type, or an empty map if there is no usable snapshot
+   */
+  public Map<String, Collection<String>> read() {
+    if (!Files.isReadable(path)) {
+      return Collections.emptyMap();
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+        log.warn("Ignoring search identifiers snapshot with unsupported format (path: {})", path);
+        return Collections.emptyMap();
+      }
+
+      long ageMillis = clock.millis() - buffer.getLong();
+      if (ageMillis > maxAgeMillis) {
+        log.info("Ignoring stale search identifiers snapshot (path: {}, ageMillis: {})", path, ageMillis);
+        return Collections.emptyMap();
+      }
+
+      int typeCount = buffer.getInt();
+      Map<String, Collection<String>> identifiersByType = new HashMap<>(typeCount);
+      for (int i = 0; i < typeCount; i++) {
+        String type = readString(buffer);
+        int identifierCount = buffer.getInt();
+        List<String> identifiers = new ArrayList<>(identifierCount);
+        for (int j = 0; j < identifierCount; j++) {
+          identifiers.add(readString(buffer));
+        }
+        identifiersByType.put(type, identifiers);
+      }
+      return identifiersByType;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Unable to read search identifiers snapshot (path: {})", path, e);
+      return Collections.emptyMap();
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.cats.cache.CompositeCache.CacheMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+public class SpectatorCompositeCacheMetrics implements CacheMetrics {
+  private final Registry registry;
+
+  public SpectatorCompositeCacheMetrics(Registry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void query(String member, String operation, String type, long durationNanos) {
+    registry.timer(
+      registry.createId("cats.compositeCache.query")
+        .withTag("member", member)
+        .withTag("operation", operation)
+        .withTag("type", type)
+    ).record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+}
@@ -289,11 +289,17 @@ class CloudDriverConfig {
     new NoopElasticIpProvider()
   }
 
-  @Bean
+  @Bean(destroyMethod = "shutdown")
   ProjectClustersService projectClustersService(Front50Service front50Service,
                                                 ObjectMapper objectMapper,
-                                                Provider<List<ClusterProvider>> clusterProviders) {
-    return new ProjectClustersService(front50Service, objectMapper, clusterProviders)
+                                                Provider<List<ClusterProvider>> clusterProviders,
+                                                ProjectClustersCachingAgentProperties projectClustersCachingAgentProperties) {
+    return new ProjectClustersService(
+      front50Service,
+      objectMapper,
+      clusterProviders,
+      projectClustersCachingAgentProperties.threadPoolSize
+    )
   }
 
   @Bean
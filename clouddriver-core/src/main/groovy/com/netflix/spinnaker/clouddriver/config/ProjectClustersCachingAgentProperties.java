@@ -30,6 +30,11 @@ public class ProjectClustersCachingAgentProperties {
    */
   List<String> allowList = new ArrayList<>();
 
+  /**
+   * Number of threads used to fetch cluster summaries and expand matching clusters when building project views.
+   */
+  int threadPoolSize = 10;
+
   public List<String> getAllowList() {
     return allowList;
   }
@@ -38,6 +43,14 @@ public class ProjectClustersCachingAgentProperties {
     this.allowList = allowList;
   }
 
+  public int getThreadPoolSize() {
+    return threadPoolSize;
+  }
+
+  public void setThreadPoolSize(int threadPoolSize) {
+    this.threadPoolSize = threadPoolSize;
+  }
+
   public List<String> getNormalizedAllowList() {
     return allowList.stream()
       .filter(p -> !Strings.isNullOrEmpty(p))
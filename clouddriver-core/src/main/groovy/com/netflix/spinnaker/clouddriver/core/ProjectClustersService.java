@@ -19,6 +19,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.frigga.Names;
+import com.netflix.spinnaker.cats.thread.NamedThreadFactory;
 import com.netflix.spinnaker.clouddriver.core.services.Front50Service;
 import com.netflix.spinnaker.clouddriver.model.Cluster;
 import com.netflix.spinnaker.clouddriver.model.ClusterProvider;
@@ -30,6 +31,10 @@ import retrofit.RetrofitError;
 import javax.annotation.Nonnull;
 import javax.inject.Provider;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -37,16 +42,37 @@ public class ProjectClustersService {
 
   private final static Logger log = LoggerFactory.getLogger(ProjectClustersService.class);
 
+  private final static int DEFAULT_THREAD_POOL_SIZE = 10;
+
   private final Front50Service front50Service;
   private final ObjectMapper objectMapper;
   private final Provider<List<ClusterProvider>> clusterProviders;
+  private final ExecutorService executor;
 
   public ProjectClustersService(Front50Service front50Service,
                                 ObjectMapper objectMapper,
                                 Provider<List<ClusterProvider>> clusterProviders) {
+    this(front50Service, objectMapper, clusterProviders, DEFAULT_THREAD_POOL_SIZE);
+  }
+
+  public ProjectClustersService(Front50Service front50Service,
+                                ObjectMapper objectMapper,
+                                Provider<List<ClusterProvider>> clusterProviders,
+                                int threadPoolSize) {
     this.front50Service = front50Service;
     this.objectMapper = objectMapper.copy().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
     this.clusterProviders = clusterProviders;
+    this.executor = Executors.newFixedThreadPool(
+      threadPoolSize,
+      new NamedThreadFactory(ProjectClustersService.class.getSimpleName())
+    );
+  }
+
+  /**
+   * Stops the executor used to retrieve project clusters; lookups that are still running are allowed to complete.
+   */
+  public void shutdown() {
+    executor.shutdown();
   }
 
   public Map<String, List<ClusterModel>> getProjectClusters(List<String> projectNames) {
@@ -122,19 +148,57 @@ public class ProjectClustersService {
       .collect(Collectors.toList());
   }
 
+  /**
+   * Retrieves the expanded clusters for every application in two concurrent phases: cluster summaries are fetched
+   * per (application, cluster provider) and then each matching cluster is expanded. Both phases run on a bounded
+   * executor and neither phase submits work from within another task.
+   */
   private Map<String, Set<Cluster>> retrieveClusters(List<String> applications, Project project) {
-    Map<String, Set<Cluster>> allClusters = new HashMap<>();
+    List<ClusterProvider> providers = clusterProviders.get();
 
+    List<Future<List<ClusterLookup>>> summaryFutures = new ArrayList<>(applications.size() * providers.size());
     for (String application : applications) {
-      for (RetrievedClusters clusters : retrieveClusters(application, project)) {
-        allClusters.computeIfAbsent(clusters.application, s -> new HashSet<>())
-          .addAll(clusters.clusters);
+      for (ClusterProvider clusterProvider : providers) {
+        summaryFutures.add(executor.submit(() -> findClusterLookups(clusterProvider, application, project)));
+      }
+    }
+
+    List<ClusterLookup> lookups = new ArrayList<>();
+    for (Future<List<ClusterLookup>> future : summaryFutures) {
+      lookups.addAll(await(future));
+    }
+
+    List<Future<Cluster>> clusterFutures = new ArrayList<>(lookups.size());
+    for (ClusterLookup lookup : lookups) {
+      clusterFutures.add(executor.submit(lookup::expand));
+    }
+
+    Map<String, Set<Cluster>> allClusters = new HashMap<>();
+    for (int i = 0; i < lookups.size(); i++) {
+      Set<Cluster> clusters = allClusters.computeIfAbsent(lookups.get(i).application, s -> new HashSet<>());
+      Cluster cluster = await(clusterFutures.get(i));
+      if (cluster != null) {
+        clusters.add(cluster);
       }
     }
 
     return allClusters;
   }
 
+  private static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while retrieving project clusters", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Unable to retrieve project clusters", e.getCause());
+    }
+  }
+
   private Set<Cluster> findClustersForProject(Set<Cluster> appClusters, ProjectCluster projectCluster) {
     if (appClusters == null || appClusters.isEmpty()) {
       return Collections.emptySet();
@@ -150,33 +214,26 @@ public class ProjectClustersService {
       .collect(Collectors.toSet());
   }
 
-  private List<RetrievedClusters> retrieveClusters(String application, Project project) {
-    return clusterProviders.get().stream()
-      .map(clusterProvider -> {
-        Map<String, Set<Cluster>> clusterSummariesByAccount = clusterProvider.getClusterSummaries(application);
-        if (clusterSummariesByAccount == null) {
-          return null;
-        }
-
-        Set<Cluster> allClusterSummaries = clusterSummariesByAccount
-          .values()
-          .stream()
-          .flatMap(Collection::stream)
-          .collect(Collectors.toSet());
+  private List<ClusterLookup> findClusterLookups(ClusterProvider clusterProvider, String application, Project project) {
+    Map<String, Set<Cluster>> clusterSummariesByAccount = clusterProvider.getClusterSummaries(application);
+    if (clusterSummariesByAccount == null) {
+      return Collections.emptyList();
+    }
 
-        Set<Cluster> matchingClusterSummaries = new HashSet<>();
-        for (ProjectCluster projectCluster : project.config.clusters) {
-          matchingClusterSummaries.addAll(findClustersForProject(allClusterSummaries, projectCluster));
-        }
+    Set<Cluster> allClusterSummaries = clusterSummariesByAccount
+      .values()
+      .stream()
+      .flatMap(Collection::stream)
+      .collect(Collectors.toSet());
 
-        Set<Cluster> expandedClusters = matchingClusterSummaries
-          .stream()
-          .map(c -> clusterProvider.getCluster(c.getMoniker().getApp(), c.getAccountName(), c.getName()))
-          .collect(Collectors.toSet());
+    Set<Cluster> matchingClusterSummaries = new HashSet<>();
+    for (ProjectCluster projectCluster : project.config.clusters) {
+      matchingClusterSummaries.addAll(findClustersForProject(allClusterSummaries, projectCluster));
+    }
 
-        return new RetrievedClusters(application, expandedClusters);
-      })
-      .filter(Objects::nonNull)
+    return matchingClusterSummaries
+      .stream()
+      .map(c -> new ClusterLookup(application, clusterProvider, c))
       .collect(Collectors.toList());
   }
 
@@ -207,13 +264,19 @@ public class ProjectClustersService {
     public List<String> applications;
   }
 
-  static class RetrievedClusters {
+  static class ClusterLookup {
     public String application;
-    public Set<Cluster> clusters;
+    public ClusterProvider clusterProvider;
+    public Cluster summary;
 
-    public RetrievedClusters(String application, Set<Cluster> clusters) {
+    public ClusterLookup(String application, ClusterProvider clusterProvider, Cluster summary) {
       this.application = application;
-      this.clusters = clusters;
+      this.clusterProvider = clusterProvider;
+      this.summary = summary;
+    }
+
+    Cluster expand() {
+      return clusterProvider.getCluster(summary.getMoniker().getApp(), summary.getAccountName(), summary.getName());
     }
   }
 
@@ -26,6 +26,8 @@ public class ServiceLimitConfiguration {
   public static final String POLL_INTERVAL_MILLIS = "agentPollIntervalMs";
   public static final String POLL_TIMEOUT_MILLIS = "agentPollTimeoutMs";
   public static final String API_RATE_LIMIT = "rateLimit";
+  public static final String API_RATE_LIMIT_MIN = "minRateLimit";
+  public static final String API_RATE_LIMIT_MAX = "maxRateLimit";
 
 
   private final ServiceLimits defaults;
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.helpers
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+class FutureHelper {
+
+  /**
+   * A fixed size pool of daemon threads named after {@code nameFormat}, for work fanned out from a caller that waits
+   * on its results. Pools are expected to be shut down by their owner, typically as a Spring bean.
+   */
+  static ExecutorService newFixedThreadPool(String nameFormat, int threads) {
+    return Executors.newFixedThreadPool(
+      Math.max(1, threads),
+      new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build()
+    )
+  }
+
+  /**
+   * Waits for {@code future}, rethrowing whatever the task threw rather than the wrapping ExecutionException so that
+   * callers fail the same way as if the task had run inline.
+   */
+  static <T> T getResult(Future<T> future) {
+    try {
+      return future.get()
+    } catch (ExecutionException e) {
+      throw e.cause
+    }
+  }
+}
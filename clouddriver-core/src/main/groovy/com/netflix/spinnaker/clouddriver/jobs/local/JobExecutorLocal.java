@@ -83,7 +83,14 @@ public class JobExecutorLocal implements JobExecutor {
     DefaultExecuteResultHandler resultHandler = new DefaultExecuteResultHandler();
     executor.execute(jobRequest.getCommandLine(), jobRequest.getEnvironment(), resultHandler);
 
-    T result = consumer.consume(new BufferedReader(new InputStreamReader(new PipedInputStream(stdOut))));
+    T result;
+    try {
+      result = consumer.consume(new BufferedReader(new InputStreamReader(new PipedInputStream(stdOut))));
+    } catch (IOException | RuntimeException e) {
+      // nothing is left to read the output (e.g. the consumer was interrupted), so don't leave the process running
+      executor.getWatchdog().destroyProcess();
+      throw e;
+    }
 
     try {
       resultHandler.waitFor();
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Clock
+import java.time.Instant
+import java.time.ZoneOffset
+
+class SearchIdentifiersSnapshotSpec extends Specification {
+
+  Path directory = Files.createTempDirectory("snapshot")
+  Path path = directory.resolve("identifiers.bin")
+
+  def cleanup() {
+    directory.toFile().deleteDir()
+  }
+
+  void "should round trip identifiers"() {
+    given:
+    def snapshot = new SearchIdentifiersSnapshot(path, 60000, Clock.systemUTC())
+
+    when:
+    snapshot.write([instances: ["aws:instances:prod:us-west-2:i-1234", "aws:instances:prod:us-west-2:i-5678"]])
+
+    then:
+    snapshot.read() == [instances: ["aws:instances:prod:us-west-2:i-1234", "aws:instances:prod:us-west-2:i-5678"]]
+  }
+
+  void "should ignore missing, stale and unsupported snapshots"() {
+    given:
+    def writtenAt = Instant.parse("2018-01-01T00:00:00Z")
+    def writer = new SearchIdentifiersSnapshot(path, 60000, Clock.fixed(writtenAt, ZoneOffset.UTC))
+    def reader = new SearchIdentifiersSnapshot(path, 60000, Clock.fixed(writtenAt.plusSeconds(61), ZoneOffset.UTC))
+
+    expect:
+    reader.read() == [:]
+
+    when:
+    writer.write([instances: ["i-1234"]])
+
+    then:
+    reader.read() == [:]
+
+    when:
+    path.toFile().bytes = [0, 0, 0, 1] as byte[]
+
+    then:
+    writer.read() == [:]
+  }
+}
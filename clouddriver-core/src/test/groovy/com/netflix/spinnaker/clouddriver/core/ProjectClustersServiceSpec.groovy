@@ -16,6 +16,7 @@
 package com.netflix.spinnaker.clouddriver.core
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.SerializationFeature
 import com.netflix.spinnaker.clouddriver.core.services.Front50Service
 import com.netflix.spinnaker.clouddriver.model.Cluster
 import com.netflix.spinnaker.clouddriver.model.ClusterProvider
@@ -25,6 +26,9 @@ import spock.lang.Shared
 import spock.lang.Specification
 
 import javax.inject.Provider
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 import static com.netflix.spinnaker.clouddriver.core.ProjectClustersService.ClusterModel
 
@@ -67,6 +71,10 @@ class ProjectClustersServiceSpec extends Specification {
     )
   }
 
+  def cleanup() {
+    subject.shutdown()
+  }
+
   void "returns an empty list without trying to retrieve applications when no clusters are configured"() {
     when:
     def result = subject.getProjectClusters(allowList)
@@ -444,6 +452,162 @@ class ProjectClustersServiceSpec extends Specification {
       ])
   }
 
+  void "concurrent retrieval builds the same model as a single-threaded one"() {
+    given:
+    projectConfig.config.clusters = [
+      [account: "prod", stack: "*"],
+      [account: "test", stack: "main", detail: "foo", applications: ["deck"]]
+    ]
+    def providers = [clusterProvider("orca", "deck", "prod", "test"), clusterProvider("orca", "deck", "prod")]
+    def sequential = projectClustersService(providers, 1)
+    def parallel = projectClustersService(providers, 8)
+
+    when:
+    def sequentialResult = sequential.getProjectClusters(allowList)
+    def parallelResult = parallel.getProjectClusters(allowList)
+
+    then:
+    _ * front50Service.getProject("Spinnaker") >> { projectConfig }
+    sequentialResult["Spinnaker"].size() == 2
+    sequentialResult["Spinnaker"][0].instanceCounts.total == 24
+    canonicalJson(parallelResult) == canonicalJson(sequentialResult)
+
+    cleanup:
+    sequential.shutdown()
+    parallel.shutdown()
+  }
+
+  void "a failing cluster provider fails only the project it was retrieving"() {
+    given:
+    projectConfig.config.clusters = [
+      [account: "prod", stack: "main"]
+    ]
+    def failingProvider = Stub(ClusterProvider) {
+      getClusterSummaries("deck") >> { throw new IllegalStateException("provider unavailable") }
+      getClusterSummaries(_) >> [:]
+    }
+    def service = projectClustersService([clusterProvider("orca", "deck", "prod"), failingProvider], 4)
+
+    when:
+    def result = service.getProjectClusters(["Spinnaker", "Other"])
+
+    then:
+    1 * front50Service.getProject("Spinnaker") >> { projectConfig }
+    1 * front50Service.getProject("Other") >> [
+      name  : "Other",
+      config: [applications: ["orca"], clusters: [[account: "prod", stack: "main"]]]
+    ]
+    !result.containsKey("Spinnaker")
+    result["Other"][0].applications.application == ["orca"]
+    result["Other"][0].instanceCounts.total == 2
+
+    when:
+    service.getProjectClusters("Spinnaker")
+
+    then:
+    1 * front50Service.getProject("Spinnaker") >> { projectConfig }
+    def e = thrown(IllegalStateException)
+    e.message == "provider unavailable"
+
+    cleanup:
+    service.shutdown()
+  }
+
+  void "retrieves clusters on at most threadPoolSize threads"() {
+    given:
+    projectConfig.config.clusters = [
+      [account: "prod", stack: "main"]
+    ]
+    projectConfig.config.applications = ["orca", "deck", "front50", "gate"]
+    def inFlight = new AtomicInteger()
+    def maxInFlight = new AtomicInteger()
+    def allPoolThreadsBusy = new CountDownLatch(threadPoolSize)
+    def provider = Stub(ClusterProvider) {
+      getClusterSummaries(_) >> {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), { int a, int b -> Math.max(a, b) })
+        allPoolThreadsBusy.countDown()
+        allPoolThreadsBusy.await(5, TimeUnit.SECONDS)
+        inFlight.decrementAndGet()
+        return [:]
+      }
+    }
+    def service = projectClustersService([provider], threadPoolSize)
+
+    when:
+    def result = service.getProjectClusters("Spinnaker")
+
+    then:
+    1 * front50Service.getProject("Spinnaker") >> { projectConfig }
+    result[0].applications.application == ["orca", "deck", "front50", "gate"]
+    maxInFlight.get() == threadPoolSize
+
+    cleanup:
+    service.shutdown()
+    projectConfig.config.applications = ["orca", "deck"]
+
+    where:
+    threadPoolSize << [1, 2, 4]
+  }
+
+  private ProjectClustersService projectClustersService(List<ClusterProvider> providers, int threadPoolSize) {
+    return new ProjectClustersService(
+      front50Service,
+      new ObjectMapper(),
+      new Provider<List<ClusterProvider>>() {
+        @Override
+        List<ClusterProvider> get() {
+          return providers
+        }
+      },
+      threadPoolSize
+    )
+  }
+
+  /**
+   * A provider with a "main", "main-foo" and "test" cluster (each with one enabled server group per region) for
+   * every application in every account.
+   */
+  private ClusterProvider clusterProvider(String application1, String application2, String... accounts) {
+    Map<String, Map<String, Set<Cluster>>> summaries = [:]
+    Map<String, Cluster> clusters = [:]
+    [application1, application2].each { application ->
+      summaries[application] = accounts.collectEntries { account ->
+        [(account): ["main", "main-foo", "test"].collect { suffix ->
+          def name = "${application}-${suffix}".toString()
+          clusters["${account}/${name}".toString()] = new TestCluster(
+            name: name,
+            accountName: account,
+            serverGroups: ["us-east-1", "us-west-1"].withIndex().collect { region, i ->
+              makeServerGroup(account, "${name}-v00${i}", region, i + 1, (i + 1) * 10L, new ServerGroup.InstanceCounts(total: 1, up: 1))
+            } as Set
+          )
+          new TestCluster(name: name, accountName: account, serverGroups: [])
+        } as Set]
+      }
+    }
+
+    return Stub(ClusterProvider) {
+      getClusterSummaries(_) >> { String application -> summaries[application] }
+      getCluster(_, _, _) >> { String application, String account, String name -> clusters["${account}/${name}".toString()] }
+    }
+  }
+
+  private static String canonicalJson(Map<String, List<ClusterModel>> result) {
+    def objectMapper = new ObjectMapper()
+      .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+    // region clusters are held in sets, so normalise their order before comparing
+    def tree = objectMapper.valueToTree(result)
+    tree.elements().each { project ->
+      project.elements().each { cluster ->
+        cluster.get("applications").elements().each { application ->
+          def sorted = application.get("clusters").elements().toList().sort { it.get("region").asText() }
+          application.putArray("clusters").addAll(sorted)
+        }
+      }
+    }
+    return objectMapper.writeValueAsString(tree)
+  }
+
   private static List<ClusterModel> cachedClusters(Map<String, List<ClusterModel>> result, String projectName) {
     return result[projectName]
   }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.helpers
+
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+
+class FutureHelperSpec extends Specification {
+
+  @AutoCleanup("shutdownNow")
+  ExecutorService executor = FutureHelper.newFixedThreadPool("future-helper-spec-%d", 2)
+
+  void "results are returned as is"() {
+    expect:
+    FutureHelper.getResult(executor.submit({ "result" } as Callable<String>)) == "result"
+  }
+
+  void "failures are rethrown without the ExecutionException around them"() {
+    when:
+    FutureHelper.getResult(executor.submit({ throw new IllegalStateException("failed") } as Callable<String>))
+
+    then:
+    def e = thrown(IllegalStateException)
+    e.message == "failed"
+  }
+
+  void "pool threads are named daemons"() {
+    when:
+    def thread = FutureHelper.getResult(executor.submit({ Thread.currentThread() } as Callable<Thread>))
+
+    then:
+    thread.daemon
+    thread.name.startsWith("future-helper-spec-")
+  }
+}
@@ -26,10 +26,20 @@ import retrofit.http.Headers
 import retrofit.http.Path
 import retrofit.http.Query
 
+import java.time.Clock
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
 @Slf4j
 class DockerBearerTokenService {
+  // Per the token spec, tokens that don't specify their lifetime are valid for 60 seconds.
+  final static int DEFAULT_EXPIRES_IN_SECONDS = 60
+  // Tokens are dropped this long before they expire, so that requests in flight don't carry an expired token.
+  final static int EXPIRY_MARGIN_SECONDS = 5
+
   Map<String, TokenService> realmToService
-  Map<String, DockerBearerToken> cachedTokens
+  Map<String, CachedToken> cachedTokens
+  Clock clock = Clock.systemUTC()
   String username
   String password
   String passwordCommand
@@ -39,8 +49,8 @@ class DockerBearerTokenService {
   final static String userAgent = DockerUserAgent.getUserAgent()
 
   DockerBearerTokenService() {
-    realmToService = new HashMap<String, TokenService>()
-    cachedTokens = new HashMap<String, DockerBearerToken>()
+    realmToService = new ConcurrentHashMap<String, TokenService>()
+    cachedTokens = new ConcurrentHashMap<String, CachedToken>()
   }
 
   DockerBearerTokenService(String username, String password, String passwordCommand) {
@@ -182,19 +192,23 @@ class DockerBearerTokenService {
   }
 
   private getTokenService(String realm) {
-    def tokenService = realmToService.get(realm)
-
-    if (tokenService == null) {
+    return realmToService.computeIfAbsent(realm) {
       def builder = new RestAdapter.Builder().setEndpoint(realm).setLogLevel(RestAdapter.LogLevel.NONE).build()
-      tokenService = builder.create(TokenService.class)
-      realmToService[realm] = tokenService
+      builder.create(TokenService.class)
     }
-
-    return tokenService
   }
 
+  /**
+   * @return the cached token for the repository, or null if there is none or it is about to expire.
+   */
   public DockerBearerToken getToken(String repository) {
-    return cachedTokens[repository]
+    def cachedToken = cachedTokens[repository]
+    if (cachedToken && clock.millis() >= cachedToken.expiresAt) {
+      // only remove this token, not one that another thread may have cached since
+      cachedTokens.remove(repository, cachedToken)
+      return null
+    }
+    return cachedToken?.token
   }
 
   public DockerBearerToken getToken(String repository, String authenticateHeader) {
@@ -221,7 +235,9 @@ class DockerBearerTokenService {
       }
     }
 
-    cachedTokens[repository] = token
+    int expiresIn = token.expires_in > 0 ? token.expires_in : DEFAULT_EXPIRES_IN_SECONDS
+    long lifetimeMillis = TimeUnit.SECONDS.toMillis(Math.max(0, expiresIn - EXPIRY_MARGIN_SECONDS))
+    cachedTokens[repository] = new CachedToken(token: token, expiresAt: clock.millis() + lifetimeMillis)
     return token
   }
 
@@ -247,6 +263,11 @@ class DockerBearerTokenService {
                                @retrofit.http.Header("User-Agent") String agent)
   }
 
+  private static class CachedToken {
+    DockerBearerToken token
+    long expiresAt
+  }
+
   private class AuthenticateDetails {
     String realm
     String path
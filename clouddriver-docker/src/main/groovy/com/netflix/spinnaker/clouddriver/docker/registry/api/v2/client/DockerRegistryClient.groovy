@@ -31,6 +31,7 @@ import retrofit.RetrofitError
 import retrofit.client.Response
 import retrofit.converter.GsonConverter
 import retrofit.http.GET
+import retrofit.http.HEAD
 import retrofit.http.Header
 import retrofit.http.Headers
 import retrofit.http.Path
@@ -211,6 +212,12 @@ class DockerRegistryClient {
     ])
     Response getManifest(@Path(value="name", encode=false) String name, @Path(value="reference", encode=false) String reference, @Header("Authorization") String token, @Header("User-Agent") String agent)
 
+    @HEAD("/v2/{name}/manifests/{reference}")
+    @Headers([
+      "Docker-Distribution-API-Version: registry/2.0"
+    ])
+    Response headManifest(@Path(value="name", encode=false) String name, @Path(value="reference", encode=false) String reference, @Header("Authorization") String token, @Header("User-Agent") String agent)
+
     @GET("/v2/_catalog")
     @Headers([
         "Docker-Distribution-API-Version: registry/2.0"
@@ -231,11 +238,36 @@ class DockerRegistryClient {
     Response checkVersion(@Header("Authorization") String token, @Header("User-Agent") String agent)
   }
 
+  // Set once the registry is found to not answer manifest HEAD requests with a digest.
+  private volatile boolean headManifestUnsupported
+
+  /*
+   * Resolves the digest with a HEAD request, which only transfers headers, and falls back to fetching the manifest
+   * for registries that don't support it. Both requests carry the same headers, so they resolve the same digest.
+   */
   public String getDigest(String name, String tag) {
-    def response = getManifest(name, tag)
-    def headers = response.headers
-    def digest = headers?.find {
-      it.name == "Docker-Content-Digest"
+    if (!headManifestUnsupported) {
+      try {
+        def digest = findDigest(headManifest(name, tag))
+        if (digest) {
+          return digest
+        }
+      } catch (RetrofitError e) {
+        if (e.response?.status != 405) {
+          throw e
+        }
+      }
+
+      log.info("Registry $address does not return digests for manifest HEAD requests, fetching manifests instead")
+      headManifestUnsupported = true
+    }
+
+    return findDigest(getManifest(name, tag))
+  }
+
+  private static String findDigest(Response response) {
+    def digest = response.headers?.find {
+      it.name.equalsIgnoreCase("Docker-Content-Digest")
     }
     return digest?.value
   }
@@ -253,6 +285,14 @@ class DockerRegistryClient {
     dateCreated
   }
 
+  private headManifest(String name, String tag) {
+    request({
+      registryService.headManifest(name, tag, tokenService.basicAuthHeader, userAgent)
+    }, { token ->
+      registryService.headManifest(name, tag, token, userAgent)
+    }, name)
+  }
+
   private getManifest(String name, String tag) {
     request({
       registryService.getManifest(name, tag, tokenService.basicAuthHeader, userAgent)
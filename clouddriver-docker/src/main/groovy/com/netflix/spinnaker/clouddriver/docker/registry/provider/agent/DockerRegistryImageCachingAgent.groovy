@@ -16,6 +16,7 @@
 
 package com.netflix.spinnaker.clouddriver.docker.registry.provider.agent
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder
 import com.netflix.spinnaker.cats.agent.*
 import com.netflix.spinnaker.cats.provider.ProviderCache
 import com.netflix.spinnaker.clouddriver.docker.registry.DockerRegistryCloudProvider
@@ -28,6 +29,13 @@ import com.netflix.spinnaker.clouddriver.docker.registry.security.DockerRegistry
 import groovy.util.logging.Slf4j
 import retrofit.RetrofitError
 
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
 import java.util.concurrent.TimeUnit
 
 import static java.util.Collections.unmodifiableSet
@@ -39,6 +47,10 @@ class DockerRegistryImageCachingAgent implements CachingAgent, AccountAware, Age
     AgentDataType.Authority.INFORMATIVE.forType(Keys.Namespace.IMAGE_ID.ns)
   ] as Set)
 
+  // Bounds the digest lookups in flight against a registry across all of its accounts' caching agents.
+  static final int DIGEST_LOOKUP_CONCURRENCY = 10
+  private static final Map<String, ExecutorService> digestLookupExecutors = new ConcurrentHashMap<>()
+
   private DockerRegistryCredentials credentials
   private DockerRegistryCloudProvider dockerRegistryCloudProvider
   private String accountName
@@ -130,6 +142,7 @@ class DockerRegistryImageCachingAgent implements CachingAgent, AccountAware, Age
 
     Map<String, DefaultCacheDataBuilder> cachedTags = DefaultCacheDataBuilder.defaultCacheDataBuilderMap()
     Map<String, DefaultCacheDataBuilder> cachedIds = DefaultCacheDataBuilder.defaultCacheDataBuilderMap()
+    Map<String, String> digests = credentials.trackDigests ? loadDigests(tagMap) : [:]
 
     tagMap.forEach { repository, tags ->
       tags.forEach { tag ->
@@ -139,29 +152,14 @@ class DockerRegistryImageCachingAgent implements CachingAgent, AccountAware, Age
         }
         def tagKey = Keys.getTaggedImageKey(accountName, repository, tag)
         def imageIdKey = Keys.getImageIdKey(DockerRegistryProviderUtils.imageId(registry, repository, tag))
-        def digest = null
-
-        if (credentials.trackDigests) {
-          try {
-            digest = credentials.client.getDigest(repository, tag)
-          } catch (Exception e) {
-            if (e instanceof RetrofitError && ((RetrofitError) e).response?.status == 404) {
-              // Indicates inconsistency in registry, or deletion between call for all tags and manifest retrieval.
-              // In either case, we need to trust that this tag no longer exists.
-              log.warn("Image manifest for $tagKey no longer available; tag will not be cached: $e.message")
-              return
-            } else {
-              // It is safe to not cache the tag here because igor now persists all the tags it has seen.
-              log.warn("Error retrieving manifest for $tagKey; digest and tag will not be cached: $e.message")
-              return
-            }
-          }
+        if (credentials.trackDigests && !digests.containsKey(tagKey)) {
+          return
         }
 
         cachedTags[tagKey].with {
           attributes.name = "${repository}:${tag}".toString()
           attributes.account = accountName
-          attributes.digest = digest
+          attributes.digest = digests[tagKey]
         }
 
         cachedIds[imageIdKey].with {
@@ -182,6 +180,51 @@ class DockerRegistryImageCachingAgent implements CachingAgent, AccountAware, Age
     ])
   }
 
+  /**
+   * Looks up the digest of every tag concurrently on the registry's shared executor.
+   *
+   * @return digests keyed by tagged image key, omitting tags whose digest could not be retrieved.
+   */
+  private Map<String, String> loadDigests(Map<String, Set<String>> tagMap) {
+    ExecutorService executor = digestLookupExecutors.computeIfAbsent(credentials.client.address) { String address ->
+      def threadFactory = new ThreadFactoryBuilder().setNameFormat("docker-digest-lookup-%d").setDaemon(true).build()
+      def pool = new ThreadPoolExecutor(DIGEST_LOOKUP_CONCURRENCY, DIGEST_LOOKUP_CONCURRENCY, 60, TimeUnit.SECONDS,
+                                        new LinkedBlockingQueue<Runnable>(), threadFactory)
+      pool.allowCoreThreadTimeOut(true)
+      pool
+    }
+
+    Map<String, Future<String>> lookups = [:]
+    tagMap.each { repository, tags ->
+      tags.each { tag ->
+        if (tag) {
+          lookups[Keys.getTaggedImageKey(accountName, repository, tag)] = executor.submit({
+            credentials.client.getDigest(repository, tag)
+          } as Callable<String>)
+        }
+      }
+    }
+
+    Map<String, String> digests = [:]
+    lookups.each { tagKey, lookup ->
+      try {
+        digests[tagKey] = lookup.get()
+      } catch (ExecutionException executionException) {
+        def e = executionException.cause
+        if (e instanceof RetrofitError && ((RetrofitError) e).response?.status == 404) {
+          // Indicates inconsistency in registry, or deletion between call for all tags and manifest retrieval.
+          // In either case, we need to trust that this tag no longer exists.
+          log.warn("Image manifest for $tagKey no longer available; tag will not be cached: $e.message")
+        } else {
+          // It is safe to not cache the tag here because igor now persists all the tags it has seen.
+          log.warn("Error retrieving manifest for $tagKey; digest and tag will not be cached: $e.message")
+        }
+      }
+    }
+
+    return digests
+  }
+
   @Override
   Long getAgentInterval() {
     return interval
@@ -22,6 +22,8 @@ import spock.lang.Shared
 import spock.lang.Specification
 import sun.misc.BASE64Decoder
 
+import java.time.Clock
+
 class DockerBearerTokenServiceSpec extends Specification {
   private static final REALM1 = "https://auth.docker.io"
   private static final PATH1 = "token"
@@ -136,6 +138,28 @@ class DockerBearerTokenServiceSpec extends Specification {
       token.token.length() > 0
   }
 
+  void "should stop supplying a cached token once it is about to expire."() {
+    setup:
+      def clock = Mock(Clock)
+      def expiringTokenService = new DockerBearerTokenService()
+      expiringTokenService.clock = clock
+      expiringTokenService.realmToService[REALM1] = Stub(DockerBearerTokenService.TokenService) {
+        getToken(_, _, _, _) >> new DockerBearerToken(token: "token", expires_in: 300)
+      }
+      def authenticateHeader = "realm=\"${REALM1}/${PATH1}\",service=\"${SERVICE1}\",scope=\"${SCOPE1}\""
+
+    when:
+      expiringTokenService.getToken(REPOSITORY1, authenticateHeader)
+      def cachedToken = expiringTokenService.getToken(REPOSITORY1)
+      def expiredToken = expiringTokenService.getToken(REPOSITORY1)
+
+    then:
+      3 * clock.millis() >>> [0, 294999, 295000]
+      cachedToken.token == "token"
+      expiredToken == null
+      expiringTokenService.cachedTokens.isEmpty()
+  }
+
   void "should read a password from a file, and correctly prepare the basic auth string."() {
     setup:
       def passwordFile = new File("src/test/resources/password.txt")
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.docker.registry.api.v2.client
+
+import com.netflix.spinnaker.clouddriver.docker.registry.api.v2.auth.DockerBearerTokenService
+import retrofit.RetrofitError
+import retrofit.client.Header
+import retrofit.client.Response
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.TimeUnit
+
+class DockerRegistryClientDigestSpec extends Specification {
+  private static final String ADDRESS = "https://registry.test"
+  private static final String REPOSITORY = "library/app"
+  private static final String DIGEST = "sha256:0123456789abcdef"
+
+  def registryService = Mock(DockerRegistryClient.DockerRegistryService)
+  DockerRegistryClient client
+
+  def setup() {
+    client = new DockerRegistryClient(ADDRESS, TimeUnit.MINUTES.toMillis(1), 100, "", false, new DefaultDockerOkClientProvider())
+    client.registryService = registryService
+    client.tokenService = Stub(DockerBearerTokenService)
+  }
+
+  @Unroll
+  void "digests are read from the #headerName header of a manifest HEAD request"() {
+    when:
+    def digest = client.getDigest(REPOSITORY, "1.0")
+
+    then:
+    1 * registryService.headManifest(REPOSITORY, "1.0", _, _) >> response(200, [(headerName): DIGEST])
+    0 * registryService.getManifest(*_)
+    digest == DIGEST
+
+    where:
+    headerName << ["Docker-Content-Digest", "docker-content-digest", "DOCKER-CONTENT-DIGEST"]
+  }
+
+  void "registries that reject manifest HEAD requests are sent GET requests from then on"() {
+    when:
+    def first = client.getDigest(REPOSITORY, "1.0")
+
+    then:
+    1 * registryService.headManifest(REPOSITORY, "1.0", _, _) >> { throw httpError(405) }
+    1 * registryService.getManifest(REPOSITORY, "1.0", _, _) >> response(200, ["Docker-Content-Digest": DIGEST])
+    first == DIGEST
+
+    when:
+    def second = client.getDigest(REPOSITORY, "2.0")
+
+    then:
+    0 * registryService.headManifest(*_)
+    1 * registryService.getManifest(REPOSITORY, "2.0", _, _) >> response(200, ["Docker-Content-Digest": "sha256:2"])
+    second == "sha256:2"
+  }
+
+  void "registries that leave the digest out of manifest HEAD responses are sent GET requests from then on"() {
+    when:
+    def first = client.getDigest(REPOSITORY, "1.0")
+
+    then:
+    1 * registryService.headManifest(REPOSITORY, "1.0", _, _) >> response(200, [:])
+    1 * registryService.getManifest(REPOSITORY, "1.0", _, _) >> response(200, ["Docker-Content-Digest": DIGEST])
+    first == DIGEST
+
+    when:
+    client.getDigest(REPOSITORY, "2.0")
+
+    then:
+    0 * registryService.headManifest(*_)
+    1 * registryService.getManifest(REPOSITORY, "2.0", _, _) >> response(200, ["Docker-Content-Digest": "sha256:2"])
+  }
+
+  void "other failures of manifest HEAD requests are thrown without giving up on HEAD"() {
+    when:
+    client.getDigest(REPOSITORY, "deleted")
+
+    then:
+    1 * registryService.headManifest(REPOSITORY, "deleted", _, _) >> { throw httpError(404) }
+    0 * registryService.getManifest(*_)
+    def e = thrown(RetrofitError)
+    e.response.status == 404
+
+    when:
+    def digest = client.getDigest(REPOSITORY, "1.0")
+
+    then:
+    1 * registryService.headManifest(REPOSITORY, "1.0", _, _) >> response(200, ["Docker-Content-Digest": DIGEST])
+    0 * registryService.getManifest(*_)
+    digest == DIGEST
+  }
+
+  private static Response response(int status, Map<String, String> headers) {
+    return new Response("$ADDRESS/v2/$REPOSITORY/manifests", status, "", headers.collect { new Header(it.key, it.value) }, null)
+  }
+
+  private static RetrofitError httpError(int status) {
+    def url = "$ADDRESS/v2/$REPOSITORY/manifests"
+    return RetrofitError.httpError(url, new Response(url, status, "", [], null), null, null)
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.docker.registry.provider.agent
+
+import com.netflix.spinnaker.cats.provider.ProviderCache
+import com.netflix.spinnaker.clouddriver.docker.registry.DockerRegistryCloudProvider
+import com.netflix.spinnaker.clouddriver.docker.registry.api.v2.client.DockerRegistryClient
+import com.netflix.spinnaker.clouddriver.docker.registry.api.v2.client.DockerRegistryTags
+import com.netflix.spinnaker.clouddriver.docker.registry.cache.Keys
+import com.netflix.spinnaker.clouddriver.docker.registry.security.DockerRegistryCredentials
+import retrofit.RetrofitError
+import retrofit.client.Response
+import spock.lang.Specification
+
+class DockerRegistryImageCachingAgentSpec extends Specification {
+  private static final String ACCOUNT = "docker"
+  private static final String REPOSITORY = "library/app"
+
+  def client = Mock(DockerRegistryClient) {
+    getAddress() >> "https://registry.test"
+  }
+
+  void "tags whose digest lookup is not found or fails are left out of the cache"() {
+    given:
+    def agent = agent(true)
+
+    when:
+    def result = agent.loadData(Stub(ProviderCache))
+    def taggedImages = result.cacheResults[Keys.Namespace.TAGGED_IMAGE.ns].collectEntries { [(it.id): it.attributes] }
+
+    then:
+    1 * client.getTags(REPOSITORY) >> new DockerRegistryTags(name: REPOSITORY, tags: ["1.0", "deleted", "broken"])
+    1 * client.getDigest(REPOSITORY, "1.0") >> "sha256:1"
+    1 * client.getDigest(REPOSITORY, "deleted") >> { throw httpError(404) }
+    1 * client.getDigest(REPOSITORY, "broken") >> { throw new SocketTimeoutException("timed out") }
+
+    taggedImages.keySet() == [Keys.getTaggedImageKey(ACCOUNT, REPOSITORY, "1.0")] as Set
+    taggedImages[Keys.getTaggedImageKey(ACCOUNT, REPOSITORY, "1.0")].digest == "sha256:1"
+    result.cacheResults[Keys.Namespace.IMAGE_ID.ns]*.attributes*.tagKey == [Keys.getTaggedImageKey(ACCOUNT, REPOSITORY, "1.0")]
+  }
+
+  void "digests are not looked up unless tracked"() {
+    given:
+    def agent = agent(false)
+
+    when:
+    def result = agent.loadData(Stub(ProviderCache))
+
+    then:
+    1 * client.getTags(REPOSITORY) >> new DockerRegistryTags(name: REPOSITORY, tags: ["1.0", "2.0"])
+    0 * client.getDigest(*_)
+    result.cacheResults[Keys.Namespace.TAGGED_IMAGE.ns].size() == 2
+  }
+
+  private DockerRegistryImageCachingAgent agent(boolean trackDigests) {
+    def credentials = new DockerRegistryCredentials(client, [REPOSITORY], trackDigests, [], false)
+    return new DockerRegistryImageCachingAgent(new DockerRegistryCloudProvider(), ACCOUNT, credentials, 0, 1, 30, "registry.test")
+  }
+
+  private static RetrofitError httpError(int status) {
+    def url = "https://registry.test/v2/$REPOSITORY/manifests"
+    return RetrofitError.httpError(url, new Response(url, status, "", [], null), null, null)
+  }
+}
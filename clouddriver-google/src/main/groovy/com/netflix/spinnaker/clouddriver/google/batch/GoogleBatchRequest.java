@@ -18,32 +18,62 @@ package com.netflix.spinnaker.clouddriver.google.batch;
 
 import com.google.api.client.googleapis.batch.BatchRequest;
 import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpResponseException;
 import com.google.api.services.compute.Compute;
 import com.google.api.services.compute.ComputeRequest;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.spinnaker.clouddriver.google.security.AccountForClient;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Helper class for sending batch requests to GCE.
+ *
+ * Batches are executed on a bounded executor shared by every batch request of an account. Sub-requests that are
+ * rejected for exceeding a rate limit are retried on their own after a backoff, and the account's batch size and
+ * concurrency are halved whenever that happens and grow back gradually once batches go through unthrottled.
  */
 @Slf4j
 public class GoogleBatchRequest {
 
   private static final int MAX_BATCH_SIZE = 100; // Platform specified max to not overwhelm batch backends.
+  private static final int MIN_BATCH_SIZE = 10;
+  private static final int BATCH_SIZE_INCREMENT = 10;
+  private static final int MAX_CONCURRENCY = 10;
+  private static final int MAX_ATTEMPTS = 4;
+  private static final long BASE_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
   private static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = (int) TimeUnit.MINUTES.toMillis(2);
   private static final int DEFAULT_READ_TIMEOUT_MILLIS = (int) TimeUnit.MINUTES.toMillis(2);
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final List<String> RATE_LIMIT_REASONS = Arrays.asList("rateLimitExceeded", "userRateLimitExceeded");
+
+  private static final Map<String, AccountBatchLimits> accountBatchLimits = new ConcurrentHashMap<>();
+
+  // Set while a batch runs on an account executor, so that requests issued from its callbacks (e.g. the next page of
+  // a paginated list) run inline instead of waiting on the executor they are occupying.
+  private static final ThreadLocal<Boolean> executingBatch = ThreadLocal.withInitial(() -> false);
 
   private List<QueuedRequest> queuedRequests;
   private String clouddriverUserAgentApplicationName;
@@ -61,39 +91,114 @@ public class GoogleBatchRequest {
       return;
     }
 
-    List<BatchRequest> queuedBatches = new ArrayList<>();
-    List<List<QueuedRequest>> requestPartitions = Lists.partition(queuedRequests, MAX_BATCH_SIZE);
-    requestPartitions.forEach(requestPart -> {
-      BatchRequest newBatch = newBatch();
-      requestPart.forEach(qr -> {
-        try {
-          qr.getRequest().queue(newBatch, qr.getCallback());
-        } catch (IOException ioe) {
-          log.error("Queueing request {} in batch failed.", qr);
-          throw new RuntimeException(ioe);
-        }
-      });
-      queuedBatches.add(newBatch);
-    });
+    String account = AccountForClient.getAccount(compute);
+    AccountBatchLimits limits = accountBatchLimits.computeIfAbsent(account, AccountBatchLimits::new);
 
-    ExecutorService threadPool = new ForkJoinPool(10);
-    try {
-      threadPool.submit(() -> queuedBatches.stream().parallel().forEach(this::executeInternalBatch)).get();
-    } catch (InterruptedException | ExecutionException e) {
-      throw new RuntimeException(e);
+    List<QueuedRequest> pendingRequests = queuedRequests;
+    for (int attempt = 1; ; attempt++) {
+      Queue<QueuedRequest> throttledRequests = new ConcurrentLinkedQueue<>();
+      executeBatches(limits, pendingRequests, attempt < MAX_ATTEMPTS ? throttledRequests : null);
+
+      if (throttledRequests.isEmpty()) {
+        limits.onUnthrottled();
+        return;
+      }
+
+      limits.onThrottled();
+      long backoffMillis = (BASE_BACKOFF_MILLIS << (attempt - 1)) + ThreadLocalRandom.current().nextLong(BASE_BACKOFF_MILLIS);
+      log.warn("{} of {} batched requests for {} were rate limited, retrying in {}ms with batches of {} and concurrency {}.",
+        throttledRequests.size(), pendingRequests.size(), account, backoffMillis, limits.getBatchSize(), limits.getConcurrency());
+      try {
+        backoff(backoffMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+      pendingRequests = new ArrayList<>(throttledRequests);
+    }
+  }
+
+  void backoff(long millis) throws InterruptedException {
+    Thread.sleep(millis);
+  }
+
+  /**
+   * @param throttledRequests -- Collects the requests that were rate limited so they can be retried, or null if
+   *                             rate limited requests should be reported to their callbacks as failures.
+   */
+  private void executeBatches(AccountBatchLimits limits, List<QueuedRequest> requests, Queue<QueuedRequest> throttledRequests) {
+    List<List<QueuedRequest>> requestPartitions = Lists.partition(requests, limits.getBatchSize());
+    if (requestPartitions.size() == 1 || executingBatch.get()) {
+      requestPartitions.forEach(requestPart -> executeInternalBatch(requestPart, throttledRequests));
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<>();
+    requestPartitions.forEach(requestPart -> futures.add(limits.getExecutor().submit(() -> {
+      executingBatch.set(true);
+      try {
+        executeInternalBatch(requestPart, throttledRequests);
+      } finally {
+        executingBatch.remove();
+      }
+    })));
+
+    // let every batch complete so that all callbacks are invoked before reporting the first failure
+    RuntimeException failure = null;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
     }
-    threadPool.shutdown();
   }
 
-  private void executeInternalBatch(BatchRequest b) {
+  @SuppressWarnings("unchecked")
+  private void executeInternalBatch(List<QueuedRequest> requests, Queue<QueuedRequest> throttledRequests) {
+    BatchRequest b = newBatch();
+    requests.forEach(qr -> {
+      try {
+        JsonBatchCallback callback = throttledRequests == null ? qr.getCallback() : new RateLimitAwareCallback(qr, throttledRequests);
+        qr.getRequest().queue(b, callback);
+      } catch (IOException ioe) {
+        log.error("Queueing request {} in batch failed.", qr);
+        throw new RuntimeException(ioe);
+      }
+    });
+
     try {
       b.execute();
+    } catch (HttpResponseException e) {
+      if (throttledRequests != null && e.getStatusCode() == HTTP_TOO_MANY_REQUESTS) {
+        // the batch as a whole was rejected, so none of its callbacks were invoked
+        throttledRequests.addAll(requests);
+        return;
+      }
+      log.error("Executing batch {} failed.", b);
+      throw new RuntimeException(e);
     } catch (IOException ioe) {
       log.error("Executing batch {} failed.", b);
       throw new RuntimeException(ioe);
     }
   }
 
+  static boolean isRateLimited(GoogleJsonError e) {
+    if (e.getCode() == HTTP_TOO_MANY_REQUESTS) {
+      return true;
+    }
+    Collection<GoogleJsonError.ErrorInfo> errors = e.getErrors();
+    return errors != null && errors.stream().anyMatch(error -> RATE_LIMIT_REASONS.contains(error.getReason()));
+  }
+
   private BatchRequest newBatch() {
     return compute.batch(
       new HttpRequestInitializer() {
@@ -121,4 +226,78 @@ public class GoogleBatchRequest {
     private ComputeRequest request;
     private JsonBatchCallback callback;
   }
+
+  private static class RateLimitAwareCallback<T> extends JsonBatchCallback<T> {
+    private final QueuedRequest queuedRequest;
+    private final Queue<QueuedRequest> throttledRequests;
+
+    RateLimitAwareCallback(QueuedRequest queuedRequest, Queue<QueuedRequest> throttledRequests) {
+      this.queuedRequest = queuedRequest;
+      this.throttledRequests = throttledRequests;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onSuccess(T t, HttpHeaders responseHeaders) throws IOException {
+      queuedRequest.getCallback().onSuccess(t, responseHeaders);
+    }
+
+    @Override
+    public void onFailure(GoogleJsonError e, HttpHeaders responseHeaders) throws IOException {
+      if (isRateLimited(e)) {
+        throttledRequests.add(queuedRequest);
+      } else {
+        queuedRequest.getCallback().onFailure(e, responseHeaders);
+      }
+    }
+  }
+
+  /**
+   * The executor and the adaptive batch size and concurrency shared by the batch requests of an account.
+   */
+  private static class AccountBatchLimits {
+    private final ThreadPoolExecutor executor;
+    private int batchSize = MAX_BATCH_SIZE;
+    private int concurrency = MAX_CONCURRENCY;
+
+    AccountBatchLimits(String account) {
+      executor = new ThreadPoolExecutor(MAX_CONCURRENCY, MAX_CONCURRENCY, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("google-batch-" + account + "-%d").setDaemon(true).build());
+      executor.allowCoreThreadTimeOut(true);
+    }
+
+    ThreadPoolExecutor getExecutor() {
+      return executor;
+    }
+
+    synchronized int getBatchSize() {
+      return batchSize;
+    }
+
+    synchronized int getConcurrency() {
+      return concurrency;
+    }
+
+    synchronized void onThrottled() {
+      batchSize = Math.max(MIN_BATCH_SIZE, batchSize / 2);
+      setConcurrency(Math.max(1, concurrency / 2));
+    }
+
+    synchronized void onUnthrottled() {
+      batchSize = Math.min(MAX_BATCH_SIZE, batchSize + BATCH_SIZE_INCREMENT);
+      setConcurrency(Math.min(MAX_CONCURRENCY, concurrency + 1));
+    }
+
+    private void setConcurrency(int newConcurrency) {
+      // the core size may never exceed the maximum size, so widen the maximum first and narrow it last
+      if (newConcurrency > concurrency) {
+        executor.setMaximumPoolSize(newConcurrency);
+        executor.setCorePoolSize(newConcurrency);
+      } else if (newConcurrency < concurrency) {
+        executor.setCorePoolSize(newConcurrency);
+        executor.setMaximumPoolSize(newConcurrency);
+      }
+      concurrency = newConcurrency;
+    }
+  }
 }
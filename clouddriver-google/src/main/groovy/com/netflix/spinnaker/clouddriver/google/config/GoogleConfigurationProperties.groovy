@@ -42,6 +42,9 @@ class GoogleConfigurationProperties {
   int asyncOperationMaxPollingIntervalSeconds = ASYNC_OPERATION_MAX_POLLING_INTERVAL_SECONDS
   List<String> baseImageProjects
   long maxMIGPageSize = 50
+  // How long the server group caching agents of an account share the project-wide instance and instance template
+  // listings. Zero makes every agent fetch its own listings.
+  long projectListingTtlSeconds = 30
   // Takes a list of regions you want indexed. Will default to indexing all regions if left
   // unspecified. An empty list will index no regions.
   List<String> defaultRegions
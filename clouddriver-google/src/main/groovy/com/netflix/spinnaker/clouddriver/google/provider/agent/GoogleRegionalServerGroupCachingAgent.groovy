@@ -43,6 +43,7 @@ import com.netflix.spinnaker.clouddriver.google.model.GoogleInstance
 import com.netflix.spinnaker.clouddriver.google.model.GoogleServerGroup
 import com.netflix.spinnaker.clouddriver.google.model.callbacks.Utils
 import com.netflix.spinnaker.clouddriver.google.provider.agent.util.PaginatedRequest
+import com.netflix.spinnaker.clouddriver.google.provider.agent.util.ProjectListingSnapshot
 import com.netflix.spinnaker.clouddriver.google.security.GoogleNamedAccountCredentials
 import com.netflix.spinnaker.moniker.Moniker
 import groovy.transform.Canonical
@@ -58,6 +59,7 @@ import static com.netflix.spinnaker.clouddriver.google.cache.Keys.Namespace.*
 class GoogleRegionalServerGroupCachingAgent extends AbstractGoogleCachingAgent implements OnDemandAgent, GoogleExecutorTraits {
   final String region
   final long maxMIGPageSize
+  final ProjectListingSnapshot projectListings
 
   final Set<AgentDataType> providedDataTypes = [
     AUTHORITATIVE.forType(SERVER_GROUPS.ns),
@@ -76,12 +78,29 @@ class GoogleRegionalServerGroupCachingAgent extends AbstractGoogleCachingAgent i
                                         Registry registry,
                                         String region,
                                         long maxMIGPageSize) {
+    this(clouddriverUserAgentApplicationName,
+         credentials,
+         objectMapper,
+         registry,
+         region,
+         maxMIGPageSize,
+         new ProjectListingSnapshot(registry, credentials.name, 0))
+  }
+
+  GoogleRegionalServerGroupCachingAgent(String clouddriverUserAgentApplicationName,
+                                        GoogleNamedAccountCredentials credentials,
+                                        ObjectMapper objectMapper,
+                                        Registry registry,
+                                        String region,
+                                        long maxMIGPageSize,
+                                        ProjectListingSnapshot projectListings) {
     super(clouddriverUserAgentApplicationName,
           credentials,
           objectMapper,
           registry)
     this.region = region
     this.maxMIGPageSize = maxMIGPageSize
+    this.projectListings = projectListings
     this.metricsSupport = new OnDemandMetricsSupport(
       registry,
       this,
@@ -133,8 +152,14 @@ class GoogleRegionalServerGroupCachingAgent extends AbstractGoogleCachingAgent i
     GoogleBatchRequest instanceGroupsRequest = buildGoogleBatchRequest()
     GoogleBatchRequest autoscalerRequest = buildGoogleBatchRequest()
 
-    List<InstanceTemplate> instanceTemplates = GoogleZonalServerGroupCachingAgent.fetchInstanceTemplates(cachingAgent, compute, project)
-    List<GoogleInstance> instances = GCEUtil.fetchInstances(this, credentials)
+    // On-demand requests must see the templates and instances of the operation that triggered them.
+    boolean forceRefresh = onDemandServerGroupName != null
+    List<InstanceTemplate> instanceTemplates = projectListings.getInstanceTemplates({
+      GoogleZonalServerGroupCachingAgent.fetchInstanceTemplates(cachingAgent, compute, project)
+    }, forceRefresh)
+    List<GoogleInstance> instances = projectListings.getInstances({
+      GCEUtil.fetchInstances(cachingAgent, credentials)
+    }, forceRefresh)
 
     InstanceGroupManagerCallbacks instanceGroupManagerCallbacks = new InstanceGroupManagerCallbacks(
       providerCache: providerCache,
@@ -46,6 +46,7 @@ import com.netflix.spinnaker.clouddriver.google.model.GoogleServerGroup
 import com.netflix.spinnaker.clouddriver.google.model.callbacks.Utils
 import com.netflix.spinnaker.clouddriver.google.model.loadbalancing.GoogleHttpLoadBalancingPolicy
 import com.netflix.spinnaker.clouddriver.google.provider.agent.util.PaginatedRequest
+import com.netflix.spinnaker.clouddriver.google.provider.agent.util.ProjectListingSnapshot
 import com.netflix.spinnaker.clouddriver.google.security.AccountForClient
 import com.netflix.spinnaker.clouddriver.google.security.GoogleNamedAccountCredentials
 import com.netflix.spinnaker.moniker.Moniker
@@ -64,6 +65,7 @@ class GoogleZonalServerGroupCachingAgent extends AbstractGoogleCachingAgent impl
 
   final String region
   final long maxMIGPageSize
+  final ProjectListingSnapshot projectListings
 
   final Set<AgentDataType> providedDataTypes = [
     AUTHORITATIVE.forType(SERVER_GROUPS.ns),
@@ -82,12 +84,29 @@ class GoogleZonalServerGroupCachingAgent extends AbstractGoogleCachingAgent impl
                                      Registry registry,
                                      String region,
                                      long maxMIGPageSize) {
+    this(clouddriverUserAgentApplicationName,
+         credentials,
+         objectMapper,
+         registry,
+         region,
+         maxMIGPageSize,
+         new ProjectListingSnapshot(registry, credentials.name, 0))
+  }
+
+  GoogleZonalServerGroupCachingAgent(String clouddriverUserAgentApplicationName,
+                                     GoogleNamedAccountCredentials credentials,
+                                     ObjectMapper objectMapper,
+                                     Registry registry,
+                                     String region,
+                                     long maxMIGPageSize,
+                                     ProjectListingSnapshot projectListings) {
     super(clouddriverUserAgentApplicationName,
           credentials,
           objectMapper,
           registry)
     this.region = region
     this.maxMIGPageSize = maxMIGPageSize
+    this.projectListings = projectListings
     this.metricsSupport = new OnDemandMetricsSupport(
       registry,
       this,
@@ -140,8 +159,14 @@ class GoogleZonalServerGroupCachingAgent extends AbstractGoogleCachingAgent impl
     GoogleBatchRequest instanceGroupsRequest = buildGoogleBatchRequest()
     GoogleBatchRequest autoscalerRequest = buildGoogleBatchRequest()
 
-    List<InstanceTemplate> instanceTemplates = fetchInstanceTemplates(cachingAgent, compute, project)
-    List<GoogleInstance> instances = GCEUtil.fetchInstances(this, credentials)
+    // On-demand requests must see the templates and instances of the operation that triggered them.
+    boolean forceRefresh = onDemandServerGroupName != null
+    List<InstanceTemplate> instanceTemplates = projectListings.getInstanceTemplates({
+      fetchInstanceTemplates(cachingAgent, compute, project)
+    }, forceRefresh)
+    List<GoogleInstance> instances = projectListings.getInstances({
+      GCEUtil.fetchInstances(cachingAgent, credentials)
+    }, forceRefresh)
 
     zones?.each { String zone ->
       InstanceGroupManagerCallbacks instanceGroupManagerCallbacks = new InstanceGroupManagerCallbacks(
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.google.provider.agent.util;
+
+import com.google.api.services.compute.model.InstanceTemplate;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.clouddriver.google.model.GoogleInstance;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Shares the project-wide instance and instance template listings between the server group caching agents of an
+ * account.
+ *
+ * Every regional and zonal server group agent needs both listings, and each one pages through the entire project,
+ * so the agents of an account reuse a listing fetched within the last {@code ttlMillis} instead of each listing the
+ * project again. Refreshes are single-flight: agents that ask for a listing while it is being fetched wait for that
+ * fetch rather than issuing their own. A failed fetch is not remembered, so the next caller retries it.
+ */
+public class ProjectListingSnapshot {
+  public interface Fetcher<T> {
+    List<T> fetch() throws IOException;
+  }
+
+  private final Listing<GoogleInstance> instances;
+  private final Listing<InstanceTemplate> instanceTemplates;
+
+  public ProjectListingSnapshot(Registry registry, String accountName, long ttlMillis) {
+    this(registry, accountName, ttlMillis, Clock.systemUTC());
+  }
+
+  public ProjectListingSnapshot(Registry registry, String accountName, long ttlMillis, Clock clock) {
+    Id id = registry.createId("google.projectListings").withTag("account", accountName);
+    this.instances = new Listing<>(registry, id.withTag("listing", "instances"), ttlMillis, clock);
+    this.instanceTemplates = new Listing<>(registry, id.withTag("listing", "instanceTemplates"), ttlMillis, clock);
+  }
+
+  /**
+   * @param forceRefresh -- Fetch the listing even if the snapshot is still fresh (e.g. for on-demand requests, which
+   *                        must observe the result of an operation that has just completed), and share the result.
+   */
+  public List<GoogleInstance> getInstances(Fetcher<GoogleInstance> fetcher, boolean forceRefresh) throws IOException {
+    return instances.get(fetcher, forceRefresh);
+  }
+
+  public List<InstanceTemplate> getInstanceTemplates(Fetcher<InstanceTemplate> fetcher, boolean forceRefresh) throws IOException {
+    return instanceTemplates.get(fetcher, forceRefresh);
+  }
+
+  private static class Listing<T> {
+    private final Registry registry;
+    private final Id id;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private List<T> items;
+    private long fetchedAt;
+
+    Listing(Registry registry, Id id, long ttlMillis, Clock clock) {
+      this.registry = registry;
+      this.id = id;
+      this.ttlMillis = ttlMillis;
+      this.clock = clock;
+    }
+
+    synchronized List<T> get(Fetcher<T> fetcher, boolean forceRefresh) throws IOException {
+      if (!forceRefresh && items != null && clock.millis() - fetchedAt < ttlMillis) {
+        registry.counter(id.withTag("result", "reused")).increment();
+        return items;
+      }
+
+      long startTime = clock.millis();
+      List<T> fetched = fetcher.fetch();
+      registry.counter(id.withTag("result", "fetched")).increment();
+
+      // measure freshness from the start of the fetch, since that's the oldest state the listing may reflect
+      items = fetched;
+      fetchedAt = startTime;
+      return fetched;
+    }
+  }
+}
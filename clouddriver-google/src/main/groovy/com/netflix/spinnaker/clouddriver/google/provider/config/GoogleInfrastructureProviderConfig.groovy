@@ -25,6 +25,7 @@ import com.netflix.spinnaker.config.GoogleConfiguration
 import com.netflix.spinnaker.clouddriver.google.config.GoogleConfigurationProperties
 import com.netflix.spinnaker.clouddriver.google.provider.GoogleInfrastructureProvider
 import com.netflix.spinnaker.clouddriver.google.provider.agent.*
+import com.netflix.spinnaker.clouddriver.google.provider.agent.util.ProjectListingSnapshot
 import com.netflix.spinnaker.clouddriver.google.security.GoogleNamedAccountCredentials
 import com.netflix.spinnaker.clouddriver.security.AccountCredentialsRepository
 import com.netflix.spinnaker.clouddriver.security.ProviderUtils
@@ -34,6 +35,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.*
 
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
 
 @Configuration
 @Import(GoogleConfiguration)
@@ -161,6 +163,9 @@ class GoogleInfrastructureProviderConfig {
                                                                    credentials,
                                                                    objectMapper,
                                                                    registry)
+        def projectListings = new ProjectListingSnapshot(registry,
+                                                         credentials.name,
+                                                         TimeUnit.SECONDS.toMillis(googleConfigurationProperties.projectListingTtlSeconds))
         regions.each { String region ->
           newlyAddedAgents << new GoogleInternalLoadBalancerCachingAgent(clouddriverUserAgentApplicationName,
                                                                          credentials,
@@ -177,13 +182,15 @@ class GoogleInfrastructureProviderConfig {
                                                                         objectMapper,
                                                                         registry,
                                                                         region,
-                                                                        googleConfigurationProperties.maxMIGPageSize)
+                                                                        googleConfigurationProperties.maxMIGPageSize,
+                                                                        projectListings)
           newlyAddedAgents << new GoogleZonalServerGroupCachingAgent(clouddriverUserAgentApplicationName,
                                                                      credentials,
                                                                      objectMapper,
                                                                      registry,
                                                                      region,
-                                                                     googleConfigurationProperties.maxMIGPageSize)
+                                                                     googleConfigurationProperties.maxMIGPageSize,
+                                                                     projectListings)
         }
 
         // If there is an agent scheduler, then this provider has been through the AgentController in the past.
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.google.batch
+
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback
+import com.google.api.client.googleapis.json.GoogleJsonError
+import com.google.api.client.http.HttpHeaders
+import com.google.api.client.http.HttpResponseException
+import com.google.api.client.http.LowLevelHttpRequest
+import com.google.api.client.http.LowLevelHttpResponse
+import com.google.api.client.json.jackson2.JacksonFactory
+import com.google.api.client.testing.http.MockHttpTransport
+import com.google.api.client.testing.http.MockLowLevelHttpRequest
+import com.google.api.client.testing.http.MockLowLevelHttpResponse
+import com.google.api.services.compute.Compute
+import com.google.api.services.compute.model.Image
+import com.netflix.spinnaker.clouddriver.google.security.AccountForClient
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.Unroll
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+class GoogleBatchRequestSpec extends Specification {
+
+  private static final String PROJECT_NAME = "my-project"
+
+  FakeBatchTransport transport
+  Compute compute
+  String account
+
+  List<String> succeeded
+  Map<String, GoogleJsonError> failed
+  List<Long> backoffs
+
+  def setup() {
+    transport = new FakeBatchTransport()
+    compute = new Compute.Builder(transport, JacksonFactory.defaultInstance, null).setApplicationName("test").build()
+    account = "account-${UUID.randomUUID()}".toString()
+    AccountForClient.addGoogleClient(compute, account)
+
+    succeeded = Collections.synchronizedList([])
+    failed = new ConcurrentHashMap<>()
+    backoffs = Collections.synchronizedList([])
+  }
+
+  def cleanup() {
+    AccountForClient.clientToAccount.remove(compute)
+    GoogleBatchRequest.accountBatchLimits.remove(account)?.executor?.shutdownNow()
+  }
+
+  void "only the rate limited sub-requests are retried"() {
+    setup:
+      transport.status = { String image, int attempt ->
+        switch (image) {
+          case "image-2": return attempt == 1 ? 429 : 200
+          case "image-3": return attempt == 1 ? 403 : 200
+          case "image-4": return 404
+          default: return 200
+        }
+      }
+      transport.reason = { int code -> code == 403 ? "userRateLimitExceeded" : code == 429 ? "rateLimitExceeded" : "notFound" }
+
+    when:
+      batchRequest(images(1..4)).execute()
+
+    then:
+      transport.batches == [["image-1", "image-2", "image-3", "image-4"], ["image-2", "image-3"]]
+      succeeded.sort() == ["image-1", "image-2", "image-3"]
+      failed.keySet() == ["image-4"] as Set
+      failed["image-4"].code == 404
+      backoffs.size() == 1
+  }
+
+  void "every request of a batch rejected with a 429 is retried"() {
+    setup:
+      transport.batchStatus = { int batch -> batch == 1 ? 429 : 200 }
+
+    when:
+      batchRequest(images(1..3)).execute()
+
+    then:
+      transport.batches == [["image-1", "image-2", "image-3"], ["image-1", "image-2", "image-3"]]
+      succeeded.sort() == ["image-1", "image-2", "image-3"]
+      failed.isEmpty()
+  }
+
+  void "rate limited sub-requests are reported to their callbacks once the attempts are exhausted"() {
+    setup:
+      transport.status = { String image, int attempt -> image == "image-1" ? 429 : 200 }
+
+    when:
+      batchRequest(images(1..2)).execute()
+
+    then:
+      transport.batches == [["image-1", "image-2"], ["image-1"], ["image-1"], ["image-1"]]
+      succeeded == ["image-2"]
+      failed.keySet() == ["image-1"] as Set
+      failed["image-1"].code == 429
+      failed["image-1"].errors*.reason == ["rateLimitExceeded"]
+
+      // exponential backoff with up to a second of jitter
+      backoffs.size() == 3
+      (0..<3).every { i -> backoffs[i] >= (1000L << i) && backoffs[i] < (1000L << i) + 1000L }
+  }
+
+  void "a batch that is still rejected with a 429 on the last attempt fails the request"() {
+    setup:
+      transport.batchStatus = { int batch -> 429 }
+
+    when:
+      batchRequest(images(1..2)).execute()
+
+    then:
+      def e = thrown(RuntimeException)
+      e.cause instanceof HttpResponseException
+      ((HttpResponseException) e.cause).statusCode == 429
+      transport.batches.size() == 4
+      succeeded.isEmpty()
+      failed.isEmpty()
+  }
+
+  void "batch size and concurrency are halved when throttled and grow back once unthrottled"() {
+    setup:
+      transport.batchStatus = { int batch -> batch == 1 ? 429 : 200 }
+
+    when:
+      batchRequest(images(1..100)).execute()
+
+    then:
+      transport.batches*.size() == [100, 50, 50]
+      succeeded.size() == 100
+      with(limits()) {
+        batchSize == 60
+        concurrency == 6
+        executor.corePoolSize == 6
+        executor.maximumPoolSize == 6
+      }
+
+    when:
+      transport.batches.clear()
+      batchRequest(images(1..100)).execute()
+
+    then:
+      transport.batches*.size().sort() == [40, 60]
+      with(limits()) {
+        batchSize == 70
+        concurrency == 7
+        executor.corePoolSize == 7
+      }
+  }
+
+  @Timeout(30)
+  void "requests issued from a callback run inline on the account executor"() {
+    setup:
+      // shrink the account to a single executor thread so that nested work queued on it could never run
+      batchRequest(images(1..1)).execute()
+      6.times { limits().onThrottled() }
+
+      Thread issuingThread = null
+      def nestedThreads = Collections.synchronizedSet([] as Set)
+      def nested = new RecordingBatchRequest(compute, backoffs)
+      images(101..120).each { image ->
+        nested.queue(compute.images().get(PROJECT_NAME, image), callback { nestedThreads << Thread.currentThread() })
+      }
+      def outer = new RecordingBatchRequest(compute, backoffs)
+      images(1..20).each { image ->
+        outer.queue(compute.images().get(PROJECT_NAME, image), callback {
+          if (it == "image-1") {
+            issuingThread = Thread.currentThread()
+            nested.execute()
+          }
+        })
+      }
+      transport.batches.clear()
+
+    when:
+      outer.execute()
+
+    then:
+      // the batch size and concurrency never shrink below their minimums
+      transport.batches*.size() == [10, 10, 10, 10]
+      succeeded.size() == 41
+      issuingThread.name.startsWith("google-batch-${account}-")
+      nestedThreads == [issuingThread] as Set
+  }
+
+  @Unroll
+  void "isRateLimited is #rateLimited for a #code error with reasons #reasons"() {
+    setup:
+      def error = new GoogleJsonError(code: code)
+      if (reasons != null) {
+        error.errors = reasons.collect { new GoogleJsonError.ErrorInfo(reason: it) }
+      }
+
+    expect:
+      GoogleBatchRequest.isRateLimited(error) == rateLimited
+
+    where:
+      code | reasons                                || rateLimited
+      429  | null                                   || true
+      429  | []                                     || true
+      403  | ["rateLimitExceeded"]                  || true
+      403  | ["userRateLimitExceeded"]              || true
+      403  | ["forbidden", "userRateLimitExceeded"] || true
+      403  | ["forbidden"]                          || false
+      403  | ["quotaExceeded"]                      || false
+      404  | null                                   || false
+      500  | ["backendError"]                       || false
+  }
+
+  private GoogleBatchRequest batchRequest(List<String> images) {
+    def batchRequest = new RecordingBatchRequest(compute, backoffs)
+    images.each { batchRequest.queue(compute.images().get(PROJECT_NAME, it), callback()) }
+    return batchRequest
+  }
+
+  private JsonBatchCallback<Image> callback(Closure andThen = {}) {
+    return new JsonBatchCallback<Image>() {
+      @Override
+      void onSuccess(Image image, HttpHeaders responseHeaders) {
+        succeeded << image.name
+        andThen.call(image.name)
+      }
+
+      @Override
+      void onFailure(GoogleJsonError e, HttpHeaders responseHeaders) {
+        failed[e.message] = e
+      }
+    }
+  }
+
+  private def limits() {
+    return GoogleBatchRequest.accountBatchLimits[account]
+  }
+
+  private static List<String> images(IntRange range) {
+    return range.collect { "image-$it".toString() }
+  }
+
+  /**
+   * Records the backoff between attempts instead of sleeping.
+   */
+  static class RecordingBatchRequest extends GoogleBatchRequest {
+    private final List<Long> backoffs
+
+    RecordingBatchRequest(Compute compute, List<Long> backoffs) {
+      super(compute, "test")
+      this.backoffs = backoffs
+    }
+
+    @Override
+    void backoff(long millis) {
+      backoffs << millis
+    }
+  }
+
+  /**
+   * Answers batch requests for images with a multipart response that has one part per image. The status of each part
+   * is decided by {@code status}, and the status of the batch as a whole by {@code batchStatus} (batches are counted
+   * from 1). Error responses name the image they are for in their message.
+   */
+  static class FakeBatchTransport extends MockHttpTransport {
+    private static final String BOUNDARY = "batch_boundary"
+
+    List<List<String>> batches = Collections.synchronizedList([])
+    Closure<Integer> batchStatus = { int batch -> 200 }
+    Closure<Integer> status = { String image, int attempt -> 200 }
+    Closure<String> reason = { int code -> code == 429 ? "rateLimitExceeded" : "notFound" }
+
+    private final AtomicInteger batchCount = new AtomicInteger()
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>()
+
+    @Override
+    LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        LowLevelHttpResponse execute() throws IOException {
+          return respond(this)
+        }
+      }
+    }
+
+    LowLevelHttpResponse respond(MockLowLevelHttpRequest request) {
+      def content = new ByteArrayOutputStream()
+      request.streamingContent.writeTo(content)
+      List<String> images = (content.toString("UTF-8") =~ /\/global\/images\/([\w-]+)/).collect { it[1] }
+
+      batches << images
+      int batch = batchCount.incrementAndGet()
+
+      int code = batchStatus(batch)
+      if (code != 200) {
+        return new MockLowLevelHttpResponse()
+          .setStatusCode(code)
+          .setContentType("application/json; charset=UTF-8")
+          .setContent(errorJson(code, reason(code), "batch $batch"))
+      }
+
+      def body = new StringBuilder()
+      images.each { image ->
+        int attempt = attempts.merge(image, 1, Integer.&sum)
+        int partCode = status(image, attempt)
+        body << "--$BOUNDARY\r\n"
+        body << "Content-Type: application/http\r\n\r\n"
+        body << "HTTP/1.1 $partCode ${partCode == 200 ? 'OK' : 'Error'}\r\n"
+        body << "Content-Type: application/json; charset=UTF-8\r\n\r\n"
+        body << (partCode == 200 ? "{\"name\":\"$image\"}" : errorJson(partCode, reason(partCode), image)) << "\r\n"
+      }
+      body << "--$BOUNDARY--\r\n"
+
+      return new MockLowLevelHttpResponse()
+        .setStatusCode(200)
+        .setContentType("multipart/mixed; boundary=$BOUNDARY")
+        .setContent(body.toString())
+    }
+
+    private static String errorJson(int code, String reason, String message) {
+      return "{\"error\":{\"code\":$code,\"message\":\"$message\",\"errors\":[{\"domain\":\"global\",\"reason\":\"$reason\",\"message\":\"$message\"}]}}"
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.google.provider.agent.util
+
+import com.google.api.services.compute.model.InstanceTemplate
+import com.netflix.spectator.api.DefaultRegistry
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Instant
+import java.time.ZoneOffset
+
+class ProjectListingSnapshotSpec extends Specification {
+
+  void "listings are shared until they expire"() {
+    setup:
+      def registry = new DefaultRegistry()
+      def clock = Mock(Clock)
+      def snapshot = new ProjectListingSnapshot(registry, "my-account", 30000, clock)
+      def fetches = 0
+      def fetcher = { [new InstanceTemplate(name: "template-${++fetches}".toString())] }
+
+    when:
+      def first = snapshot.getInstanceTemplates(fetcher, false)
+      def second = snapshot.getInstanceTemplates(fetcher, false)
+
+    then:
+      _ * clock.millis() >> 1000
+      fetches == 1
+      second.is(first)
+
+    when:
+      def expired = snapshot.getInstanceTemplates(fetcher, false)
+
+    then:
+      _ * clock.millis() >> 31000
+      fetches == 2
+      expired*.name == ["template-2"]
+      registry.counter("google.projectListings", "account", "my-account", "listing", "instanceTemplates", "result", "reused").count() == 1
+      registry.counter("google.projectListings", "account", "my-account", "listing", "instanceTemplates", "result", "fetched").count() == 2
+  }
+
+  void "forced refreshes fetch and share the new listing"() {
+    setup:
+      def clock = Clock.fixed(Instant.ofEpochMilli(1000), ZoneOffset.UTC)
+      def snapshot = new ProjectListingSnapshot(new DefaultRegistry(), "my-account", 30000, clock)
+      def fetches = 0
+      def fetcher = { [new InstanceTemplate(name: "template-${++fetches}".toString())] }
+
+    when:
+      snapshot.getInstanceTemplates(fetcher, false)
+      def refreshed = snapshot.getInstanceTemplates(fetcher, true)
+      def shared = snapshot.getInstanceTemplates(fetcher, false)
+
+    then:
+      fetches == 2
+      refreshed*.name == ["template-2"]
+      shared.is(refreshed)
+  }
+
+  void "failed fetches are retried by the next caller"() {
+    setup:
+      def clock = Clock.fixed(Instant.ofEpochMilli(1000), ZoneOffset.UTC)
+      def snapshot = new ProjectListingSnapshot(new DefaultRegistry(), "my-account", 30000, clock)
+
+    when:
+      snapshot.getInstanceTemplates({ throw new IOException("quota exceeded") }, false)
+
+    then:
+      thrown(IOException)
+
+    when:
+      def templates = snapshot.getInstanceTemplates({ [new InstanceTemplate(name: "template")] }, false)
+
+    then:
+      templates*.name == ["template"]
+  }
+}
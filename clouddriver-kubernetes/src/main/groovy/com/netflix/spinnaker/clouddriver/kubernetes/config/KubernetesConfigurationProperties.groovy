@@ -57,7 +57,10 @@ class KubernetesConfigurationProperties {
     List<String> omitKinds
     Boolean onlySpinnakerManaged
     Boolean liveManifestCalls
+    Boolean watchCaching
+    Boolean inProcessReads
     Long cacheIntervalSeconds
+    Long metricsCacheIntervalSeconds
   }
 
   List<ManagedAccount> accounts = []
@@ -51,6 +51,30 @@ public class KubernetesApiClientConfig extends Config {
     }
   }
 
+  /**
+   * @return true if the kubeconfig user of the configured (or current) context authenticates through an auth-provider
+   * (e.g. gcp or oidc) or an exec plugin. Their short-lived tokens are refreshed by kubectl on every invocation, but
+   * not by a client built once from the kubeconfig.
+   */
+  boolean usesRefreshingUserCredentials() {
+    if (serviceAccount) {
+      return false
+    }
+
+    File file = StringUtils.isEmpty(kubeconfigFile) ? new File(System.getProperty("user.home"), ".kube/config") : new File(kubeconfigFile)
+    Map<String, Object> configMap = file.withReader { Reader reader ->
+      (Map<String, Object>) new Yaml(new SafeConstructor()).load(reader)
+    }
+
+    String contextName = StringUtils.isEmpty(context) ? configMap?.get("current-context") : context
+    Map contextEntry = (configMap?.get("contexts") as List<Map>)?.find { it.name == contextName }
+    String userName = contextEntry?.context?.user
+    Map userEntry = (configMap?.get("users") as List<Map>)?.find { it.name == userName }
+    Map user = userEntry?.user as Map
+
+    return user != null && (user.containsKey("auth-provider") || user.containsKey("exec"))
+  }
+
   ApiClient withServiceAccount() {
     ApiClient client = new ApiClient()
 
@@ -73,6 +73,7 @@ public class KubernetesNamedAccountCredentials<C extends KubernetesCredentials>
   private final Boolean onlySpinnakerManaged;
   private final Boolean liveManifestCalls;
   private final Long cacheIntervalSeconds;
+  private final Long metricsCacheIntervalSeconds;
   KubernetesNamedAccountCredentials(String name,
                                     ProviderVersion providerVersion,
                                     AccountCredentialsRepository accountCredentialsRepository,
@@ -98,7 +99,8 @@ public class KubernetesNamedAccountCredentials<C extends KubernetesCredentials>
                                     C credentials,
                                     Boolean onlySpinnakerManaged,
                                     Boolean liveManifestCalls,
-                                    Long cacheIntervalSeconds) {
+                                    Long cacheIntervalSeconds,
+                                    Long metricsCacheIntervalSeconds) {
     this.name = name;
     this.providerVersion = providerVersion;
     this.environment = environment;
@@ -125,6 +127,7 @@ public class KubernetesNamedAccountCredentials<C extends KubernetesCredentials>
     this.onlySpinnakerManaged = onlySpinnakerManaged;
     this.liveManifestCalls = liveManifestCalls;
     this.cacheIntervalSeconds = cacheIntervalSeconds;
+    this.metricsCacheIntervalSeconds = metricsCacheIntervalSeconds;
   }
 
   public List<String> getNamespaces() {
@@ -186,6 +189,10 @@ public class KubernetesNamedAccountCredentials<C extends KubernetesCredentials>
     return cacheIntervalSeconds;
   }
 
+  public Long getMetricsCacheIntervalSeconds() {
+    return metricsCacheIntervalSeconds;
+  }
+
   public Map<String, String> getSpinnakerKindMap() {
     if (kubernetesSpinnakerKindMap == null) {
       return new HashMap<String, String>();
@@ -246,7 +253,10 @@ public class KubernetesNamedAccountCredentials<C extends KubernetesCredentials>
     KubernetesSpinnakerKindMap kubernetesSpinnakerKindMap;
     Boolean onlySpinnakerManaged;
     Boolean liveManifestCalls;
+    boolean watchCaching;
+    boolean inProcessReads;
     Long cacheIntervalSeconds;
+    Long metricsCacheIntervalSeconds;
 
     Builder kubernetesSpinnakerKindMap(KubernetesSpinnakerKindMap kubernetesSpinnakerKindMap) {
       this.kubernetesSpinnakerKindMap = kubernetesSpinnakerKindMap;
@@ -441,11 +451,26 @@ public class KubernetesNamedAccountCredentials<C extends KubernetesCredentials>
       return this;
     }
 
+    Builder watchCaching(boolean watchCaching) {
+      this.watchCaching = watchCaching;
+      return this;
+    }
+
+    Builder inProcessReads(boolean inProcessReads) {
+      this.inProcessReads = inProcessReads;
+      return this;
+    }
+
     Builder cacheIntervalSeconds(Long cacheIntervalSeconds) {
       this.cacheIntervalSeconds = cacheIntervalSeconds;
       return this;
     }
 
+    Builder metricsCacheIntervalSeconds(Long metricsCacheIntervalSeconds) {
+      this.metricsCacheIntervalSeconds = metricsCacheIntervalSeconds;
+      return this;
+    }
+
     private C buildCredentials() {
       switch (providerVersion) {
         case v1:
@@ -492,6 +517,8 @@ public class KubernetesNamedAccountCredentials<C extends KubernetesCredentials>
               .jobExecutor(jobExecutor)
               .onlySpinnakerManaged(onlySpinnakerManaged)
               .liveManifestCalls(liveManifestCalls)
+              .watchCaching(watchCaching)
+              .inProcessReads(inProcessReads)
               .build();
         default:
           throw new IllegalArgumentException("Unknown provider type: " + providerVersion);
@@ -584,7 +611,8 @@ public class KubernetesNamedAccountCredentials<C extends KubernetesCredentials>
           credentials,
           onlySpinnakerManaged,
           liveManifestCalls,
-          cacheIntervalSeconds
+          cacheIntervalSeconds,
+          metricsCacheIntervalSeconds
       );
     }
   }
@@ -115,7 +115,10 @@ class KubernetesNamedAccountCredentialsInitializer implements CredentialsInitial
           .kubernetesSpinnakerKindMap(kubernetesSpinnakerKindMap)
           .onlySpinnakerManaged(managedAccount.onlySpinnakerManaged == null ? false : managedAccount.onlySpinnakerManaged)
           .liveManifestCalls(managedAccount.liveManifestCalls ?: false)
+          .watchCaching(managedAccount.watchCaching ?: false)
+          .inProcessReads(managedAccount.inProcessReads ?: false)
           .cacheIntervalSeconds(managedAccount.cacheIntervalSeconds)
+          .metricsCacheIntervalSeconds(managedAccount.metricsCacheIntervalSeconds)
           .build()
 
         accountCredentialsRepository.save(managedAccount.name, kubernetesAccount)
@@ -250,7 +250,13 @@ public class KubernetesCacheDataConverter {
   }
 
   public static Moniker getMoniker(CacheData cacheData) {
-    return mapper.convertValue(cacheData.getAttributes().get("moniker"), Moniker.class);
+    Object moniker = cacheData.getAttributes().get("moniker");
+    // freshly converted cache data holds the moniker itself, only data read back from the cache needs converting
+    if (moniker instanceof Moniker) {
+      return (Moniker) moniker;
+    }
+
+    return mapper.convertValue(moniker, Moniker.class);
   }
 
   public static KubernetesManifest convertToManifest(Object o) {
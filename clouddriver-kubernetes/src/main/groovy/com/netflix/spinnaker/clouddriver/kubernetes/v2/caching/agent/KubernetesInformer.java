@@ -0,0 +1,300 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.caching.agent;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.clouddriver.jobs.local.ReaderConsumer;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifest;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor.KubectlException;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubernetesApiResource;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubernetesApiResource.ResourceList;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a local copy of all objects of one kind in one namespace (or cluster-wide, for kinds that are not namespaced)
+ * using the list + watch protocol of the API server.
+ *
+ * An initial list records the collection's resourceVersion, after which a long-running watch streams changes from
+ * that version onwards. Watches are bounded by a server-side timeout and resumed from the last observed version. If
+ * that version has been compacted away the server responds with 410 Gone and the informer relists.
+ *
+ * Other watch failures are retried with backoff, and a relist is forced after several consecutive failures. If the
+ * informer still hasn't heard from the API server within {@link #MAX_STALENESS_MILLIS}, it reports itself as stale
+ * so that the caching agent stops serving its store.
+ */
+@Slf4j
+public class KubernetesInformer {
+  private final static long WATCH_TIMEOUT_SECONDS = 300;
+  private final static long MIN_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+  private final static long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(2);
+  private final static int HTTP_GONE = 410;
+  private final static int MAX_CONSECUTIVE_FAILURES = 5;
+  // a healthy but quiet watch only reports back when its server-side timeout elapses, so allow for two of them
+  final static long MAX_STALENESS_MILLIS = TimeUnit.SECONDS.toMillis(2 * WATCH_TIMEOUT_SECONDS);
+
+  private final KubernetesV2Credentials credentials;
+  private final Registry registry;
+  private final String accountName;
+  private final KubernetesKind kind;
+  private final String namespace;
+
+  private final Gson gson = new Gson();
+
+  private final Id eventsId;
+  private final Id relistsId;
+  private final Id watchLagId;
+
+  private volatile Map<String, KubernetesManifest> store = new ConcurrentHashMap<>();
+  private volatile String resourceVersion;
+  private volatile KubernetesApiResource apiResource;
+  private volatile long lastSyncMillis;
+  private volatile boolean running;
+  private Future<?> watchTask;
+
+  public KubernetesInformer(KubernetesV2Credentials credentials, Registry registry, String accountName, KubernetesKind kind, String namespace) {
+    this.credentials = credentials;
+    this.registry = registry;
+    this.accountName = accountName;
+    this.kind = kind;
+    this.namespace = namespace;
+
+    this.eventsId = registry.createId("kubernetes.informer.events")
+      .withTag("account", accountName)
+      .withTag("kind", kind.toString());
+    this.relistsId = registry.createId("kubernetes.informer.relists")
+      .withTag("account", accountName)
+      .withTag("kind", kind.toString());
+    this.watchLagId = registry.createId("kubernetes.informer.watchLag")
+      .withTag("account", accountName)
+      .withTag("kind", kind.toString())
+      .withTag("namespace", StringUtils.isEmpty(namespace) ? "none" : namespace);
+  }
+
+  /**
+   * Performs the initial list on the calling thread (so failures surface to the caching agent exactly as a failed
+   * kubectl list would) and then keeps the local store current from a watch running on the provided executor.
+   */
+  public synchronized void start(ExecutorService executor) {
+    if (running) {
+      return;
+    }
+
+    relist("initial");
+    registry.gauge(watchLagId, this, KubernetesInformer::getWatchLagMillis);
+    running = true;
+    watchTask = executor.submit(this::watchLoop);
+  }
+
+  public synchronized void stop() {
+    running = false;
+    if (watchTask != null) {
+      watchTask.cancel(true);
+      watchTask = null;
+    }
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  public KubernetesKind getKind() {
+    return kind;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  /**
+   * @return true if the informer is running but hasn't successfully listed or watched for too long to trust its store
+   */
+  public boolean isStale() {
+    return running && getWatchLagMillis() > MAX_STALENESS_MILLIS;
+  }
+
+  public List<KubernetesManifest> list() {
+    return new ArrayList<>(store.values());
+  }
+
+  /**
+   * @return time since the informer last heard from the API server, through a list, a watch event or the end of a watch
+   */
+  public double getWatchLagMillis() {
+    return lastSyncMillis == 0 ? 0 : registry.clock().wallTime() - lastSyncMillis;
+  }
+
+  private void watchLoop() {
+    long backoffMillis = MIN_BACKOFF_MILLIS;
+    int consecutiveFailures = 0;
+    String relistReason = null;
+    while (running && !Thread.currentThread().isInterrupted()) {
+      try {
+        if (relistReason != null) {
+          relist(relistReason);
+          relistReason = null;
+        }
+
+        if (!watch()) {
+          relistReason = "expired";
+        }
+
+        backoffMillis = MIN_BACKOFF_MILLIS;
+        consecutiveFailures = 0;
+      } catch (Exception e) {
+        if (!running) {
+          return;
+        }
+
+        log.warn("{}: Watch of kind {} in namespace '{}' failed, retrying in {}ms: {}", accountName, kind, namespace, backoffMillis, e.getMessage());
+        consecutiveFailures++;
+        if (resourceVersion == null) {
+          relistReason = "error";
+        } else if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+          relistReason = "failures";
+        }
+
+        try {
+          Thread.sleep(backoffMillis);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+
+        backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+      }
+    }
+  }
+
+  void relist(String reason) {
+    KubernetesApiResource resource = getApiResource();
+    ResourceList result = credentials.getRaw("list", kind, namespace, resource.path(namespace), resource.listReader());
+
+    Map<String, KubernetesManifest> newStore = new ConcurrentHashMap<>(Math.max(16, result.getItems().size() * 2));
+    result.getItems().forEach(m -> newStore.put(key(m), m));
+    store = newStore;
+    resourceVersion = result.getResourceVersion();
+    lastSyncMillis = registry.clock().wallTime();
+
+    registry.counter(relistsId.withTag("reason", reason)).increment();
+  }
+
+  /**
+   * @return false if the watch was rejected because the last observed resourceVersion is too old, true otherwise
+   */
+  boolean watch() {
+    KubernetesApiResource resource = getApiResource();
+    String path = resource.path(namespace) + "?watch=true&resourceVersion=" + resourceVersion + "&timeoutSeconds=" + WATCH_TIMEOUT_SECONDS;
+    boolean current = credentials.getRaw("watch", kind, namespace, path, readWatch(resource));
+    if (current) {
+      lastSyncMillis = registry.clock().wallTime();
+    } else {
+      resourceVersion = null;
+    }
+
+    return current;
+  }
+
+  private ReaderConsumer<Boolean> readWatch(KubernetesApiResource resource) {
+    return (BufferedReader r) -> {
+      boolean current = true;
+      try (JsonReader reader = new JsonReader(r)) {
+        // the watch response is a stream of concatenated json objects, one per event
+        reader.setLenient(true);
+        while (reader.peek() != JsonToken.END_DOCUMENT) {
+          WatchEvent event = gson.fromJson(reader, WatchEvent.class);
+          if (event == null || event.type == null || event.object == null) {
+            continue;
+          }
+
+          registry.counter(eventsId.withTag("type", event.type)).increment();
+          if (event.type.equals("ERROR")) {
+            Object code = event.object.get("code");
+            if (code instanceof Number && ((Number) code).intValue() == HTTP_GONE) {
+              current = false;
+            } else {
+              throw new KubectlException("Watch of " + kind + " failed: " + event.object);
+            }
+          } else {
+            apply(event.type, resource.complete(event.object));
+          }
+        }
+      } catch (EOFException e) {
+        // the watch closed without sending any (further) events
+      }
+
+      return current;
+    };
+  }
+
+  private void apply(String type, KubernetesManifest manifest) {
+    switch (type) {
+      case "ADDED":
+      case "MODIFIED":
+        store.put(key(manifest), manifest);
+        break;
+      case "DELETED":
+        store.remove(key(manifest));
+        break;
+      default:
+        log.debug("{}: Ignoring watch event of type {} for kind {}", accountName, type, kind);
+        return;
+    }
+
+    Map<String, Object> metadata = (Map<String, Object>) manifest.get("metadata");
+    resourceVersion = (String) metadata.get("resourceVersion");
+    lastSyncMillis = registry.clock().wallTime();
+  }
+
+  private static String key(KubernetesManifest manifest) {
+    return manifest.getNamespace() + "/" + manifest.getName();
+  }
+
+  private KubernetesApiResource getApiResource() {
+    if (apiResource == null) {
+      apiResource = KubernetesApiResource.discover(kind, "watch", path -> credentials.getRaw("discover", kind, namespace, path, readMap()));
+    }
+
+    return apiResource;
+  }
+
+  private ReaderConsumer<Map<String, Object>> readMap() {
+    return (BufferedReader r) -> gson.fromJson(r, Map.class);
+  }
+
+  private static class WatchEvent {
+    String type;
+    KubernetesManifest object;
+  }
+}
@@ -27,6 +27,7 @@ import com.netflix.spinnaker.cats.provider.ProviderCache;
 import com.netflix.spinnaker.clouddriver.kubernetes.KubernetesCloudProvider;
 import com.netflix.spinnaker.clouddriver.kubernetes.caching.KubernetesCachingAgent;
 import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesNamedAccountCredentials;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesPodMetric;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials;
 import lombok.Getter;
@@ -34,9 +35,11 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static com.netflix.spinnaker.cats.agent.AgentDataType.Authority.AUTHORITATIVE;
@@ -70,14 +73,58 @@ public class KubernetesMetricCachingAgent extends KubernetesCachingAgent<Kuberne
     log.info(getAgentType() + ": agent is starting");
     reloadNamespaces();
 
-    List<CacheData> cacheData = namespaces.parallelStream()
+    List<CacheData> cacheData = loadPodMetrics()
+        .stream()
+        .map(m -> KubernetesCacheDataConverter.convertPodMetric(accountName, m.getNamespace(), m))
+        .collect(Collectors.toList());
+
+    List<CacheData> invertedRelationships = cacheData.stream()
+        .map(KubernetesCacheDataConverter::invertRelationships)
+        .flatMap(Collection::stream)
+        .collect(Collectors.toList());
+
+    cacheData.addAll(invertedRelationships);
+
+    Map<String, Collection<CacheData>> entries = KubernetesCacheDataConverter.stratifyCacheDataByGroup(KubernetesCacheDataConverter.dedupCacheData(cacheData));
+    KubernetesCacheDataConverter.logStratifiedCacheData(getAgentType(), entries);
+
+    return new DefaultCacheResult(entries);
+  }
+
+  /**
+   * When this agent is responsible for every namespace in an account that isn't restricted to a set of namespaces,
+   * all metrics are read in a single cluster-wide request rather than one request per namespace.
+   *
+   * Clusters that don't serve the metrics API (NoResourceTypeException) have no metrics to cache, which is not an
+   * error.
+   */
+  private List<KubernetesPodMetric> loadPodMetrics() {
+    if (agentCount == 1 && credentials.getNamespaces().isEmpty()) {
+      try {
+        Set<String> cachedNamespaces = new HashSet<>(namespaces);
+        return credentials.podMetrics("")
+            .stream()
+            .filter(m -> cachedNamespaces.contains(m.getNamespace()))
+            .collect(Collectors.toList());
+      } catch (KubectlJobExecutor.NoResourceTypeException e) {
+        log.warn("{}: Metrics are not available in account '{}': {}", getAgentType(), accountName, e.getMessage());
+        return Collections.emptyList();
+      } catch (KubectlJobExecutor.KubectlException e) {
+        log.warn("{}: Failed to read metrics across all namespaces, reading them one namespace at a time: {}", getAgentType(), e.getMessage());
+      }
+    }
+
+    return namespaces.parallelStream()
         .map(n -> {
               try {
-                return credentials.topPod(n)
+                return credentials.podMetrics(n)
                     .stream()
-                    .map(m -> KubernetesCacheDataConverter.convertPodMetric(accountName, n, m));
+                    .peek(m -> m.setNamespace(n));
+              } catch (KubectlJobExecutor.NoResourceTypeException e) {
+                log.warn("{}: Metrics for namespace '" + n + "' in account '" + accountName + "' are not available: {}", getAgentType(), e.getMessage());
+                return null;
               } catch (KubectlJobExecutor.KubectlException e) {
-                if (e.getMessage().contains("not available")) {
+                if (e.getMessage().contains("not available") || e.getMessage().contains("unable to handle the request")) {
                   log.warn("{}: Metrics for namespace '" + n + "' in account '" + accountName + "' have not been recorded yet.", getAgentType());
                   return null;
                 } else {
@@ -88,17 +135,5 @@ public class KubernetesMetricCachingAgent extends KubernetesCachingAgent<Kuberne
         ).filter(Objects::nonNull)
         .flatMap(x -> x)
         .collect(Collectors.toList());
-
-    List<CacheData> invertedRelationships = cacheData.stream()
-        .map(KubernetesCacheDataConverter::invertRelationships)
-        .flatMap(Collection::stream)
-        .collect(Collectors.toList());
-
-    cacheData.addAll(invertedRelationships);
-
-    Map<String, Collection<CacheData>> entries = KubernetesCacheDataConverter.stratifyCacheDataByGroup(KubernetesCacheDataConverter.dedupCacheData(cacheData));
-    KubernetesCacheDataConverter.logStratifiedCacheData(getAgentType(), entries);
-
-    return new DefaultCacheResult(entries);
   }
 }
@@ -23,15 +23,19 @@ import com.netflix.spinnaker.cats.agent.AgentIntervalAware;
 import com.netflix.spinnaker.cats.agent.CacheResult;
 import com.netflix.spinnaker.cats.agent.DefaultCacheResult;
 import com.netflix.spinnaker.cats.cache.CacheData;
+import com.netflix.spinnaker.cats.cache.DefaultCacheData;
 import com.netflix.spinnaker.cats.provider.ProviderCache;
+import com.netflix.spinnaker.cats.thread.NamedThreadFactory;
 import com.netflix.spinnaker.clouddriver.kubernetes.KubernetesCloudProvider;
 import com.netflix.spinnaker.clouddriver.kubernetes.caching.KubernetesCachingAgent;
 import com.netflix.spinnaker.clouddriver.kubernetes.config.KubernetesCachingPolicy;
 import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesNamedAccountCredentials;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.caching.Keys;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesResourcePropertyRegistry;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.RegistryUtils;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifest;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifestAnnotater;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor.KubectlException;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials;
@@ -40,16 +44,28 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
-public abstract class KubernetesV2CachingAgent extends KubernetesCachingAgent<KubernetesV2Credentials> implements AgentIntervalAware {
+public abstract class KubernetesV2CachingAgent extends KubernetesCachingAgent<KubernetesV2Credentials> implements AgentIntervalAware, Closeable {
   protected KubectlJobExecutor jobExecutor;
 
   @Getter
@@ -60,6 +76,17 @@ public abstract class KubernetesV2CachingAgent extends KubernetesCachingAgent<Ku
 
   private final KubernetesResourcePropertyRegistry propertyRegistry;
 
+  private final Map<String, KubernetesInformer> informers = new ConcurrentHashMap<>();
+
+  // one thread per watch, created once the informers (and so the number of watches) are known
+  private ThreadPoolExecutor informerExecutor;
+
+  /**
+   * The conversions of the previous full listing, keyed by resource key, reused for resources whose metadata and
+   * related resources have not changed since. Manifests are not retained, the current one is used on reuse.
+   */
+  private volatile Map<String, ConvertedResource> convertedResources = Collections.emptyMap();
+
   protected KubernetesV2CachingAgent(KubernetesNamedAccountCredentials<KubernetesV2Credentials> namedAccountCredentials,
       KubernetesResourcePropertyRegistry propertyRegistry,
       ObjectMapper objectMapper,
@@ -88,7 +115,9 @@ public abstract class KubernetesV2CachingAgent extends KubernetesCachingAgent<Ku
   }
 
   protected Map<KubernetesKind, List<KubernetesManifest>> loadPrimaryResourceList() {
-    Map<KubernetesKind, List<KubernetesManifest>> result = namespaces.parallelStream()
+    Map<KubernetesKind, List<KubernetesManifest>> result = credentials.isWatchCaching()
+        ? loadPrimaryResourceListFromInformers()
+        : namespaces.parallelStream()
         .map(n -> {
           try {
             return credentials.list(primaryKinds(), n);
@@ -122,6 +151,97 @@ public abstract class KubernetesV2CachingAgent extends KubernetesCachingAgent<Ku
     return result;
   }
 
+  /**
+   * Serves the primary resources from informers that each list once and then watch a single kind, rather than
+   * re-reading every resource on every caching cycle.
+   *
+   * Each kind is watched cluster-wide and filtered to this agent's namespaces in memory. Only accounts restricted to
+   * configured namespaces, which may not be allowed to list cluster-wide, watch each of those namespaces instead.
+   */
+  private Map<KubernetesKind, List<KubernetesManifest>> loadPrimaryResourceListFromInformers() {
+    Map<String, KubernetesInformer> current = new HashMap<>();
+    boolean perNamespace = !credentials.getNamespaces().isEmpty();
+    // an agent without namespaces has nothing to cache
+    List<KubernetesKind> kinds = namespaces.isEmpty() ? Collections.emptyList() : primaryKinds();
+    for (KubernetesKind kind : kinds) {
+      List<String> kindNamespaces = kind.isNamespaced() && perNamespace ? namespaces : Collections.singletonList("");
+      for (String namespace : kindNamespaces) {
+        String key = kind + "/" + namespace;
+        current.put(key, informers.computeIfAbsent(key, k -> new KubernetesInformer(credentials, registry, accountName, kind, namespace)));
+      }
+    }
+
+    // namespaces can come and go between caching cycles
+    informers.entrySet().removeIf(e -> {
+      if (!current.containsKey(e.getKey())) {
+        e.getValue().stop();
+        return true;
+      }
+      return false;
+    });
+
+    ExecutorService executor = informerExecutor(current.size());
+    Set<String> agentNamespaces = new HashSet<>(namespaces);
+    return current.entrySet()
+        .parallelStream()
+        .map(e -> {
+          KubernetesInformer informer = e.getValue();
+          if (informer.isStale()) {
+            // the informer will be replaced (and so relist) next cycle, until then read the resources directly
+            log.warn("{}: Informer for kind {} in namespace '{}' has not heard from the API server in {}ms, listing with kubectl instead",
+                getAgentType(), informer.getKind(), informer.getNamespace(), (long) informer.getWatchLagMillis());
+            informer.stop();
+            informers.remove(e.getKey(), informer);
+            List<String> listNamespaces = informer.getKind().isNamespaced() && StringUtils.isEmpty(informer.getNamespace())
+                ? namespaces
+                : Collections.singletonList(informer.getNamespace());
+            return listNamespaces.stream()
+                .map(n -> credentials.list(Collections.singletonList(informer.getKind()), n))
+                .flatMap(Collection::stream)
+                .collect(Collectors.toList());
+          }
+
+          try {
+            informer.start(executor);
+          } catch (KubectlException ex) {
+            log.warn("{}: Failed to start informer for kind {}: {}", getAgentType(), primaryKinds(), ex.getMessage());
+            throw ex;
+          }
+          return informer.list();
+        })
+        .flatMap(Collection::stream)
+        .filter(m -> !m.getKind().isNamespaced() || agentNamespaces.contains(m.getNamespace()))
+        .collect(Collectors.groupingBy(KubernetesManifest::getKind));
+  }
+
+  private synchronized ExecutorService informerExecutor(int watches) {
+    int size = Math.max(1, watches);
+    if (informerExecutor == null) {
+      informerExecutor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+          new NamedThreadFactory(getAgentType() + "-informer"));
+    } else if (informerExecutor.getMaximumPoolSize() < size) {
+      // watches hold their thread until they are stopped, so every informer needs a thread of its own
+      informerExecutor.setMaximumPoolSize(size);
+      informerExecutor.setCorePoolSize(size);
+    }
+
+    return informerExecutor;
+  }
+
+  /**
+   * Stops every informer and its watch, called once the agent has been deregistered (e.g. because its account was
+   * removed).
+   */
+  @Override
+  public synchronized void close() {
+    informers.values().forEach(KubernetesInformer::stop);
+    informers.clear();
+    if (informerExecutor != null) {
+      informerExecutor.shutdownNow();
+      informerExecutor = null;
+    }
+  }
+
   protected KubernetesManifest loadPrimaryResource(KubernetesKind kind, String namespace, String name) {
     return credentials.get(kind, namespace, name);
   }
@@ -144,50 +264,78 @@ public abstract class KubernetesV2CachingAgent extends KubernetesCachingAgent<Ku
   }
 
   protected CacheResult buildCacheResult(KubernetesManifest resource) {
-    return buildCacheResult(Collections.singletonMap(resource.getKind(), Collections.singletonList(resource)));
+    // a single resource is not a full listing, so it neither benefits from nor replaces the previous cycle's conversions
+    return buildCacheResult(Collections.singletonMap(resource.getKind(), Collections.singletonList(resource)), false);
   }
 
   protected CacheResult buildCacheResult(Map<KubernetesKind, List<KubernetesManifest>> resources) {
+    return buildCacheResult(resources, true);
+  }
+
+  private CacheResult buildCacheResult(Map<KubernetesKind, List<KubernetesManifest>> resources, boolean fullListing) {
+    long allocatedBytes = currentThreadAllocatedBytes();
+    CacheResult result = convertToCacheResult(resources, fullListing);
+    if (allocatedBytes >= 0) {
+      // conversion runs entirely on the calling thread, so this is the cost of turning manifests into cache data
+      registry.distributionSummary(registry.createId("kubernetes.caching.conversionAllocatedBytes")
+          .withTag("account", accountName)
+          .withTag("agent", getAgentType()))
+          .record(currentThreadAllocatedBytes() - allocatedBytes);
+    }
+
+    return result;
+  }
+
+  private CacheResult convertToCacheResult(Map<KubernetesKind, List<KubernetesManifest>> resources, boolean fullListing) {
     Map<KubernetesManifest, List<KubernetesManifest>> relationships = loadSecondaryResourceRelationships(resources);
+    Map<String, ConvertedResource> previous = fullListing ? convertedResources : Collections.emptyMap();
+    Map<String, ConvertedResource> converted = new HashMap<>();
 
-    List<CacheData> resourceData = resources.values()
-        .stream()
-        .flatMap(Collection::stream)
-        .peek(m -> RegistryUtils.removeSensitiveKeys(propertyRegistry, accountName, m))
-        .map(rs -> {
-          try {
-            CacheData cacheData = KubernetesCacheDataConverter.convertAsResource(accountName, rs, relationships.get(rs));
-            if (credentials.getOnlySpinnakerManaged() && StringUtils.isEmpty((String) cacheData.getAttributes().get("application"))) {
-              return null;
-            } else {
-              return cacheData;
-            }
-          } catch (Exception e) {
-            log.warn("{}: Failure converting {} as resource", getAgentType(), rs, e);
-            return null;
-          }
-        })
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+    List<CacheData> resourceData = new ArrayList<>();
+    List<CacheData> artifactData = new ArrayList<>();
+    List<CacheData> invertedRelationships = new ArrayList<>();
+    List<CacheData> clusterRelationships = new ArrayList<>();
+    int reused = 0;
 
-    List<CacheData> invertedRelationships = resourceData.stream()
-        .map(KubernetesCacheDataConverter::invertRelationships)
-        .flatMap(Collection::stream)
-        .collect(Collectors.toList());
+    for (KubernetesManifest manifest : resources.values().stream().flatMap(Collection::stream).collect(Collectors.toList())) {
+      RegistryUtils.removeSensitiveKeys(propertyRegistry, accountName, manifest);
 
-    resourceData.addAll(resources.values()
-        .stream()
-        .flatMap(Collection::stream)
-        .map(rs -> KubernetesCacheDataConverter.convertAsArtifact(accountName, rs))
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList()));
+      String key = Keys.infrastructure(manifest, accountName);
+      List<KubernetesManifest> related = relationships.get(manifest);
+      List<Object> fingerprint = fingerprint(manifest, related);
+      ConvertedResource resource = previous.get(key);
+      CacheData cacheData;
+      if (resource != null && resource.fingerprint.equals(fingerprint)) {
+        cacheData = resource.toCacheData(manifest);
+        reused++;
+      } else {
+        cacheData = convertAsResource(manifest, related);
+        resource = new ConvertedResource(fingerprint, cacheData);
+      }
 
-    resourceData.addAll(invertedRelationships);
+      converted.put(key, resource);
+      if (cacheData != null) {
+        resourceData.add(cacheData);
+        invertedRelationships.addAll(resource.invertedRelationships);
+        if (resource.clusterRelationships != null) {
+          clusterRelationships.add(resource.clusterRelationships);
+        }
+      }
 
-    resourceData.addAll(resourceData.stream()
-      .map(rs -> KubernetesCacheDataConverter.getClusterRelationships(accountName, rs))
-      .filter(Objects::nonNull)
-      .collect(Collectors.toList()));
+      CacheData artifact = KubernetesCacheDataConverter.convertAsArtifact(accountName, manifest);
+      if (artifact != null) {
+        artifactData.add(artifact);
+      }
+    }
+
+    if (fullListing) {
+      log.debug("{}: Reused relationships of {} of {} resources from the previous caching cycle", getAgentType(), reused, converted.size());
+      convertedResources = converted;
+    }
+
+    resourceData.addAll(artifactData);
+    resourceData.addAll(invertedRelationships);
+    resourceData.addAll(clusterRelationships);
 
     Map<String, Collection<CacheData>> entries = KubernetesCacheDataConverter.stratifyCacheDataByGroup(KubernetesCacheDataConverter.dedupCacheData(resourceData));
     KubernetesCacheDataConverter.logStratifiedCacheData(getAgentType(), entries);
@@ -195,6 +343,61 @@ public abstract class KubernetesV2CachingAgent extends KubernetesCachingAgent<Ku
     return new DefaultCacheResult(entries);
   }
 
+  /**
+   * @return the resource's cache data, or null if it could not be converted or is not cached
+   */
+  private CacheData convertAsResource(KubernetesManifest manifest, List<KubernetesManifest> related) {
+    try {
+      CacheData cacheData = KubernetesCacheDataConverter.convertAsResource(accountName, manifest, related);
+      if (cacheData != null && !(credentials.getOnlySpinnakerManaged() && StringUtils.isEmpty((String) cacheData.getAttributes().get("application")))) {
+        return cacheData;
+      }
+    } catch (Exception e) {
+      log.warn("{}: Failure converting {} as resource", getAgentType(), manifest, e);
+    }
+
+    return null;
+  }
+
+  /**
+   * Everything other than the manifest itself that goes into a resource's cache data. The moniker and relationships
+   * are derived from the resource's metadata and from the resources related to it. The last applied configuration is
+   * left out, it is a copy of the manifest and only feeds the artifact, which is converted on every cycle.
+   */
+  private List<Object> fingerprint(KubernetesManifest manifest, List<KubernetesManifest> related) {
+    Map<String, Object> metadata = (Map<String, Object>) manifest.getOrDefault("metadata", Collections.emptyMap());
+    Map<String, Object> annotations = (Map<String, Object>) metadata.get("annotations");
+    if (annotations != null && annotations.containsKey(KubernetesManifestAnnotater.KUBECTL_LAST_APPLIED_CONFIGURATION)) {
+      annotations = new HashMap<>(annotations);
+      annotations.remove(KubernetesManifestAnnotater.KUBECTL_LAST_APPLIED_CONFIGURATION);
+    }
+
+    List<String> relatedKeys = related == null
+        ? Collections.emptyList()
+        : related.stream().map(r -> Keys.infrastructure(r, accountName)).collect(Collectors.toList());
+
+    return Arrays.asList(
+        Objects.toString(manifest.getApiVersion()),
+        metadata.get("labels"),
+        annotations,
+        metadata.get("ownerReferences"),
+        metadata.get("creationTimestamp"),
+        relatedKeys
+    );
+  }
+
+  private static long currentThreadAllocatedBytes() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+      if (allocationMXBean.isThreadAllocatedMemorySupported() && allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+        return allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+
+    return -1;
+  }
+
   protected Map<KubernetesManifest, List<KubernetesManifest>> loadSecondaryResourceRelationships(Map<KubernetesKind, List<KubernetesManifest>> allResources) {
     Map<KubernetesManifest, List<KubernetesManifest>> result = new HashMap<>();
     allResources.keySet().forEach(k -> {
@@ -206,4 +409,52 @@ public abstract class KubernetesV2CachingAgent extends KubernetesCachingAgent<Ku
     });
     return result;
   }
+
+  /**
+   * Everything derived from a resource's conversion except its manifest, which makes up the bulk of the cache data
+   * and is replaced by the current manifest whenever the conversion is reused. The artifact is left out for the same
+   * reason, as it carries the manifest's last applied configuration.
+   */
+  private class ConvertedResource {
+    final List<Object> fingerprint;
+    final String id;
+    final int ttlSeconds;
+    final Map<String, Object> attributes;
+    final Map<String, Collection<String>> relationships;
+    final List<CacheData> invertedRelationships;
+    final CacheData clusterRelationships;
+
+    ConvertedResource(List<Object> fingerprint, CacheData resource) {
+      this.fingerprint = fingerprint;
+      if (resource == null) {
+        this.id = null;
+        this.ttlSeconds = 0;
+        this.attributes = null;
+        this.relationships = null;
+        this.invertedRelationships = Collections.emptyList();
+        this.clusterRelationships = null;
+      } else {
+        this.id = resource.getId();
+        this.ttlSeconds = resource.getTtlSeconds();
+        this.attributes = new HashMap<>(resource.getAttributes());
+        this.attributes.remove("manifest");
+        this.relationships = resource.getRelationships();
+        this.invertedRelationships = KubernetesCacheDataConverter.invertRelationships(resource);
+        this.clusterRelationships = KubernetesCacheDataConverter.getClusterRelationships(accountName, resource);
+      }
+    }
+
+    /**
+     * @return the resource's cache data with the given (current) manifest, or null if the resource is not cached
+     */
+    CacheData toCacheData(KubernetesManifest manifest) {
+      if (id == null) {
+        return null;
+      }
+
+      Map<String, Object> resourceAttributes = new HashMap<>(attributes);
+      resourceAttributes.put("manifest", manifest);
+      return new DefaultCacheData(id, ttlSeconds, resourceAttributes, relationships);
+    }
+  }
 }
@@ -73,9 +73,14 @@ public class KubernetesV2CachingAgentDispatcher implements KubernetesCachingAgen
         );
 
     if (v2Credentials.isMetrics()) {
+      // metrics are typically refreshed on a different cadence than manifests
+      Long metricsAgentInterval = Optional.ofNullable(credentials.getMetricsCacheIntervalSeconds())
+          .map(TimeUnit.SECONDS::toMillis)
+          .orElse(agentInterval);
+
       IntStream.range(0, credentials.getCacheThreads())
           .boxed()
-          .forEach(i -> result.add(new KubernetesMetricCachingAgent(credentials, objectMapper, registry, i, credentials.getCacheThreads(), agentInterval)));
+          .forEach(i -> result.add(new KubernetesMetricCachingAgent(credentials, objectMapper, registry, i, credentials.getCacheThreads(), metricsAgentInterval)));
     }
 
     return result.stream()
@@ -17,7 +17,6 @@
 
 package com.netflix.spinnaker.clouddriver.kubernetes.v2.caching.agent;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
@@ -50,9 +49,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -70,6 +69,7 @@ public abstract class KubernetesV2OnDemandCachingAgent extends KubernetesV2Cachi
   private final static String CACHE_RESULTS_KEY = "cacheResults";
   private final static String MONIKER_KEY = "moniker";
   private final static String DETAILS_KEY = "details";
+  private final static TypeReference<Map<String, List<DefaultCacheData>>> ON_DEMAND_RESULTS_TYPE = new TypeReference<Map<String, List<DefaultCacheData>>>() { };
   private final Namer<KubernetesManifest> namer;
 
   protected KubernetesV2OnDemandCachingAgent(KubernetesNamedAccountCredentials<KubernetesV2Credentials> namedAccountCredentials,
@@ -108,7 +108,6 @@ public abstract class KubernetesV2OnDemandCachingAgent extends KubernetesV2Cachi
     List<String> primaryKeys = primaryResource.values()
         .stream()
         .flatMap(Collection::stream)
-        .map(rs -> objectMapper.convertValue(rs, KubernetesManifest.class))
         .map(mf -> Keys.infrastructure(mf, accountName))
         .collect(Collectors.toList());
 
@@ -134,6 +133,7 @@ public abstract class KubernetesV2OnDemandCachingAgent extends KubernetesV2Cachi
     CacheResult result = buildCacheResult(primaryResource);
     Map<String, Collection<CacheData>> cacheResults = result.getCacheResults();
 
+    List<Map<String, Collection<CacheData>>> onDemandResults = new ArrayList<>();
     for (CacheData onDemandData : keepInOnDemand) {
       if (!shouldOverwriteUsingOnDemand(start, onDemandData)) {
         continue;
@@ -142,20 +142,17 @@ public abstract class KubernetesV2OnDemandCachingAgent extends KubernetesV2Cachi
       String onDemandKey = onDemandData.getId();
       log.info("{}: On demand entry '{}' is overwriting load data entry", getAgentType(), onDemandKey);
 
-      String onDemandResultsJson = (String) onDemandData.getAttributes().get(CACHE_RESULTS_KEY);
-
-      log.debug("{}: On demand entry contents overwriting load data entry: {}", getAgentType(), onDemandResultsJson);
-      Map<String, Collection<CacheData>> onDemandResults;
+      Object storedResults = onDemandData.getAttributes().get(CACHE_RESULTS_KEY);
+      log.debug("{}: On demand entry contents overwriting load data entry: {}", getAgentType(), storedResults);
       try {
-        onDemandResults = objectMapper.readValue(onDemandResultsJson, new TypeReference<Map<String, List<DefaultCacheData>>>() { });
-      } catch (IOException e) {
+        onDemandResults.add(readOnDemandResults(storedResults));
+      } catch (IOException | IllegalArgumentException e) {
         log.error("Failure parsing stored on demand data for '{}'", onDemandKey, e);
-        continue;
       }
-
-      mergeCacheResults(cacheResults, onDemandResults);
     }
 
+    mergeCacheResults(cacheResults, onDemandResults);
+
     cacheResults.put(ON_DEMAND_TYPE, keepInOnDemand);
     Map<String, Collection<String>> evictionResults = new ImmutableMap.Builder<String, Collection<String>>()
         .put(ON_DEMAND_TYPE, evictFromOnDemand.stream().map(CacheData::getId).collect(Collectors.toList()))
@@ -164,27 +161,45 @@ public abstract class KubernetesV2OnDemandCachingAgent extends KubernetesV2Cachi
     return new DefaultCacheResult(cacheResults, evictionResults, details);
   }
 
-  protected void mergeCacheResults(Map<String, Collection<CacheData>> current, Map<String, Collection<CacheData>> added) {
-    for (String group : added.keySet()) {
-      Collection<CacheData> currentByGroup = current.get(group);
-      Collection<CacheData> addedByGroup = added.get(group);
+  /**
+   * Merges each set of on demand results into the current results, in order, so later entries take precedence.
+   *
+   * Each affected group is indexed by id once, keeping the merge linear in the size of the inputs.
+   */
+  protected static void mergeCacheResults(Map<String, Collection<CacheData>> current, List<Map<String, Collection<CacheData>>> added) {
+    Map<String, Map<String, CacheData>> indexedGroups = new HashMap<>();
+    for (Map<String, Collection<CacheData>> addedResults : added) {
+      for (Map.Entry<String, Collection<CacheData>> entry : addedResults.entrySet()) {
+        if (entry.getValue() == null) {
+          continue;
+        }
+
+        Map<String, CacheData> currentById = indexedGroups.computeIfAbsent(entry.getKey(), g -> indexById(current.get(g)));
+        for (CacheData addedCacheData : entry.getValue()) {
+          currentById.merge(addedCacheData.getId(), addedCacheData, KubernetesCacheDataConverter::mergeCacheData);
+        }
+      }
+    }
 
-      currentByGroup = currentByGroup == null ? new ArrayList<>() : currentByGroup;
-      addedByGroup = addedByGroup == null ? new ArrayList<>() : addedByGroup;
+    indexedGroups.forEach((group, currentById) -> current.put(group, new ArrayList<>(currentById.values())));
+  }
 
-      for (CacheData addedCacheData : addedByGroup) {
-        CacheData mergedEntry = currentByGroup.stream()
-            .filter(cd -> cd.getId().equals(addedCacheData.getId()))
-            .findFirst()
-            .flatMap(cd -> Optional.of(KubernetesCacheDataConverter.mergeCacheData(cd, addedCacheData)))
-            .orElse(addedCacheData);
+  private static Map<String, CacheData> indexById(Collection<CacheData> cacheData) {
+    Map<String, CacheData> result = new LinkedHashMap<>();
+    if (cacheData != null) {
+      cacheData.forEach(cd -> result.put(cd.getId(), cd));
+    }
 
-        currentByGroup.removeIf(cd -> cd.getId().equals(addedCacheData.getId()));
-        currentByGroup.add(mergedEntry);
-      }
+    return result;
+  }
 
-      current.put(group, currentByGroup);
+  private Map<String, Collection<CacheData>> readOnDemandResults(Object storedResults) throws IOException {
+    // entries written before results were stored structurally hold them as a json string
+    if (storedResults instanceof String) {
+      return objectMapper.readValue((String) storedResults, ON_DEMAND_RESULTS_TYPE);
     }
+
+    return objectMapper.convertValue(storedResults, ON_DEMAND_RESULTS_TYPE);
   }
 
   private boolean shouldOverwriteUsingOnDemand(Long startTime, CacheData onDemandEntry) {
@@ -228,18 +243,18 @@ public abstract class KubernetesV2OnDemandCachingAgent extends KubernetesV2Cachi
     return new OnDemandAgent.OnDemandResult(getOnDemandAgentType(), cacheResult, evictions);
   }
 
-  private OnDemandAgent.OnDemandResult addEntry(ProviderCache providerCache, String key, KubernetesManifest manifest) throws JsonProcessingException {
+  private OnDemandAgent.OnDemandResult addEntry(ProviderCache providerCache, String key, KubernetesManifest manifest) {
     Map<String, Collection<String>> evictions = new HashMap<>();
     CacheResult cacheResult;
 
     log.info("{}: Storing on demand '{}'", getAgentType(), key);
     cacheResult = buildCacheResult(manifest);
-    String jsonResult = objectMapper.writeValueAsString(cacheResult.getCacheResults());
-    log.debug("{}: On demand entry being written: {}", getAgentType(), jsonResult);
+    Map<String, Object> storedResults = objectMapper.convertValue(cacheResult.getCacheResults(), new TypeReference<Map<String, Object>>() { });
+    log.debug("{}: On demand entry being written: {}", getAgentType(), storedResults);
 
     Map<String, Object> attributes = new ImmutableMap.Builder<String, Object>()
         .put(CACHE_TIME_KEY, System.currentTimeMillis())
-        .put(CACHE_RESULTS_KEY, jsonResult)
+        .put(CACHE_RESULTS_KEY, storedResults)
         .put(PROCESSED_COUNT_KEY, 0)
         .put(PROCESSED_TIME_KEY, -1)
         .put(MONIKER_KEY, namer.deriveMoniker(manifest))
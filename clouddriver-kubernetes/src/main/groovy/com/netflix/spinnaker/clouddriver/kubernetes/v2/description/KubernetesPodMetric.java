@@ -31,6 +31,7 @@ import java.util.Map;
 @AllArgsConstructor
 public class KubernetesPodMetric {
   String podName;
+  String namespace;
   List<ContainerMetric> containerMetrics = new ArrayList<>();
 
   @Data
@@ -39,6 +40,9 @@ public class KubernetesPodMetric {
   @AllArgsConstructor
   public static class ContainerMetric {
     String containerName;
+    // formatted as by `kubectl top`, e.g. "CPU(cores)" -> "5m"
     Map<String, String> metrics;
+    Long cpuMillicores;
+    Long memoryBytes;
   }
 }
@@ -67,7 +67,9 @@ public class KubernetesKind {
   // special kind that should never be assigned to a manifest, used only to represent objects whose kind is not in spinnaker's registry
   public static KubernetesKind NONE = new KubernetesKind("none", null, null, true, false);
 
+  @Getter
   private final String name;
+  @Getter
   private final KubernetesApiGroup apiGroup;
   private final String alias;
   private boolean isNamespaced;
@@ -17,17 +17,21 @@
 
 package com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
+import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.clouddriver.jobs.JobExecutor;
 import com.netflix.spinnaker.clouddriver.jobs.JobRequest;
 import com.netflix.spinnaker.clouddriver.jobs.JobResult;
 import com.netflix.spinnaker.clouddriver.jobs.local.ReaderConsumer;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.JsonPatch;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesPatchOptions;
-import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesPodMetric;
-import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesPodMetric.ContainerMetric;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifest;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesSelectorList;
@@ -39,14 +43,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
-public class KubectlJobExecutor {
+public class KubectlJobExecutor implements KubernetesReader {
   @Value("${kubernetes.kubectl.executable:kubectl}")
   String executable;
 
@@ -57,11 +65,36 @@ public class KubectlJobExecutor {
 
   private final JobExecutor jobExecutor;
 
+  private final Registry registry;
+
   private final Gson gson = new Gson();
 
+  // OAuth tokens keyed by service account followed by scopes, shared by every account, caching thread and operation
+  private final LoadingCache<List<String>, String> oAuthTokens;
+
+  private final ExecutorService oAuthRefreshExecutor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat(KubectlJobExecutor.class.getSimpleName() + "-oauth-%d").setDaemon(true).build()
+  );
+
   @Autowired
-  KubectlJobExecutor(JobExecutor jobExecutor) {
+  KubectlJobExecutor(JobExecutor jobExecutor,
+                     Registry registry,
+                     @Value("${kubernetes.oAuth.tokenRefreshSeconds:2700}") long tokenRefreshSeconds,
+                     @Value("${kubernetes.oAuth.tokenExpirySeconds:3300}") long tokenExpirySeconds) {
     this.jobExecutor = jobExecutor;
+    this.registry = registry;
+
+    // tokens are refreshed in the background once they are older than tokenRefreshSeconds, callers keep using the
+    // current token until the refresh completes, and no token is used past tokenExpirySeconds
+    this.oAuthTokens = CacheBuilder.newBuilder()
+        .refreshAfterWrite(tokenRefreshSeconds, TimeUnit.SECONDS)
+        .expireAfterWrite(tokenExpirySeconds, TimeUnit.SECONDS)
+        .build(CacheLoader.asyncReloading(CacheLoader.from(this::fetchOAuthToken), oAuthRefreshExecutor));
+  }
+
+  @PreDestroy
+  void shutdownOAuthRefreshExecutor() {
+    oAuthRefreshExecutor.shutdownNow();
   }
 
   public String configCurrentContext(KubernetesV2Credentials credentials) {
@@ -346,6 +379,30 @@ public class KubectlJobExecutor {
     return status.getOutput();
   }
 
+  /**
+   * Issues a GET against a raw API server path (e.g. a list or watch endpoint), streaming the response body to the
+   * provided consumer.
+   */
+  public <T> T getRaw(KubernetesV2Credentials credentials, String path, ReaderConsumer<T> consumer) {
+    // watches are held open by the server until their own timeout, so they must not be cut short by --request-timeout
+    List<String> command = kubectlAuthPrefix(credentials, !path.contains("watch=true"));
+    command.add("get");
+    command.add("--raw");
+    command.add(path);
+
+    JobResult<T> status = jobExecutor.runJob(new JobRequest(command), consumer);
+
+    if (status.getResult() != JobResult.Result.SUCCESS) {
+      if (status.getError().contains("(NotFound)")) {
+        throw new NoResourceTypeException(status.getError());
+      }
+
+      throw new KubectlException("Failed to read " + path + ": " + status.getError());
+    }
+
+    return status.getOutput();
+  }
+
   public Void deploy(KubernetesV2Credentials credentials, KubernetesManifest manifest) {
     List<String> command = kubectlAuthPrefix(credentials);
 
@@ -378,6 +435,10 @@ public class KubectlJobExecutor {
   }
 
   private List<String> kubectlAuthPrefix(KubernetesV2Credentials credentials) {
+    return kubectlAuthPrefix(credentials, true);
+  }
+
+  private List<String> kubectlAuthPrefix(KubernetesV2Credentials credentials, boolean requestTimeout) {
     List<String> command = new ArrayList<>();
     if (StringUtils.isNotEmpty(credentials.getKubectlExecutable())) {
       command.add(credentials.getKubectlExecutable());
@@ -385,7 +446,7 @@ public class KubectlJobExecutor {
       command.add(executable);
     }
 
-    if (credentials.getKubectlRequestTimeoutSeconds() != null) {
+    if (requestTimeout && credentials.getKubectlRequestTimeoutSeconds() != null) {
       command.add("--request-timeout=" + credentials.getKubectlRequestTimeoutSeconds());
     }
 
@@ -452,87 +513,37 @@ public class KubectlJobExecutor {
   }
 
   private String getOAuthToken(KubernetesV2Credentials credentials) {
+    List<String> key = new ArrayList<>();
+    key.add(credentials.getOAuthServiceAccount());
+    if (credentials.getOAuthScopes() != null) {
+      key.addAll(credentials.getOAuthScopes());
+    }
+
+    try {
+      return oAuthTokens.getUnchecked(key);
+    } catch (UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private String fetchOAuthToken(List<String> key) {
     List<String> command = new ArrayList<>();
     command.add(oAuthExecutable);
     command.add("fetch");
     command.add("--json");
-    command.add(credentials.getOAuthServiceAccount());
-    command.addAll(credentials.getOAuthScopes());
+    command.addAll(key);
 
     JobResult<String> status = jobExecutor.runJob(new JobRequest(command));
+    boolean success = status.getResult() == JobResult.Result.SUCCESS;
+    registry.counter(registry.createId("kubernetes.oAuth.tokenFetches").withTag("success", Boolean.toString(success))).increment();
 
-    if (status.getResult() != JobResult.Result.SUCCESS) {
+    if (!success) {
       throw new KubectlException("Could not fetch OAuth token: " + status.getError());
     }
-    return status.getOutput();
-  }
-
-  public Collection<KubernetesPodMetric> topPod(KubernetesV2Credentials credentials, String namespace) {
-    List<String> command = kubectlNamespacedAuthPrefix(credentials, namespace);
-    command.add("top");
-    command.add("po");
-    command.add("--containers");
-
-
-    JobResult<String> status = jobExecutor.runJob(new JobRequest(command));
-
-    if (status.getResult() != JobResult.Result.SUCCESS) {
-      throw new KubectlException("Could not read metrics: " + status.getError());
-    }
-
-    Map<String, KubernetesPodMetric> result = new HashMap<>();
-
-    String output = status.getOutput().trim();
-    if (StringUtils.isEmpty(output)) {
-      log.warn("No output from `kubectl top` command, no metrics to report.");
-      return new ArrayList<>();
-    }
-
-    String[] lines = output.split("\n");
-    if (lines.length <= 1) {
-      return new ArrayList<>();
-    }
-
-    // POD NAME CPU(cores) MEMORY(bytes) ...
-    String[] header = lines[0].trim().split("\\s+");
-
-    if (header.length <= 2) {
-      log.warn("Unexpected metric format -- no metrics to report based on table header {}.", header);
-      return new ArrayList<>();
-    }
-
-    // CPU(cores) MEMORY(bytes)
-    String[] metricKeys = Arrays.copyOfRange(header, 2, header.length);
-    for (int i = 1; i < lines.length; i++) {
-      String[] entry = lines[i].trim().split("\\s+");
-      if (entry.length != header.length) {
-        log.warn("Entry {} does not match column width of {}, skipping", entry, header);
-      }
-
-      String podName = entry[0];
-      String containerName = entry[1];
-
-      Map<String, String> metrics = new HashMap<>();
-      for (int j = 0; j < metricKeys.length; j++) {
-        metrics.put(metricKeys[j], entry[j + 2]);
-      }
-
-      ContainerMetric containerMetric = ContainerMetric.builder()
-          .containerName(containerName)
-          .metrics(metrics)
-          .build();
-
-      KubernetesPodMetric podMetric = result.getOrDefault(podName, KubernetesPodMetric.builder()
-          .podName(podName)
-          .containerMetrics(new ArrayList<>())
-          .build());
-
-      podMetric.getContainerMetrics().add(containerMetric);
-
-      result.put(podName, podMetric);
-    }
-
-    return result.values();
+    return status.getOutput().trim();
   }
 
   public Void patch(KubernetesV2Credentials credentials, KubernetesKind kind, String namespace, String name, KubernetesPatchOptions options, List<JsonPatch> patches) {
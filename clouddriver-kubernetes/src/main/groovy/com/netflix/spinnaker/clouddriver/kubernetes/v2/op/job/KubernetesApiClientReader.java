@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job;
+
+import com.google.gson.Gson;
+import com.netflix.spinnaker.clouddriver.jobs.local.ReaderConsumer;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifest;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor.KubectlException;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor.NoResourceTypeException;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesSelectorList;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+import io.kubernetes.client.ApiClient;
+import io.kubernetes.client.Pair;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Serves reads in-process through a single {@link ApiClient} per account rather than forking kubectl for every call.
+ *
+ * The underlying OkHttp client pools keep-alive connections (negotiating HTTP/2 where the JVM supports ALPN), so
+ * kubeconfig parsing and the TLS handshake are paid once per account instead of once per call. Responses are
+ * decoded directly from the response stream. Kinds are resolved to REST paths through the discovery API once per
+ * account.
+ */
+@Slf4j
+public class KubernetesApiClientReader implements KubernetesReader {
+  private final static String[] AUTH_NAMES = new String[] { "BearerToken" };
+  private final static int HTTP_NOT_FOUND = 404;
+
+  private final ApiClient client;
+  private final OkHttpClient watchHttpClient;
+  private final Gson gson = new Gson();
+  private final Map<KubernetesKind, KubernetesApiResource> resources = new ConcurrentHashMap<>();
+
+  public KubernetesApiClientReader(ApiClient client) {
+    this.client = client;
+
+    // watches are held open by the server until their timeout, so they must not be subject to the read timeout
+    this.watchHttpClient = client.getHttpClient().clone();
+    this.watchHttpClient.setReadTimeout(0, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public KubernetesManifest get(KubernetesV2Credentials credentials, KubernetesKind kind, String namespace, String name) {
+    KubernetesApiResource resource = resolve(kind);
+    String path = resource.path(namespace(credentials, namespace)) + "/" + encode(name);
+    try {
+      return request(path, r -> resource.complete(gson.fromJson(r, KubernetesManifest.class)));
+    } catch (NoResourceTypeException e) {
+      // the kind itself was resolved through discovery, so this is the object that is missing
+      return null;
+    }
+  }
+
+  @Override
+  public List<KubernetesManifest> list(KubernetesV2Credentials credentials, List<KubernetesKind> kinds, String namespace, KubernetesSelectorList selectors) {
+    List<KubernetesManifest> result = new ArrayList<>();
+    for (KubernetesKind kind : kinds) {
+      KubernetesApiResource resource = resolve(kind);
+      String path = resource.path(namespace(credentials, namespace));
+      if (selectors != null && selectors.isNotEmpty()) {
+        path += "?labelSelector=" + encode(selectors.toString());
+      }
+
+      result.addAll(request(path, resource.listReader()).getItems());
+    }
+
+    return result;
+  }
+
+  @Override
+  public List<KubernetesManifest> eventsFor(KubernetesV2Credentials credentials, KubernetesKind kind, String namespace, String name) {
+    KubernetesApiResource resource = resolve(KubernetesKind.EVENT);
+    String fieldSelector = String.format("involvedObject.name=%s,involvedObject.kind=%s", name, StringUtils.capitalize(kind.toString()));
+    String path = resource.path(namespace(credentials, namespace)) + "?fieldSelector=" + encode(fieldSelector);
+    return request(path, resource.listReader()).getItems();
+  }
+
+  @Override
+  public String logs(KubernetesV2Credentials credentials, String namespace, String podName, String containerName) {
+    KubernetesApiResource resource = resolve(KubernetesKind.POD);
+    String path = resource.path(namespace(credentials, namespace)) + "/" + encode(podName) + "/log?container=" + encode(containerName);
+    return request(path, r -> {
+      StringBuilder builder = new StringBuilder();
+      char[] buffer = new char[8192];
+      int read;
+      while ((read = r.read(buffer)) != -1) {
+        builder.append(buffer, 0, read);
+      }
+      return builder.toString();
+    });
+  }
+
+  @Override
+  public <T> T getRaw(KubernetesV2Credentials credentials, String path, ReaderConsumer<T> consumer) {
+    return request(path, consumer);
+  }
+
+  private KubernetesApiResource resolve(KubernetesKind kind) {
+    return resources.computeIfAbsent(kind, k -> KubernetesApiResource.discover(k, "list", readJson()));
+  }
+
+  private Function<String, Map<String, Object>> readJson() {
+    return path -> request(path, r -> gson.fromJson(r, Map.class));
+  }
+
+  private <T> T request(String path, ReaderConsumer<T> consumer) {
+    Map<String, String> headers = new HashMap<>();
+    client.updateParamsForAuth(AUTH_NAMES, new ArrayList<Pair>(), headers);
+    headers.put("Accept", "application/json");
+
+    Request.Builder builder = new Request.Builder()
+        .url(client.getBasePath() + path)
+        .get();
+    client.processHeaderParams(headers, builder);
+
+    OkHttpClient httpClient = path.contains("watch=true") ? watchHttpClient : client.getHttpClient();
+    ResponseBody body = null;
+    try {
+      Response response = httpClient.newCall(builder.build()).execute();
+      body = response.body();
+      if (response.code() == HTTP_NOT_FOUND) {
+        throw new NoResourceTypeException("Failed to read " + path + ": " + body.string());
+      } else if (!response.isSuccessful()) {
+        throw new KubectlException("Failed to read " + path + " (" + response.code() + "): " + body.string());
+      }
+
+      return consumer.consume(new BufferedReader(body.charStream()));
+    } catch (IOException e) {
+      throw new KubectlException("Failed to read " + path + ": " + e.getMessage(), e);
+    } finally {
+      if (body != null) {
+        try {
+          body.close();
+        } catch (IOException e) {
+          log.debug("Failed to close response body for {}", path, e);
+        }
+      }
+    }
+  }
+
+  private static String namespace(KubernetesV2Credentials credentials, String namespace) {
+    // mirrors kubectl, which falls back to the account's default namespace
+    return StringUtils.isEmpty(namespace) ? credentials.getDefaultNamespace() : namespace;
+  }
+
+  private static String encode(String value) {
+    try {
+      return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.netflix.spinnaker.clouddriver.jobs.local.ReaderConsumer;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesApiGroup;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifest;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor.NoResourceTypeException;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The REST location of a kind as served by a particular cluster, resolved through the discovery API.
+ */
+public class KubernetesApiResource {
+  private final static Gson gson = new Gson();
+
+  @Getter
+  private final String groupVersion;
+  @Getter
+  private final String plural;
+  @Getter
+  private final String kind;
+  @Getter
+  private final boolean namespaced;
+  private final String basePath;
+
+  KubernetesApiResource(String groupVersion, String plural, String kind, boolean namespaced) {
+    this.groupVersion = groupVersion;
+    this.plural = plural;
+    this.kind = kind;
+    this.namespaced = namespaced;
+    this.basePath = basePath(groupVersion);
+  }
+
+  /**
+   * @param kind the kind to resolve
+   * @param verb a verb the resolved resource must support, e.g. "list" or "watch"
+   * @param getJson reads the json document served at an API path
+   */
+  public static KubernetesApiResource discover(KubernetesKind kind, String verb, Function<String, Map<String, Object>> getJson) {
+    KubernetesApiGroup group = kind.getApiGroup();
+    String groupVersion;
+    if (group == null || group == KubernetesApiGroup.CORE || group == KubernetesApiGroup.NONE) {
+      groupVersion = "v1";
+    } else {
+      Map<String, Object> apiGroup = getJson.apply("/apis/" + group);
+      Map<String, Object> preferredVersion = (Map<String, Object>) apiGroup.getOrDefault("preferredVersion", Collections.emptyMap());
+      groupVersion = (String) preferredVersion.get("groupVersion");
+      if (StringUtils.isEmpty(groupVersion)) {
+        throw new NoResourceTypeException("No preferred version is served for api group " + group);
+      }
+    }
+
+    Map<String, Object> resourceList = getJson.apply(basePath(groupVersion));
+    List<Map<String, Object>> resources = (List<Map<String, Object>>) resourceList.getOrDefault("resources", Collections.emptyList());
+    return resources.stream()
+      .filter(r -> kind.getName().equalsIgnoreCase((String) r.get("kind")))
+      .filter(r -> !((String) r.get("name")).contains("/"))
+      .filter(r -> ((List<String>) r.getOrDefault("verbs", Collections.emptyList())).contains(verb))
+      .findFirst()
+      .map(r -> new KubernetesApiResource(groupVersion, (String) r.get("name"), (String) r.get("kind"), Boolean.TRUE.equals(r.get("namespaced"))))
+      .orElseThrow(() -> new NoResourceTypeException("Kind " + kind + " does not support '" + verb + "' in " + groupVersion));
+  }
+
+  public String path(String namespace) {
+    if (namespaced && StringUtils.isNotEmpty(namespace)) {
+      return basePath + "/namespaces/" + namespace + "/" + plural;
+    }
+
+    return basePath + "/" + plural;
+  }
+
+  /**
+   * Items in a list response omit their kind and apiVersion, which the rest of the v2 provider relies on.
+   */
+  public KubernetesManifest complete(KubernetesManifest manifest) {
+    manifest.putIfAbsent("kind", kind);
+    manifest.putIfAbsent("apiVersion", groupVersion);
+    return manifest;
+  }
+
+  /**
+   * Decodes a list response item by item, without buffering the response body.
+   */
+  public ReaderConsumer<ResourceList> listReader() {
+    return (BufferedReader r) -> {
+      try (JsonReader reader = new JsonReader(r)) {
+        ResourceList result = new ResourceList();
+        reader.beginObject();
+        while (reader.hasNext()) {
+          String name = reader.nextName();
+          if (name.equals("items") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+              KubernetesManifest manifest = gson.fromJson(reader, KubernetesManifest.class);
+              result.items.add(complete(manifest));
+            }
+            reader.endArray();
+          } else if (name.equals("metadata")) {
+            Map<String, Object> metadata = gson.fromJson(reader, Map.class);
+            result.resourceVersion = (String) metadata.get("resourceVersion");
+          } else {
+            reader.skipValue();
+          }
+        }
+        reader.endObject();
+        return result;
+      }
+    };
+  }
+
+  private static String basePath(String groupVersion) {
+    return groupVersion.contains("/") ? "/apis/" + groupVersion : "/api/" + groupVersion;
+  }
+
+  public static class ResourceList {
+    @Getter
+    private final List<KubernetesManifest> items = new ArrayList<>();
+    @Getter
+    private String resourceVersion;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.netflix.spinnaker.clouddriver.jobs.local.ReaderConsumer;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesPodMetric;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesPodMetric.ContainerMetric;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads pod metrics from the resource metrics API (metrics.k8s.io) served by metrics-server.
+ */
+public class KubernetesPodMetricsReader {
+  private final static String BASE_PATH = "/apis/metrics.k8s.io/v1beta1";
+  private final static String CPU_KEY = "CPU(cores)";
+  private final static String MEMORY_KEY = "MEMORY(bytes)";
+  private final static BigDecimal MEBIBYTE = BigDecimal.valueOf(1024 * 1024);
+  private final static Pattern QUANTITY = Pattern.compile("^([+-]?[0-9.]+(?:[eE][+-]?[0-9]+)?)(Ki|Mi|Gi|Ti|Pi|Ei|n|u|m|k|M|G|T|P|E)?$");
+  private final static Map<String, BigDecimal> SUFFIXES = new HashMap<>();
+
+  static {
+    SUFFIXES.put("n", new BigDecimal("1e-9"));
+    SUFFIXES.put("u", new BigDecimal("1e-6"));
+    SUFFIXES.put("m", new BigDecimal("1e-3"));
+    SUFFIXES.put("k", new BigDecimal("1e3"));
+    SUFFIXES.put("M", new BigDecimal("1e6"));
+    SUFFIXES.put("G", new BigDecimal("1e9"));
+    SUFFIXES.put("T", new BigDecimal("1e12"));
+    SUFFIXES.put("P", new BigDecimal("1e15"));
+    SUFFIXES.put("E", new BigDecimal("1e18"));
+    SUFFIXES.put("Ki", BigDecimal.valueOf(2).pow(10));
+    SUFFIXES.put("Mi", BigDecimal.valueOf(2).pow(20));
+    SUFFIXES.put("Gi", BigDecimal.valueOf(2).pow(30));
+    SUFFIXES.put("Ti", BigDecimal.valueOf(2).pow(40));
+    SUFFIXES.put("Pi", BigDecimal.valueOf(2).pow(50));
+    SUFFIXES.put("Ei", BigDecimal.valueOf(2).pow(60));
+  }
+
+  private final static Gson gson = new Gson();
+
+  /**
+   * @param namespace the namespace to read, or empty to read every namespace in the cluster in a single request
+   */
+  public static String path(String namespace) {
+    return StringUtils.isEmpty(namespace) ? BASE_PATH + "/pods" : BASE_PATH + "/namespaces/" + namespace + "/pods";
+  }
+
+  /**
+   * Decodes a PodMetricsList response pod by pod.
+   */
+  public static ReaderConsumer<List<KubernetesPodMetric>> podMetricsList() {
+    return (BufferedReader r) -> {
+      try (JsonReader reader = new JsonReader(r)) {
+        List<KubernetesPodMetric> result = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+          if (reader.nextName().equals("items") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+              Map<String, Object> item = gson.fromJson(reader, Map.class);
+              result.add(toPodMetric(item));
+            }
+            reader.endArray();
+          } else {
+            reader.skipValue();
+          }
+        }
+        reader.endObject();
+        return result;
+      }
+    };
+  }
+
+  private static KubernetesPodMetric toPodMetric(Map<String, Object> item) {
+    Map<String, Object> metadata = (Map<String, Object>) item.getOrDefault("metadata", Collections.emptyMap());
+    List<Map<String, Object>> containers = (List<Map<String, Object>>) item.getOrDefault("containers", Collections.emptyList());
+
+    List<ContainerMetric> containerMetrics = new ArrayList<>();
+    for (Map<String, Object> container : containers) {
+      Map<String, String> usage = (Map<String, String>) container.getOrDefault("usage", Collections.emptyMap());
+      BigDecimal cpu = parseQuantity(usage.get("cpu"));
+      BigDecimal memory = parseQuantity(usage.get("memory"));
+
+      Map<String, String> metrics = new HashMap<>();
+      Long cpuMillicores = null;
+      Long memoryBytes = null;
+      if (cpu != null) {
+        cpuMillicores = cpu.movePointRight(3).setScale(0, RoundingMode.CEILING).longValueExact();
+        metrics.put(CPU_KEY, cpuMillicores + "m");
+      }
+
+      if (memory != null) {
+        memoryBytes = memory.setScale(0, RoundingMode.CEILING).longValueExact();
+        metrics.put(MEMORY_KEY, memory.divide(MEBIBYTE, 0, RoundingMode.DOWN) + "Mi");
+      }
+
+      containerMetrics.add(ContainerMetric.builder()
+          .containerName((String) container.get("name"))
+          .metrics(metrics)
+          .cpuMillicores(cpuMillicores)
+          .memoryBytes(memoryBytes)
+          .build());
+    }
+
+    return KubernetesPodMetric.builder()
+        .podName((String) metadata.get("name"))
+        .namespace((String) metadata.get("namespace"))
+        .containerMetrics(containerMetrics)
+        .build();
+  }
+
+  static BigDecimal parseQuantity(String quantity) {
+    if (StringUtils.isEmpty(quantity)) {
+      return null;
+    }
+
+    Matcher matcher = QUANTITY.matcher(quantity.trim());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Unrecognized quantity '" + quantity + "'");
+    }
+
+    BigDecimal value = new BigDecimal(matcher.group(1));
+    String suffix = matcher.group(2);
+    return suffix == null ? value : value.multiply(SUFFIXES.get(suffix));
+  }
+}
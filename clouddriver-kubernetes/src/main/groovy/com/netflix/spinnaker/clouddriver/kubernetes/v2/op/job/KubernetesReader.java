@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job;
+
+import com.netflix.spinnaker.clouddriver.jobs.local.ReaderConsumer;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifest;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesSelectorList;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials;
+
+import java.util.List;
+
+/**
+ * The read operations issued by the caching agents and live manifest lookups. Implementations report failures with
+ * {@link KubectlJobExecutor.KubectlException}, and with {@link KubectlJobExecutor.NoResourceTypeException} when a
+ * kind is not served by the cluster.
+ */
+public interface KubernetesReader {
+  /**
+   * @return the requested manifest, or null if it does not exist
+   */
+  KubernetesManifest get(KubernetesV2Credentials credentials, KubernetesKind kind, String namespace, String name);
+
+  List<KubernetesManifest> list(KubernetesV2Credentials credentials, List<KubernetesKind> kinds, String namespace, KubernetesSelectorList selectors);
+
+  List<KubernetesManifest> eventsFor(KubernetesV2Credentials credentials, KubernetesKind kind, String namespace, String name);
+
+  String logs(KubernetesV2Credentials credentials, String namespace, String podName, String containerName);
+
+  <T> T getRaw(KubernetesV2Credentials credentials, String path, ReaderConsumer<T> consumer);
+}
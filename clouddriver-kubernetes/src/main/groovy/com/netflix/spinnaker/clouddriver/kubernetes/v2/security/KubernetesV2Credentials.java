@@ -21,8 +21,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Suppliers;
 import com.netflix.spectator.api.Clock;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.clouddriver.jobs.local.ReaderConsumer;
 import com.netflix.spinnaker.clouddriver.kubernetes.config.CustomKubernetesResource;
 import com.netflix.spinnaker.clouddriver.kubernetes.config.KubernetesCachingPolicy;
+import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesApiClientConfig;
 import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesCredentials;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.JsonPatch;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesPatchOptions;
@@ -32,6 +34,10 @@ import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.Kube
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifest;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor;
 import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor.KubectlException;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubernetesApiClientReader;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubernetesPodMetricsReader;
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubernetesReader;
+import io.kubernetes.client.ApiClient;
 import io.kubernetes.client.models.V1DeleteOptions;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -51,6 +57,7 @@ import java.util.stream.Collectors;
 @Slf4j
 public class KubernetesV2Credentials implements KubernetesCredentials {
   private final KubectlJobExecutor jobExecutor;
+  private final KubernetesReader reader;
   private final Registry registry;
   private final Clock clock;
   private final String accountName;
@@ -69,6 +76,10 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
   private final boolean onlySpinnakerManaged;
   @Getter
   private final boolean liveManifestCalls;
+  @Getter
+  private final boolean watchCaching;
+  @Getter
+  private final boolean inProcessReads;
 
   // TODO(lwander) make configurable
   private final static int namespaceExpirySeconds = 30;
@@ -210,6 +221,8 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
     boolean metrics;
     boolean onlySpinnakerManaged;
     boolean liveManifestCalls;
+    boolean watchCaching;
+    boolean inProcessReads;
 
     public Builder accountName(String accountName) {
       this.accountName = accountName;
@@ -321,6 +334,16 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
       return this;
     }
 
+    public Builder watchCaching(boolean watchCaching) {
+      this.watchCaching = watchCaching;
+      return this;
+    }
+
+    public Builder inProcessReads(boolean inProcessReads) {
+      this.inProcessReads = inProcessReads;
+      return this;
+    }
+
     public KubernetesV2Credentials build() {
       namespaces = namespaces == null ? new ArrayList<>() : namespaces;
       omitNamespaces = omitNamespaces == null ? new ArrayList<>() : omitNamespaces;
@@ -339,6 +362,7 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
           kubectlExecutable,
           kubectlRequestTimeoutSeconds,
           context,
+          userAgent,
           oAuthServiceAccount,
           oAuthScopes,
           serviceAccount,
@@ -350,7 +374,9 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
           checkPermissionsOnStartup,
           debug,
           onlySpinnakerManaged,
-          liveManifestCalls
+          liveManifestCalls,
+          watchCaching,
+          inProcessReads
       );
     }
   }
@@ -364,6 +390,7 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
       String kubectlExecutable,
       Integer kubectlRequestTimeoutSeconds,
       String context,
+      String userAgent,
       String oAuthServiceAccount,
       List<String> oAuthScopes,
       boolean serviceAccount,
@@ -375,7 +402,9 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
       boolean checkPermissionsOnStartup,
       boolean debug,
       boolean onlySpinnakerManaged,
-      boolean liveManifestCalls) {
+      boolean liveManifestCalls,
+      boolean watchCaching,
+      boolean inProcessReads) {
     this.registry = registry;
     this.clock = registry.clock();
     this.accountName = accountName;
@@ -398,8 +427,11 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
       .collect(Collectors.toMap(k -> k, k -> InvalidKindReason.EXPLICITLY_OMITTED_BY_CONFIGURATION));
     this.onlySpinnakerManaged = onlySpinnakerManaged;
     this.liveManifestCalls = liveManifestCalls;
+    this.watchCaching = watchCaching;
+    this.inProcessReads = inProcessReads;
+    this.reader = inProcessReads ? buildApiClientReader(userAgent) : jobExecutor;
 
-    this.liveNamespaceSupplier = Suppliers.memoizeWithExpiration(() -> jobExecutor.list(this, Collections.singletonList(KubernetesKind.NAMESPACE), "", new KubernetesSelectorList())
+    this.liveNamespaceSupplier = Suppliers.memoizeWithExpiration(() -> reader.list(this, Collections.singletonList(KubernetesKind.NAMESPACE), "", new KubernetesSelectorList())
         .stream()
         .map(KubernetesManifest::getName)
         .collect(Collectors.toList()), namespaceExpirySeconds, TimeUnit.SECONDS);
@@ -435,6 +467,31 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
     }
   }
 
+  private KubernetesReader buildApiClientReader(String userAgent) {
+    if (StringUtils.isNotEmpty(oAuthServiceAccount)) {
+      log.warn("In-process reads do not support OAuth service accounts, account '{}' will read through kubectl", accountName);
+      return jobExecutor;
+    }
+
+    try {
+      KubernetesApiClientConfig config = new KubernetesApiClientConfig(kubeconfigFile, context, null, null, userAgent, serviceAccount);
+      if (config.usesRefreshingUserCredentials()) {
+        log.warn("In-process reads do not refresh auth-provider or exec credentials, account '{}' will read through kubectl", accountName);
+        return jobExecutor;
+      }
+
+      ApiClient client = config.getApiCient();
+      if (kubectlRequestTimeoutSeconds != null) {
+        client.getHttpClient().setReadTimeout(kubectlRequestTimeoutSeconds, TimeUnit.SECONDS);
+      }
+
+      return new KubernetesApiClientReader(client);
+    } catch (Exception e) {
+      log.warn("Unable to build an in-process client for account '{}', it will read through kubectl", accountName, e);
+      return jobExecutor;
+    }
+  }
+
   public List<KubernetesKind> getCrds() {
     return liveCrdSupplier.get();
   }
@@ -488,7 +545,7 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
     if (metrics) {
       try {
         log.info("Checking if pod metrics are readable...");
-        topPod(checkNamespace);
+        podMetrics(checkNamespace);
       } catch (Exception e) {
         log.warn("Could not read pod metrics in account '{}' for reason: {}", accountName, e.getMessage());
         log.debug("Reading logs failed with exception: ", e);
@@ -514,31 +571,35 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
   }
 
   public KubernetesManifest get(KubernetesKind kind, String namespace, String name) {
-    return runAndRecordMetrics("get", kind, namespace, () -> jobExecutor.get(this, kind, namespace, name));
+    return runAndRecordMetrics("get", kind, namespace, () -> reader.get(this, kind, namespace, name));
   }
 
   public List<KubernetesManifest> list(KubernetesKind kind, String namespace) {
-    return runAndRecordMetrics("list", kind, namespace, () -> jobExecutor.list(this, Collections.singletonList(kind), namespace, new KubernetesSelectorList()));
+    return runAndRecordMetrics("list", kind, namespace, () -> reader.list(this, Collections.singletonList(kind), namespace, new KubernetesSelectorList()));
   }
 
   public List<KubernetesManifest> list(KubernetesKind kind, String namespace, KubernetesSelectorList selectors) {
-    return runAndRecordMetrics("list", kind, namespace, () -> jobExecutor.list(this, Collections.singletonList(kind), namespace, selectors));
+    return runAndRecordMetrics("list", kind, namespace, () -> reader.list(this, Collections.singletonList(kind), namespace, selectors));
   }
 
   public List<KubernetesManifest> list(List<KubernetesKind> kinds, String namespace) {
     if (kinds.isEmpty()) {
       return new ArrayList<>();
     } else {
-      return runAndRecordMetrics("list", kinds, namespace, () -> jobExecutor.list(this, kinds, namespace, new KubernetesSelectorList()));
+      return runAndRecordMetrics("list", kinds, namespace, () -> reader.list(this, kinds, namespace, new KubernetesSelectorList()));
     }
   }
 
+  public <T> T getRaw(String action, KubernetesKind kind, String namespace, String path, ReaderConsumer<T> consumer) {
+    return runAndRecordMetrics(action, kind, namespace, () -> reader.getRaw(this, path, consumer));
+  }
+
   public List<KubernetesManifest> eventsFor(KubernetesKind kind, String namespace, String name) {
-    return runAndRecordMetrics("list", KubernetesKind.EVENT, namespace, () -> jobExecutor.eventsFor(this, kind, namespace, name));
+    return runAndRecordMetrics("list", KubernetesKind.EVENT, namespace, () -> reader.eventsFor(this, kind, namespace, name));
   }
 
   public String logs(String namespace, String podName, String containerName) {
-    return runAndRecordMetrics("logs", KubernetesKind.POD, namespace, () -> jobExecutor.logs(this, namespace, podName, containerName));
+    return runAndRecordMetrics("logs", KubernetesKind.POD, namespace, () -> reader.logs(this, namespace, podName, containerName));
   }
 
   public String jobLogs(String namespace, String jobName) {
@@ -553,8 +614,12 @@ public class KubernetesV2Credentials implements KubernetesCredentials {
     return runAndRecordMetrics("delete", kind, namespace, () -> jobExecutor.delete(this, kind, namespace, name, labelSelectors, options));
   }
 
-  public Collection<KubernetesPodMetric> topPod(String namespace) {
-    return runAndRecordMetrics("top", KubernetesKind.POD, namespace, () -> jobExecutor.topPod(this, namespace));
+  /**
+   * @param namespace the namespace to read metrics for, or empty to read metrics for every namespace at once
+   */
+  public List<KubernetesPodMetric> podMetrics(String namespace) {
+    return runAndRecordMetrics("top", KubernetesKind.POD, namespace,
+        () -> reader.getRaw(this, KubernetesPodMetricsReader.path(namespace), KubernetesPodMetricsReader.podMetricsList()));
   }
 
   public void deploy(KubernetesManifest manifest) {
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.security
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+
+class KubernetesApiClientConfigSpec extends Specification {
+  def KUBECONFIG = """
+apiVersion: v1
+kind: Config
+current-context: token-context
+contexts:
+- name: token-context
+  context: {cluster: my-cluster, user: token-user}
+- name: gcp-context
+  context: {cluster: my-cluster, user: gcp-user}
+- name: exec-context
+  context: {cluster: my-cluster, user: exec-user}
+users:
+- name: token-user
+  user: {token: abc}
+- name: gcp-user
+  user:
+    auth-provider: {name: gcp}
+- name: exec-user
+  user:
+    exec: {apiVersion: client.authentication.k8s.io/v1beta1, command: aws-iam-authenticator}
+"""
+
+  File kubeconfigFile
+
+  def setup() {
+    kubeconfigFile = Files.createTempFile("kubeconfig", ".yml").toFile()
+    kubeconfigFile.text = KUBECONFIG
+  }
+
+  def cleanup() {
+    kubeconfigFile.delete()
+  }
+
+  @Unroll
+  void "detects #description credentials that only kubectl refreshes"() {
+    given:
+    def config = new KubernetesApiClientConfig(kubeconfigFile.absolutePath, context, null, null, null, false)
+
+    expect:
+    config.usesRefreshingUserCredentials() == refreshing
+
+    where:
+    context         || refreshing | description
+    "gcp-context"   || true       | "auth-provider"
+    "exec-context"  || true       | "exec"
+    "token-context" || false      | "static token"
+    null            || false      | "current context"
+    "missing"       || false      | "unknown context"
+  }
+
+  void "service accounts never use kubeconfig credentials"() {
+    expect:
+    !new KubernetesApiClientConfig(kubeconfigFile.absolutePath, "gcp-context", null, null, null, true).usesRefreshingUserCredentials()
+  }
+}
@@ -143,6 +143,16 @@ metadata:
     KubernetesKind.SERVICE     | KubernetesApiVersion.V1           | ["cluster": [Keys.cluster("account", "app", "name")], "application": [Keys.application("blarg"), Keys.application("asdfasdf")]]
   }
 
+  void "reads monikers from both freshly converted and cached data"() {
+    given:
+    def moniker = Moniker.builder().app("app").cluster("app-cluster").build()
+
+    expect:
+    KubernetesCacheDataConverter.getMoniker(new DefaultCacheData("id", ["moniker": moniker], [:])).is(moniker)
+    KubernetesCacheDataConverter.getMoniker(new DefaultCacheData("id", ["moniker": ["app": "app", "cluster": "app-cluster"]], [:])).cluster == "app-cluster"
+    KubernetesCacheDataConverter.getMoniker(new DefaultCacheData("id", [:], [:])) == null
+  }
+
   def filterRelationships(Collection<String> keys, List<Pair<KubernetesKind, String>> existingResources) {
     return keys.findAll { sk ->
       def key = (Keys.InfrastructureCacheKey) Keys.parseKey(sk).get()
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.caching.agent
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spectator.api.ManualClock
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.Executors
+
+class KubernetesInformerSpec extends Specification {
+  def NAMESPACE = "my-namespace"
+
+  def CORE_RESOURCES = '{"groupVersion":"v1","resources":[' +
+    '{"name":"pods","namespaced":true,"kind":"Pod","verbs":["get","list","watch"]},' +
+    '{"name":"pods/log","namespaced":true,"kind":"Pod","verbs":["get"]}]}'
+
+  def POD_LIST = '{"kind":"PodList","apiVersion":"v1","metadata":{"resourceVersion":"10"},"items":[' +
+    '{"metadata":{"name":"a","namespace":"my-namespace","resourceVersion":"5"}},' +
+    '{"metadata":{"name":"b","namespace":"my-namespace","resourceVersion":"6"}}]}'
+
+  def credentials = Mock(KubernetesV2Credentials)
+  def registry = new DefaultRegistry()
+
+  @Subject
+  def informer = new KubernetesInformer(credentials, registry, "my-account", KubernetesKind.POD, NAMESPACE)
+
+  void "relist populates the store and completes list items"() {
+    when:
+    informer.relist("initial")
+    def manifests = informer.list()
+
+    then:
+    1 * credentials.getRaw("discover", _, _, "/api/v1", _) >> { args -> consume(args, CORE_RESOURCES) }
+    1 * credentials.getRaw("list", _, _, "/api/v1/namespaces/my-namespace/pods", _) >> { args -> consume(args, POD_LIST) }
+    manifests*.getName().sort() == ["a", "b"]
+    manifests.every { it.getKind() == KubernetesKind.POD }
+    registry.counter("kubernetes.informer.relists", "account", "my-account", "kind", "pod", "reason", "initial").count() == 1
+  }
+
+  void "watch applies events from the last resource version"() {
+    given:
+    credentials.getRaw("discover", _, _, _, _) >> { args -> consume(args, CORE_RESOURCES) }
+    credentials.getRaw("list", _, _, _, _) >> { args -> consume(args, POD_LIST) }
+    informer.relist("initial")
+
+    def events = '{"type":"MODIFIED","object":{"kind":"Pod","apiVersion":"v1","metadata":{"name":"a","namespace":"my-namespace","resourceVersion":"11"},"status":{"phase":"Running"}}}\n' +
+      '{"type":"DELETED","object":{"kind":"Pod","apiVersion":"v1","metadata":{"name":"b","namespace":"my-namespace","resourceVersion":"12"}}}\n' +
+      '{"type":"ADDED","object":{"kind":"Pod","apiVersion":"v1","metadata":{"name":"c","namespace":"my-namespace","resourceVersion":"13"}}}\n'
+
+    when:
+    def current = informer.watch()
+    def manifests = informer.list().collectEntries { [(it.getName()): it] }
+
+    then:
+    1 * credentials.getRaw("watch", _, _, { it.contains("resourceVersion=10") }, _) >> { args -> consume(args, events) }
+    current
+    manifests.keySet() == ["a", "c"] as Set
+    manifests.a.status.phase == "Running"
+
+    when:
+    informer.watch()
+
+    then:
+    1 * credentials.getRaw("watch", _, _, { it.contains("resourceVersion=13") }, _) >> { args -> consume(args, "") }
+  }
+
+  void "an expired resource version is reported so that the informer relists"() {
+    given:
+    credentials.getRaw("discover", _, _, _, _) >> { args -> consume(args, CORE_RESOURCES) }
+    credentials.getRaw("list", _, _, _, _) >> { args -> consume(args, POD_LIST) }
+    informer.relist("initial")
+
+    when:
+    def current = informer.watch()
+
+    then:
+    1 * credentials.getRaw("watch", _, _, _, _) >> { args -> consume(args, '{"type":"ERROR","object":{"kind":"Status","code":410,"reason":"Gone"}}') }
+    !current
+    informer.list().size() == 2
+  }
+
+  void "every applied watch event counts as hearing from the API server"() {
+    given:
+    def clock = new ManualClock()
+    def clockedInformer = new KubernetesInformer(credentials, new DefaultRegistry(clock), "my-account", KubernetesKind.POD, NAMESPACE)
+    credentials.getRaw("discover", _, _, _, _) >> { args -> consume(args, CORE_RESOURCES) }
+    credentials.getRaw("list", _, _, _, _) >> { args -> consume(args, POD_LIST) }
+    clock.setWallTime(1000)
+    clockedInformer.relist("initial")
+
+    def event = '{"type":"ADDED","object":{"kind":"Pod","apiVersion":"v1","metadata":{"name":"c","namespace":"my-namespace","resourceVersion":"13"}}}'
+    def lagAfterEvent = -1
+
+    when:
+    clockedInformer.watch()
+
+    then:
+    1 * credentials.getRaw("watch", _, _, _, _) >> { args ->
+      clock.setWallTime(5000)
+      def current = consume(args, event)
+      // the watch is still open, so only the event itself can have moved the last sync forward
+      lagAfterEvent = clockedInformer.getWatchLagMillis()
+      clock.setWallTime(8000)
+      return current
+    }
+    lagAfterEvent == 0
+  }
+
+  void "an informer that has not heard from the API server for too long is stale"() {
+    given:
+    def clock = new ManualClock()
+    def staleInformer = new KubernetesInformer(credentials, new DefaultRegistry(clock), "my-account", KubernetesKind.POD, NAMESPACE)
+    credentials.getRaw("discover", _, _, _, _) >> { args -> consume(args, CORE_RESOURCES) }
+    credentials.getRaw("list", _, _, _, _) >> { args -> consume(args, POD_LIST) }
+    // the watch keeps failing, so the informer never hears from the API server again
+    credentials.getRaw("watch", _, _, _, _) >> { throw new IllegalStateException("connection refused") }
+    def executor = Executors.newSingleThreadExecutor()
+
+    when:
+    clock.setWallTime(1000)
+    staleInformer.start(executor)
+
+    then:
+    !staleInformer.isStale()
+
+    when:
+    clock.setWallTime(1000 + KubernetesInformer.MAX_STALENESS_MILLIS + 1)
+
+    then:
+    staleInformer.isStale()
+
+    when:
+    staleInformer.stop()
+
+    then:
+    !staleInformer.isStale()
+
+    cleanup:
+    executor.shutdownNow()
+  }
+
+  private static Object consume(args, String body) {
+    return args[4].consume(new BufferedReader(new StringReader(body)))
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.caching.agent
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesNamedAccountCredentials
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.caching.Keys
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesPodMetric
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job.KubectlJobExecutor
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials
+import spock.lang.Specification
+
+class KubernetesMetricCachingAgentSpec extends Specification {
+  def ACCOUNT = "my-account"
+
+  def credentials = Mock(KubernetesV2Credentials)
+
+  KubernetesMetricCachingAgent agent(List<String> configuredNamespaces) {
+    credentials.getDeclaredNamespaces() >> ["ns-1", "ns-2"]
+    credentials.getNamespaces() >> configuredNamespaces
+
+    def namedAccountCredentials = Mock(KubernetesNamedAccountCredentials)
+    namedAccountCredentials.getCredentials() >> credentials
+    namedAccountCredentials.getName() >> ACCOUNT
+
+    return new KubernetesMetricCachingAgent(namedAccountCredentials, new ObjectMapper(), new DefaultRegistry(), 0, 1, 10L)
+  }
+
+  void "caches no metrics when the cluster does not serve the metrics API"() {
+    when:
+    def result = agent([]).loadData(null)
+
+    then:
+    1 * credentials.podMetrics("") >> { throw new KubectlJobExecutor.NoResourceTypeException("the server could not find the requested resource") }
+    0 * credentials.podMetrics({ it != "" })
+    metricIds(result).isEmpty()
+  }
+
+  void "falls back to per-namespace reads when the cluster-wide read fails"() {
+    when:
+    def result = agent([]).loadData(null)
+
+    then:
+    1 * credentials.podMetrics("") >> { throw new KubectlJobExecutor.KubectlException("forbidden") }
+    1 * credentials.podMetrics("ns-1") >> [new KubernetesPodMetric(podName: "pod-1")]
+    1 * credentials.podMetrics("ns-2") >> { throw new KubectlJobExecutor.NoResourceTypeException("the server could not find the requested resource") }
+    metricIds(result) == [Keys.metric(KubernetesKind.POD, ACCOUNT, "ns-1", "pod-1")] as Set
+  }
+
+  void "reads only the cached namespaces from the cluster-wide listing"() {
+    when:
+    def result = agent([]).loadData(null)
+
+    then:
+    1 * credentials.podMetrics("") >> [new KubernetesPodMetric(podName: "pod-1", namespace: "ns-1"),
+                                       new KubernetesPodMetric(podName: "pod-2", namespace: "kube-system")]
+    metricIds(result) == [Keys.metric(KubernetesKind.POD, ACCOUNT, "ns-1", "pod-1")] as Set
+  }
+
+  void "skips namespaces without metrics when reading namespace by namespace"() {
+    when:
+    def result = agent(["ns-1", "ns-2"]).loadData(null)
+
+    then:
+    0 * credentials.podMetrics("")
+    1 * credentials.podMetrics("ns-1") >> { throw new KubectlJobExecutor.NoResourceTypeException("the server could not find the requested resource") }
+    1 * credentials.podMetrics("ns-2") >> { throw new KubectlJobExecutor.KubectlException("metrics not available yet") }
+    metricIds(result).isEmpty()
+  }
+
+  private static Set<String> metricIds(result) {
+    return result.cacheResults[Keys.Kind.KUBERNETES_METRIC.toString()]*.id as Set ?: [] as Set
+  }
+}
@@ -60,4 +60,31 @@ class KubernetesReplicaSetCachingAgentSpec extends Specification {
     [:]        | [:]        | [:]               | [:]
     ["a": "b"] | [:]        | ["a": ["1", "2"]] | [:]
   }
+
+  void "merges on demand results by id, with later results taking precedence"() {
+    given:
+    def current = [
+      "replicaSet": [
+        new DefaultCacheData("rs-1", ["a": "1"], ["pod": ["pod-1"]]),
+        new DefaultCacheData("rs-2", ["a": "2"], [:])
+      ] as Collection
+    ]
+
+    def first = ["replicaSet": [new DefaultCacheData("rs-1", ["a": "3"], ["pod": ["pod-2"]])] as Collection]
+    def second = [
+      "replicaSet": [new DefaultCacheData("rs-1", ["a": "4"], [:]), new DefaultCacheData("rs-3", ["a": "5"], [:])] as Collection,
+      "pod": [new DefaultCacheData("pod-2", [:], [:])] as Collection
+    ]
+
+    when:
+    KubernetesV2OnDemandCachingAgent.mergeCacheResults(current, [first, second])
+    def replicaSets = current.replicaSet.collectEntries { [(it.id): it] }
+
+    then:
+    replicaSets.keySet() == ["rs-1", "rs-2", "rs-3"] as Set
+    replicaSets["rs-1"].attributes.a == "4"
+    replicaSets["rs-1"].relationships.pod as Set == ["pod-1", "pod-2"] as Set
+    replicaSets["rs-2"].attributes.a == "2"
+    current.pod*.id == ["pod-2"]
+  }
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.caching.agent
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.cats.agent.AgentDataType
+import com.netflix.spinnaker.clouddriver.kubernetes.KubernetesCloudProvider
+import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesNamedAccountCredentials
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.caching.Keys
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.KubernetesResourcePropertyRegistry
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifest
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesManifestAnnotater
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.names.KubernetesManifestNamer
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials
+import com.netflix.spinnaker.clouddriver.names.NamerRegistry
+import com.netflix.spinnaker.moniker.Moniker
+import spock.lang.Specification
+
+class KubernetesV2CachingAgentSpec extends Specification {
+  def ACCOUNT = "my-account"
+  def NAMESPACE = "my-namespace"
+  def mapper = new ObjectMapper()
+
+  def CORE_RESOURCES = '{"groupVersion":"v1","resources":[{"name":"pods","namespaced":true,"kind":"Pod","verbs":["get","list","watch"]}]}'
+
+  KubernetesCoreCachingAgent agent
+
+  def setup() {
+    NamerRegistry.lookup()
+      .withProvider(KubernetesCloudProvider.ID)
+      .withAccount(ACCOUNT)
+      .setNamer(KubernetesManifest, new KubernetesManifestNamer())
+
+    def credentials = Mock(KubernetesV2Credentials)
+    credentials.getDeclaredNamespaces() >> [NAMESPACE]
+    credentials.getOnlySpinnakerManaged() >> false
+
+    def namedAccountCredentials = Mock(KubernetesNamedAccountCredentials)
+    namedAccountCredentials.getCredentials() >> credentials
+    namedAccountCredentials.getName() >> ACCOUNT
+
+    agent = new KubernetesCoreCachingAgent(namedAccountCredentials, Mock(KubernetesResourcePropertyRegistry), mapper, new DefaultRegistry(), 0, 1, 10L)
+  }
+
+  void "reuses derived cache data for resources whose metadata has not changed"() {
+    given:
+    def key = Keys.infrastructure(KubernetesKind.REPLICA_SET, ACCOUNT, NAMESPACE, "rs-v000")
+
+    when:
+    def first = resourceData(agent.buildCacheResult([(KubernetesKind.REPLICA_SET): [replicaSet("app", 1)]]), key)
+    def second = resourceData(agent.buildCacheResult([(KubernetesKind.REPLICA_SET): [replicaSet("app", 2)]]), key)
+
+    then: "the manifest is current while the derived relationships are carried over"
+    second.attributes.manifest.status.replicas == 2
+    second.relationships.is(first.relationships)
+    second.relationships.get(Keys.LogicalKind.APPLICATIONS.toString()) == [Keys.application("app")]
+
+    and: "only the current listing's manifests are held, not a copy of the previous one"
+    agent.convertedResources[key].attributes.every { k, v -> k != "manifest" }
+    second.attributes.name == "rs-v000"
+
+    when:
+    def third = resourceData(agent.buildCacheResult([(KubernetesKind.REPLICA_SET): [replicaSet("other-app", 2)]]), key)
+
+    then: "changed metadata is converted again"
+    !third.relationships.is(second.relationships)
+    third.relationships.get(Keys.LogicalKind.APPLICATIONS.toString()) == [Keys.application("other-app")]
+  }
+
+  void "single resources are converted without replacing the previous listing"() {
+    given:
+    def key = Keys.infrastructure(KubernetesKind.REPLICA_SET, ACCOUNT, NAMESPACE, "rs-v000")
+    def first = resourceData(agent.buildCacheResult([(KubernetesKind.REPLICA_SET): [replicaSet("app", 1)]]), key)
+
+    when:
+    def onDemand = resourceData(agent.buildCacheResult(replicaSet("app", 2)), key)
+    def next = resourceData(agent.buildCacheResult([(KubernetesKind.REPLICA_SET): [replicaSet("app", 3)]]), key)
+
+    then:
+    !onDemand.relationships.is(first.relationships)
+    next.relationships.is(first.relationships)
+  }
+
+  void "watches each kind cluster-wide and keeps only the agent's namespaces"() {
+    given:
+    def credentials = watchingCredentials([])
+    def podAgent = new PodCachingAgent(namedAccountCredentials(credentials))
+
+    when:
+    def pods = podAgent.loadPrimaryResourceList()
+
+    then:
+    1 * credentials.getRaw("list", KubernetesKind.POD, "", "/api/v1/pods", _) >> { args -> consume(args, podList("ns-1", "ns-2", "kube-system")) }
+    0 * credentials.getRaw("list", _, _, _, _)
+    pods[KubernetesKind.POD]*.getNamespace().sort() == ["ns-1", "ns-2"]
+
+    cleanup:
+    podAgent.close()
+  }
+
+  void "watches each configured namespace when the account is restricted to them"() {
+    given:
+    def credentials = watchingCredentials(["ns-1", "ns-2"])
+    def podAgent = new PodCachingAgent(namedAccountCredentials(credentials))
+
+    when:
+    def pods = podAgent.loadPrimaryResourceList()
+
+    then:
+    1 * credentials.getRaw("list", KubernetesKind.POD, "ns-1", "/api/v1/namespaces/ns-1/pods", _) >> { args -> consume(args, podList("ns-1")) }
+    1 * credentials.getRaw("list", KubernetesKind.POD, "ns-2", "/api/v1/namespaces/ns-2/pods", _) >> { args -> consume(args, podList("ns-2")) }
+    0 * credentials.getRaw("list", _, _, _, _)
+    pods[KubernetesKind.POD]*.getNamespace().sort() == ["ns-1", "ns-2"]
+
+    cleanup:
+    podAgent.close()
+  }
+
+  private KubernetesV2Credentials watchingCredentials(List<String> configuredNamespaces) {
+    def credentials = Mock(KubernetesV2Credentials)
+    credentials.getDeclaredNamespaces() >> ["ns-1", "ns-2"]
+    credentials.getNamespaces() >> configuredNamespaces
+    credentials.isWatchCaching() >> true
+    credentials.getCachingPolicies() >> []
+    credentials.getRaw("discover", _, _, "/api/v1", _) >> { args -> consume(args, CORE_RESOURCES) }
+    // keep each watch open until the agent is closed
+    credentials.getRaw("watch", _, _, _, _) >> { Thread.sleep(60000); true }
+    return credentials
+  }
+
+  private KubernetesNamedAccountCredentials namedAccountCredentials(KubernetesV2Credentials credentials) {
+    def namedAccountCredentials = Mock(KubernetesNamedAccountCredentials)
+    namedAccountCredentials.getCredentials() >> credentials
+    namedAccountCredentials.getName() >> ACCOUNT
+    return namedAccountCredentials
+  }
+
+  private static String podList(String... namespaces) {
+    def items = namespaces.collect { '{"metadata":{"name":"pod-' + it + '","namespace":"' + it + '","resourceVersion":"1"}}' }
+    return '{"kind":"PodList","apiVersion":"v1","metadata":{"resourceVersion":"10"},"items":[' + items.join(",") + ']}'
+  }
+
+  private static Object consume(args, String body) {
+    return args[4].consume(new BufferedReader(new StringReader(body)))
+  }
+
+  private KubernetesManifest replicaSet(String application, int replicas) {
+    def manifest = mapper.convertValue([
+      apiVersion: "apps/v1",
+      kind: "ReplicaSet",
+      metadata: [name: "rs-v000", namespace: NAMESPACE],
+      status: [replicas: replicas]
+    ], KubernetesManifest)
+    KubernetesManifestAnnotater.annotateManifest(manifest, Moniker.builder().app(application).cluster("replicaSet rs").build())
+    return manifest
+  }
+
+  private static def resourceData(result, String key) {
+    return result.cacheResults[KubernetesKind.REPLICA_SET.toString()].find { it.id == key }
+  }
+
+  static class PodCachingAgent extends KubernetesV2CachingAgent {
+    PodCachingAgent(KubernetesNamedAccountCredentials<KubernetesV2Credentials> namedAccountCredentials) {
+      super(namedAccountCredentials, null, new ObjectMapper(), new DefaultRegistry(), 0, 1, 10L)
+    }
+
+    @Override
+    protected KubernetesKind primaryKind() {
+      return KubernetesKind.POD
+    }
+
+    @Override
+    Collection<AgentDataType> getProvidedDataTypes() {
+      return []
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.clouddriver.jobs.JobExecutor
+import com.netflix.spinnaker.clouddriver.jobs.JobRequest
+import com.netflix.spinnaker.clouddriver.jobs.JobResult
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials
+import spock.lang.Specification
+
+class KubectlJobExecutorSpec extends Specification {
+  def jobExecutor = Mock(JobExecutor)
+  def registry = new DefaultRegistry()
+
+  void "reuses OAuth tokens across kubectl invocations"() {
+    given:
+    def executor = new KubectlJobExecutor(jobExecutor, registry, 2700, 3300)
+    executor.executable = "kubectl"
+    executor.oAuthExecutable = "oauth2l"
+
+    def credentials = Mock(KubernetesV2Credentials)
+    credentials.getOAuthServiceAccount() >> "sa.json"
+    credentials.getOAuthScopes() >> ["https://www.googleapis.com/auth/cloud-platform"]
+
+    when:
+    executor.configCurrentContext(credentials)
+    executor.configCurrentContext(credentials)
+
+    then:
+    1 * jobExecutor.runJob({ JobRequest r -> r.tokenizedCommand[0] == "oauth2l" }) >> result("token\n")
+    2 * jobExecutor.runJob({ JobRequest r -> r.tokenizedCommand[0] == "kubectl" && r.tokenizedCommand.contains("--token=token") }) >> result("my-context")
+    registry.counter("kubernetes.oAuth.tokenFetches", "success", "true").count() == 1
+  }
+
+  void "does not cache failed token fetches"() {
+    given:
+    def executor = new KubectlJobExecutor(jobExecutor, registry, 2700, 3300)
+    executor.executable = "kubectl"
+    executor.oAuthExecutable = "oauth2l"
+
+    def credentials = Mock(KubernetesV2Credentials)
+    credentials.getOAuthServiceAccount() >> "sa.json"
+    credentials.getOAuthScopes() >> []
+
+    when:
+    executor.configCurrentContext(credentials)
+
+    then:
+    1 * jobExecutor.runJob({ JobRequest r -> r.tokenizedCommand[0] == "oauth2l" }) >> JobResult.builder().result(JobResult.Result.FAILURE).error("denied").build()
+    thrown(KubectlJobExecutor.KubectlException)
+
+    when:
+    executor.configCurrentContext(credentials)
+
+    then:
+    1 * jobExecutor.runJob({ JobRequest r -> r.tokenizedCommand[0] == "oauth2l" }) >> result("token")
+    1 * jobExecutor.runJob({ JobRequest r -> r.tokenizedCommand[0] == "kubectl" }) >> result("my-context")
+  }
+
+  void "raw watches are not cut short by the request timeout"() {
+    given:
+    def executor = new KubectlJobExecutor(jobExecutor, registry, 2700, 3300)
+    executor.executable = "kubectl"
+
+    def credentials = Mock(KubernetesV2Credentials)
+    credentials.getKubectlRequestTimeoutSeconds() >> 30
+
+    when:
+    executor.getRaw(credentials, "/api/v1/pods", { it.text })
+    executor.getRaw(credentials, "/api/v1/pods?watch=true&resourceVersion=10&timeoutSeconds=300", { it.text })
+
+    then:
+    1 * jobExecutor.runJob({ JobRequest r -> r.tokenizedCommand.last() == "/api/v1/pods" && r.tokenizedCommand.contains("--request-timeout=30") }, _) >> result("")
+    1 * jobExecutor.runJob({ JobRequest r -> r.tokenizedCommand.last().contains("watch=true") && !r.tokenizedCommand.any { it.startsWith("--request-timeout") } }, _) >> result("")
+  }
+
+  private static JobResult<String> result(String output) {
+    return JobResult.builder().result(JobResult.Result.SUCCESS).output(output).error("").build()
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job
+
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.description.manifest.KubernetesKind
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesSelector
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesSelectorList
+import com.netflix.spinnaker.clouddriver.kubernetes.v2.security.KubernetesV2Credentials
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import io.kubernetes.client.ApiClient
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.nio.charset.StandardCharsets
+
+class KubernetesApiClientReaderSpec extends Specification {
+  static final String CORE_RESOURCES = '{"groupVersion":"v1","resources":[' +
+    '{"name":"pods","namespaced":true,"kind":"Pod","verbs":["get","list","watch"]},' +
+    '{"name":"namespaces","namespaced":false,"kind":"Namespace","verbs":["get","list","watch"]}]}'
+
+  static final String APPS_GROUP = '{"name":"apps","preferredVersion":{"groupVersion":"apps/v1","version":"v1"}}'
+
+  static final String APPS_RESOURCES = '{"groupVersion":"apps/v1","resources":[' +
+    '{"name":"replicasets","namespaced":true,"kind":"ReplicaSet","verbs":["get","list","watch"]},' +
+    '{"name":"replicasets/scale","namespaced":true,"kind":"Scale","verbs":["get","patch"]}]}'
+
+  @Shared
+  HttpServer server
+
+  @Shared
+  List<String> requests = Collections.synchronizedList([])
+
+  def credentials = Mock(KubernetesV2Credentials)
+
+  @Subject
+  KubernetesApiClientReader reader
+
+  def setupSpec() {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+    server.createContext("/", { HttpExchange exchange ->
+      def uri = exchange.requestURI
+      requests << uri.toString()
+      def body = respond(uri.path)
+      def bytes = (body ?: '{"kind":"Status","code":404}').getBytes(StandardCharsets.UTF_8)
+      exchange.sendResponseHeaders(body == null ? 404 : 200, bytes.length)
+      exchange.responseBody.withStream { it.write(bytes) }
+    })
+    server.start()
+  }
+
+  def cleanupSpec() {
+    server.stop(0)
+  }
+
+  def setup() {
+    requests.clear()
+    credentials.getDefaultNamespace() >> "default"
+    reader = new KubernetesApiClientReader(new ApiClient().setBasePath("http://localhost:${server.address.port}"))
+  }
+
+  void "lists manifests through discovered paths and completes list items"() {
+    when:
+    def manifests = reader.list(credentials, [KubernetesKind.REPLICA_SET], "my-namespace", new KubernetesSelectorList())
+
+    then:
+    manifests*.getName() == ["rs-1", "rs-2"]
+    manifests.every { it.getKind() == KubernetesKind.REPLICA_SET && it.getApiVersion().toString() == "apps/v1" }
+    requests == ["/apis/apps", "/apis/apps/v1", "/apis/apps/v1/namespaces/my-namespace/replicasets"]
+
+    when:
+    reader.list(credentials, [KubernetesKind.REPLICA_SET], "my-namespace", new KubernetesSelectorList(KubernetesSelector.equals("app", "foo")))
+
+    then: "discovery is only performed once"
+    requests.size() == 4
+    requests.last() == "/apis/apps/v1/namespaces/my-namespace/replicasets?labelSelector=app+%3D+foo"
+  }
+
+  void "falls back to the default namespace and ignores namespaces for cluster scoped kinds"() {
+    when:
+    reader.list(credentials, [KubernetesKind.POD], "", new KubernetesSelectorList())
+    reader.list(credentials, [KubernetesKind.NAMESPACE], "my-namespace", new KubernetesSelectorList())
+
+    then:
+    requests.contains("/api/v1/namespaces/default/pods")
+    requests.contains("/api/v1/namespaces")
+  }
+
+  void "returns null for objects that do not exist"() {
+    expect:
+    reader.get(credentials, KubernetesKind.POD, "my-namespace", "pod-1").getName() == "pod-1"
+    reader.get(credentials, KubernetesKind.POD, "my-namespace", "missing") == null
+  }
+
+  void "reports kinds that are not served by the cluster"() {
+    when:
+    reader.list(credentials, [KubernetesKind.fromString("widget.example.com")], "my-namespace", new KubernetesSelectorList())
+
+    then:
+    thrown(KubectlJobExecutor.NoResourceTypeException)
+  }
+
+  private static String respond(String path) {
+    switch (path) {
+      case "/api/v1":
+        return CORE_RESOURCES
+      case "/apis/apps":
+        return APPS_GROUP
+      case "/apis/apps/v1":
+        return APPS_RESOURCES
+      case "/apis/apps/v1/namespaces/my-namespace/replicasets":
+        return '{"kind":"ReplicaSetList","apiVersion":"apps/v1","metadata":{"resourceVersion":"7"},"items":[' +
+          '{"metadata":{"name":"rs-1","namespace":"my-namespace"}},{"metadata":{"name":"rs-2","namespace":"my-namespace"}}]}'
+      case "/api/v1/namespaces/default/pods":
+        return '{"kind":"PodList","apiVersion":"v1","metadata":{"resourceVersion":"3"},"items":[]}'
+      case "/api/v1/namespaces":
+        return '{"kind":"NamespaceList","apiVersion":"v1","metadata":{"resourceVersion":"3"},"items":[]}'
+      case "/api/v1/namespaces/my-namespace/pods/pod-1":
+        return '{"kind":"Pod","apiVersion":"v1","metadata":{"name":"pod-1","namespace":"my-namespace"}}'
+      default:
+        return null
+    }
+  }
+}
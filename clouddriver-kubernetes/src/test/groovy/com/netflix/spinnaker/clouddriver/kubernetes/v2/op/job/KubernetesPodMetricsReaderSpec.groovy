@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.v2.op.job
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class KubernetesPodMetricsReaderSpec extends Specification {
+  void "decodes a pod metrics list into typed and formatted container metrics"() {
+    given:
+    def body = '{"kind":"PodMetricsList","apiVersion":"metrics.k8s.io/v1beta1","metadata":{},"items":[' +
+      '{"metadata":{"name":"pod-1","namespace":"ns-1"},"window":"30s","containers":[' +
+      '{"name":"app","usage":{"cpu":"2500000n","memory":"10240Ki"}},' +
+      '{"name":"sidecar","usage":{"cpu":"0","memory":"512Ki"}}]},' +
+      '{"metadata":{"name":"pod-2","namespace":"ns-2"},"window":"30s","containers":[]}]}'
+
+    when:
+    def metrics = KubernetesPodMetricsReader.podMetricsList().consume(new BufferedReader(new StringReader(body)))
+
+    then:
+    metrics*.podName == ["pod-1", "pod-2"]
+    metrics*.namespace == ["ns-1", "ns-2"]
+
+    def app = metrics[0].containerMetrics[0]
+    app.containerName == "app"
+    app.cpuMillicores == 3
+    app.memoryBytes == 10485760
+    app.metrics == ["CPU(cores)": "3m", "MEMORY(bytes)": "10Mi"]
+
+    def sidecar = metrics[0].containerMetrics[1]
+    sidecar.cpuMillicores == 0
+    sidecar.metrics == ["CPU(cores)": "0m", "MEMORY(bytes)": "0Mi"]
+  }
+
+  @Unroll
+  void "parses quantity #quantity"() {
+    expect:
+    expected == null ? KubernetesPodMetricsReader.parseQuantity(quantity) == null : KubernetesPodMetricsReader.parseQuantity(quantity).compareTo(expected) == 0
+
+    where:
+    quantity | expected
+    "1"      | 1G
+    "250m"   | 0.25G
+    "100n"   | 0.0000001G
+    "1Ki"    | 1024G
+    "1.5Gi"  | 1610612736G
+    "2k"     | 2000G
+    "1e3"    | 1000G
+    "1E"     | 1000000000000000000G
+    ""       | null
+  }
+
+  void "reads a single namespace or the whole cluster"() {
+    expect:
+    KubernetesPodMetricsReader.path("my-namespace") == "/apis/metrics.k8s.io/v1beta1/namespaces/my-namespace/pods"
+    KubernetesPodMetricsReader.path("") == "/apis/metrics.k8s.io/v1beta1/pods"
+  }
+}
@@ -123,7 +123,8 @@ public class ProviderUtils {
 
   /**
    * Use the provider registry and agent scheduler associated with the cats module to unschedule and deregister
-   * each agent that handles one of the specified accounts.
+   * each agent that handles one of the specified accounts. Deregistered agents that hold resources of their own
+   * (threads, watches, ...) release them by implementing {@link Closeable}.
    */
   public static void unscheduleAndDeregisterAgents(def namesOfDeletedAccounts, def catsModule) {
     namesOfDeletedAccounts.each { nameOfDeletedAccount ->
@@ -144,6 +145,14 @@ public class ProviderUtils {
         }
 
         provider.agents.removeAll(agentsToDelete)
+
+        agentsToDelete.findAll { it instanceof Closeable }.each { Closeable agent ->
+          try {
+            agent.close()
+          } catch (Exception e) {
+            log.warn("Failed to close agent ${agent.agentType}", e)
+          }
+        }
       }
     }
   }
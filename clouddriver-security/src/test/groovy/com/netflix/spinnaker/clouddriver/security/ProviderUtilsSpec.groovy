@@ -174,6 +174,30 @@ class ProviderUtilsSpec extends Specification {
       agentSchedulerAwareProvider.agents == [testAgent1, testAgent4]
   }
 
+  void "should close deregistered agents that hold resources"() {
+    setup:
+      def closeableAgent = new CloseableTestAgent(accountName: "some-account-1")
+      def remainingAgent = new CloseableTestAgent(accountName: "some-account-2")
+      def agentSchedulerAwareProvider = new TestAgentSchedulerAwareProvider(agents: [closeableAgent, remainingAgent])
+      def catsModule = new DefaultCatsModule(null, [agentSchedulerAwareProvider], new InMemoryNamedCacheFactory(), new TestScheduler(), new NoopExecutionInstrumentation())
+
+    when:
+      ProviderUtils.unscheduleAndDeregisterAgents(["some-account-1"], catsModule)
+
+    then:
+      closeableAgent.closed
+      !remainingAgent.closed
+  }
+
+  static class CloseableTestAgent extends TestAccountAwareAgent implements Closeable {
+    boolean closed
+
+    @Override
+    void close() {
+      closed = true
+    }
+  }
+
   static class TestAccountCredentials1 implements AccountCredentials<TestCredentials1> {
     String name
     String environment = "some-env"
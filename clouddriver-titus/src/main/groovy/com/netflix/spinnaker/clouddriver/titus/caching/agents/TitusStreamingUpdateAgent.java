@@ -80,6 +80,7 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
   private final ObjectMapper objectMapper;
   private final Registry registry;
   private final Id metricId;
+  private final Id bufferedChangesId;
   private final Provider<AwsLookupUtil> awsLookupUtil;
   private final DynamicConfigService dynamicConfigService;
 
@@ -150,6 +151,9 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
     this.metricId = registry.createId("titus.cache.streaming")
       .withTag("account", account.getName())
       .withTag("region", region.getName());
+    this.bufferedChangesId = registry.createId("titus.cache.streaming.bufferedChanges")
+      .withTag("account", account.getName())
+      .withTag("region", region.getName());
   }
 
   @Override
@@ -183,15 +187,22 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
      * applications, clusters, and server groups within a StreamingCacheState object.
      * <p>
      * After the initial snapshot persist, the agent continues to consume observeJobs events, updating
-     * StreamingCacheState, including a list of jobIds we've received events for. Once either
+     * StreamingCacheState, including the jobIds and taskIds we've received events for. Once either
      * titus.streaming.changeThreshold events have been consumed, or titus.streaming.timeThresholdMs ms has passed,
-     * cacheResults are built for the full resource graph of applications that have had job/task updates.
-     * This is more work than only directly updating i.e. server groups based on job updates or instance
-     * based on task updates, but avoids pitfalls in properly maintaining relationships to or deleting
-     * higher level objects. if the last server group in a cluster is deleted, the cluster object
-     * must also be deleted, and the application object updated. The later cannot currently be done
-     * incrementally in an atomic operation; safely updating an application object requires rebuilding it
-     * with full context.
+     * cacheResults are built for the server groups of updated jobs and the instances of updated tasks only.
+     * Application and cluster objects are still rebuilt with full context for every application that has
+     * had job/task updates, since if the last server group in a cluster is deleted, the cluster object
+     * must also be deleted, and the application object updated. That context comes from the server group
+     * data kept in StreamingCacheState rather than from reconverting every job and task of the application.
+     * <p>
+     * Scaling policies and load balancer attachments are refreshed every titus.streaming.policyRefreshIntervalMs ms
+     * rather than on every write; only server groups whose policies or load balancers changed are rewritten.
+     * <p>
+     * Updates are coalesced by job and task id, so titus.streaming.changeThreshold bounds the number of distinct
+     * jobs and tasks waiting to be written rather than the number of events. The blocking stub only requests the
+     * next event once the previous one has been handled, so while a write is in progress gRPC flow control holds
+     * back further events instead of buffering them. observeJobs cannot be resumed, so after a reconnect the
+     * replayed snapshot is reconciled against the last seen state and only the differences are written.
      */
     @Override
     public void executeAgent(Agent agent) {
@@ -201,61 +212,17 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
 
       ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
       final Future handler = executor.submit(() -> {
-        Iterator<JobChangeNotification> notificationIt = titusClient.observeJobs(
-          ObserveJobsQuery.newBuilder()
-            .putFilteringCriteria("jobType", "SERVICE")
-            .putFilteringCriteria("attributes", "source:spinnaker")
-            .build()
-        );
+        Iterator<JobChangeNotification> notificationIt = observeJobs();
 
         while (continueStreaming(startTime)) {
           try {
             while (notificationIt.hasNext() && continueStreaming(startTime)) {
-              JobChangeNotification notification = notificationIt.next();
-              switch (notification.getNotificationCase()) {
-                case JOBUPDATE:
-                  updateJob(state, notification.getJobUpdate().getJob());
-                  break;
-                case TASKUPDATE:
-                  if (notification.getTaskUpdate().getMovedFromAnotherJob()) {
-                    Task task = notification.getTaskUpdate().getTask();
-                    String destinationJobId = task.getJobId();
-                    String sourceJobId = task.getTaskContextOrDefault("task.movedFromJob", null);
-                    log.info("{} task moved from job {} to {}", task.getId(), sourceJobId, destinationJobId);
-                    updateMovedTask(state, task, sourceJobId);
-                  }
-                  updateTask(state, notification.getTaskUpdate().getTask());
-                  break;
-                case SNAPSHOTEND:
-                  state.lastUpdate.set(0);
-                  log.info("{} snapshot finished in {}ms", getAgentType(), System.currentTimeMillis() - startTime);
-                  state.tasks.keySet().retainAll(state.jobs.keySet());
-                  if (state.snapshotComplete) {
-                    log.error("{} received >1 SNAPSHOTEND events, this is unexpected and may be handled incorrectly",
-                      getAgentType()
-                    );
-                  }
-                  state.snapshotComplete = true;
-                  break;
-              }
-
-              if (state.snapshotComplete) {
-                writeToCache(state);
-                if (!state.savedSnapshot) {
-                  state.savedSnapshot = true;
-                }
-              }
+              handleNotification(state, notificationIt.next(), startTime);
             }
           } catch (io.grpc.StatusRuntimeException e) {
             log.warn("gRPC exception while streaming {} updates, attempting to reconnect", getAgentType(), e);
-            notificationIt = titusClient.observeJobs(
-              ObserveJobsQuery.newBuilder()
-                .putFilteringCriteria("jobType", "SERVICE")
-                .putFilteringCriteria("attributes", "source:spinnaker")
-                .build()
-            );
-            state.snapshotComplete = false;
-            state.savedSnapshot = false;
+            notificationIt = observeJobs();
+            prepareForReconnect(state);
           } catch (Exception e) {
             log.error("Exception while streaming {} titus updates", getAgentType(), e);
           }
@@ -268,6 +235,67 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
       CompletableFuture.completedFuture(handler).join();
     }
 
+    private Iterator<JobChangeNotification> observeJobs() {
+      return titusClient.observeJobs(
+        ObserveJobsQuery.newBuilder()
+          .putFilteringCriteria("jobType", "SERVICE")
+          .putFilteringCriteria("attributes", "source:spinnaker")
+          .build()
+      );
+    }
+
+    void handleNotification(StreamingCacheState state, JobChangeNotification notification, long startTime) {
+      switch (notification.getNotificationCase()) {
+        case JOBUPDATE:
+          updateJob(state, notification.getJobUpdate().getJob());
+          break;
+        case TASKUPDATE:
+          if (notification.getTaskUpdate().getMovedFromAnotherJob()) {
+            Task task = notification.getTaskUpdate().getTask();
+            String destinationJobId = task.getJobId();
+            String sourceJobId = task.getTaskContextOrDefault("task.movedFromJob", null);
+            log.info("{} task moved from job {} to {}", task.getId(), sourceJobId, destinationJobId);
+            updateMovedTask(state, task, sourceJobId);
+          }
+          updateTask(state, notification.getTaskUpdate().getTask());
+          break;
+        case SNAPSHOTEND:
+          state.lastUpdate.set(0);
+          log.info("{} snapshot finished in {}ms", getAgentType(), System.currentTimeMillis() - startTime);
+          state.tasks.keySet().retainAll(state.jobs.keySet());
+          if (state.previousJobs != null) {
+            reconcileSnapshot(state);
+          }
+          if (state.snapshotComplete) {
+            log.error("{} received >1 SNAPSHOTEND events, this is unexpected and may be handled incorrectly",
+              getAgentType()
+            );
+          }
+          state.snapshotComplete = true;
+          break;
+      }
+
+      if (state.snapshotComplete) {
+        writeToCache(state);
+        if (!state.savedSnapshot) {
+          state.savedSnapshot = true;
+        }
+      }
+    }
+
+    /**
+     * Keeps the last seen state aside, so that it can be reconciled with the snapshot replayed after reconnecting.
+     */
+    void prepareForReconnect(StreamingCacheState state) {
+      state.snapshotComplete = false;
+      if (state.savedSnapshot && state.previousJobs == null) {
+        state.previousJobs = state.jobs;
+        state.previousTasks = state.tasks;
+      }
+      state.jobs = new HashMap<>();
+      state.tasks = new HashMap<>();
+    }
+
     private void updateJob(StreamingCacheState state, Job job) {
       String jobId = job.getId();
       String application = job.getJobDescriptor().getApplicationName();
@@ -279,8 +307,8 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
 
       if (FINISHED_JOB_STATES.contains(job.getStatus().getState())) {
         if (state.snapshotComplete && state.tasks.containsKey(jobId)) {
-          state.tasks.get(jobId).forEach(t ->
-            state.completedInstanceIds.add(Keys.getInstanceV2Key(t.getId(), account.getName(), region.getName()))
+          state.tasks.get(jobId).keySet().forEach(taskId ->
+            state.completedInstanceIds.add(Keys.getInstanceV2Key(taskId, account.getName(), region.getName()))
           );
         }
         state.tasks.remove(jobId);
@@ -302,8 +330,7 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
     private void updateTask(StreamingCacheState state, Task task) {
       String jobId = task.getJobId();
       if (FILTERED_TASK_STATES.contains(task.getStatus().getState())) {
-        state.tasks.computeIfAbsent(jobId, t -> new HashSet<>()).remove(task);
-        state.tasks.get(jobId).add(task);
+        state.tasks.computeIfAbsent(jobId, t -> new HashMap<>()).put(task.getId(), task);
       } else if (FINISHED_TASK_STATES.contains(task.getStatus().getState())) {
         if (state.snapshotComplete) {
           state.completedInstanceIds.add(
@@ -311,7 +338,7 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
           );
         }
         if (state.tasks.containsKey(jobId)) {
-          state.tasks.get(jobId).remove(task);
+          state.tasks.get(jobId).remove(task.getId());
         } else if (state.snapshotComplete) {
           log.debug("{} updateTask: task: {} jobId: {} has finished, but task not present in current snapshot set",
             getAgentType(),
@@ -323,6 +350,7 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
 
       if (state.snapshotComplete) {
         state.updatedJobs.add(jobId);
+        state.updatedTaskIds.add(task.getId());
       }
 
       state.changes.incrementAndGet();
@@ -331,49 +359,91 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
     private void updateMovedTask(StreamingCacheState state, Task task, String sourceJobId) {
       if (sourceJobId != null) {
         if (state.tasks.containsKey(sourceJobId)) {
-          state.tasks.get(sourceJobId).remove(task);
+          state.tasks.get(sourceJobId).remove(task.getId());
           state.updatedJobs.add(sourceJobId);
         }
       }
     }
 
+    /**
+     * Reconciles a snapshot replayed after reconnecting with the state last seen before the disconnect, marking
+     * jobs and tasks that changed, appeared or disappeared in the meantime as updated.
+     */
+    private void reconcileSnapshot(StreamingCacheState state) {
+      Set<String> jobIds = new HashSet<>(state.previousJobs.keySet());
+      jobIds.addAll(state.jobs.keySet());
+
+      int changes = 0;
+      for (String jobId : jobIds) {
+        if (!Objects.equals(state.previousJobs.get(jobId), state.jobs.get(jobId))) {
+          state.updatedJobs.add(jobId);
+          changes++;
+        }
+
+        Map<String, Task> previousTasks = state.previousTasks.getOrDefault(jobId, emptyMap());
+        Map<String, Task> currentTasks = state.tasks.getOrDefault(jobId, emptyMap());
+        for (String taskId : previousTasks.keySet()) {
+          if (!currentTasks.containsKey(taskId)) {
+            state.completedInstanceIds.add(Keys.getInstanceV2Key(taskId, account.getName(), region.getName()));
+            state.updatedJobs.add(jobId);
+            changes++;
+          }
+        }
+        for (Map.Entry<String, Task> task : currentTasks.entrySet()) {
+          if (!task.getValue().equals(previousTasks.get(task.getKey()))) {
+            state.updatedTaskIds.add(task.getKey());
+            state.updatedJobs.add(jobId);
+            changes++;
+          }
+        }
+      }
+
+      log.info("{} reconciled snapshot with the state before reconnecting, {} changes", getAgentType(), changes);
+      // the replayed events themselves are not changes
+      state.changes.set(changes);
+      state.previousJobs = null;
+      state.previousTasks = null;
+    }
+
+    private int getBufferedChanges(StreamingCacheState state) {
+      return state.updatedJobs.size() + state.updatedTaskIds.size() + state.completedInstanceIds.size();
+    }
+
     private void writeToCache(StreamingCacheState state) {
       long startTime = System.currentTimeMillis();
 
+      if (state.savedSnapshot && startTime - state.lastPolicyRefresh >=
+        dynamicConfigService.getConfig(Integer.class, "titus.streaming.policyRefreshIntervalMs", 30000)) {
+        refreshScalingPoliciesAndLoadBalancers(state);
+      }
+
+      int bufferedChanges = getBufferedChanges(state);
+      registry.gauge(bufferedChangesId).set(bufferedChanges);
+      if (state.savedSnapshot && bufferedChanges > 0 && state.oldestBufferedChange == 0) {
+        state.oldestBufferedChange = startTime;
+      }
+
       if (!state.savedSnapshot ||
-        state.changes.get() >=
+        bufferedChanges >=
           dynamicConfigService.getConfig(Integer.class, "titus.streaming.changeThreshold", 1000) ||
         (startTime - state.lastUpdate.get() >
           dynamicConfigService.getConfig(Integer.class, "titus.streaming.timeThresholdMs", 5000) &&
-          state.changes.get() > 0)
+          bufferedChanges > 0)
       ) {
         if (!state.savedSnapshot) {
           log.info("Storing snapshot with {} job and tasks in {}", state.changes.get(), getAgentType());
+          refreshScalingPoliciesAndLoadBalancers(state);
         } else {
           state.tasks.keySet().retainAll(state.jobs.keySet());
 
-          log.info("Updating: {} changes ( last update {} milliseconds ) in {}",
+          log.info("Updating: {} changes to {} jobs and tasks ( last update {} milliseconds ) in {}",
             state.changes.get(),
+            bufferedChanges,
             startTime - state.lastUpdate.get(),
             getAgentType());
         }
 
-        List<ScalingPolicyResult> scalingPolicyResults = titusAutoscalingClient != null
-          ? titusAutoscalingClient.getAllScalingPolicies()
-          : emptyList();
-        PercentileTimer
-          .get(registry, metricId.withTag("operation", "getScalingPolicies"))
-          .record(System.currentTimeMillis() - startTime, MILLISECONDS);
-
-        long startLoadBalancerTime = System.currentTimeMillis();
-        Map<String, List<String>> allLoadBalancers = titusLoadBalancerClient != null
-          ? titusLoadBalancerClient.getAllLoadBalancers()
-          : emptyMap();
-        PercentileTimer
-          .get(registry, metricId.withTag("operation", "getLoadBalancers"))
-          .record(System.currentTimeMillis() - startLoadBalancerTime, MILLISECONDS);
-
-        CacheResult result = buildCacheResult(state, scalingPolicyResults, allLoadBalancers);
+        CacheResult result = buildCacheResult(state);
 
         Collection<String> authoritative = TYPES.stream()
           .filter(t -> t.getAuthority().equals(AUTHORITATIVE))
@@ -393,8 +463,17 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
         completedJobs.forEach(j -> state.jobIdToApp.remove(j));
 
         state.updatedJobs = new HashSet<>();
+        state.updatedTaskIds = new HashSet<>();
         state.lastUpdate.set(System.currentTimeMillis());
         state.changes.set(0);
+        registry.gauge(bufferedChangesId).set(0);
+
+        if (state.oldestBufferedChange > 0) {
+          PercentileTimer
+            .get(registry, metricId.withTag("operation", "eventToCache"))
+            .record(System.currentTimeMillis() - state.oldestBufferedChange, MILLISECONDS);
+          state.oldestBufferedChange = 0;
+        }
 
         PercentileTimer
           .get(registry, metricId.withTag("operation", "processSnapshot"))
@@ -402,9 +481,61 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
       }
     }
 
-    private CacheResult buildCacheResult(StreamingCacheState state,
-                                         List<ScalingPolicyResult> scalingPolicyResults,
-                                         Map<String, List<String>> allLoadBalancers) {
+    /**
+     * Refreshes scaling policies and load balancer attachments of all jobs. Once the snapshot has been saved,
+     * jobs whose policies or load balancers changed are marked as updated so that their server groups are
+     * rewritten by the next write.
+     */
+    private void refreshScalingPoliciesAndLoadBalancers(StreamingCacheState state) {
+      long startTime = System.currentTimeMillis();
+      List<ScalingPolicyResult> scalingPolicyResults = titusAutoscalingClient != null
+        ? titusAutoscalingClient.getAllScalingPolicies()
+        : emptyList();
+      PercentileTimer
+        .get(registry, metricId.withTag("operation", "getScalingPolicies"))
+        .record(System.currentTimeMillis() - startTime, MILLISECONDS);
+
+      long startLoadBalancerTime = System.currentTimeMillis();
+      Map<String, List<String>> allLoadBalancers = titusLoadBalancerClient != null
+        ? titusLoadBalancerClient.getAllLoadBalancers()
+        : emptyMap();
+      PercentileTimer
+        .get(registry, metricId.withTag("operation", "getLoadBalancers"))
+        .record(System.currentTimeMillis() - startLoadBalancerTime, MILLISECONDS);
+
+      Map<String, List<ScalingPolicyResult>> scalingPolicies = scalingPolicyResults.stream()
+        .filter(it -> CACHEABLE_POLICY_STATES.contains(it.getPolicyState().getState()))
+        .collect(Collectors.groupingBy(it -> it.getJobId().toLowerCase()));
+
+      if (state.savedSnapshot) {
+        int changedJobs = 0;
+        for (String jobId : state.jobs.keySet()) {
+          String policyKey = jobId.toLowerCase();
+          if (!sameElements(state.scalingPolicies.get(policyKey), scalingPolicies.get(policyKey)) ||
+            !sameElements(state.loadBalancers.get(jobId), allLoadBalancers.get(jobId))) {
+            state.updatedJobs.add(jobId);
+            state.changes.incrementAndGet();
+            changedJobs++;
+          }
+        }
+
+        if (changedJobs > 0) {
+          log.info("Scaling policies or load balancers changed for {} jobs in {}", changedJobs, getAgentType());
+        }
+      }
+
+      state.scalingPolicies = scalingPolicies;
+      state.loadBalancers = allLoadBalancers;
+      state.lastPolicyRefresh = System.currentTimeMillis();
+    }
+
+    private boolean sameElements(List<?> previous, List<?> current) {
+      Set<?> previousElements = previous == null ? emptySet() : new HashSet<>(previous);
+      Set<?> currentElements = current == null ? emptySet() : new HashSet<>(current);
+      return previousElements.equals(currentElements);
+    }
+
+    private CacheResult buildCacheResult(StreamingCacheState state) {
       // INITIALIZE CACHES
       Map<String, CacheData> applicationCache = createCache();
       Map<String, CacheData> clusterCache = createCache();
@@ -418,7 +549,9 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
       Set<String> currentClusters = new HashSet<>();
       Set<String> currentServerGroups = new HashSet<>();
 
-      Map<String, Job> jobs;
+      // server groups are only rebuilt for jobs that have been updated, and instances for tasks that have been updated
+      Set<String> changedJobs;
+      Collection<ServerGroupData> applicationServerGroups;
 
       if (state.savedSnapshot) {
         List<String> missingJobMappings = state.updatedJobs.stream()
@@ -436,41 +569,25 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
 
         currentApps.addAll(changedApplications);
 
-        Set<String> jobsNeeded = state.jobIdToApp.entrySet().stream()
-          .filter(entry -> changedApplications.contains(entry.getValue()))
-          .map(Map.Entry::getKey)
+        changedJobs = state.updatedJobs.stream()
+          .filter(state.jobs::containsKey)
           .collect(Collectors.toSet());
+        changedJobs.forEach(jobId -> state.serverGroupData.put(jobId, buildServerGroupData(state, state.jobs.get(jobId))));
+        state.serverGroupData.keySet().retainAll(state.jobs.keySet());
 
-        jobs = state.jobs.entrySet().stream()
-          .filter(e -> jobsNeeded.contains(e.getKey()))
-          .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        // applications and clusters are rebuilt with full context from the server group data of unchanged jobs
+        applicationServerGroups = state.serverGroupData.entrySet().stream()
+          .filter(e -> changedApplications.contains(state.jobIdToApp.get(e.getKey())))
+          .map(Map.Entry::getValue)
+          .collect(Collectors.toList());
       } else {
-        jobs = state.jobs;
+        changedJobs = state.jobs.keySet();
+        state.serverGroupData = state.jobs.values().stream()
+          .collect(Collectors.toMap(Job::getId, job -> buildServerGroupData(state, job)));
+        applicationServerGroups = state.serverGroupData.values();
       }
 
-      List<ServerGroupData> serverGroupDatas = jobs.values().stream()
-        .map(job -> {
-          List<ScalingPolicyData> jobScalingPolicies = scalingPolicyResults.stream()
-            .filter(it -> it.getJobId().equalsIgnoreCase(job.getId())
-              && CACHEABLE_POLICY_STATES.contains(it.getPolicyState().getState()))
-            .map(it -> new ScalingPolicyData(it.getId().getId(), it.getScalingPolicy(), it.getPolicyState()))
-            .collect(Collectors.toList());
-
-          List<String> jobLoadBalancers = allLoadBalancers.getOrDefault(job.getId(), emptyList());
-          return new ServerGroupData(new com.netflix.spinnaker.clouddriver.titus.client.model.Job(job,
-            EMPTY_LIST),
-            jobScalingPolicies,
-            jobLoadBalancers,
-            state.tasks.getOrDefault(job.getId(), emptySet())
-              .stream()
-              .map(Task::getId)
-              .collect(Collectors.toSet()),
-            account.getName(),
-            region.getName());
-        })
-        .collect(Collectors.toList());
-
-      serverGroupDatas.forEach(data -> {
+      applicationServerGroups.forEach(data -> {
         String app = StringUtils.substringAfterLast(data.appNameKey, ":");
 
         if (StringUtils.isNotEmpty(app)) {
@@ -488,9 +605,17 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
 
         cacheApplication(data, applicationCache);
         cacheCluster(data, clusterCache);
+      });
+
+      changedJobs.forEach(jobId -> {
+        ServerGroupData data = state.serverGroupData.get(jobId);
         cacheServerGroup(data, serverGroupCache);
         cacheImage(data, imageCache);
-        for (Task task : (Set<Task>) state.tasks.getOrDefault(data.job.getId(), EMPTY_SET)) {
+        for (Task task : state.tasks.getOrDefault(jobId, emptyMap()).values()) {
+          if (state.savedSnapshot && !state.updatedTaskIds.contains(task.getId())) {
+            continue;
+          }
+
           InstanceData instanceData =
             new InstanceData(new com.netflix.spinnaker.clouddriver.titus.client.model.Task(task),
               data.job.getName(),
@@ -558,6 +683,23 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
       return new DefaultCacheResult(cacheResults);
     }
 
+    private ServerGroupData buildServerGroupData(StreamingCacheState state, Job job) {
+      List<ScalingPolicyData> jobScalingPolicies = state.scalingPolicies
+        .getOrDefault(job.getId().toLowerCase(), emptyList())
+        .stream()
+        .map(ScalingPolicyData::new)
+        .collect(Collectors.toList());
+
+      List<String> jobLoadBalancers = state.loadBalancers.getOrDefault(job.getId(), emptyList());
+      return new ServerGroupData(new com.netflix.spinnaker.clouddriver.titus.client.model.Job(job,
+        EMPTY_LIST),
+        jobScalingPolicies,
+        jobLoadBalancers,
+        state.tasks.getOrDefault(job.getId(), emptyMap()).keySet(),
+        account.getName(),
+        region.getName());
+    }
+
     /**
      * Build authoritative cache object for applications based on server group data
      */
@@ -635,7 +777,11 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
       AtomicLong lastUpdate = new AtomicLong(0);
 
       Map<String, Job> jobs = new HashMap<>();
-      Map<String, Set<Task>> tasks = new HashMap<>();
+      Map<String, Map<String, Task>> tasks = new HashMap<>(); // keyed by job id, then task id
+
+      // the state last seen before reconnecting, until the replayed snapshot has been reconciled with it
+      Map<String, Job> previousJobs;
+      Map<String, Map<String, Task>> previousTasks;
 
       Map<String, String> jobIdToApp = new HashMap<>();
       Map<String, Set<String>> appToClusters = new HashMap<>();
@@ -645,6 +791,15 @@ public class TitusStreamingUpdateAgent implements CustomScheduledAgent {
 
       Set<String> completedInstanceIds = new HashSet<>();
       Set<String> updatedJobs = new HashSet<>();
+      Set<String> updatedTaskIds = new HashSet<>();
+
+      // the server group data last built for each job, used to rebuild applications and clusters
+      Map<String, ServerGroupData> serverGroupData = new HashMap<>();
+
+      Map<String, List<ScalingPolicyResult>> scalingPolicies = emptyMap(); // keyed by lower case job id
+      Map<String, List<String>> loadBalancers = emptyMap();
+      long lastPolicyRefresh = 0;
+      long oldestBufferedChange = 0;
 
       Boolean snapshotComplete = false;
       Boolean savedSnapshot = false;
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.titus.caching.agents
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.cats.agent.CacheResult
+import com.netflix.spinnaker.cats.cache.CacheData
+import com.netflix.spinnaker.cats.provider.ProviderCache
+import com.netflix.spinnaker.cats.provider.ProviderRegistry
+import com.netflix.spinnaker.clouddriver.titus.TitusClientProvider
+import com.netflix.spinnaker.clouddriver.titus.caching.Keys
+import com.netflix.spinnaker.clouddriver.titus.caching.utils.AwsLookupUtil
+import com.netflix.spinnaker.clouddriver.titus.client.TitusClient
+import com.netflix.spinnaker.clouddriver.titus.client.TitusRegion
+import com.netflix.spinnaker.clouddriver.titus.credentials.NetflixTitusCredentials
+import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService
+import com.netflix.titus.grpc.protogen.Capacity
+import com.netflix.titus.grpc.protogen.Container
+import com.netflix.titus.grpc.protogen.Image
+import com.netflix.titus.grpc.protogen.Job
+import com.netflix.titus.grpc.protogen.JobChangeNotification
+import com.netflix.titus.grpc.protogen.JobDescriptor
+import com.netflix.titus.grpc.protogen.JobStatus
+import com.netflix.titus.grpc.protogen.ServiceJobSpec
+import com.netflix.titus.grpc.protogen.Task
+import com.netflix.titus.grpc.protogen.TaskStatus
+import spock.lang.Specification
+
+import javax.inject.Provider
+
+import static com.netflix.spinnaker.clouddriver.titus.caching.Keys.Namespace.APPLICATIONS
+import static com.netflix.spinnaker.clouddriver.titus.caching.Keys.Namespace.CLUSTERS
+import static com.netflix.spinnaker.clouddriver.titus.caching.Keys.Namespace.INSTANCES
+import static com.netflix.spinnaker.clouddriver.titus.caching.Keys.Namespace.SERVER_GROUPS
+
+class TitusStreamingUpdateAgentSpec extends Specification {
+
+  static final String ACCOUNT = "test"
+  static final String REGION = "us-east-1"
+
+  Map<String, Integer> config = [
+    "titus.streaming.changeThreshold"        : 1000,
+    "titus.streaming.timeThresholdMs"        : Integer.MAX_VALUE,
+    "titus.streaming.policyRefreshIntervalMs": Integer.MAX_VALUE
+  ]
+
+  List<CacheResult> snapshots = []
+  List<CacheResult> updates = []
+  Map<String, Set<String>> evictions = [:]
+
+  def execution
+  def state
+
+  def setup() {
+    def cache = Mock(ProviderCache) {
+      putCacheResult(_, _, _) >> { String source, Collection<String> authoritative, CacheResult result -> snapshots << result }
+      addCacheResult(_, _, _) >> { String source, Collection<String> authoritative, CacheResult result -> updates << result }
+      evictDeletedItems(_, _) >> { String type, Collection<String> ids -> evictions.computeIfAbsent(type, { [] as Set }).addAll(ids) }
+    }
+    def providerRegistry = Stub(ProviderRegistry) {
+      getProviderCache(_) >> cache
+    }
+    def titusClientProvider = Mock(TitusClientProvider) {
+      getTitusClient(_, _) >> Mock(TitusClient)
+    }
+    def awsLookupUtil = Stub(AwsLookupUtil) {
+      awsAccountId(_, _) >> "123456789012"
+      awsAccountName(_, _) >> "aws-test"
+      awsVpcId(_, _) >> "vpc-1"
+    }
+    def dynamicConfigService = Stub(DynamicConfigService) {
+      getConfig(Integer, _, _) >> { Class type, String name, Object defaultValue -> config.getOrDefault(name, defaultValue) }
+    }
+
+    def agent = new TitusStreamingUpdateAgent(
+      titusClientProvider,
+      Mock(NetflixTitusCredentials) { getName() >> ACCOUNT },
+      new TitusRegion(REGION, ACCOUNT, "http://foo", false, false, "blah", "blah", 7104, []),
+      new ObjectMapper(),
+      new DefaultRegistry(),
+      { awsLookupUtil } as Provider<AwsLookupUtil>,
+      dynamicConfigService
+    )
+    execution = agent.getAgentExecution(providerRegistry)
+    state = new TitusStreamingUpdateAgent.StreamingCacheExecution.StreamingCacheState(execution)
+  }
+
+  void "a flush after the snapshot writes only the updated server groups and instances"() {
+    given:
+    stream(
+      jobUpdate(job("job-1", "app-main-v001", 1)),
+      taskUpdate(task("t1", "job-1", TaskStatus.TaskState.Started, "host-a")),
+      taskUpdate(task("t2", "job-1", TaskStatus.TaskState.Started, "host-a")),
+      taskUpdate(task("t4", "job-1", TaskStatus.TaskState.Started, "host-a")),
+      jobUpdate(job("job-2", "app-main-v002", 1)),
+      taskUpdate(task("t3", "job-2", TaskStatus.TaskState.Started, "host-a")),
+      snapshotEnd()
+    )
+
+    when:
+    stream(taskUpdate(task("t1", "job-1", TaskStatus.TaskState.Started, "host-b")))
+
+    then: "updates are buffered until a threshold is reached"
+    snapshots.size() == 1
+    updates.isEmpty()
+    relationships(snapshots[0], SERVER_GROUPS.ns, serverGroupKey("app-main-v001"), INSTANCES.ns) ==
+      instanceKeys("t1", "t2", "t4")
+
+    when:
+    config["titus.streaming.timeThresholdMs"] = -1
+    stream(taskUpdate(task("t2", "job-1", TaskStatus.TaskState.Finished, "host-a")))
+
+    then:
+    snapshots.size() == 1
+    updates.size() == 1
+
+    ids(updates[0], SERVER_GROUPS.ns) == [serverGroupKey("app-main-v001")] as Set
+    ids(updates[0], INSTANCES.ns) == instanceKeys("t1")
+    item(updates[0], INSTANCES.ns, instanceKey("t1")).attributes.host == "host-b"
+
+    and: "the finished task is evicted"
+    evictions == [(INSTANCES.ns): instanceKeys("t2")]
+
+    and: "the rewritten server group still relates to its unchanged instances"
+    relationships(updates[0], SERVER_GROUPS.ns, serverGroupKey("app-main-v001"), INSTANCES.ns) == instanceKeys("t1", "t4")
+
+    and: "the application and cluster are rewritten with every server group, not only the updated one"
+    relationships(updates[0], APPLICATIONS.ns, Keys.getApplicationKey("app"), SERVER_GROUPS.ns) ==
+      [serverGroupKey("app-main-v001"), serverGroupKey("app-main-v002")] as Set
+    relationships(updates[0], CLUSTERS.ns, Keys.getClusterV2Key("app-main", "app", ACCOUNT), SERVER_GROUPS.ns) ==
+      [serverGroupKey("app-main-v001"), serverGroupKey("app-main-v002")] as Set
+  }
+
+  void "the snapshot replayed after reconnecting is reconciled with the state seen before disconnecting"() {
+    given:
+    stream(
+      jobUpdate(job("job-1", "app-main-v001", 1)),
+      taskUpdate(task("t1", "job-1", TaskStatus.TaskState.Started, "host-a")),
+      taskUpdate(task("t2", "job-1", TaskStatus.TaskState.Started, "host-a")),
+      jobUpdate(job("job-2", "app-main-v002", 1)),
+      taskUpdate(task("t3", "job-2", TaskStatus.TaskState.Started, "host-a")),
+      jobUpdate(job("job-3", "app-main-v003", 1)),
+      taskUpdate(task("t4", "job-3", TaskStatus.TaskState.Started, "host-a")),
+      snapshotEnd()
+    )
+
+    and: "updates that are still buffered when the stream disconnects"
+    stream(
+      jobUpdate(job("job-1", "app-main-v001", 2)),
+      taskUpdate(task("t1", "job-1", TaskStatus.TaskState.Started, "host-b")),
+      jobUpdate(job("job-1", "app-main-v001", 3)),
+      taskUpdate(task("t1", "job-1", TaskStatus.TaskState.Started, "host-c"))
+    )
+
+    when:
+    execution.prepareForReconnect(state)
+    stream(
+      jobUpdate(job("job-1", "app-main-v001", 3)),
+      taskUpdate(task("t1", "job-1", TaskStatus.TaskState.Started, "host-c")),
+      jobUpdate(job("job-3", "app-main-v003", 1)),
+      taskUpdate(task("t4", "job-3", TaskStatus.TaskState.Started, "host-a")),
+      jobUpdate(job("job-4", "app-main-v004", 1)),
+      taskUpdate(task("t5", "job-4", TaskStatus.TaskState.Started, "host-a")),
+      snapshotEnd()
+    )
+
+    then: "the replayed snapshot is written as one incremental update rather than a new snapshot"
+    snapshots.size() == 1
+    updates.size() == 1
+    state.previousJobs == null
+    state.jobs.keySet() == ["job-1", "job-3", "job-4"] as Set
+
+    and: "coalesced updates are written once, with their latest state"
+    ids(updates[0], SERVER_GROUPS.ns) == [serverGroupKey("app-main-v001"), serverGroupKey("app-main-v004")] as Set
+    item(updates[0], SERVER_GROUPS.ns, serverGroupKey("app-main-v001")).attributes.job.instancesDesired == 3
+    updates[0].cacheResults[INSTANCES.ns]*.id.sort() == [instanceKey("t1"), instanceKey("t5")].sort()
+    item(updates[0], INSTANCES.ns, instanceKey("t1")).attributes.host == "host-c"
+
+    and: "jobs and tasks that vanished while disconnected are evicted"
+    evictions == [
+      (INSTANCES.ns)    : instanceKeys("t2", "t3"),
+      (SERVER_GROUPS.ns): [serverGroupKey("app-main-v002")] as Set
+    ]
+
+    and: "unchanged jobs and tasks survive"
+    relationships(updates[0], APPLICATIONS.ns, Keys.getApplicationKey("app"), SERVER_GROUPS.ns) ==
+      [serverGroupKey("app-main-v001"), serverGroupKey("app-main-v003"), serverGroupKey("app-main-v004")] as Set
+    relationships(updates[0], SERVER_GROUPS.ns, serverGroupKey("app-main-v001"), INSTANCES.ns) == instanceKeys("t1")
+    state.tasks["job-3"].keySet() == ["t4"] as Set
+  }
+
+  private void stream(JobChangeNotification... notifications) {
+    notifications.each { execution.handleNotification(state, it, System.currentTimeMillis()) }
+  }
+
+  private static Set<String> ids(CacheResult result, String namespace) {
+    return result.cacheResults[namespace]*.id as Set
+  }
+
+  private static CacheData item(CacheResult result, String namespace, String id) {
+    return result.cacheResults[namespace].find { it.id == id }
+  }
+
+  private static Set<String> relationships(CacheResult result, String namespace, String id, String relationship) {
+    return item(result, namespace, id).relationships[relationship] as Set
+  }
+
+  private static String serverGroupKey(String name) {
+    return Keys.getServerGroupV2Key(name, ACCOUNT, REGION)
+  }
+
+  private static String instanceKey(String taskId) {
+    return Keys.getInstanceV2Key(taskId, ACCOUNT, REGION)
+  }
+
+  private static Set<String> instanceKeys(String... taskIds) {
+    return taskIds.collect { instanceKey(it) } as Set
+  }
+
+  private static Job job(String id, String name, int desired) {
+    return Job.newBuilder()
+      .setId(id)
+      .setJobDescriptor(JobDescriptor.newBuilder()
+        .setApplicationName("app")
+        .putAttributes("name", name)
+        .putAttributes("source", "spinnaker")
+        .setContainer(Container.newBuilder().setImage(Image.newBuilder().setName("app/image").setTag("1.0")))
+        .setService(ServiceJobSpec.newBuilder().setCapacity(Capacity.newBuilder().setMin(0).setMax(10).setDesired(desired))))
+      .setStatus(JobStatus.newBuilder().setState(JobStatus.JobState.Accepted))
+      .build()
+  }
+
+  private static Task task(String id, String jobId, TaskStatus.TaskState state, String host) {
+    return Task.newBuilder()
+      .setId(id)
+      .setJobId(jobId)
+      .setStatus(TaskStatus.newBuilder().setState(state))
+      .putTaskContext("agent.host", host)
+      .build()
+  }
+
+  private static JobChangeNotification jobUpdate(Job job) {
+    return JobChangeNotification.newBuilder()
+      .setJobUpdate(JobChangeNotification.JobUpdate.newBuilder().setJob(job))
+      .build()
+  }
+
+  private static JobChangeNotification taskUpdate(Task task) {
+    return JobChangeNotification.newBuilder()
+      .setTaskUpdate(JobChangeNotification.TaskUpdate.newBuilder().setTask(task))
+      .build()
+  }
+
+  private static JobChangeNotification snapshotEnd() {
+    return JobChangeNotification.newBuilder()
+      .setSnapshotEnd(JobChangeNotification.SnapshotEnd.newBuilder())
+      .build()
+  }
+}
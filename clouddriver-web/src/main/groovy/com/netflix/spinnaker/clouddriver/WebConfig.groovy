@@ -17,7 +17,10 @@
 package com.netflix.spinnaker.clouddriver
 
 import com.netflix.spectator.api.Registry
+import com.netflix.spinnaker.cats.cache.Cache
 import com.netflix.spinnaker.clouddriver.configuration.CredentialsConfiguration
+import com.netflix.spinnaker.clouddriver.filters.CacheVersionEtagConfiguration
+import com.netflix.spinnaker.clouddriver.filters.CacheVersionEtagFilter
 
 import com.netflix.spinnaker.clouddriver.requestqueue.RequestQueue
 import com.netflix.spinnaker.clouddriver.requestqueue.RequestQueueConfiguration
@@ -49,7 +52,7 @@ import javax.servlet.http.HttpServletResponse
   'com.netflix.spinnaker.clouddriver.listeners',
   'com.netflix.spinnaker.clouddriver.security',
 ])
-@EnableConfigurationProperties([CredentialsConfiguration, RequestQueueConfiguration])
+@EnableConfigurationProperties([CredentialsConfiguration, RequestQueueConfiguration, CacheVersionEtagConfiguration])
 public class WebConfig extends WebMvcConfigurerAdapter {
   @Autowired
   Registry registry
@@ -64,7 +67,10 @@ public class WebConfig extends WebMvcConfigurerAdapter {
   }
 
   @Bean
-  Filter eTagFilter() {
+  Filter eTagFilter(Cache cacheView, CacheVersionEtagConfiguration cacheVersionEtagConfiguration) {
+    if (cacheVersionEtagConfiguration.enabled) {
+      return new CacheVersionEtagFilter(cacheView, registry, cacheVersionEtagConfiguration)
+    }
     new ShallowEtagHeaderFilter()
   }
 
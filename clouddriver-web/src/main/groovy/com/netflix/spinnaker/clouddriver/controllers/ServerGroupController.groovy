@@ -16,7 +16,13 @@
 
 package com.netflix.spinnaker.clouddriver.controllers
 
-import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.databind.JsonSerializer
+import com.fasterxml.jackson.databind.SerializerProvider
+import com.fasterxml.jackson.databind.annotation.JsonSerialize
+import com.fasterxml.jackson.databind.util.TokenBuffer
 import com.netflix.frigga.Names
 import com.netflix.spinnaker.clouddriver.model.Cluster
 import com.netflix.spinnaker.clouddriver.model.ClusterProvider
@@ -49,9 +55,6 @@ class ServerGroupController {
   @Autowired
   List<ClusterProvider> clusterProviders
 
-  @Autowired
-  ObjectMapper objectMapper
-
   @Autowired
   MessageSource messageSource
 
@@ -104,7 +107,7 @@ class ServerGroupController {
     serverGroup
   }
 
-  List<Map> expandedList(String application, String cloudProvider) {
+  List<ExpandedServerGroupViewModel> expandedList(String application, String cloudProvider) {
     return clusterProviders
       .findAll { cloudProvider ? cloudProvider.equalsIgnoreCase(it.cloudProviderId) : true }
       .findResults { ClusterProvider cp ->
@@ -119,15 +122,8 @@ class ServerGroupController {
     }.flatten()
   }
 
-  Map expanded(ServerGroup serverGroup, Cluster cluster) {
-    Map sg = objectMapper.convertValue(serverGroup, Map)
-    sg.accountName = cluster.accountName
-    def moniker = cluster.moniker
-    sg.cluster = moniker.cluster
-    sg.application = moniker.app
-    sg.stack = moniker.stack
-    sg.freeFormDetail = moniker.detail
-    return sg
+  ExpandedServerGroupViewModel expanded(ServerGroup serverGroup, Cluster cluster) {
+    return new ExpandedServerGroupViewModel(serverGroup, cluster)
   }
 
   List<ServerGroupViewModel> summaryList(String application, String cloudProvider) {
@@ -301,6 +297,77 @@ class ServerGroupController {
     }
   }
 
+  /**
+   * A server group along with the cluster attributes of its expanded view.
+   *
+   * Rather than converting each server group into an intermediate Map, the server group is serialized into a
+   * single-item token buffer that is immediately copied to the response, so heap use for expanded lists no longer
+   * grows with a second copy of every server group.
+   */
+  @JsonSerialize(using = ExpandedServerGroupSerializer)
+  static class ExpandedServerGroupViewModel {
+    final ServerGroup serverGroup
+    final String accountName
+    final String cluster
+    final String application
+    final String stack
+    final String freeFormDetail
+
+    ExpandedServerGroupViewModel(ServerGroup serverGroup, Cluster cluster) {
+      this.serverGroup = serverGroup
+      this.accountName = cluster.accountName
+      def moniker = cluster.moniker
+      this.cluster = moniker.cluster
+      this.application = moniker.app
+      this.stack = moniker.stack
+      this.freeFormDetail = moniker.detail
+    }
+
+    Map<String, String> getClusterAttributes() {
+      return [
+        accountName   : accountName,
+        cluster       : cluster,
+        application   : application,
+        stack         : stack,
+        freeFormDetail: freeFormDetail
+      ]
+    }
+  }
+
+  static class ExpandedServerGroupSerializer extends JsonSerializer<ExpandedServerGroupViewModel> {
+    @Override
+    void serialize(ExpandedServerGroupViewModel value, JsonGenerator gen, SerializerProvider serializers) {
+      Map<String, String> clusterAttributes = value.clusterAttributes
+
+      TokenBuffer buffer = new TokenBuffer(gen.codec, false)
+      serializers.defaultSerializeValue(value.serverGroup, buffer)
+
+      gen.writeStartObject()
+      JsonParser parser = buffer.asParser(gen.codec)
+      try {
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName
+            parser.nextToken()
+            if (clusterAttributes.containsKey(fieldName)) {
+              parser.skipChildren()
+            } else {
+              gen.writeFieldName(fieldName)
+              gen.copyCurrentStructure(parser)
+            }
+          }
+        }
+      } finally {
+        parser.close()
+      }
+
+      clusterAttributes.each { String fieldName, String fieldValue ->
+        gen.writeStringField(fieldName, fieldValue)
+      }
+      gen.writeEndObject()
+    }
+  }
+
   static class InstanceViewModel {
     String id
     String name
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.filters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@ConfigurationProperties("etag.cacheVersion")
+public class CacheVersionEtagConfiguration {
+  private boolean enabled = false;
+  private List<PathTypes> paths = new ArrayList<>(Arrays.asList(
+    new PathTypes("/applications/*/serverGroups"),
+    new PathTypes("/applications/*/clusters", "applications", "clusters"),
+    new PathTypes("/applications/*/loadBalancers")
+  ));
+
+  /**
+   * Types that never affect a response, e.g. on demand results that only feed the caching agents.
+   */
+  private List<String> excludedTypes = new ArrayList<>(Collections.singletonList("onDemand"));
+  private long maxEntries = 10000;
+  private long ttlSeconds = 300;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<PathTypes> getPaths() {
+    return paths;
+  }
+
+  public void setPaths(List<PathTypes> paths) {
+    this.paths = paths;
+  }
+
+  public List<String> getExcludedTypes() {
+    return excludedTypes;
+  }
+
+  public void setExcludedTypes(List<String> excludedTypes) {
+    this.excludedTypes = excludedTypes;
+  }
+
+  public long getMaxEntries() {
+    return maxEntries;
+  }
+
+  public void setMaxEntries(long maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  public long getTtlSeconds() {
+    return ttlSeconds;
+  }
+
+  public void setTtlSeconds(long ttlSeconds) {
+    this.ttlSeconds = ttlSeconds;
+  }
+
+  /**
+   * A path pattern along with the cache types its responses are built from. Paths without types depend on every
+   * type that is not excluded, which is always safe but invalidated by any write.
+   */
+  public static class PathTypes {
+    private String pattern;
+    private List<String> types = new ArrayList<>();
+
+    public PathTypes() {
+    }
+
+    public PathTypes(String pattern, String... types) {
+      this.pattern = pattern;
+      this.types = new ArrayList<>(Arrays.asList(types));
+    }
+
+    public String getPattern() {
+      return pattern;
+    }
+
+    public void setPattern(String pattern) {
+      this.pattern = pattern;
+    }
+
+    public List<String> getTypes() {
+      return types;
+    }
+
+    public void setTypes(List<String> types) {
+      this.types = types;
+    }
+  }
+}
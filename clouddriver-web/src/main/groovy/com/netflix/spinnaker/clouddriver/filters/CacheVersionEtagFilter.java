@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.filters;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.cats.cache.Cache;
+import com.netflix.spinnaker.security.AuthenticatedRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A {@link ShallowEtagHeaderFilter} that can answer conditional GETs without invoking the handler.
+ *
+ * For each eligible request the ETag of the last response is remembered along with a digest of the versions
+ * of the cache types that the request's path reads, observed before that response was built. If a later request
+ * presents the same ETag and those versions are unchanged, the response cannot have changed either and a 304 is
+ * returned immediately. Otherwise the request is handled (and hashed) exactly as {@link ShallowEtagHeaderFilter}
+ * would. Types whose items expire are not versioned, so requests that read them are always handled.
+ */
+public class CacheVersionEtagFilter extends ShallowEtagHeaderFilter {
+  private static final String HEADER_ETAG = "ETag";
+  private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+  private final Cache cacheView;
+  private final Registry registry;
+  private final CacheVersionEtagConfiguration configuration;
+
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+  private final com.google.common.cache.Cache<String, VersionedEtag> versionedEtags;
+
+  private final Id requestsId;
+
+  public CacheVersionEtagFilter(Cache cacheView, Registry registry, CacheVersionEtagConfiguration configuration) {
+    this.cacheView = cacheView;
+    this.registry = registry;
+    this.configuration = configuration;
+    this.versionedEtags = CacheBuilder.newBuilder()
+      .maximumSize(configuration.getMaxEntries())
+      .expireAfterWrite(configuration.getTtlSeconds(), TimeUnit.SECONDS)
+      .build();
+    this.requestsId = registry.createId("etag.cacheVersion.requests");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    CacheVersionEtagConfiguration.PathTypes pathTypes = eligiblePath(request);
+    if (pathTypes == null) {
+      super.doFilterInternal(request, response, filterChain);
+      return;
+    }
+
+    Map<String, Long> typeVersions = cacheView.getTypeVersions();
+    String versionDigest = typeVersions == null ? null : versionDigest(typeVersions, pathTypes.getTypes());
+    if (versionDigest == null) {
+      registry.counter(requestsId.withTag("result", "unversioned")).increment();
+      super.doFilterInternal(request, response, filterChain);
+      return;
+    }
+
+    String requestKey = requestKey(request);
+    VersionedEtag versionedEtag = versionedEtags.getIfPresent(requestKey);
+    if (versionedEtag != null &&
+      versionedEtag.versionDigest.equals(versionDigest) &&
+      matches(request.getHeader(HEADER_IF_NONE_MATCH), versionedEtag.eTag)) {
+      registry.counter(requestsId.withTag("result", "notModified")).increment();
+      response.setHeader(HEADER_ETAG, versionedEtag.eTag);
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    super.doFilterInternal(request, response, filterChain);
+
+    String eTag = response.getHeader(HEADER_ETAG);
+    int status = response.getStatus();
+    if (eTag != null && (status == HttpServletResponse.SC_NOT_MODIFIED || (status >= 200 && status < 300))) {
+      versionedEtags.put(requestKey, new VersionedEtag(versionDigest, eTag));
+    }
+
+    String result = status == HttpServletResponse.SC_NOT_MODIFIED ? "contentNotModified" : "modified";
+    registry.counter(requestsId.withTag("result", result)).increment();
+  }
+
+  /**
+   * @return the first configured path that matches the request, or null if the request is not eligible
+   */
+  private CacheVersionEtagConfiguration.PathTypes eligiblePath(HttpServletRequest request) {
+    if (!HttpMethod.GET.matches(request.getMethod()) || isAsyncDispatch(request)) {
+      return null;
+    }
+
+    String path = urlPathHelper.getPathWithinApplication(request);
+    return configuration.getPaths().stream()
+      .filter(p -> pathMatcher.match(p.getPattern(), path))
+      .findFirst()
+      .orElse(null);
+  }
+
+  /**
+   * @return true if the If-None-Match header lists the entity tag (or is a wildcard)
+   */
+  static boolean matches(String ifNoneMatch, String eTag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    return Arrays.stream(ifNoneMatch.split(","))
+      .map(String::trim)
+      .anyMatch(candidate -> candidate.equals("*") || candidate.equals(eTag));
+  }
+
+  /**
+   * Responses are filtered by the caller's permissions, so the requesting user and accounts are part of the key.
+   */
+  private String requestKey(HttpServletRequest request) {
+    return String.join(
+      "|",
+      urlPathHelper.getPathWithinApplication(request),
+      String.valueOf(request.getQueryString()),
+      AuthenticatedRequest.getSpinnakerUser().orElse("anonymous"),
+      AuthenticatedRequest.getSpinnakerAccounts().orElse("")
+    );
+  }
+
+  /**
+   * @return a digest of the versions of the given types (or of every type that is not excluded, if none are given),
+   * or null if any of them is not versioned
+   */
+  private String versionDigest(Map<String, Long> typeVersions, List<String> types) {
+    Collection<String> digestTypes = types == null || types.isEmpty() ? typeVersions.keySet() : types;
+    SortedMap<String, Long> versions = new TreeMap<>();
+    for (String type : digestTypes) {
+      if (configuration.getExcludedTypes().contains(type)) {
+        continue;
+      }
+
+      if (typeVersions.containsKey(type) && typeVersions.get(type) == null) {
+        return null;
+      }
+      versions.put(type, typeVersions.getOrDefault(type, 0L));
+    }
+
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    versions.forEach((type, version) -> {
+      hasher.putString(type, UTF_8);
+      hasher.putLong(version);
+    });
+    return hasher.hash().toString();
+  }
+
+  private static class VersionedEtag {
+    final String versionDigest;
+    final String eTag;
+
+    VersionedEtag(String versionDigest, String eTag) {
+      this.versionDigest = versionDigest;
+      this.eTag = eTag;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.controllers
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter
+import com.fasterxml.jackson.annotation.JsonIgnore
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.netflix.spinnaker.clouddriver.model.Cluster
+import com.netflix.spinnaker.clouddriver.model.Instance
+import com.netflix.spinnaker.clouddriver.model.ServerGroup
+import com.netflix.spinnaker.moniker.Moniker
+import spock.lang.Specification
+
+class ServerGroupControllerSpec extends Specification {
+
+  def objectMapper = new ObjectMapper()
+  def controller = new ServerGroupController()
+
+  def cluster = Stub(Cluster) {
+    getAccountName() >> "test"
+    getMoniker() >> Moniker.builder().app("app").cluster("app-stack").stack("stack").build()
+  }
+
+  void "expanded server groups serialize to the same JSON as the converted maps they replace"() {
+    given:
+    def serverGroups = [new TestServerGroup(name: "app-stack-v001"), new TestServerGroup(name: "app-stack-v002")]
+
+    when:
+    def streamed = objectMapper.writeValueAsString(serverGroups.collect { controller.expanded(it, cluster) })
+    def converted = objectMapper.writeValueAsString(serverGroups.collect { convertedMap(it, cluster) })
+
+    then:
+    streamed == converted
+
+    and:
+    def serverGroup = objectMapper.readValue(streamed, List)[0]
+    serverGroup.loadBalancers == null
+    serverGroup.securityGroups == []
+    serverGroup.buildInfo == [jenkins: null, commits: []]
+    serverGroup.containsKey("scalingPolicies")
+    !serverGroup.containsKey("secret")
+    !serverGroup.containsKey("other")
+    serverGroup.freeFormDetail == null
+    serverGroup.containsKey("freeFormDetail")
+  }
+
+  void "cluster attributes override same-named server group fields"() {
+    given:
+    def serverGroup = new TestServerGroup(name: "app-stack-v001", other: [accountName: "other", cluster: "other-cluster", keep: "me"])
+
+    when:
+    def streamed = objectMapper.writeValueAsString(controller.expanded(serverGroup, cluster))
+    def converted = objectMapper.writeValueAsString(convertedMap(serverGroup, cluster))
+
+    then:
+    objectMapper.readTree(streamed) == objectMapper.readTree(converted)
+    streamed.count('"accountName"') == 1
+    objectMapper.readValue(streamed, Map).subMap(["accountName", "cluster", "keep"]) == [accountName: "test", cluster: "app-stack", keep: "me"]
+  }
+
+  /**
+   * The expanded view as it was built before server groups were streamed.
+   */
+  private Map convertedMap(ServerGroup serverGroup, Cluster cluster) {
+    Map sg = objectMapper.convertValue(serverGroup, Map)
+    sg.accountName = cluster.accountName
+    def moniker = cluster.moniker
+    sg.cluster = moniker.cluster
+    sg.application = moniker.app
+    sg.stack = moniker.stack
+    sg.freeFormDetail = moniker.detail
+    return sg
+  }
+
+  static class TestServerGroup implements ServerGroup {
+    String name
+    String type = "aws"
+    String cloudProvider = "aws"
+    String region = "us-west-1"
+    Long createdTime = 1500000000000L
+    Set<String> zones = ["us-west-1a", "us-west-1b"] as Set
+    Set<Instance> instances = [] as Set
+    Set<String> loadBalancers = null
+    Set<String> securityGroups = [] as Set
+    Map<String, Object> launchConfig = [imageId: "ami-1", blockDeviceMappings: [], keyName: null]
+    ServerGroup.InstanceCounts instanceCounts = new ServerGroup.InstanceCounts(total: 2, up: 1, down: 1)
+    ServerGroup.Capacity capacity = new ServerGroup.Capacity(min: 1, max: 3, desired: 2)
+    ServerGroup.ImagesSummary imagesSummary = null
+    ServerGroup.ImageSummary imageSummary = null
+    Map<String, Object> other = [buildInfo: [jenkins: null, commits: []], scalingPolicies: null]
+
+    @Override
+    Moniker getMoniker() {
+      return Moniker.builder().app("app").cluster("app-stack").stack("stack").sequence(1).build()
+    }
+
+    @Override
+    Boolean isDisabled() {
+      return false
+    }
+
+    @JsonIgnore
+    String getSecret() {
+      return "secret"
+    }
+
+    @JsonIgnore
+    Map<String, Object> getOther() {
+      return other
+    }
+
+    @JsonAnyGetter
+    Map<String, Object> any() {
+      return other
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.filters
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.cats.cache.Cache
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import spock.lang.Specification
+import spock.lang.Subject
+
+import javax.servlet.FilterChain
+import javax.servlet.http.HttpServletResponse
+
+class CacheVersionEtagFilterSpec extends Specification {
+
+  Cache cacheView = Mock()
+  FilterChain filterChain = Mock()
+
+  @Subject
+  CacheVersionEtagFilter filter = new CacheVersionEtagFilter(cacheView, new DefaultRegistry(), new CacheVersionEtagConfiguration(enabled: true))
+
+  void "should not invoke the handler when the etag matches and cache versions are unchanged"() {
+    when:
+    def firstResponse = execute(null)
+
+    then:
+    1 * cacheView.getTypeVersions() >> [serverGroups: 1L]
+    1 * filterChain.doFilter(_, _) >> { req, resp -> resp.writer.write("[]") }
+    firstResponse.status == 200
+    def eTag = firstResponse.getHeader("ETag")
+    eTag != null
+
+    when:
+    def secondResponse = execute(eTag)
+
+    then:
+    1 * cacheView.getTypeVersions() >> [serverGroups: 1L]
+    0 * filterChain.doFilter(_, _)
+    secondResponse.status == HttpServletResponse.SC_NOT_MODIFIED
+    secondResponse.getHeader("ETag") == eTag
+  }
+
+  void "should invoke the handler when cache versions have changed"() {
+    when:
+    def eTag = execute(null).getHeader("ETag")
+
+    then:
+    1 * cacheView.getTypeVersions() >> [serverGroups: 1L]
+    1 * filterChain.doFilter(_, _) >> { req, resp -> resp.writer.write("[]") }
+
+    when:
+    def response = execute(eTag)
+
+    then:
+    1 * cacheView.getTypeVersions() >> [serverGroups: 2L]
+    1 * filterChain.doFilter(_, _) >> { req, resp -> resp.writer.write("[]") }
+    response.status == HttpServletResponse.SC_NOT_MODIFIED
+  }
+
+  void "should always invoke the handler when the cache does not track versions"() {
+    when:
+    def eTag = execute(null).getHeader("ETag")
+    execute(eTag)
+
+    then:
+    2 * cacheView.getTypeVersions() >> null
+    2 * filterChain.doFilter(_, _) >> { req, resp -> resp.writer.write("[]") }
+  }
+
+  void "should ignore paths that are not configured"() {
+    given:
+    def request = new MockHttpServletRequest("GET", "/applications/foo/images")
+
+    when:
+    filter.doFilter(request, new MockHttpServletResponse(), filterChain)
+
+    then:
+    0 * cacheView.getTypeVersions()
+    1 * filterChain.doFilter(_, _)
+  }
+
+  void "should only digest the versions of the types a path reads"() {
+    when:
+    def eTag = execute(null, "/applications/foo/clusters").getHeader("ETag")
+
+    then:
+    1 * cacheView.getTypeVersions() >> [applications: 1L, clusters: 1L, instances: 1L]
+    1 * filterChain.doFilter(_, _) >> { req, resp -> resp.writer.write("[]") }
+
+    when:
+    def response = execute(eTag, "/applications/foo/clusters")
+
+    then:
+    1 * cacheView.getTypeVersions() >> [applications: 1L, clusters: 1L, instances: 2L, health: 7L]
+    0 * filterChain.doFilter(_, _)
+    response.status == HttpServletResponse.SC_NOT_MODIFIED
+
+    when:
+    response = execute(eTag, "/applications/foo/clusters")
+
+    then:
+    1 * cacheView.getTypeVersions() >> [applications: 1L, clusters: 2L, instances: 2L]
+    1 * filterChain.doFilter(_, _) >> { req, resp -> resp.writer.write("[]") }
+  }
+
+  void "should ignore on demand versions"() {
+    when:
+    def eTag = execute(null).getHeader("ETag")
+    def response = execute(eTag)
+
+    then:
+    1 * cacheView.getTypeVersions() >> [serverGroups: 1L, onDemand: 1L]
+    1 * cacheView.getTypeVersions() >> [serverGroups: 1L, onDemand: 5L]
+    1 * filterChain.doFilter(_, _) >> { req, resp -> resp.writer.write("[]") }
+    response.status == HttpServletResponse.SC_NOT_MODIFIED
+  }
+
+  void "should always invoke the handler when a type the path reads is not versioned"() {
+    when:
+    def eTag = execute(null).getHeader("ETag")
+    execute(eTag)
+
+    then:
+    2 * cacheView.getTypeVersions() >> [serverGroups: 1L, instances: null]
+    2 * filterChain.doFilter(_, _) >> { req, resp -> resp.writer.write("[]") }
+  }
+
+  void "should compare each entity tag of If-None-Match exactly"() {
+    given:
+    def eTag = '"0123abcd"'
+
+    expect:
+    CacheVersionEtagFilter.matches(ifNoneMatch, eTag) == matches
+
+    where:
+    ifNoneMatch              || matches
+    null                     || false
+    '"0123abcd"'             || true
+    '"other", "0123abcd"'    || true
+    '"other" ,"0123abcd" '   || true
+    '*'                      || true
+    '"0123abcd-suffix"'      || false
+    '"prefix"0123abcd"'      || false
+    '"0123"'                 || false
+  }
+
+  private MockHttpServletResponse execute(String ifNoneMatch, String path = "/applications/foo/serverGroups") {
+    def request = new MockHttpServletRequest("GET", path)
+    if (ifNoneMatch) {
+      request.addHeader("If-None-Match", ifNoneMatch)
+    }
+    def response = new MockHttpServletResponse()
+    filter.doFilter(request, response, filterChain)
+    return response
+  }
+}